@@ -25,13 +25,17 @@ import jolie.js.JsUtils;
 import jolie.lang.Constants;
 import jolie.lang.NativeType;
 import jolie.monitoring.events.ProtocolMessageEvent;
+import jolie.net.http.ChunkedOutputStream;
+import jolie.net.http.ContentFiles;
 import jolie.net.http.HttpMessage;
 import jolie.net.http.HttpParser;
+import jolie.net.http.HttpRequestDecoder;
 import jolie.net.http.HttpUtils;
 import jolie.net.http.Method;
 import jolie.net.http.MultiPartFormDataParser;
 import jolie.net.ports.Interface;
 import jolie.net.protocols.CommProtocol;
+import jolie.net.protocols.MessageDecoder;
 import jolie.runtime.ByteArray;
 import jolie.runtime.FaultException;
 import jolie.runtime.Value;
@@ -75,6 +79,9 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
@@ -84,6 +91,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -211,6 +219,13 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 		private static final String OUTGOING_HEADERS = "outHeaders";
 		private static final String INCOMING_HEADERS = "inHeaders";
 		private static final String STATUS_CODES = "statusCodes";
+		private static final String STREAMING = "streaming";
+
+		private static class Streaming {
+			private static final String DIRECTORY = "directory";
+			// Child of a sent binary value, naming the file that holds the body
+			private static final String FILE = "file";
+		}
 
 		private static class MultiPartHeaders {
 			private static final String FILENAME = "filename";
@@ -235,6 +250,8 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 	private final URI uri;
 	private final boolean inInputPort;
 	private MultiPartFormDataParser multiPartFormDataParser = null;
+	// The files storing the bodies of the received requests that have not been answered yet, by request id
+	private final Map< Long, Path > requestContentFiles = new ConcurrentHashMap<>();
 
 	@Override
 	public String name() {
@@ -356,6 +373,48 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 	private String encoding = null;
 	private String responseFormat = null;
 	private boolean headRequest = false;
+	private HttpMessage.Version requestVersion = null;
+
+	/*
+	 * In streaming mode, received message bodies are stored in temporary files instead of memory, and
+	 * sent message bodies are written with chunked transfer coding.
+	 */
+	private boolean isStreaming( String operationName ) {
+		if( operationName != null && hasOperationSpecificParameter( operationName, Parameters.STREAMING ) ) {
+			return getOperationSpecificBooleanParameter( operationName, Parameters.STREAMING );
+		}
+		return checkBooleanParameter( Parameters.STREAMING );
+	}
+
+	private boolean hasStreamingOperations() {
+		if( checkBooleanParameter( Parameters.STREAMING ) ) {
+			return true;
+		}
+		if( hasParameter( CommProtocol.Parameters.OPERATION_SPECIFIC_CONFIGURATION ) ) {
+			for( ValueVector vec : getParameterFirstValue( CommProtocol.Parameters.OPERATION_SPECIFIC_CONFIGURATION )
+				.children().values() ) {
+				final Value opConfig = vec.first();
+				if( opConfig.hasChildren( Parameters.STREAMING )
+					&& opConfig.getFirstChild( Parameters.STREAMING ).boolValue() ) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private Path createContentFile( String operationName )
+		throws IOException {
+		Value streaming = getParameterFirstValue( Parameters.STREAMING );
+		if( operationName != null && hasOperationSpecificParameter( operationName, Parameters.STREAMING ) ) {
+			streaming = getOperationSpecificParameterFirstValue( operationName, Parameters.STREAMING );
+		}
+		if( streaming.hasChildren( Parameters.Streaming.DIRECTORY ) ) {
+			return ContentFiles.create(
+				Paths.get( streaming.getFirstChild( Parameters.Streaming.DIRECTORY ).strValue() ) );
+		}
+		return ContentFiles.create( null );
+	}
 
 	private void send_appendQuerystring( Value value, StringBuilder headerBuilder, CommMessage message )
 		throws IOException {
@@ -452,8 +511,16 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 
 	private static class EncodedContent {
 		private ByteArray content = null;
+		// A file to send, instead of content
+		private Path file = null;
+		private boolean chunked = false;
+		private String contentEncoding = null;
 		private String contentType = DEFAULT_CONTENT_TYPE;
 		private String contentDisposition = "";
+
+		private boolean isEmpty() {
+			return content == null && file == null;
+		}
 	}
 
 	private EncodedContent send_encodeContent( CommMessage message, Method method, String charset, String format )
@@ -488,7 +555,16 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 			ret.content = new ByteArray( tmpStream.toByteArray() );
 		} else if( "binary".equals( format ) ) {
 			ret.contentType = "application/octet-stream";
-			ret.content = message.value().byteArrayValue();
+			if( isStreaming( message.operationName() ) && !message.isFault()
+				&& message.value().hasChildren( Parameters.Streaming.FILE ) ) {
+				// In streaming mode, the body may be read from the file named by the program
+				ret.file = Paths.get( message.value().getFirstChild( Parameters.Streaming.FILE ).strValue() );
+				if( !Files.isRegularFile( ret.file ) ) {
+					throw new IOException( "Cannot send " + ret.file + ": it is not a regular file" );
+				}
+			} else {
+				ret.content = message.value().byteArrayValue();
+			}
 		} else if( "html".equals( format ) ) {
 			ret.contentType = "text/html";
 			if( message.isFault() ) {
@@ -575,33 +651,33 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 			ret.content = new ByteArray( builder.toString().getBytes( charset ) );
 		} else if( "json".equals( format ) ) {
 			ret.contentType = ContentTypes.APPLICATION_JSON;
-			StringBuilder jsonStringBuilder = new StringBuilder();
+			ByteArrayOutputStream jsonStream = new ByteArrayOutputStream();
 			if( message.isFault() ) {
 				Value error = message.value().getFirstChild( "error" );
 				error.getFirstChild( "code" ).setValue( -32000 );
 				error.getFirstChild( "message" ).setValue( message.fault().faultName() );
 				error.getChildren( "data" ).set( 0, message.fault().value() );
-				JsUtils.faultValueToJsonString( message.value(), getSendType( message ), jsonStringBuilder );
+				JsUtils.faultValueToJson( message.value(), getSendType( message ), jsonStream, charset );
 			} else {
-				JsUtils.valueToJsonString( message.value(), true, getSendType( message ), jsonStringBuilder );
+				JsUtils.valueToJson( message.value(), true, getSendType( message ), jsonStream, charset );
 			}
-			ret.content = new ByteArray( jsonStringBuilder.toString().getBytes( charset ) );
+			ret.content = new ByteArray( jsonStream.toByteArray() );
 		} else if( "ndjson".equals( format ) ) {
 			ret.contentType = ContentTypes.APPLICATION_NDJSON;
-			StringBuilder ndJsonStringBuilder = new StringBuilder();
+			ByteArrayOutputStream ndJsonStream = new ByteArrayOutputStream();
 			if( message.isFault() ) {
 				Value error = message.value().getFirstChild( "error" );
 				error.getFirstChild( "code" ).setValue( -32000 );
 				error.getFirstChild( "message" ).setValue( message.fault().faultName() );
 				error.getChildren( "data" ).set( 0, message.fault().value() );
-				JsUtils.faultValueToJsonString( message.value(), getSendType( message ), ndJsonStringBuilder );
+				JsUtils.faultValueToJson( message.value(), getSendType( message ), ndJsonStream, charset );
 			} else {
 				if( !message.value().hasChildren( "item" ) ) {
 					Interpreter.getInstance().logWarning( "ndJson requires at least one child node 'item'" );
 				}
-				JsUtils.valueToNdJsonString( message.value(), true, getSendType( message ), ndJsonStringBuilder );
+				JsUtils.valueToNdJson( message.value(), true, getSendType( message ), ndJsonStream, charset );
 			}
-			ret.content = new ByteArray( ndJsonStringBuilder.toString().getBytes( charset ) );
+			ret.content = new ByteArray( ndJsonStream.toByteArray() );
 		} else if( "raw".equals( format ) ) {
 			ret.contentType = "text/plain";
 			if( message.isFault() ) {
@@ -931,7 +1007,7 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 		}
 		headerBuilder.append( HttpUtils.CRLF );
 
-		if( encodedContent.content != null ) {
+		if( !encodedContent.isEmpty() ) {
 			String transferEncoding = getStringParameter( Parameters.CONTENT_TRANSFER_ENCODING );
 			if( transferEncoding.length() > 0 ) {
 				headerBuilder.append( "Content-Transfer-Encoding: " ).append( transferEncoding )
@@ -954,10 +1030,16 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 				&& !compressionTypes.contains( encodedContent.contentType ) ) {
 				compression = false;
 			}
+			if( compression && encodedContent.file != null && !encodedContent.chunked ) {
+				// We would have to read the file twice to know the length of the compressed content
+				compression = false;
+			}
 			if( compression ) {
 				Interpreter.getInstance().tracer().trace( () -> {
 					try {
-						final String traceMessage = encodedContent.content.toString( charset );
+						final String traceMessage = encodedContent.content != null
+							? encodedContent.content.toString( charset )
+							: encodedContent.file.toString();
 						return new ProtocolTraceAction( ProtocolTraceAction.Type.HTTP, "HTTP COMPRESSING MESSAGE",
 							message.resourcePath(), traceMessage, null );
 					} catch( UnsupportedEncodingException e ) {
@@ -966,15 +1048,46 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 					}
 
 				} );
-				encodedContent.content = HttpUtils.encode( encoding, encodedContent.content, headerBuilder );
+				if( encodedContent.chunked ) {
+					// Compressed while it is sent
+					encodedContent.contentEncoding = HttpUtils.appendContentEncoding( encoding, headerBuilder );
+				} else {
+					encodedContent.content = HttpUtils.encode( encoding, encodedContent.content, headerBuilder );
+				}
 			}
 
-			headerBuilder.append( "Content-Length: " ).append( encodedContent.content.size() ).append( HttpUtils.CRLF );
+			if( encodedContent.chunked ) {
+				headerBuilder.append( "Transfer-Encoding: chunked" ).append( HttpUtils.CRLF );
+			} else if( encodedContent.file != null ) {
+				headerBuilder.append( "Content-Length: " ).append( Files.size( encodedContent.file ) )
+					.append( HttpUtils.CRLF );
+			} else {
+				headerBuilder.append( "Content-Length: " ).append( encodedContent.content.size() )
+					.append( HttpUtils.CRLF );
+			}
 		} else {
 			headerBuilder.append( "Content-Length: 0" ).append( HttpUtils.CRLF );
 		}
 	}
 
+	private static void send_writeContent( OutputStream ostream, EncodedContent encodedContent )
+		throws IOException {
+		if( encodedContent.chunked ) {
+			try( OutputStream out =
+				HttpUtils.encodingStream( encodedContent.contentEncoding, new ChunkedOutputStream( ostream ) ) ) {
+				if( encodedContent.file != null ) {
+					Files.copy( encodedContent.file, out );
+				} else {
+					out.write( encodedContent.content.getBytes() );
+				}
+			}
+		} else if( encodedContent.file != null ) {
+			Files.copy( encodedContent.file, ostream );
+		} else {
+			ostream.write( encodedContent.content.getBytes() );
+		}
+	}
+
 	private String prepareSendDebugString( CharSequence header, EncodedContent encodedContent, String charset,
 		boolean showContent )
 		throws UnsupportedEncodingException {
@@ -1032,6 +1145,9 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 		if( contentType != null ) {
 			encodedContent.contentType = contentType;
 		}
+		// HTTP/1.0 clients do not support the chunked transfer coding
+		encodedContent.chunked = !encodedContent.isEmpty() && isStreaming( message.operationName() )
+			&& !(inInputPort && requestVersion == HttpMessage.Version.HTTP_1_0);
 
 		// message's body in string format needed for the monitoring
 		String bodyMessageString =
@@ -1065,11 +1181,29 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 
 		inputId = message.operationName();
 
-		ostream.write( headerBuilder.toString().getBytes( HttpUtils.URL_DECODER_ENC ) );
-		if( encodedContent.content != null && !headRequest ) {
-			ostream.write( encodedContent.content.getBytes() );
+		try {
+			ostream.write( headerBuilder.toString().getBytes( HttpUtils.URL_DECODER_ENC ) );
+			if( !encodedContent.isEmpty() && !headRequest ) {
+				send_writeContent( ostream, encodedContent );
+			}
+		} finally {
+			headRequest = false;
+			if( inInputPort ) {
+				final Path requestContentFile = requestContentFiles.remove( message.requestId() );
+				if( requestContentFile != null ) {
+					ContentFiles.delete( requestContentFile );
+				}
+			}
+		}
+	}
+
+	private boolean isRequestResponse( String operationName ) {
+		if( channel().parentPort() == null ) {
+			return false;
 		}
-		headRequest = false;
+		final OperationTypeDescription opDesc =
+			channel().parentPort().getOperationTypeDescription( operationName, Constants.ROOT_RESOURCE_PATH );
+		return opDesc != null && opDesc.asRequestResponseTypeDescription() != null;
 	}
 
 	@Override
@@ -1282,10 +1416,10 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 	/*
 	 * Prints debug information about a received message
 	 */
-	private String getDebugMessage( HttpMessage message, String charset, boolean showContent )
+	private String getDebugMessage( HttpMessage message, String requestPath, String charset, boolean showContent )
 		throws IOException {
 		StringBuilder debugSB = new StringBuilder();
-		debugSB.append( "\n[HTTP debug] Receiving:\n" ).append( getHttpHeader( message ) );
+		debugSB.append( "\n[HTTP debug] Receiving:\n" ).append( getHttpHeader( message, requestPath ) );
 		if( showContent ) {
 			debugSB.append( "--> Message content\n" )
 				.append( getHttpBody( message, charset ) );
@@ -1297,11 +1431,16 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 	 * return the received message's header
 	 */
 	private static String getHttpHeader( HttpMessage message )
+		throws IOException {
+		return getHttpHeader( message, message.requestPath() );
+	}
+
+	private static String getHttpHeader( HttpMessage message, String requestPath )
 		throws IOException {
 		StringBuilder headerStr = new StringBuilder();
 		headerStr.append( "HTTP Code: " ).append( message.statusCode() )
 			.append( "\n" ).append( "HTTP Method: " ).append( message.type().name() ).append( "\n" )
-			.append( "Resource: " ).append( message.requestPath() ).append( "\n" )
+			.append( "Resource: " ).append( requestPath ).append( "\n" )
 			.append( "--> Header properties\n" );
 		for( Entry< String, String > entry : message.properties() ) {
 			headerStr.append( '\t' ).append( entry.getKey() ).append( ": " ).append( entry.getValue() ).append( '\n' );
@@ -1321,6 +1460,9 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 	 */
 	private static String getHttpBody( HttpMessage message, String charset )
 		throws IOException {
+		if( message.contentFile() != null ) {
+			return "[content stored in " + message.contentFile() + "]";
+		}
 		StringBuilder bodyStr = new StringBuilder();
 		bodyStr.append( new String( message.content(), charset ) );
 		return bodyStr.toString();
@@ -1427,9 +1569,9 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 			if( opConfig.hasChildren( Parameters.TEMPLATE ) ) {
 				uriTemplateResult = UriUtils.match( opConfig.getFirstChild( Parameters.TEMPLATE ).strValue(), uri );
 			}
-			String opConfigMethod = opConfig.getFirstChild( Parameters.METHOD ).strValue();
-
-			if( uriTemplateResult.boolValue() && message.getMethod().equalsIgnoreCase( opConfigMethod ) ) {
+			// Only look at the method of matching templates, getFirstChild would add an empty one to the others
+			if( uriTemplateResult.boolValue()
+				&& message.getMethod().equalsIgnoreCase( opConfig.getFirstChild( Parameters.METHOD ).strValue() ) ) {
 				foundMatch = true;
 				decodedMessage.operationName = configEntry.getKey();
 				decodedMessage.resourcePath = "/";
@@ -1549,40 +1691,40 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 	@Override
 	public CommMessage recv_internal( InputStream istream, OutputStream ostream )
 		throws IOException {
-		HttpMessage message = new HttpParser( istream ).parse();
+		HttpParser parser = new HttpParser( istream );
+		HttpMessage message = parser.parseHead();
+		try {
+			final CommMessage retVal = recv_decodeMessage( parser, message );
+			if( retVal != null && message.contentFile() != null && inInputPort
+				&& isRequestResponse( retVal.operationName() ) ) {
+				// Deleted once the request is answered, unless the program has moved it by then
+				requestContentFiles.put( retVal.requestId(), message.contentFile() );
+			}
+			return retVal;
+		} catch( IOException | RuntimeException e ) {
+			// The message is lost, and so is the file storing its content
+			if( message.contentFile() != null ) {
+				ContentFiles.delete( message.contentFile() );
+			}
+			throw e;
+		}
+	}
+
+	private CommMessage recv_decodeMessage( HttpParser parser, HttpMessage message )
+		throws IOException {
 		String charset = HttpUtils.getCharset( null, message );
 		CommMessage retVal = null;
 		DecodedMessage decodedMessage = new DecodedMessage();
+		// The operation extraction may rewrite the path, debug information shows the original one
+		final String requestPath = message.requestPath();
 
 		HttpUtils.recv_checkForChannelClosing( message, channel() );
 
-		if( checkBooleanParameter( Parameters.DEBUG ) ) {
-			boolean showContent = false;
-			if( getParameterFirstValue( Parameters.DEBUG ).getFirstChild( "showContent" ).intValue() > 0
-				&& message.size() > 0 ) {
-				showContent = true;
-			}
-			Interpreter.getInstance().logInfo( getDebugMessage( message, charset, showContent ) );
-		}
-
-		// tracer
-		Interpreter.getInstance().tracer().trace( () -> {
-			try {
-				final String traceMessage = getDebugMessage( message, charset, message.size() > 0 );
-				return new ProtocolTraceAction( ProtocolTraceAction.Type.HTTP, "HTTP MESSAGE RECEIVED",
-					message.requestPath(), traceMessage, null );
-			} catch( IOException e ) {
-				return new ProtocolTraceAction( ProtocolTraceAction.Type.HTTP, "HTTP MESSAGE RECEIVED",
-					message.requestPath(), e.getMessage(), null );
-
-			}
-
-		} );
-
 		recv_checkForStatusCode( message );
 
 		encoding = message.getProperty( "accept-encoding" );
 		headRequest = inInputPort && message.isHead();
+		requestVersion = inInputPort ? message.version() : null;
 
 		String contentType = DEFAULT_CONTENT_TYPE;
 		if( message.getProperty( "content-type" ) != null ) {
@@ -1598,6 +1740,40 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 			recv_checkReceivingOperation( message, decodedMessage );
 		}
 
+		/*
+		 * Error responses are kept in memory, since their content may be mapped to a fault. GET and HEAD
+		 * requests have no content: https://tools.ietf.org/html/rfc7231#section-4.3
+		 */
+		final String operationName = message.isResponse() ? inputId : decodedMessage.operationName;
+		if( !message.isGet() && !message.isHead() && !(message.isResponse() && message.statusCode() >= 400)
+			&& isStreaming( operationName ) ) {
+			parser.readContent( message, () -> createContentFile( operationName ) );
+		} else {
+			parser.readContent( message, null );
+		}
+
+		if( checkBooleanParameter( Parameters.DEBUG ) ) {
+			boolean showContent = false;
+			if( getParameterFirstValue( Parameters.DEBUG ).getFirstChild( "showContent" ).intValue() > 0
+				&& message.size() > 0 ) {
+				showContent = true;
+			}
+			Interpreter.getInstance().logInfo( getDebugMessage( message, requestPath, charset, showContent ) );
+		}
+
+		// tracer
+		Interpreter.getInstance().tracer().trace( () -> {
+			try {
+				final String traceMessage = getDebugMessage( message, requestPath, charset, message.size() > 0 );
+				return new ProtocolTraceAction( ProtocolTraceAction.Type.HTTP, "HTTP MESSAGE RECEIVED",
+					requestPath, traceMessage, null );
+			} catch( IOException e ) {
+				return new ProtocolTraceAction( ProtocolTraceAction.Type.HTTP, "HTTP MESSAGE RECEIVED",
+					requestPath, e.getMessage(), null );
+
+			}
+
+		} );
 
 		// URI parameter parsing
 		if( message.requestPath() != null ) {
@@ -1608,7 +1784,10 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 		/* https://tools.ietf.org/html/rfc7231#section-4.3 */
 		if( !message.isGet() && !message.isHead() ) {
 			// body parsing
-			if( message.size() > 0 ) {
+			if( message.contentFile() != null ) {
+				// Streaming mode: the program receives the path of the file storing the content
+				decodedMessage.value.setValue( message.contentFile().toString() );
+			} else if( message.size() > 0 ) {
 				recv_parseMessage( message, decodedMessage, contentType, charset );
 			}
 		}
@@ -1753,6 +1932,15 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.HttpProtocol
 	}
 
 
+	/*
+	 * Requests are buffered until complete, unless some are streamed, in which case their content
+	 * must be read as it arrives.
+	 */
+	@Override
+	public MessageDecoder createMessageDecoder() {
+		return inInputPort && !hasStreamingOperations() ? new HttpRequestDecoder() : null;
+	}
+
 	@Override
 	public CommMessage recv( InputStream istream, OutputStream ostream )
 		throws IOException {
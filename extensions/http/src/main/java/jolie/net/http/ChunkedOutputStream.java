@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a message body with the chunked transfer coding of HTTP/1.1.
+ *
+ * Data is buffered and sent in chunks of at most the size of the buffer, or larger if written at
+ * once. {@link #close()} writes the last chunk, but does not close the underlying stream.
+ */
+public class ChunkedOutputStream extends OutputStream {
+	private static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+	private static final byte[] CRLF = HttpUtils.CRLF.getBytes( StandardCharsets.US_ASCII );
+	private static final byte[] LAST_CHUNK = ("0" + HttpUtils.CRLF + HttpUtils.CRLF).getBytes( StandardCharsets.US_ASCII );
+
+	private final OutputStream stream;
+	private final byte[] buffer;
+	private int count = 0;
+	private boolean closed = false;
+
+	public ChunkedOutputStream( OutputStream stream ) {
+		this( stream, DEFAULT_CHUNK_SIZE );
+	}
+
+	public ChunkedOutputStream( OutputStream stream, int chunkSize ) {
+		this.stream = stream;
+		this.buffer = new byte[ chunkSize ];
+	}
+
+	private void writeChunk( byte[] b, int off, int len )
+		throws IOException {
+		stream.write( Integer.toHexString( len ).getBytes( StandardCharsets.US_ASCII ) );
+		stream.write( CRLF );
+		stream.write( b, off, len );
+		stream.write( CRLF );
+	}
+
+	private void writeBuffer()
+		throws IOException {
+		if( count > 0 ) {
+			writeChunk( buffer, 0, count );
+			count = 0;
+		}
+	}
+
+	private void ensureOpen()
+		throws IOException {
+		if( closed ) {
+			throw new IOException( "Chunked stream already closed" );
+		}
+	}
+
+	@Override
+	public void write( int b )
+		throws IOException {
+		ensureOpen();
+		if( count == buffer.length ) {
+			writeBuffer();
+		}
+		buffer[ count++ ] = (byte) b;
+	}
+
+	@Override
+	public void write( byte[] b, int off, int len )
+		throws IOException {
+		ensureOpen();
+		if( len == 0 ) {
+			return;
+		}
+		if( len >= buffer.length ) {
+			writeBuffer();
+			writeChunk( b, off, len );
+		} else {
+			if( count + len > buffer.length ) {
+				writeBuffer();
+			}
+			System.arraycopy( b, off, buffer, count, len );
+			count += len;
+		}
+	}
+
+	/**
+	 * Sends the buffered data as a chunk, and flushes the underlying stream.
+	 */
+	@Override
+	public void flush()
+		throws IOException {
+		ensureOpen();
+		writeBuffer();
+		stream.flush();
+	}
+
+	/**
+	 * Sends the buffered data and the last chunk, which ends the body. The underlying stream is left
+	 * open.
+	 */
+	@Override
+	public void close()
+		throws IOException {
+		if( !closed ) {
+			writeBuffer();
+			stream.write( LAST_CHUNK );
+			closed = true;
+		}
+	}
+}
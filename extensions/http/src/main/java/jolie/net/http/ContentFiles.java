@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The temporary files storing the contents of streamed messages.
+ *
+ * The file storing the body of a request received by a request-response operation is deleted once
+ * the response has been sent: a program that wants to keep it must move it before replying. The
+ * files received by one-way operations, and those storing the responses to solicit-responses,
+ * belong to the program, which should move or delete them.
+ *
+ * The files that are still there when the JVM terminates are deleted. Unlike
+ * {@link java.io.File#deleteOnExit()}, the files that have already been removed are forgotten, so
+ * long-running services do not accumulate entries.
+ */
+public final class ContentFiles {
+	private static final String PREFIX = "jolie-http-";
+	private static final String SUFFIX = ".tmp";
+	private static final int MIN_PRUNE_THRESHOLD = 1024;
+
+	private static final Set< Path > FILES = ConcurrentHashMap.newKeySet();
+	private static volatile int pruneThreshold = MIN_PRUNE_THRESHOLD;
+
+	static {
+		Runtime.getRuntime().addShutdownHook( new Thread( ContentFiles::deleteAll, "jolie-http-content-files" ) );
+	}
+
+	private ContentFiles() {}
+
+	/**
+	 * Creates a new temporary file for the content of a message.
+	 *
+	 * @param directory the directory of the file, or <code>null</code> for the default temporary
+	 *        directory
+	 * @return the path of the new file
+	 * @throws IOException if the file could not be created
+	 */
+	public static Path create( Path directory )
+		throws IOException {
+		final Path file = directory == null
+			? Files.createTempFile( PREFIX, SUFFIX )
+			: Files.createTempFile( directory, PREFIX, SUFFIX );
+		FILES.add( file );
+		if( FILES.size() >= pruneThreshold ) {
+			prune();
+		}
+		return file;
+	}
+
+	/**
+	 * Deletes a file created by {@link #create(Path)}, if it still exists.
+	 *
+	 * @param file the file to delete
+	 */
+	public static void delete( Path file ) {
+		FILES.remove( file );
+		try {
+			Files.deleteIfExists( file );
+		} catch( IOException e ) {
+			// The file is left to the operating system
+		}
+	}
+
+	private static synchronized void prune() {
+		if( FILES.size() >= pruneThreshold ) {
+			FILES.removeIf( file -> !Files.exists( file ) );
+			pruneThreshold = Math.max( MIN_PRUNE_THRESHOLD, FILES.size() * 2 );
+		}
+	}
+
+	private static void deleteAll() {
+		FILES.forEach( ContentFiles::delete );
+	}
+}
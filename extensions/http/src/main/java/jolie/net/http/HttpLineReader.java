@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the lines of HTTP message heads (start line and header fields) and of chunk headers into a
+ * byte buffer, which is reused by all the readers of the same thread.
+ *
+ * If the underlying stream supports marking, as the buffered streams of Jolie channels do, bytes
+ * are read in bulk and the stream is then repositioned right after the last line read, so that no
+ * byte of the message body or of the next message is consumed. Otherwise, bytes are read one at a
+ * time.
+ */
+final class HttpLineReader {
+	/**
+	 * The maximum size of the lines read at once, including their terminators.
+	 */
+	static final int MAX_HEAD_SIZE = 64 * 1024;
+
+	private static final int INITIAL_BUFFER_SIZE = 1024;
+	// Larger buffers are not kept for later messages
+	private static final int MAX_RETAINED_BUFFER_SIZE = 8 * 1024;
+
+	private static final ThreadLocal< byte[] > BUFFERS =
+		ThreadLocal.withInitial( () -> new byte[ INITIAL_BUFFER_SIZE ] );
+
+	private final InputStream stream;
+	private final boolean markSupported;
+	private byte[] buffer;
+	private int start;
+	private int end;
+
+	HttpLineReader( InputStream stream ) {
+		this.stream = stream;
+		this.markSupported = stream.markSupported();
+	}
+
+	/**
+	 * Returns the buffer holding the bytes read by the last call to {@link #readHead(boolean)} or
+	 * {@link #readLine(boolean)}, from {@link #start()} (inclusive) to {@link #end()} (exclusive).
+	 * The content of the buffer is valid until the next read by any reader of the same thread.
+	 */
+	byte[] buffer() {
+		return buffer;
+	}
+
+	int start() {
+		return start;
+	}
+
+	int end() {
+		return end;
+	}
+
+	/**
+	 * Reads lines up to and including the first empty one.
+	 *
+	 * @param skipEmptyLines whether to skip the empty lines found before the first non-empty one
+	 * @return <code>false</code> if the stream ended before any (non-skipped) byte could be read
+	 * @throws IOException if an I/O error occurs, the stream ends in the middle of a line, or the
+	 *         lines are longer than {@link #MAX_HEAD_SIZE}
+	 */
+	boolean readHead( boolean skipEmptyLines )
+		throws IOException {
+		return read( true, skipEmptyLines );
+	}
+
+	/**
+	 * Reads one line.
+	 *
+	 * @param skipEmptyLines whether to skip the empty lines found before the first non-empty one
+	 * @return <code>false</code> if the stream ended before any (non-skipped) byte could be read
+	 * @throws IOException if an I/O error occurs, the stream ends in the middle of the line, or the
+	 *         line is longer than {@link #MAX_HEAD_SIZE}
+	 */
+	boolean readLine( boolean skipEmptyLines )
+		throws IOException {
+		return read( false, skipEmptyLines );
+	}
+
+	private boolean read( boolean head, boolean skipEmptyLines )
+		throws IOException {
+		buffer = BUFFERS.get();
+		start = 0;
+		end = -1;
+		if( markSupported ) {
+			stream.mark( MAX_HEAD_SIZE );
+		}
+		int length = 0;
+		int lineStart = 0;
+		int i = 0;
+		while( end < 0 ) {
+			if( i == length ) {
+				final int r = fill( length );
+				if( r < 0 ) {
+					if( length == start ) {
+						return false;
+					}
+					throw new EOFException( "Unexpected end of stream in HTTP message head" );
+				}
+				length += r;
+			}
+			final byte b = buffer[ i++ ];
+			if( skipEmptyLines && i - 1 == start && (b == '\r' || b == '\n') ) {
+				start = i;
+				lineStart = i;
+			} else if( b == '\n' ) {
+				final int lineLength = i - 1 - lineStart;
+				if( !head || lineLength == 0 || (lineLength == 1 && buffer[ lineStart ] == '\r') ) {
+					end = i;
+				} else {
+					lineStart = i;
+				}
+			}
+		}
+		if( markSupported ) {
+			// Give back what we read past the lines
+			stream.reset();
+			skipFully( end );
+		}
+		return true;
+	}
+
+	private int fill( int length )
+		throws IOException {
+		if( length == MAX_HEAD_SIZE ) {
+			throw new IOException( "HTTP message head exceeds the maximum allowed size (" + MAX_HEAD_SIZE + " bytes)" );
+		}
+		if( length == buffer.length ) {
+			final byte[] b = new byte[ Math.min( buffer.length * 2, MAX_HEAD_SIZE ) ];
+			System.arraycopy( buffer, 0, b, 0, length );
+			buffer = b;
+			if( b.length <= MAX_RETAINED_BUFFER_SIZE ) {
+				BUFFERS.set( b );
+			}
+		}
+		if( markSupported ) {
+			return stream.read( buffer, length, buffer.length - length );
+		}
+		final int b = stream.read();
+		if( b < 0 ) {
+			return -1;
+		}
+		buffer[ length ] = (byte) b;
+		return 1;
+	}
+
+	private void skipFully( int n )
+		throws IOException {
+		long remaining = n;
+		while( remaining > 0 ) {
+			final long s = stream.skip( remaining );
+			if( s > 0 ) {
+				remaining -= s;
+			} else if( stream.read() >= 0 ) {
+				remaining--;
+			} else {
+				throw new EOFException();
+			}
+		}
+	}
+
+	/**
+	 * Consumes the line terminators that are immediately available from the stream, e.g., those sent
+	 * by some clients after a message body. Does nothing if the stream does not support marking.
+	 */
+	void skipAvailableLineTerminators()
+		throws IOException {
+		if( !markSupported ) {
+			return;
+		}
+		while( stream.available() > 0 ) {
+			stream.mark( 1 );
+			final int b = stream.read();
+			if( b != '\r' && b != '\n' ) {
+				stream.reset();
+				return;
+			}
+		}
+	}
+}
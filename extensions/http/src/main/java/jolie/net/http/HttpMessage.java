@@ -21,6 +21,7 @@
 
 package jolie.net.http;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -94,6 +95,7 @@ public class HttpMessage {
 	private Version version;
 	private final Type type;
 	private byte[] content = null;
+	private Path contentFile = null;
 	final private Map< String, String > propMap = new HashMap<>();
 	final private List< Cookie > setCookies = new ArrayList<>();
 
@@ -153,6 +155,22 @@ public class HttpMessage {
 		this.content = content;
 	}
 
+	/**
+	 * Records that the content of this message has been stored in the given file instead of being
+	 * kept in memory.
+	 */
+	public void setContentFile( Path contentFile ) {
+		this.contentFile = contentFile;
+	}
+
+	/**
+	 * Returns the file storing the content of this message, or <code>null</code> if the content (if
+	 * any) is kept in memory.
+	 */
+	public Path contentFile() {
+		return contentFile;
+	}
+
 	public Collection< Entry< String, String > > properties() {
 		return propMap.entrySet();
 	}
@@ -29,91 +29,230 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.InflaterInputStream;
 
-import jolie.lang.parse.Scanner;
 import jolie.net.ChannelClosingException;
 
 public class HttpParser {
 	private static final String HTTP = "HTTP";
-	private static final String GET = "GET";
-	private static final String POST = "POST";
-	private static final String PUT = "PUT";
-	private static final String HEAD = "HEAD";
-	private static final String DELETE = "DELETE";
-	// private static final String TRACE = "TRACE";
-	// private static final String CONNECT = "CONNECT";
-	private static final String OPTIONS = "OPTIONS";
-	private static final String PATCH = "PATCH";
 
 	private static final Pattern COOKIES_SPLIT_PATTERN = Pattern.compile( ";" );
 	private static final Pattern COOKIE_NAME_VALUE_SPLIT_PATTERN = Pattern.compile( "=" );
 
-	private final HttpScanner scanner;
-	private Scanner.Token token;
+	private static final HttpMessage.Type[] METHOD_TYPES = {
+		HttpMessage.Type.GET, HttpMessage.Type.POST, HttpMessage.Type.HEAD, HttpMessage.Type.DELETE,
+		HttpMessage.Type.PUT, HttpMessage.Type.PATCH, HttpMessage.Type.OPTIONS
+	};
+	private static final byte[][] METHODS;
+
+	/*
+	 * Header names that are found in most messages, so that we can avoid creating a new string for
+	 * them every time.
+	 */
+	private static final String[] COMMON_HEADER_NAMES = {
+		"host", "user-agent", "accept", "accept-encoding", "accept-language", "accept-charset",
+		"connection", "keep-alive", "content-type", "content-length", "content-encoding",
+		"transfer-encoding", "cookie", "set-cookie", "authorization", "cache-control", "pragma", "date",
+		"server", "origin", "referer", "location", "upgrade", "expires", "last-modified", "etag",
+		"if-modified-since", "if-none-match", "vary", "x-forwarded-for"
+	};
+	private static final byte[][] COMMON_HEADER_NAME_BYTES;
+
+	static {
+		METHODS = new byte[ METHOD_TYPES.length ][];
+		for( int i = 0; i < METHOD_TYPES.length; i++ ) {
+			METHODS[ i ] = METHOD_TYPES[ i ].name().getBytes( StandardCharsets.ISO_8859_1 );
+		}
+		COMMON_HEADER_NAME_BYTES = new byte[ COMMON_HEADER_NAMES.length ][];
+		for( int i = 0; i < COMMON_HEADER_NAMES.length; i++ ) {
+			COMMON_HEADER_NAME_BYTES[ i ] = COMMON_HEADER_NAMES[ i ].getBytes( StandardCharsets.ISO_8859_1 );
+		}
+	}
 
-	private void nextToken()
-		throws IOException {
-		token = scanner.getToken();
+	/**
+	 * Creates the files in which the contents of messages are stored.
+	 */
+	@FunctionalInterface
+	public interface ContentFileFactory {
+		Path create()
+			throws IOException;
 	}
 
+	private final InputStream stream;
+	private final HttpLineReader reader;
+
 	public HttpParser( InputStream istream )
 		throws IOException {
-		scanner = new HttpScanner( istream );
-		// , URI.create( "urn:network" ) );
+		stream = istream;
+		reader = new HttpLineReader( istream );
 	}
 
-	private void tokenAssert( Scanner.TokenType type )
-		throws IOException {
-		if( token.isNot( type ) )
-			throwException();
+	private static IOException malformedHeader() {
+		return new IOException( "Malformed HTTP header" );
 	}
 
-	private void throwException()
-		throws IOException {
-		throw new IOException( "Malformed HTTP header" );
+	/*
+	 * The following helpers work on the buffer of the line reader. Bytes are decoded as ISO-8859-1, as
+	 * specified for HTTP/1.1 header fields.
+	 */
+
+	private static String string( byte[] b, int from, int to ) {
+		return new String( b, from, to - from, StandardCharsets.ISO_8859_1 );
+	}
+
+	private static boolean isWhitespace( byte c ) {
+		return c == ' ' || c == '\t';
+	}
+
+	private static int skipWhitespace( byte[] b, int from, int to ) {
+		while( from < to && isWhitespace( b[ from ] ) ) {
+			from++;
+		}
+		return from;
+	}
+
+	private static int trimWhitespaceEnd( byte[] b, int from, int to ) {
+		while( to > from && isWhitespace( b[ to - 1 ] ) ) {
+			to--;
+		}
+		return to;
+	}
+
+	private static int indexOf( byte[] b, int from, int to, char c ) {
+		for( int i = from; i < to; i++ ) {
+			if( b[ i ] == c ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int indexOfWhitespace( byte[] b, int from, int to ) {
+		for( int i = from; i < to; i++ ) {
+			if( isWhitespace( b[ i ] ) ) {
+				return i;
+			}
+		}
+		return to;
+	}
+
+	private static boolean equals( byte[] b, int from, int to, byte[] s ) {
+		if( to - from != s.length ) {
+			return false;
+		}
+		for( int i = 0; i < s.length; i++ ) {
+			if( b[ from + i ] != s[ i ] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean startsWithIgnoreCase( byte[] b, int from, int to, String s ) {
+		if( to - from < s.length() ) {
+			return false;
+		}
+		for( int i = 0; i < s.length(); i++ ) {
+			if( Character.toUpperCase( (char) (b[ from + i ] & 0xFF) ) != s.charAt( i ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Returns the index of the line feed ending the line that starts at from
+	private static int lineFeed( byte[] b, int from ) {
+		while( b[ from ] != '\n' ) {
+			from++;
+		}
+		return from;
+	}
+
+	// Returns the end of the content of the line ending at the given line feed
+	private static int lineEnd( byte[] b, int from, int lineFeed ) {
+		return lineFeed > from && b[ lineFeed - 1 ] == '\r' ? lineFeed - 1 : lineFeed;
 	}
 
-	private void parseHeaderProperties( HttpMessage message )
+	private static String headerName( byte[] b, int from, int to ) {
+		for( int i = from; i < to; i++ ) {
+			if( b[ i ] >= 'A' && b[ i ] <= 'Z' ) {
+				b[ i ] += 'a' - 'A';
+			}
+		}
+		for( int i = 0; i < COMMON_HEADER_NAME_BYTES.length; i++ ) {
+			if( equals( b, from, to, COMMON_HEADER_NAME_BYTES[ i ] ) ) {
+				return COMMON_HEADER_NAMES[ i ];
+			}
+		}
+		return string( b, from, to );
+	}
+
+	/*
+	 * Parses the header fields in the buffer of the line reader, from the given offset up to the
+	 * empty line that ends them.
+	 */
+	private void parseHeaderProperties( HttpMessage message, int from )
 		throws IOException {
-		String name, value;
-		nextToken();
+		final byte[] b = reader.buffer();
+		int lineStart = from;
+		int lineFeed = lineFeed( b, lineStart );
+		int lineEnd = lineEnd( b, lineStart, lineFeed );
+		while( lineEnd > lineStart ) {
+			final int colon = indexOf( b, lineStart, lineEnd, ':' );
+			final int nameEnd = colon < 0 ? -1 : trimWhitespaceEnd( b, lineStart, colon );
+			if( nameEnd <= lineStart || isWhitespace( b[ lineStart ] ) ) {
+				throw malformedHeader();
+			}
+			final String name = headerName( b, lineStart, nameEnd );
+			final int valueStart = skipWhitespace( b, colon + 1, lineEnd );
+			String value = string( b, valueStart, trimWhitespaceEnd( b, valueStart, lineEnd ) );
+
+			lineStart = lineFeed + 1;
+			lineFeed = lineFeed( b, lineStart );
+			lineEnd = lineEnd( b, lineStart, lineFeed );
+			// Obsolete line folding (RFC 7230, Section 3.2.4): replace each fold with a space
+			while( lineEnd > lineStart && isWhitespace( b[ lineStart ] ) ) {
+				final int foldStart = skipWhitespace( b, lineStart, lineEnd );
+				value = value + ' ' + string( b, foldStart, trimWhitespaceEnd( b, foldStart, lineEnd ) );
+				lineStart = lineFeed + 1;
+				lineFeed = lineFeed( b, lineStart );
+				lineEnd = lineEnd( b, lineStart, lineFeed );
+			}
+
+			setHeaderProperty( message, name, value );
+		}
+	}
+
+	private void setHeaderProperty( HttpMessage message, String name, String value ) {
 		HttpMessage.Cookie cookie;
-		while( token.is( Scanner.TokenType.ID ) ) {
-			name = token.content().toLowerCase();
-			nextToken();
-			tokenAssert( Scanner.TokenType.COLON );
-			value = scanner.readLine();
-			switch( name ) {
-			case "set-cookie":
-				// cookie = parseSetCookie( value );
-				if( (cookie = parseSetCookie( value )) != null ) {
-					message.addSetCookie( cookie );
-				}
-				break;
-			case "cookie":
-				String[] ss = value.split( ";" );
-				for( String s : ss ) {
-					String[] nv = s.trim().split( "=", 2 );
-					if( nv.length > 1 ) {
-						message.addCookie( nv[ 0 ], nv[ 1 ] );
-					}
+		switch( name ) {
+		case "set-cookie":
+			if( (cookie = parseSetCookie( value )) != null ) {
+				message.addSetCookie( cookie );
+			}
+			break;
+		case "cookie":
+			String[] ss = value.split( ";" );
+			for( String s : ss ) {
+				String[] nv = s.trim().split( "=", 2 );
+				if( nv.length > 1 ) {
+					message.addCookie( nv[ 0 ], nv[ 1 ] );
 				}
-				break;
-			case "user-agent":
-				message.setUserAgent( value );
-				message.setProperty( name, value );
-				break;
-			default:
-				message.setProperty( name, value );
-				break;
 			}
-			nextToken();
+			break;
+		case "user-agent":
+			message.setUserAgent( value );
+			message.setProperty( name, value );
+			break;
+		default:
+			message.setProperty( name, value );
+			break;
 		}
 	}
 
@@ -156,41 +295,42 @@ public class HttpParser {
 		return null;
 	}
 
-	private HttpMessage parseRequest()
+	private static HttpMessage.Type methodType( byte[] b, int from, int to ) {
+		for( int i = 0; i < METHODS.length; i++ ) {
+			if( equals( b, from, to, METHODS[ i ] ) ) {
+				return METHOD_TYPES[ i ];
+			}
+		}
+		return null;
+	}
+
+	private static HttpMessage parseRequest( byte[] b, int from, int to )
 		throws IOException {
-		HttpMessage message = null;
-		if( token.isKeyword( GET ) ) {
-			message = new HttpMessage( HttpMessage.Type.GET );
-		} else if( token.isKeyword( POST ) ) {
-			message = new HttpMessage( HttpMessage.Type.POST );
-		} else if( token.isKeyword( HEAD ) ) {
-			message = new HttpMessage( HttpMessage.Type.HEAD );
-		} else if( token.isKeyword( DELETE ) ) {
-			message = new HttpMessage( HttpMessage.Type.DELETE );
-		} else if( token.isKeyword( PUT ) ) {
-			message = new HttpMessage( HttpMessage.Type.PUT );
-		} else if( token.isKeyword( PATCH ) ) {
-			message = new HttpMessage( HttpMessage.Type.PATCH );
-		} else if( token.isKeyword( OPTIONS ) ) {
-			message = new HttpMessage( HttpMessage.Type.OPTIONS );
-		} else if( token.is( Scanner.TokenType.EOF ) ) {
-			// It's not a real message, the client is just closing a connection.
-			throw new ChannelClosingException( "[http] Remote host closed connection." );
-		} else {
+		final int methodEnd = indexOfWhitespace( b, from, to );
+		final HttpMessage.Type type = methodType( b, from, methodEnd );
+		if( type == null ) {
 			throw new UnsupportedMethodException( "Unknown/Unsupported HTTP request type: "
-				+ token.content() + "(" + token.type() + ")" );
+				+ string( b, from, methodEnd ) );
 		}
+		final HttpMessage message = new HttpMessage( type );
 
-		message.setRequestPath( URLDecoder.decode( scanner.readWord(), HttpUtils.URL_DECODER_ENC ) );
+		final int pathStart = skipWhitespace( b, methodEnd, to );
+		final int pathEnd = indexOfWhitespace( b, pathStart, to );
+		if( pathStart == pathEnd ) {
+			throw malformedHeader();
+		}
+		message.setRequestPath( URLDecoder.decode( string( b, pathStart, pathEnd ), HttpUtils.URL_DECODER_ENC ) );
 
-		nextToken();
-		if( !token.isKeywordIgnoreCase( HTTP ) )
+		final int versionStart = skipWhitespace( b, pathEnd, to );
+		final int versionEnd = trimWhitespaceEnd( b, versionStart, to );
+		if( !startsWithIgnoreCase( b, versionStart, versionEnd, HTTP ) )
 			throw new UnsupportedHttpVersionException( "Invalid HTTP header: expected HTTP version" );
 
-		if( scanner.currentCharacter() != '/' )
+		final int slash = versionStart + HTTP.length();
+		if( slash == versionEnd || b[ slash ] != '/' )
 			throw new UnsupportedHttpVersionException( "Expected HTTP version" );
 
-		String version = scanner.readWord();
+		final String version = string( b, slash + 1, versionEnd );
 		if( "1.0".equals( version ) )
 			message.setVersion( HttpMessage.Version.HTTP_1_0 );
 		else if( "1.1".equals( version ) )
@@ -201,33 +341,44 @@ public class HttpParser {
 		return message;
 	}
 
-	private HttpMessage parseMessageType()
-		throws IOException {
-		if( token.isKeywordIgnoreCase( HTTP ) ) {
-			return parseResponse();
-		} else {
-			return parseRequest();
-		}
-	}
-
-	private HttpMessage parseResponse()
+	private static HttpMessage parseResponse( byte[] b, int from, int to )
 		throws IOException {
 		HttpMessage message = new HttpMessage( HttpMessage.Type.RESPONSE );
-		if( scanner.currentCharacter() != '/' )
+		final int slash = from + HTTP.length();
+		if( b[ slash ] != '/' )
 			throw new IOException( "Expected HTTP version" );
 
-		String version = scanner.readWord();
+		final int versionEnd = indexOfWhitespace( b, slash + 1, to );
+		final String version = string( b, slash + 1, versionEnd );
 		if( !("1.1".equals( version ) || "1.0".equals( version )) )
 			throw new IOException( "Unsupported HTTP version specified: " + version );
 
-		nextToken();
-		tokenAssert( Scanner.TokenType.INT );
-		message.setStatusCode( Integer.parseInt( token.content() ) );
-		message.setReason( scanner.readLine() );
+		int i = skipWhitespace( b, versionEnd, to );
+		final int codeStart = i;
+		int statusCode = 0;
+		while( i < to && b[ i ] >= '0' && b[ i ] <= '9' && i - codeStart < 3 ) {
+			statusCode = statusCode * 10 + (b[ i ] - '0');
+			i++;
+		}
+		if( i == codeStart || (i < to && !isWhitespace( b[ i ] )) ) {
+			throw malformedHeader();
+		}
+		message.setStatusCode( statusCode );
+		// The reason phrase is whatever follows the space after the status code
+		message.setReason( i < to ? string( b, i + 1, to ) : "" );
 
 		return message;
 	}
 
+	private static HttpMessage parseStartLine( byte[] b, int from, int to )
+		throws IOException {
+		if( startsWithIgnoreCase( b, from, to, HTTP ) && to - from > HTTP.length() && b[ from + HTTP.length() ] == '/' ) {
+			return parseResponse( b, from, to );
+		} else {
+			return parseRequest( b, from, to );
+		}
+	}
+
 	private static void blockingRead( InputStream stream, byte[] buffer, int offset, int length )
 		throws IOException {
 		int s = 0;
@@ -240,6 +391,26 @@ public class HttpParser {
 		} while( s < length );
 	}
 
+	private static int parseChunkSize( byte[] b, int from, int to )
+		throws IOException {
+		final int lineEnd = lineEnd( b, from, to - 1 );
+		final int extension = indexOf( b, from, lineEnd, ';' );
+		final int sizeEnd = trimWhitespaceEnd( b, from, extension < 0 ? lineEnd : extension );
+		int size = 0;
+		for( int i = from; i < sizeEnd; i++ ) {
+			final int digit = Character.digit( b[ i ], 16 );
+			if( digit < 0 || size > (Integer.MAX_VALUE >> 4) ) {
+				size = -1;
+				break;
+			}
+			size = (size << 4) + digit;
+		}
+		if( size < 0 || sizeEnd == from ) {
+			throw new IOException( "Illegal chunk size " + string( b, from, sizeEnd ) );
+		}
+		return size;
+	}
+
 	private static final int BLOCK_SIZE = 0x1000; // 4K
 
 	private static byte[] readAll( InputStream stream )
@@ -254,10 +425,134 @@ public class HttpParser {
 		return c.toByteArray();
 	}
 
-	private void readContent( HttpMessage message )
+	/*
+	 * The body of a message sent with chunked transfer coding. The trailer fields, if any, are added
+	 * to the message when the last chunk is reached.
+	 */
+	private class ChunkedInputStream extends InputStream {
+		private final HttpMessage message;
+		private int remaining = 0; // in the current chunk
+		private boolean done = false;
+
+		private ChunkedInputStream( HttpMessage message ) {
+			this.message = message;
+		}
+
+		private boolean nextChunk()
+			throws IOException {
+			if( done ) {
+				return false;
+			}
+			if( remaining > 0 ) {
+				return true;
+			}
+			// the chunk header contains the size in hex format
+			// and could contain additional parameters which we ignore atm.
+			// Skipping empty lines also consumes the CR-LF following the previous chunk.
+			if( !reader.readLine( true ) ) {
+				throw new EOFException();
+			}
+			remaining = parseChunkSize( reader.buffer(), reader.start(), reader.end() );
+			if( remaining == 0 ) {
+				done = true;
+				// parse optional trailer (additional HTTP headers)
+				if( !reader.readHead( false ) ) {
+					throw new EOFException();
+				}
+				parseHeaderProperties( message, reader.start() );
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public int read( byte[] b, int off, int len )
+			throws IOException {
+			if( len == 0 ) {
+				return 0;
+			}
+			if( !nextChunk() ) {
+				return -1;
+			}
+			final int r = stream.read( b, off, Math.min( len, remaining ) );
+			if( r < 0 ) {
+				throw new EOFException();
+			}
+			remaining -= r;
+			return r;
+		}
+
+		@Override
+		public int read()
+			throws IOException {
+			final byte[] b = new byte[ 1 ];
+			return read( b, 0, 1 ) < 0 ? -1 : b[ 0 ] & 0xFF;
+		}
+	}
+
+	/*
+	 * The body of a message with a Content-Length.
+	 */
+	private static class LengthLimitedInputStream extends InputStream {
+		private final InputStream stream;
+		private long remaining;
+
+		private LengthLimitedInputStream( InputStream stream, long length ) {
+			this.stream = stream;
+			this.remaining = length;
+		}
+
+		@Override
+		public int read( byte[] b, int off, int len )
+			throws IOException {
+			if( len == 0 ) {
+				return 0;
+			}
+			if( remaining == 0 ) {
+				return -1;
+			}
+			final int r = stream.read( b, off, (int) Math.min( len, remaining ) );
+			if( r < 0 ) {
+				throw new EOFException();
+			}
+			remaining -= r;
+			return r;
+		}
+
+		@Override
+		public int read()
+			throws IOException {
+			final byte[] b = new byte[ 1 ];
+			return read( b, 0, 1 ) < 0 ? -1 : b[ 0 ] & 0xFF;
+		}
+	}
+
+	private static InputStream decodingStream( HttpMessage message, InputStream stream )
+		throws IOException {
+		final String p = message.getProperty( "content-encoding" );
+		if( p != null ) {
+			if( p.contains( "deflate" ) ) {
+				return new InflaterInputStream( stream );
+			} else if( p.contains( "gzip" ) ) {
+				return new GZIPInputStream( stream );
+			} else if( !p.equals( "identity" ) ) {
+				throw new UnsupportedEncodingException( "Unrecognized Content-Encoding: " + p );
+			}
+		}
+		return stream;
+	}
+
+	private static void drain( InputStream stream )
+		throws IOException {
+		final byte[] tmp = new byte[ BLOCK_SIZE ];
+		while( stream.read( tmp, 0, BLOCK_SIZE ) != -1 ) {
+		}
+	}
+
+	private void readBody( HttpMessage message, ContentFileFactory contentFileFactory )
 		throws IOException {
 		boolean chunked = false;
-		int contentLength = -1;
+		long contentLength = -1;
 
 		String p = message.getProperty( "transfer-encoding" );
 
@@ -268,7 +563,10 @@ public class HttpParser {
 			p = message.getProperty( "content-length" );
 			if( p != null && !p.isEmpty() ) {
 				try {
-					contentLength = Integer.parseInt( p );
+					contentLength = Long.parseLong( p );
+					if( contentLength < 0 ) {
+						throw new IOException( "Illegal Content-Length value " + p );
+					}
 					if( contentLength == 0 ) {
 						message.setContent( new byte[ 0 ] );
 						return;
@@ -279,85 +577,110 @@ public class HttpParser {
 			}
 		}
 
-		byte[] buffer = null;
-		InputStream stream = scanner.inputStream();
+		final InputStream body;
 		if( chunked ) {
 			// Link: http://tools.ietf.org/html/rfc2616#section-3.6.1
-			List< byte[] > chunks = new ArrayList<>();
-			int l = -1, totalLen = 0;
-			scanner.readChar();
-			do {
-				// the chunk header contains the size in hex format
-				// and could contain additional parameters which we ignore atm
-				String chunkHeader = scanner.readLine( false );
-				String chunkSize = chunkHeader.split( ";", 2 )[ 0 ];
-				try {
-					l = Integer.parseInt( chunkSize, 16 );
-				} catch( NumberFormatException e ) {
-					throw new IOException( "Illegal chunk size " + chunkSize );
-				}
-				// parses the real chunk with the specified size, follwed by CR-LF
-				if( l > 0 ) {
-					totalLen += l;
-					byte[] chunk = new byte[ l ];
-					blockingRead( stream, chunk, 0, l );
-					chunks.add( chunk );
-					scanner.readChar();
-					scanner.eatSeparators();
-				}
-			} while( l > 0 );
-			// parse optional trailer (additional HTTP headers)
-			parseHeaderProperties( message );
-			ByteBuffer b = ByteBuffer.allocate( totalLen );
-			chunks.forEach( b::put );
-			buffer = b.array();
+			body = new ChunkedInputStream( message );
 		} else if( contentLength > 0 ) {
-			buffer = new byte[ contentLength ];
-			blockingRead( stream, buffer, 0, contentLength );
-		} else if( message.isResponse() ) {
-			// Per https://tools.ietf.org/html/rfc7230#section-3.3.3 payload may only be sent on *responses*
-			// (including the HTTP version header) when there is NO transfer encoding and NO content length
-			// indication.
-			HttpMessage.Version version =
-				(message.version() == null ? HttpMessage.Version.HTTP_1_1 : message.version());
-
-			if( // Will the connection be closed?
-				// HTTP 1.1
-			(version.equals( HttpMessage.Version.HTTP_1_1 )
-				&&
-				message.getPropertyOrEmptyString( "connection" ).equalsIgnoreCase( "close" ))
-				||
-				// HTTP 1.0
-				(version.equals( HttpMessage.Version.HTTP_1_0 )
-					&&
-					!message.getPropertyOrEmptyString( "connection" ).equalsIgnoreCase( "keep-alive" )) ) {
-				buffer = readAll( scanner.inputStream() );
-			}
+			body = new LengthLimitedInputStream( stream, contentLength );
+		} else if( message.isResponse() && isCloseDelimited( message ) ) {
+			body = stream;
+		} else {
+			return;
 		}
 
-		if( buffer != null ) {
-			p = message.getProperty( "content-encoding" );
-			if( p != null ) {
-				if( p.contains( "deflate" ) ) {
-					buffer = readAll( new InflaterInputStream( new ByteArrayInputStream( buffer ) ) );
-				} else if( p.contains( "gzip" ) ) {
-					buffer = readAll( new GZIPInputStream( new ByteArrayInputStream( buffer ) ) );
-				} else if( !p.equals( "identity" ) ) {
-					throw new UnsupportedEncodingException( "Unrecognized Content-Encoding: " + p );
-				}
+		if( contentFileFactory != null ) {
+			final Path file = contentFileFactory.create();
+			try {
+				Files.copy( decodingStream( message, body ), file, StandardCopyOption.REPLACE_EXISTING );
+				// The decoder may stop before the end of the body, e.g., before the last chunk
+				drain( body );
+			} catch( IOException | RuntimeException e ) {
+				ContentFiles.delete( file );
+				throw e;
 			}
+			message.setContentFile( file );
+			return;
+		}
+
+		byte[] buffer;
+		if( contentLength > Integer.MAX_VALUE - 8 ) {
+			// Bodies larger than an array can only be received in streaming mode
+			throw new IOException( "Content-Length " + contentLength + " exceeds the maximum in-memory size" );
+		} else if( contentLength > 0 ) {
+			buffer = new byte[ (int) contentLength ];
+			blockingRead( stream, buffer, 0, (int) contentLength );
+		} else {
+			buffer = readAll( body );
+		}
 
-			message.setContent( buffer );
+		final InputStream raw = new ByteArrayInputStream( buffer );
+		final InputStream decoded = decodingStream( message, raw );
+		if( decoded != raw ) {
+			buffer = readAll( decoded );
 		}
+		message.setContent( buffer );
+	}
+
+	/*
+	 * Per https://tools.ietf.org/html/rfc7230#section-3.3.3 payload may only be sent on *responses*
+	 * (including the HTTP version header) when there is NO transfer encoding and NO content length
+	 * indication, in which case it ends when the connection is closed.
+	 */
+	private static boolean isCloseDelimited( HttpMessage message ) {
+		HttpMessage.Version version =
+			(message.version() == null ? HttpMessage.Version.HTTP_1_1 : message.version());
+
+		return // Will the connection be closed?
+		// HTTP 1.1
+		(version.equals( HttpMessage.Version.HTTP_1_1 )
+			&&
+			message.getPropertyOrEmptyString( "connection" ).equalsIgnoreCase( "close" ))
+			||
+			// HTTP 1.0
+			(version.equals( HttpMessage.Version.HTTP_1_0 )
+				&&
+				!message.getPropertyOrEmptyString( "connection" ).equalsIgnoreCase( "keep-alive" ));
+	}
+
+	/**
+	 * Parses the start line and the header fields of the next message. Its content, if any, must then
+	 * be read with {@link #readContent(HttpMessage, ContentFileFactory)}.
+	 *
+	 * @return the message, without content
+	 * @throws IOException if the message head could not be read or is malformed
+	 */
+	public HttpMessage parseHead()
+		throws IOException {
+		if( !reader.readHead( true ) ) {
+			// It's not a real message, the client is just closing a connection.
+			throw new ChannelClosingException( "[http] Remote host closed connection." );
+		}
+		final byte[] b = reader.buffer();
+		final int lineFeed = lineFeed( b, reader.start() );
+		HttpMessage message = parseStartLine( b, reader.start(), lineEnd( b, reader.start(), lineFeed ) );
+		parseHeaderProperties( message, lineFeed + 1 );
+		return message;
+	}
+
+	/**
+	 * Reads the content of a message returned by {@link #parseHead()}, decoding its Content-Encoding.
+	 *
+	 * @param message the message
+	 * @param contentFileFactory if not <code>null</code>, the content is stored in the file returned
+	 *        by this factory, instead of being kept in memory (see {@link HttpMessage#contentFile()})
+	 * @throws IOException if the content could not be read
+	 */
+	public void readContent( HttpMessage message, ContentFileFactory contentFileFactory )
+		throws IOException {
+		readBody( message, contentFileFactory );
+		reader.skipAvailableLineTerminators();
 	}
 
 	public HttpMessage parse()
 		throws IOException {
-		nextToken();
-		HttpMessage message = parseMessageType();
-		parseHeaderProperties( message );
-		readContent( message );
-		scanner.eatSeparatorsUntilEOF();
+		HttpMessage message = parseHead();
+		readContent( message, null );
 		return message;
 	}
 }
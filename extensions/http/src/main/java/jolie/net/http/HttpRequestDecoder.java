@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import jolie.net.protocols.MessageDecoder;
+
+/**
+ * Finds the boundaries of HTTP requests as their bytes arrive. It follows the same rules as
+ * {@link HttpParser}: heads end with an empty line, and bodies are delimited by chunked transfer
+ * coding or by Content-Length, requests without either having no body.
+ */
+public final class HttpRequestDecoder implements MessageDecoder {
+	private enum State {
+		HEAD, CONTENT, CHUNK_SIZE, CHUNK_DATA, TRAILER
+	}
+
+	private static final int INITIAL_LINE_SIZE = 256;
+	private static final String CONTENT_LENGTH = "content-length";
+	private static final String TRANSFER_ENCODING = "transfer-encoding";
+
+	private State state;
+	// Whether the empty lines before the first line are being skipped
+	private boolean skippingEmptyLines;
+	// Bytes read by the current head or line, as counted by HttpLineReader
+	private int readBytes;
+	private byte[] line = new byte[ INITIAL_LINE_SIZE ];
+	private int lineLength = 0;
+	private boolean startLine;
+	// The header field being read, if relevant to framing, and its value
+	private String headerName;
+	private String headerValue;
+	private String contentLength;
+	private String transferEncoding;
+	// Bytes left in the content or in the current chunk
+	private int remaining;
+
+	public HttpRequestDecoder() {
+		startMessage();
+	}
+
+	@Override
+	public int decode( ByteBuffer buffer )
+		throws IOException {
+		int messages = 0;
+		while( buffer.hasRemaining() ) {
+			if( state == State.CONTENT || state == State.CHUNK_DATA ) {
+				final int skipped = Math.min( remaining, buffer.remaining() );
+				buffer.position( buffer.position() + skipped );
+				remaining -= skipped;
+				if( remaining == 0 ) {
+					if( state == State.CONTENT ) {
+						messages++;
+						startMessage();
+					} else {
+						startLines( State.CHUNK_SIZE, true );
+					}
+				}
+				continue;
+			}
+
+			final byte b = buffer.get();
+			if( ++readBytes > HttpLineReader.MAX_HEAD_SIZE ) {
+				throw new IOException(
+					"HTTP message head exceeds the maximum allowed size (" + HttpLineReader.MAX_HEAD_SIZE + " bytes)" );
+			}
+			if( skippingEmptyLines && (b == '\r' || b == '\n') ) {
+				continue;
+			}
+			skippingEmptyLines = false;
+			if( b == '\n' ) {
+				final int end = lineLength > 0 && line[ lineLength - 1 ] == '\r' ? lineLength - 1 : lineLength;
+				lineLength = 0;
+				if( endLine( end ) ) {
+					messages++;
+					startMessage();
+				}
+			} else {
+				if( lineLength == line.length ) {
+					line = Arrays.copyOf( line, line.length * 2 );
+				}
+				line[ lineLength++ ] = b;
+			}
+		}
+		return messages;
+	}
+
+	private void startMessage() {
+		startLines( State.HEAD, true );
+		startLine = true;
+		headerName = null;
+		contentLength = null;
+		transferEncoding = null;
+		if( line.length > INITIAL_LINE_SIZE ) {
+			line = new byte[ INITIAL_LINE_SIZE ];
+		}
+	}
+
+	private void startLines( State state, boolean skipEmptyLines ) {
+		this.state = state;
+		skippingEmptyLines = skipEmptyLines;
+		readBytes = 0;
+	}
+
+	// Handles a line without its terminator, returning true if it ends the message
+	private boolean endLine( int end )
+		throws IOException {
+		switch( state ) {
+		case HEAD:
+			if( end == 0 ) {
+				endHeader();
+				return startBody();
+			}
+			if( startLine ) {
+				startLine = false;
+			} else if( isWhitespace( line[ 0 ] ) ) {
+				// Obsolete line folding, as handled by HttpParser
+				if( headerName != null ) {
+					final int foldStart = skipWhitespace( 0, end );
+					headerValue = headerValue + ' ' + string( foldStart, trimWhitespaceEnd( foldStart, end ) );
+				}
+			} else {
+				endHeader();
+				startHeader( end );
+			}
+			return false;
+		case CHUNK_SIZE:
+			remaining = parseChunkSize( end );
+			if( remaining == 0 ) {
+				startLines( State.TRAILER, false );
+			} else {
+				state = State.CHUNK_DATA;
+			}
+			return false;
+		case TRAILER:
+			return end == 0;
+		default:
+			throw new IllegalStateException();
+		}
+	}
+
+	private void startHeader( int end ) {
+		int colon = 0;
+		while( colon < end && line[ colon ] != ':' ) {
+			colon++;
+		}
+		headerName = null;
+		if( colon < end ) {
+			final String name = string( 0, trimWhitespaceEnd( 0, colon ) );
+			if( name.equalsIgnoreCase( CONTENT_LENGTH ) ) {
+				headerName = CONTENT_LENGTH;
+			} else if( name.equalsIgnoreCase( TRANSFER_ENCODING ) ) {
+				headerName = TRANSFER_ENCODING;
+			}
+		}
+		if( headerName != null ) {
+			final int valueStart = skipWhitespace( colon + 1, end );
+			headerValue = string( valueStart, trimWhitespaceEnd( valueStart, end ) );
+		}
+	}
+
+	private void endHeader() {
+		if( headerName == CONTENT_LENGTH ) {
+			contentLength = headerValue;
+		} else if( headerName == TRANSFER_ENCODING ) {
+			transferEncoding = headerValue;
+		}
+		headerName = null;
+	}
+
+	// Returns true if the message has no body
+	private boolean startBody()
+		throws IOException {
+		if( transferEncoding != null && transferEncoding.startsWith( "chunked" ) ) {
+			startLines( State.CHUNK_SIZE, true );
+			return false;
+		}
+		if( contentLength != null && !contentLength.isEmpty() ) {
+			try {
+				remaining = Integer.parseInt( contentLength );
+			} catch( NumberFormatException e ) {
+				throw new IOException( "Illegal Content-Length value " + contentLength );
+			}
+			if( remaining > 0 ) {
+				state = State.CONTENT;
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int parseChunkSize( int end )
+		throws IOException {
+		int sizeEnd = 0;
+		while( sizeEnd < end && line[ sizeEnd ] != ';' ) {
+			sizeEnd++;
+		}
+		sizeEnd = trimWhitespaceEnd( 0, sizeEnd );
+		int size = 0;
+		for( int i = 0; i < sizeEnd; i++ ) {
+			final int digit = Character.digit( line[ i ], 16 );
+			if( digit < 0 || size > (Integer.MAX_VALUE >> 4) ) {
+				size = -1;
+				break;
+			}
+			size = (size << 4) + digit;
+		}
+		if( size < 0 || sizeEnd == 0 ) {
+			throw new IOException( "Illegal chunk size " + string( 0, sizeEnd ) );
+		}
+		return size;
+	}
+
+	private static boolean isWhitespace( byte c ) {
+		return c == ' ' || c == '\t';
+	}
+
+	private int skipWhitespace( int from, int to ) {
+		while( from < to && isWhitespace( line[ from ] ) ) {
+			from++;
+		}
+		return from;
+	}
+
+	private int trimWhitespaceEnd( int from, int to ) {
+		while( to > from && isWhitespace( line[ to - 1 ] ) ) {
+			to--;
+		}
+		return to;
+	}
+
+	private String string( int from, int to ) {
+		return new String( line, from, to - from, StandardCharsets.ISO_8859_1 );
+	}
+}
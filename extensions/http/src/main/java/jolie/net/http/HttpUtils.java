@@ -169,23 +169,50 @@ public class HttpUtils {
 		return "iso-8859-1"; // this follows RFC 2616 3.4.1 Missing Charset
 	}
 
-	public static ByteArray encode( String encoding, ByteArray content, StringBuilder headerBuilder )
-		throws IOException {
+	/**
+	 * Chooses the content coding for a message body, given the Accept-Encoding header of the other
+	 * party, and appends the corresponding Content-Encoding header.
+	 *
+	 * @return the chosen content coding, or <code>null</code> if the body should not be encoded
+	 */
+	public static String appendContentEncoding( String encoding, StringBuilder headerBuilder ) {
 		// RFC 7231 section-5.3.4 introduced the "*" (any) option, we opt for gzip as a sane default
+		String contentEncoding = null;
 		if( encoding.contains( "gzip" ) || encoding.contains( "*" ) ) {
-			ByteArrayOutputStream baOutStream = new ByteArrayOutputStream();
-			GZIPOutputStream outStream = new GZIPOutputStream( baOutStream );
-			outStream.write( content.getBytes() );
-			outStream.close();
-			content = new ByteArray( baOutStream.toByteArray() );
-			headerBuilder.append( "Content-Encoding: gzip" ).append( HttpUtils.CRLF );
+			contentEncoding = "gzip";
 		} else if( encoding.contains( "deflate" ) ) {
+			contentEncoding = "deflate";
+		}
+		if( contentEncoding != null ) {
+			headerBuilder.append( "Content-Encoding: " ).append( contentEncoding ).append( HttpUtils.CRLF );
+		}
+		return contentEncoding;
+	}
+
+	/**
+	 * Returns a stream that encodes what is written to it with the given content coding, as returned
+	 * by {@link #appendContentEncoding(String, StringBuilder)}, and writes the result to the given
+	 * stream. Closing the returned stream closes the given one.
+	 */
+	public static OutputStream encodingStream( String contentEncoding, OutputStream stream )
+		throws IOException {
+		if( "gzip".equals( contentEncoding ) ) {
+			return new GZIPOutputStream( stream );
+		} else if( "deflate".equals( contentEncoding ) ) {
+			return new DeflaterOutputStream( stream );
+		}
+		return stream;
+	}
+
+	public static ByteArray encode( String encoding, ByteArray content, StringBuilder headerBuilder )
+		throws IOException {
+		final String contentEncoding = appendContentEncoding( encoding, headerBuilder );
+		if( contentEncoding != null ) {
 			ByteArrayOutputStream baOutStream = new ByteArrayOutputStream();
-			DeflaterOutputStream outStream = new DeflaterOutputStream( baOutStream );
-			outStream.write( content.getBytes() );
-			outStream.close();
+			try( OutputStream outStream = encodingStream( contentEncoding, baOutStream ) ) {
+				outStream.write( content.getBytes() );
+			}
 			content = new ByteArray( baOutStream.toByteArray() );
-			headerBuilder.append( "Content-Encoding: deflate" ).append( HttpUtils.CRLF );
 		}
 		return content;
 	}
@@ -0,0 +1,657 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import jolie.Interpreter;
+import jolie.lang.Constants;
+import jolie.net.http2.Http2Connection;
+import jolie.net.http2.Http2Exception;
+import jolie.net.http2.Http2Stream;
+import jolie.net.protocols.CommProtocol;
+import jolie.net.protocols.ConcurrentCommProtocol;
+import jolie.runtime.FaultException;
+import jolie.runtime.Value;
+import jolie.runtime.VariablePath;
+import jolie.util.ExceptionalCallable;
+
+/**
+ * HTTP/2 over cleartext TCP (h2c, RFC 7540).
+ *
+ * Messages are translated to and from HTTP/1.1 by instances of the http protocol, one per message
+ * being exchanged, so that this protocol supports the same parameters. Many requests can be
+ * exchanged concurrently on the same connection: output ports can share it by setting
+ * <code>.multiplex = true</code>.
+ *
+ * Input ports accept clients that start with the HTTP/2 connection preface (prior knowledge) and
+ * clients that ask for an upgrade from HTTP/1.1. Connections from other HTTP/1.x clients are
+ * served with the http protocol.
+ *
+ * Received messages are kept in memory, so their bodies cannot be larger than
+ * <code>.maxBodySize</code> bytes (16 MiB by default). Larger messages make their stream fail.
+ */
+public class Http2Protocol extends ConcurrentCommProtocol {
+	private static final byte[] EMPTY = new byte[ 0 ];
+	private static final int MAX_HEAD_SIZE = 64 * 1024;
+	private static final String CRLF = "\r\n";
+	private static final String SCHEME = "http";
+	private static final String MAX_BODY_SIZE = "maxBodySize";
+
+	// HTTP/1.1 header fields that are specific to a connection, which HTTP/2 does not allow
+	private static final Set< String > CONNECTION_HEADERS = new HashSet<>( Arrays.asList(
+		"connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade", "http2-settings", "te" ) );
+
+	private static final byte[] SWITCHING_PROTOCOLS =
+		("HTTP/1.1 101 Switching Protocols" + CRLF + "Connection: Upgrade" + CRLF + "Upgrade: h2c" + CRLF + CRLF)
+			.getBytes( StandardCharsets.US_ASCII );
+
+	/*
+	 * A message being exchanged, with the http protocol instance that translates it and its response.
+	 */
+	private static class Exchange {
+		private final long requestId;
+		private final String operationName;
+		private final int streamId;
+		private final CommProtocol delegate;
+
+		private Exchange( long requestId, String operationName, int streamId, CommProtocol delegate ) {
+			this.requestId = requestId;
+			this.operationName = operationName;
+			this.streamId = streamId;
+			this.delegate = delegate;
+		}
+	}
+
+	private final boolean inInputPort;
+	private final URI location;
+	private final ExceptionalCallable< CommProtocol, IOException > delegateFactory;
+	private final Deque< CommProtocol > delegates = new ConcurrentLinkedDeque<>();
+	// Requests received by an input port, by the request id we assigned to them
+	private final Map< Long, Exchange > exchanges = new ConcurrentHashMap<>();
+	private volatile Http2Connection connection = null;
+	// Set if an input port is serving an HTTP/1.x client
+	private CommProtocol http1Delegate = null;
+	private InputStream http1Head = null;
+
+	public Http2Protocol(
+		VariablePath configurationPath,
+		URI location,
+		boolean inInputPort,
+		ExceptionalCallable< CommProtocol, IOException > delegateFactory ) {
+		super( configurationPath );
+		this.location = location;
+		this.inInputPort = inInputPort;
+		this.delegateFactory = delegateFactory;
+	}
+
+	@Override
+	public String name() {
+		return "http2";
+	}
+
+	private int maxBodySize() {
+		final int maxBodySize = getIntParameter( MAX_BODY_SIZE );
+		return maxBodySize > 0 ? maxBodySize : Http2Connection.DEFAULT_MAX_BODY_SIZE;
+	}
+
+	private CommProtocol acquireDelegate()
+		throws IOException {
+		CommProtocol delegate = delegates.poll();
+		if( delegate == null ) {
+			delegate = delegateFactory.call();
+		}
+		delegate.setChannel( channel() );
+		return delegate;
+	}
+
+	private void releaseDelegate( CommProtocol delegate ) {
+		delegates.push( delegate );
+	}
+
+	/*
+	 * The http protocol and the channel decide when to close the connection following HTTP/1.x
+	 * rules, whereas an HTTP/2 connection stays open until either party goes away.
+	 */
+	private void updateToBeClosed() {
+		final Http2Connection c = connection;
+		channel().setToBeClosed( c != null && c.isGoingAway() );
+	}
+
+	@Override
+	public CommMessage recv( InputStream istream, OutputStream ostream )
+		throws IOException {
+		return inInputPort ? recvRequest( istream, ostream ) : recvResponse( istream, ostream );
+	}
+
+	@Override
+	public void send( OutputStream ostream, CommMessage message, InputStream istream )
+		throws IOException {
+		if( inInputPort ) {
+			sendResponse( ostream, message, istream );
+		} else {
+			sendRequest( ostream, message, istream );
+		}
+	}
+
+	private CommMessage recvRequest( InputStream istream, OutputStream ostream )
+		throws IOException {
+		Http2Stream stream = null;
+		if( connection == null && http1Delegate == null ) {
+			stream = startServer( istream, ostream );
+		}
+		if( http1Delegate != null ) {
+			InputStream in = istream;
+			if( http1Head != null ) {
+				in = new SequenceInputStream( http1Head, istream );
+				http1Head = null;
+			}
+			return http1Delegate.recv( in, ostream );
+		}
+		if( stream == null ) {
+			// We are called when there is something to read, so we stop when there is nothing left
+			stream = connection.read( false );
+		}
+		try {
+			return stream == null ? null : handleRequest( stream );
+		} finally {
+			updateToBeClosed();
+		}
+	}
+
+	/*
+	 * Finds out what the client speaks, from the first bytes it sends.
+	 */
+	private Http2Stream startServer( InputStream istream, OutputStream ostream )
+		throws IOException {
+		final ByteArrayOutputStream head = new ByteArrayOutputStream();
+		boolean preface = true;
+		for( int i = 0; i < Http2Connection.PREFACE.length && preface; i++ ) {
+			final int b = istream.read();
+			if( b < 0 ) {
+				throw new ChannelClosingException( "[http2] Remote host closed connection." );
+			}
+			head.write( b );
+			preface = b == Http2Connection.PREFACE[ i ];
+		}
+		if( preface ) {
+			connection = new Http2Connection( istream, ostream, true, maxBodySize() );
+			connection.startServer();
+			return null;
+		}
+
+		readHead( istream, head );
+		Http1Message request = null;
+		byte[] settings = null;
+		try {
+			request = Http1Message.parse( head.toByteArray(), false );
+			settings = request.isResponse() ? null : upgradeSettings( request, maxBodySize() );
+		} catch( IOException e ) {
+			// The http protocol will answer with an error
+		}
+		if( settings == null ) {
+			http1Delegate = acquireDelegate();
+			http1Head = new ByteArrayInputStream( head.toByteArray() );
+			return null;
+		}
+
+		final byte[] body = new byte[ (int) request.contentLength() ];
+		int offset = 0;
+		while( offset < body.length ) {
+			final int r = istream.read( body, offset, body.length - offset );
+			if( r < 0 ) {
+				throw new ChannelClosingException( "[http2] Remote host closed connection." );
+			}
+			offset += r;
+		}
+		ostream.write( SWITCHING_PROTOCOLS );
+		connection = new Http2Connection( istream, ostream, true, maxBodySize() );
+		return connection.startUpgradedServer( settings, request.toHttp2Request(), body );
+	}
+
+	private static void readHead( InputStream istream, ByteArrayOutputStream head )
+		throws IOException {
+		int matched = 0;
+		while( matched < 4 ) {
+			final int b = istream.read();
+			if( b < 0 ) {
+				throw new ChannelClosingException( "[http2] Remote host closed connection." );
+			}
+			head.write( b );
+			if( head.size() > MAX_HEAD_SIZE ) {
+				throw new IOException( "HTTP header exceeds " + MAX_HEAD_SIZE + " bytes" );
+			}
+			if( b == (matched % 2 == 0 ? '\r' : '\n') ) {
+				matched++;
+			} else {
+				matched = b == '\r' ? 1 : 0;
+			}
+		}
+	}
+
+	/*
+	 * Returns the settings of an HTTP/1.1 request that asks for an upgrade to HTTP/2 (RFC 7540,
+	 * section 3.2), or null if the request does not ask for it or we cannot grant it. Requests with
+	 * large bodies are left to the http protocol, which does not need to keep them in memory.
+	 */
+	private static byte[] upgradeSettings( Http1Message request, int maxBodySize )
+		throws IOException {
+		boolean h2c = false;
+		for( String token : request.header( "upgrade", "" ).split( "," ) ) {
+			h2c |= token.trim().equalsIgnoreCase( "h2c" );
+		}
+		final String settings = request.header( "http2-settings", null );
+		if( !h2c || settings == null || request.header( "transfer-encoding", null ) != null
+			|| request.contentLength() > maxBodySize ) {
+			return null;
+		}
+		try {
+			return Base64.getUrlDecoder().decode( settings.trim() );
+		} catch( IllegalArgumentException e ) {
+			return null;
+		}
+	}
+
+	private CommMessage handleRequest( Http2Stream stream )
+		throws IOException {
+		final byte[] request;
+		try {
+			request = toHttp1Request( stream );
+		} catch( Http2Exception e ) {
+			connection.resetStream( stream.id(), e.errorCode() );
+			return null;
+		}
+		final CommProtocol delegate = acquireDelegate();
+		final ByteArrayOutputStream errorResponse = new ByteArrayOutputStream();
+		CommMessage message = null;
+		try {
+			message = delegate.recv( new ByteArrayInputStream( request ), errorResponse );
+		} catch( IOException e ) {
+			Interpreter.getInstance().logFine( e );
+		}
+		if( message == null ) {
+			releaseDelegate( delegate );
+			// The http protocol may have written an error response for the client
+			if( !forwardResponse( stream.id(), errorResponse.toByteArray() ) ) {
+				connection.resetStream( stream.id(), Http2Exception.INTERNAL_ERROR );
+			}
+			return null;
+		}
+		final long requestId = CommMessage.getNewRequestId();
+		exchanges.put( requestId, new Exchange( requestId, message.operationName(), stream.id(), delegate ) );
+		return new CommMessage( requestId, message.operationName(), message.resourcePath(), message.value(),
+			message.fault() );
+	}
+
+	private void sendResponse( OutputStream ostream, CommMessage message, InputStream istream )
+		throws IOException {
+		if( http1Delegate != null ) {
+			http1Delegate.send( ostream, message, istream );
+			return;
+		}
+		final Exchange exchange = exchanges.remove( message.requestId() );
+		if( exchange == null ) {
+			throw new IOException( "[http2] No request with id " + message.requestId() + " to respond to" );
+		}
+		final ByteArrayOutputStream response = new ByteArrayOutputStream();
+		try {
+			exchange.delegate.setChannel( channel() );
+			exchange.delegate.send( response, message, new ByteArrayInputStream( EMPTY ) );
+		} catch( IOException e ) {
+			/*
+			 * Only this stream is affected, so we do not pass the error on: that would close the
+			 * connection. The http protocol may have written an error response for the client.
+			 */
+			Interpreter.getInstance().logWarning( e );
+			if( !forwardResponse( exchange.streamId, response.toByteArray() ) ) {
+				connection.resetStream( exchange.streamId, Http2Exception.INTERNAL_ERROR );
+			}
+			return;
+		} finally {
+			releaseDelegate( exchange.delegate );
+			updateToBeClosed();
+		}
+		final Http1Message http1Response = Http1Message.parse( response.toByteArray(), true );
+		connection.sendResponse( exchange.streamId, http1Response.toHttp2Response(), http1Response.body() );
+	}
+
+	/*
+	 * Sends an error response written by the http protocol, if it is a complete message.
+	 */
+	private boolean forwardResponse( int streamId, byte[] response )
+		throws IOException {
+		final Http1Message message;
+		try {
+			message = Http1Message.parse( response, true );
+		} catch( IOException e ) {
+			return false;
+		}
+		if( !message.isResponse() || message.contentLength() != message.body().length ) {
+			return false;
+		}
+		connection.sendResponse( streamId, message.toHttp2Response(), message.body() );
+		return true;
+	}
+
+	private Http2Connection clientConnection( InputStream istream, OutputStream ostream )
+		throws IOException {
+		Http2Connection c = connection;
+		if( c == null ) {
+			synchronized( this ) {
+				c = connection;
+				if( c == null ) {
+					c = new Http2Connection( istream, ostream, false, maxBodySize() );
+					c.startClient();
+					connection = c;
+				}
+			}
+		}
+		return c;
+	}
+
+	private void sendRequest( OutputStream ostream, CommMessage message, InputStream istream )
+		throws IOException {
+		final Http2Connection c = clientConnection( istream, ostream );
+		final CommProtocol delegate = acquireDelegate();
+		try {
+			final ByteArrayOutputStream request = new ByteArrayOutputStream();
+			delegate.send( request, message, new ByteArrayInputStream( EMPTY ) );
+			final Http1Message http1Request = Http1Message.parse( request.toByteArray(), true );
+			final String authority = location.getPort() < 0 ? location.getHost()
+				: location.getHost() + ":" + location.getPort();
+			c.sendRequest( http1Request.toHttp2Request( authority ), http1Request.body(),
+				new Exchange( message.requestId(), message.operationName(), 0, delegate ) );
+		} catch( IOException e ) {
+			releaseDelegate( delegate );
+			throw e;
+		} finally {
+			updateToBeClosed();
+		}
+	}
+
+	private CommMessage recvResponse( InputStream istream, OutputStream ostream )
+		throws IOException {
+		final Http2Stream stream = clientConnection( istream, ostream ).read( true );
+		final Exchange exchange = (Exchange) stream.attachment();
+		try {
+			if( stream.isReset() ) {
+				return new CommMessage( exchange.requestId, exchange.operationName, Constants.ROOT_RESOURCE_PATH,
+					Value.create(), new FaultException( Constants.IO_EXCEPTION_FAULT_NAME,
+						"[http2] Request not processed by the server (HTTP/2 error code " + stream.errorCode()
+							+ ")" ) );
+			}
+			final CommMessage response;
+			try {
+				exchange.delegate.setChannel( channel() );
+				response = exchange.delegate.recv( new ByteArrayInputStream( toHttp1Response( stream ) ),
+					new ByteArrayOutputStream() );
+			} catch( IOException e ) {
+				// Only this request failed, the connection can still be used by the others
+				return new CommMessage( exchange.requestId, exchange.operationName, Constants.ROOT_RESOURCE_PATH,
+					Value.create(), new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e ) );
+			}
+			return new CommMessage( exchange.requestId, response.operationName(), response.resourcePath(),
+				response.value(), response.fault() );
+		} finally {
+			releaseDelegate( exchange.delegate );
+			updateToBeClosed();
+		}
+	}
+
+	private static void appendHeader( StringBuilder builder, String name, String value )
+		throws Http2Exception {
+		// Line breaks would let the other party inject header fields
+		if( indexOfControlCharacter( name ) >= 0 || indexOfControlCharacter( value ) >= 0 ) {
+			throw new Http2Exception( Http2Exception.PROTOCOL_ERROR, "Invalid character in header field " + name );
+		}
+		builder.append( name ).append( ": " ).append( value ).append( CRLF );
+	}
+
+	private static int indexOfControlCharacter( String s ) {
+		for( int i = 0; i < s.length(); i++ ) {
+			final char c = s.charAt( i );
+			if( c == '\r' || c == '\n' || c == '\0' ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static byte[] toHttp1Message( StringBuilder head, byte[] body ) {
+		head.append( "Content-Length: " ).append( body.length ).append( CRLF ).append( CRLF );
+		final byte[] headBytes = head.toString().getBytes( StandardCharsets.ISO_8859_1 );
+		final byte[] message = Arrays.copyOf( headBytes, headBytes.length + body.length );
+		System.arraycopy( body, 0, message, headBytes.length, body.length );
+		return message;
+	}
+
+	private static byte[] toHttp1Request( Http2Stream stream )
+		throws Http2Exception {
+		final String method = stream.header( ":method" );
+		final String path = stream.header( ":path" );
+		final String authority = stream.header( ":authority" );
+		if( method == null || path == null || path.isEmpty() ) {
+			throw new Http2Exception( Http2Exception.PROTOCOL_ERROR, stream.id(), "Missing pseudo-header fields" );
+		}
+		final StringBuilder head = new StringBuilder();
+		head.append( method ).append( ' ' ).append( path ).append( " HTTP/1.1" ).append( CRLF );
+		if( authority != null ) {
+			appendHeader( head, "host", authority );
+		}
+		// Cookies may be split in many fields, HTTP/1.1 wants them in one (RFC 7540, section 8.1.2.5)
+		final StringBuilder cookies = new StringBuilder();
+		for( Entry< String, String > header : stream.headers() ) {
+			final String name = header.getKey();
+			if( name.startsWith( ":" ) || name.equals( "content-length" ) || CONNECTION_HEADERS.contains( name )
+				|| (authority != null && name.equals( "host" )) ) {
+				continue;
+			}
+			if( name.equals( "cookie" ) ) {
+				cookies.append( cookies.length() > 0 ? "; " : "" ).append( header.getValue() );
+			} else {
+				appendHeader( head, name, header.getValue() );
+			}
+		}
+		if( cookies.length() > 0 ) {
+			appendHeader( head, "cookie", cookies.toString() );
+		}
+		return toHttp1Message( head, stream.body() );
+	}
+
+	private static byte[] toHttp1Response( Http2Stream stream )
+		throws Http2Exception {
+		final StringBuilder head = new StringBuilder();
+		head.append( "HTTP/1.1 " ).append( stream.header( ":status" ) ).append( ' ' ).append( CRLF );
+		for( Entry< String, String > header : stream.headers() ) {
+			final String name = header.getKey();
+			if( !name.startsWith( ":" ) && !name.equals( "content-length" ) && !CONNECTION_HEADERS.contains( name ) ) {
+				appendHeader( head, name, header.getValue() );
+			}
+		}
+		return toHttp1Message( head, stream.body() );
+	}
+
+	/*
+	 * An HTTP/1.x message written by the http protocol, or the head of one received from a client.
+	 */
+	private static class Http1Message {
+		private final String[] startLine;
+		private final List< Entry< String, String > > headers = new ArrayList<>();
+		private byte[] body = EMPTY;
+
+		private Http1Message( String[] startLine ) {
+			this.startLine = startLine;
+		}
+
+		/*
+		 * Parses a message. If withBody is set, everything after the head is the body, which is
+		 * decoded if it uses the chunked transfer coding.
+		 */
+		private static Http1Message parse( byte[] b, boolean withBody )
+			throws IOException {
+			int headEnd = -1;
+			for( int i = 0; i + 3 < b.length && headEnd < 0; i++ ) {
+				if( b[ i ] == '\r' && b[ i + 1 ] == '\n' && b[ i + 2 ] == '\r' && b[ i + 3 ] == '\n' ) {
+					headEnd = i;
+				}
+			}
+			if( headEnd < 0 ) {
+				throw new IOException( "Malformed HTTP header" );
+			}
+			final String[] lines = new String( b, 0, headEnd, StandardCharsets.ISO_8859_1 ).split( CRLF );
+			final String[] startLine = lines[ 0 ].split( " ", 3 );
+			if( startLine.length < 2 ) {
+				throw new IOException( "Malformed HTTP header" );
+			}
+			final Http1Message message = new Http1Message( startLine );
+			for( int i = 1; i < lines.length; i++ ) {
+				final int colon = lines[ i ].indexOf( ':' );
+				if( colon <= 0 ) {
+					throw new IOException( "Malformed HTTP header" );
+				}
+				message.headers.add( new SimpleImmutableEntry<>(
+					lines[ i ].substring( 0, colon ).trim().toLowerCase( Locale.ROOT ),
+					lines[ i ].substring( colon + 1 ).trim() ) );
+			}
+			if( withBody ) {
+				final int bodyStart = headEnd + 4;
+				if( message.header( "transfer-encoding", "" ).toLowerCase( Locale.ROOT ).contains( "chunked" ) ) {
+					message.body = decodeChunked( b, bodyStart );
+				} else {
+					message.body = Arrays.copyOfRange( b, bodyStart, b.length );
+				}
+			}
+			return message;
+		}
+
+		private static byte[] decodeChunked( byte[] b, int offset )
+			throws IOException {
+			final ByteArrayOutputStream body = new ByteArrayOutputStream();
+			while( true ) {
+				int lineEnd = offset;
+				while( lineEnd + 1 < b.length && !(b[ lineEnd ] == '\r' && b[ lineEnd + 1 ] == '\n') ) {
+					lineEnd++;
+				}
+				String size = new String( b, offset, lineEnd - offset, StandardCharsets.ISO_8859_1 );
+				final int semicolon = size.indexOf( ';' );
+				if( semicolon >= 0 ) {
+					size = size.substring( 0, semicolon );
+				}
+				final int length;
+				try {
+					length = Integer.parseInt( size.trim(), 16 );
+				} catch( NumberFormatException e ) {
+					throw new IOException( "Malformed chunked message body" );
+				}
+				offset = lineEnd + 2;
+				if( length == 0 ) {
+					// We drop trailers, if any
+					return body.toByteArray();
+				}
+				if( length < 0 || offset + length > b.length ) {
+					throw new IOException( "Malformed chunked message body" );
+				}
+				body.write( b, offset, length );
+				offset += length + 2;
+			}
+		}
+
+		private boolean isResponse() {
+			return startLine[ 0 ].startsWith( "HTTP/" );
+		}
+
+		private String header( String name, String defaultValue ) {
+			for( Entry< String, String > header : headers ) {
+				if( header.getKey().equals( name ) ) {
+					return header.getValue();
+				}
+			}
+			return defaultValue;
+		}
+
+		private long contentLength()
+			throws IOException {
+			try {
+				return Long.parseLong( header( "content-length", "0" ) );
+			} catch( NumberFormatException e ) {
+				throw new IOException( "Invalid Content-Length" );
+			}
+		}
+
+		private byte[] body() {
+			return body;
+		}
+
+		private void addHeaders( List< Entry< String, String > > h2Headers, boolean keepContentLength ) {
+			for( Entry< String, String > header : headers ) {
+				final String name = header.getKey();
+				if( !CONNECTION_HEADERS.contains( name ) && !name.equals( "host" )
+					&& (keepContentLength || !name.equals( "content-length" )) ) {
+					h2Headers.add( header );
+				}
+			}
+		}
+
+		private List< Entry< String, String > > toHttp2Request( String defaultAuthority ) {
+			final List< Entry< String, String > > h2Headers = new ArrayList<>();
+			final String target = startLine[ 1 ];
+			h2Headers.add( new SimpleImmutableEntry<>( ":method", startLine[ 0 ] ) );
+			h2Headers.add( new SimpleImmutableEntry<>( ":scheme", SCHEME ) );
+			final String authority = header( "host", defaultAuthority );
+			if( authority != null ) {
+				h2Headers.add( new SimpleImmutableEntry<>( ":authority", authority ) );
+			}
+			h2Headers.add( new SimpleImmutableEntry<>( ":path", target.isEmpty() ? "/" : target ) );
+			// The body may have been decoded from chunks
+			addHeaders( h2Headers, header( "transfer-encoding", null ) == null );
+			return h2Headers;
+		}
+
+		private List< Entry< String, String > > toHttp2Request() {
+			return toHttp2Request( null );
+		}
+
+		private List< Entry< String, String > > toHttp2Response() {
+			final List< Entry< String, String > > h2Headers = new ArrayList<>();
+			h2Headers.add( new SimpleImmutableEntry<>( ":status", startLine[ 1 ] ) );
+			addHeaders( h2Headers, header( "transfer-encoding", null ) == null );
+			return h2Headers;
+		}
+	}
+}
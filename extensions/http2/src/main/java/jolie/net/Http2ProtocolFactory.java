@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net;
+
+import java.io.IOException;
+import java.net.URI;
+import jolie.net.ext.CommProtocolFactory;
+import jolie.net.protocols.CommProtocol;
+import jolie.runtime.VariablePath;
+
+public class Http2ProtocolFactory extends CommProtocolFactory {
+	public Http2ProtocolFactory( CommCore commCore ) {
+		super( commCore );
+	}
+
+	@Override
+	public CommProtocol createOutputProtocol( VariablePath configurationPath, URI location )
+		throws IOException {
+		return new Http2Protocol(
+			configurationPath,
+			location,
+			false,
+			() -> commCore().createOutputCommProtocol( "http", configurationPath, location ) );
+	}
+
+	@Override
+	public CommProtocol createInputProtocol( VariablePath configurationPath, URI location )
+		throws IOException {
+		return new Http2Protocol(
+			configurationPath,
+			location,
+			true,
+			() -> commCore().createInputCommProtocol( "http", configurationPath, location ) );
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The header table of HPACK (RFC 7541, section 2.3): the static table followed by a dynamic table,
+ * whose most recent entry has the lowest index.
+ *
+ * Names and values are strings whose characters are the octets of the field, as decoded with
+ * ISO-8859-1, so their length is the length in octets.
+ */
+final class HeaderTable {
+	static final int DEFAULT_MAX_SIZE = 4096;
+	private static final int ENTRY_OVERHEAD = 32;
+
+	private static final String[][] STATIC_TABLE = {
+		{ ":authority", "" },
+		{ ":method", "GET" },
+		{ ":method", "POST" },
+		{ ":path", "/" },
+		{ ":path", "/index.html" },
+		{ ":scheme", "http" },
+		{ ":scheme", "https" },
+		{ ":status", "200" },
+		{ ":status", "204" },
+		{ ":status", "206" },
+		{ ":status", "304" },
+		{ ":status", "400" },
+		{ ":status", "404" },
+		{ ":status", "500" },
+		{ "accept-charset", "" },
+		{ "accept-encoding", "gzip, deflate" },
+		{ "accept-language", "" },
+		{ "accept-ranges", "" },
+		{ "accept", "" },
+		{ "access-control-allow-origin", "" },
+		{ "age", "" },
+		{ "allow", "" },
+		{ "authorization", "" },
+		{ "cache-control", "" },
+		{ "content-disposition", "" },
+		{ "content-encoding", "" },
+		{ "content-language", "" },
+		{ "content-length", "" },
+		{ "content-location", "" },
+		{ "content-range", "" },
+		{ "content-type", "" },
+		{ "cookie", "" },
+		{ "date", "" },
+		{ "etag", "" },
+		{ "expect", "" },
+		{ "expires", "" },
+		{ "from", "" },
+		{ "host", "" },
+		{ "if-match", "" },
+		{ "if-modified-since", "" },
+		{ "if-none-match", "" },
+		{ "if-range", "" },
+		{ "if-unmodified-since", "" },
+		{ "last-modified", "" },
+		{ "link", "" },
+		{ "location", "" },
+		{ "max-forwards", "" },
+		{ "proxy-authenticate", "" },
+		{ "proxy-authorization", "" },
+		{ "range", "" },
+		{ "referer", "" },
+		{ "refresh", "" },
+		{ "retry-after", "" },
+		{ "server", "" },
+		{ "set-cookie", "" },
+		{ "strict-transport-security", "" },
+		{ "transfer-encoding", "" },
+		{ "user-agent", "" },
+		{ "vary", "" },
+		{ "via", "" },
+		{ "www-authenticate", "" }
+	};
+
+	static final int STATIC_TABLE_LENGTH = STATIC_TABLE.length;
+
+	// Lowest static index of each name, and static index of each name-value pair
+	private static final Map< String, Integer > STATIC_NAMES = new HashMap<>();
+	private static final Map< String, Integer > STATIC_FIELDS = new HashMap<>();
+
+	static {
+		for( int i = STATIC_TABLE.length - 1; i >= 0; i-- ) {
+			STATIC_NAMES.put( STATIC_TABLE[ i ][ 0 ], i + 1 );
+			STATIC_FIELDS.put( STATIC_TABLE[ i ][ 0 ] + '\0' + STATIC_TABLE[ i ][ 1 ], i + 1 );
+		}
+	}
+
+	// Oldest entry first
+	private final List< String[] > entries = new ArrayList<>();
+	private int size = 0;
+	private int maxSize = DEFAULT_MAX_SIZE;
+
+	int length() {
+		return STATIC_TABLE_LENGTH + entries.size();
+	}
+
+	int maxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the entry at the given index, as a name-value pair, or <code>null</code> if the index is
+	 * not valid.
+	 */
+	String[] get( int index ) {
+		if( index <= 0 ) {
+			return null;
+		} else if( index <= STATIC_TABLE_LENGTH ) {
+			return STATIC_TABLE[ index - 1 ];
+		}
+		final int i = entries.size() - 1 - (index - STATIC_TABLE_LENGTH - 1);
+		return i >= 0 ? entries.get( i ) : null;
+	}
+
+	/**
+	 * Returns the index of the entry with the given name and value, or <code>0</code> if there is
+	 * none.
+	 */
+	int indexOf( String name, String value ) {
+		final Integer i = STATIC_FIELDS.get( name + '\0' + value );
+		if( i != null ) {
+			return i;
+		}
+		for( int j = entries.size() - 1; j >= 0; j-- ) {
+			final String[] entry = entries.get( j );
+			if( entry[ 0 ].equals( name ) && entry[ 1 ].equals( value ) ) {
+				return STATIC_TABLE_LENGTH + entries.size() - j;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the index of an entry with the given name, or <code>0</code> if there is none.
+	 */
+	int indexOfName( String name ) {
+		final Integer i = STATIC_NAMES.get( name );
+		if( i != null ) {
+			return i;
+		}
+		for( int j = entries.size() - 1; j >= 0; j-- ) {
+			if( entries.get( j )[ 0 ].equals( name ) ) {
+				return STATIC_TABLE_LENGTH + entries.size() - j;
+			}
+		}
+		return 0;
+	}
+
+	void add( String name, String value ) {
+		final int entrySize = name.length() + value.length() + ENTRY_OVERHEAD;
+		evict( maxSize - entrySize );
+		// An entry larger than the table empties it and is not added (RFC 7541, section 4.4)
+		if( entrySize <= maxSize ) {
+			entries.add( new String[] { name, value } );
+			size += entrySize;
+		}
+	}
+
+	void setMaxSize( int maxSize ) {
+		this.maxSize = maxSize;
+		evict( maxSize );
+	}
+
+	private void evict( int targetSize ) {
+		int n = 0;
+		while( size > targetSize && n < entries.size() ) {
+			final String[] entry = entries.get( n++ );
+			size -= entry[ 0 ].length() + entry[ 1 ].length() + ENTRY_OVERHEAD;
+		}
+		entries.subList( 0, n ).clear();
+	}
+}
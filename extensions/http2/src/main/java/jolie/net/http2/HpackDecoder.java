@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * Decodes HPACK header blocks (RFC 7541). Header blocks must be decoded in the order in which they
+ * are received, since they update the shared dynamic table.
+ */
+final class HpackDecoder {
+	private final HeaderTable table = new HeaderTable();
+	private final int maxHeaderListSize;
+	private byte[] b;
+	private int pos;
+	private int end;
+
+	HpackDecoder( int maxHeaderListSize ) {
+		this.maxHeaderListSize = maxHeaderListSize;
+	}
+
+	/**
+	 * Decodes a header block.
+	 *
+	 * @throws Http2Exception with code {@link Http2Exception#COMPRESSION_ERROR} if the block is not
+	 *         valid, in which case the dynamic table is no longer in sync with the one of the other
+	 *         party, or with code {@link Http2Exception#PROTOCOL_ERROR} if the decoded header list
+	 *         is larger than allowed, in which case the block has been decoded anyway
+	 */
+	List< Entry< String, String > > decode( byte[] block, int offset, int length )
+		throws Http2Exception {
+		b = block;
+		pos = offset;
+		end = offset + length;
+		final List< Entry< String, String > > headers = new ArrayList<>();
+		int listSize = 0;
+		try {
+			while( pos < end ) {
+				final int first = b[ pos ] & 0xFF;
+				final String name;
+				final String value;
+				if( (first & 0x80) != 0 ) {
+					// Indexed header field
+					final String[] entry = table.get( readInt( 7 ) );
+					if( entry == null ) {
+						throw Http2Exception.compressionError( "Invalid header table index" );
+					}
+					name = entry[ 0 ];
+					value = entry[ 1 ];
+				} else if( (first & 0xC0) == 0x40 ) {
+					// Literal header field with incremental indexing
+					name = readName( 6 );
+					value = readString();
+					table.add( name, value );
+				} else if( (first & 0xE0) == 0x20 ) {
+					// Dynamic table size update
+					if( !headers.isEmpty() ) {
+						throw Http2Exception.compressionError( "Dynamic table size update after a header field" );
+					}
+					final int size = readInt( 5 );
+					if( size > HeaderTable.DEFAULT_MAX_SIZE ) {
+						throw Http2Exception.compressionError( "Dynamic table size update above the allowed maximum" );
+					}
+					table.setMaxSize( size );
+					continue;
+				} else {
+					// Literal header field without indexing, or never indexed
+					name = readName( 4 );
+					value = readString();
+				}
+				listSize += name.length() + value.length() + 32;
+				if( listSize <= maxHeaderListSize ) {
+					headers.add( new SimpleImmutableEntry<>( name, value ) );
+				}
+			}
+		} finally {
+			b = null;
+		}
+		if( listSize > maxHeaderListSize ) {
+			throw Http2Exception.protocolError( "Header list exceeds the maximum allowed size ("
+				+ maxHeaderListSize + " bytes)" );
+		}
+		return headers;
+	}
+
+	private int readInt( int prefixBits )
+		throws Http2Exception {
+		final int max = (1 << prefixBits) - 1;
+		int value = b[ pos++ ] & max;
+		if( value < max ) {
+			return value;
+		}
+		int shift = 0;
+		int c;
+		do {
+			if( pos == end || shift > 21 ) {
+				throw Http2Exception.compressionError( "Invalid integer in header block" );
+			}
+			c = b[ pos++ ] & 0xFF;
+			value += (c & 0x7F) << shift;
+			shift += 7;
+		} while( (c & 0x80) != 0 );
+		return value;
+	}
+
+	private String readName( int prefixBits )
+		throws Http2Exception {
+		final int index = readInt( prefixBits );
+		if( index == 0 ) {
+			return readString();
+		}
+		final String[] entry = table.get( index );
+		if( entry == null ) {
+			throw Http2Exception.compressionError( "Invalid header table index" );
+		}
+		return entry[ 0 ];
+	}
+
+	private String readString()
+		throws Http2Exception {
+		if( pos == end ) {
+			throw Http2Exception.compressionError( "Truncated header block" );
+		}
+		final boolean huffman = (b[ pos ] & 0x80) != 0;
+		final int length = readInt( 7 );
+		if( length > end - pos ) {
+			throw Http2Exception.compressionError( "Truncated header block" );
+		}
+		final String s = huffman
+			? Huffman.decode( b, pos, length )
+			: new String( b, pos, length, StandardCharsets.ISO_8859_1 );
+		pos += length;
+		return s;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * Encodes HPACK header blocks (RFC 7541). Header blocks must be sent in the order in which they
+ * are encoded, since they update the shared dynamic table.
+ */
+final class HpackEncoder {
+	private final HeaderTable table = new HeaderTable();
+	// Smallest table size set since the last header block, -1 if unchanged
+	private int minMaxSize = -1;
+
+	/**
+	 * Sets the maximum size of the dynamic table, as allowed by the SETTINGS_HEADER_TABLE_SIZE of
+	 * the other party. The change is signalled at the beginning of the next header block.
+	 */
+	void setMaxTableSize( int maxSize ) {
+		maxSize = Math.min( maxSize, HeaderTable.DEFAULT_MAX_SIZE );
+		if( maxSize != table.maxSize() ) {
+			minMaxSize = minMaxSize < 0 ? maxSize : Math.min( minMaxSize, maxSize );
+			table.setMaxSize( maxSize );
+		}
+	}
+
+	void encode( List< Entry< String, String > > headers, ByteArrayOutputStream out ) {
+		if( minMaxSize >= 0 ) {
+			if( minMaxSize < table.maxSize() ) {
+				writeInt( out, 0x20, 5, minMaxSize );
+			}
+			writeInt( out, 0x20, 5, table.maxSize() );
+			minMaxSize = -1;
+		}
+		for( Entry< String, String > header : headers ) {
+			final String name = header.getKey();
+			final String value = header.getValue();
+			final int index = table.indexOf( name, value );
+			if( index > 0 ) {
+				writeInt( out, 0x80, 7, index );
+				continue;
+			}
+			final int nameIndex = table.indexOfName( name );
+			final boolean addToTable;
+			if( isSensitive( name ) ) {
+				writeInt( out, 0x10, 4, nameIndex );
+				addToTable = false;
+			} else if( isVolatile( name ) ) {
+				writeInt( out, 0x00, 4, nameIndex );
+				addToTable = false;
+			} else {
+				writeInt( out, 0x40, 6, nameIndex );
+				addToTable = true;
+			}
+			if( nameIndex == 0 ) {
+				writeString( out, name );
+			}
+			writeString( out, value );
+			if( addToTable ) {
+				table.add( name, value );
+			}
+		}
+	}
+
+	// Fields that intermediaries should never index (RFC 7541, section 7.1.3)
+	private static boolean isSensitive( String name ) {
+		switch( name ) {
+		case "authorization":
+		case "proxy-authorization":
+		case "cookie":
+		case "set-cookie":
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	// Fields that are unlikely to repeat, which would only evict useful entries
+	private static boolean isVolatile( String name ) {
+		switch( name ) {
+		case ":path":
+		case "content-length":
+		case "date":
+		case "etag":
+		case "last-modified":
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private static void writeInt( ByteArrayOutputStream out, int mask, int prefixBits, int value ) {
+		final int max = (1 << prefixBits) - 1;
+		if( value < max ) {
+			out.write( mask | value );
+			return;
+		}
+		out.write( mask | max );
+		value -= max;
+		while( value >= 0x80 ) {
+			out.write( (value & 0x7F) | 0x80 );
+			value >>>= 7;
+		}
+		out.write( value );
+	}
+
+	private static void writeString( ByteArrayOutputStream out, String s ) {
+		final int huffmanLength = Huffman.encodedLength( s );
+		if( huffmanLength < s.length() ) {
+			writeInt( out, 0x80, 7, huffmanLength );
+			Huffman.encode( s, out );
+		} else {
+			writeInt( out, 0x00, 7, s.length() );
+			final byte[] bytes = s.getBytes( StandardCharsets.ISO_8859_1 );
+			out.write( bytes, 0, bytes.length );
+		}
+	}
+}
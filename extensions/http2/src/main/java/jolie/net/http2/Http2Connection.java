@@ -0,0 +1,967 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import jolie.net.ChannelClosingException;
+
+/**
+ * An HTTP/2 connection (RFC 7540) over a pair of streams, on the client or on the server side.
+ *
+ * Frames are read by one thread at a time through {@link #read(boolean)}, which returns the
+ * streams whose messages have been received completely. Messages can be sent concurrently by other
+ * threads. Sending never waits for the flow control window of the other party: the data that does
+ * not fit in it is kept by the stream, and sent as soon as the other party enlarges the window,
+ * which is noticed by the reading thread.
+ *
+ * Received messages are kept in memory until they are complete, so flow control bounds how much
+ * memory they take. The window of each stream is the maximum size of a message body, and it is
+ * never enlarged, since a stream carries only one message. The window of the connection is twice
+ * that size, and it is enlarged only as much as the data of the messages returned by
+ * {@link #read(boolean)} or of the discarded streams. If the window of the connection is exhausted
+ * by messages that are not complete, the stream holding the most data is refused.
+ */
+public final class Http2Connection {
+	/**
+	 * The connection preface sent by clients.
+	 */
+	public static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes( StandardCharsets.US_ASCII );
+
+	private static final int FRAME_HEADER_LENGTH = 9;
+
+	private static final int DATA = 0x0;
+	private static final int HEADERS = 0x1;
+	private static final int PRIORITY = 0x2;
+	private static final int RST_STREAM = 0x3;
+	private static final int SETTINGS = 0x4;
+	private static final int PUSH_PROMISE = 0x5;
+	private static final int PING = 0x6;
+	private static final int GOAWAY = 0x7;
+	private static final int WINDOW_UPDATE = 0x8;
+	private static final int CONTINUATION = 0x9;
+
+	private static final int FLAG_END_STREAM = 0x1;
+	private static final int FLAG_ACK = 0x1;
+	private static final int FLAG_END_HEADERS = 0x4;
+	private static final int FLAG_PADDED = 0x8;
+	private static final int FLAG_PRIORITY = 0x20;
+
+	private static final int SETTINGS_HEADER_TABLE_SIZE = 0x1;
+	private static final int SETTINGS_ENABLE_PUSH = 0x2;
+	private static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+	private static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+	private static final int SETTINGS_MAX_FRAME_SIZE = 0x5;
+	private static final int SETTINGS_MAX_HEADER_LIST_SIZE = 0x6;
+
+	private static final int DEFAULT_WINDOW_SIZE = 65535;
+	private static final int DEFAULT_MAX_FRAME_SIZE = 16384;
+	private static final int MAX_FRAME_SIZE_LIMIT = 16777215;
+
+	/**
+	 * The default maximum size of a message body.
+	 */
+	public static final int DEFAULT_MAX_BODY_SIZE = 16 * 1024 * 1024;
+
+	// What we advertise to the other party
+	private static final int MAX_CONCURRENT_STREAMS = 128;
+	private static final int MAX_HEADER_LIST_SIZE = 64 * 1024;
+
+	private final InputStream istream;
+	private final OutputStream ostream;
+	private final boolean server;
+	private final int maxBodySize;
+	private final int connectionWindowSize;
+
+	// Guarded by this
+	private final Map< Integer, Http2Stream > streams = new LinkedHashMap<>();
+	private final Deque< Http2Stream > failedStreams = new ArrayDeque<>();
+	private final HpackEncoder encoder = new HpackEncoder();
+	private final byte[] outFrameHeader = new byte[ FRAME_HEADER_LENGTH ];
+	private int nextStreamId = 1;
+	private int peerInitialWindowSize = DEFAULT_WINDOW_SIZE;
+	private int peerMaxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+	private int sendWindow = DEFAULT_WINDOW_SIZE;
+	private int recvWindow;
+	// Data consumed since the last WINDOW_UPDATE of the connection window
+	private int consumed = 0;
+	private boolean goAwaySent = false;
+	private boolean goAwayReceived = false;
+
+	// Used only by the reading thread
+	private final HpackDecoder decoder = new HpackDecoder( MAX_HEADER_LIST_SIZE );
+	private final byte[] inFrameHeader = new byte[ FRAME_HEADER_LENGTH ];
+	private final byte[] payload = new byte[ DEFAULT_MAX_FRAME_SIZE ];
+	private boolean prefaceExpected = false;
+	private int lastRemoteStreamId = 0;
+	// Header block being received, split in a HEADERS frame and CONTINUATION frames
+	private ByteArrayOutputStream headerBlock = null;
+	private int headerBlockStreamId = 0;
+	private int headerBlockFlags = 0;
+
+	public Http2Connection( InputStream istream, OutputStream ostream, boolean server ) {
+		this( istream, ostream, server, DEFAULT_MAX_BODY_SIZE );
+	}
+
+	/**
+	 * @param maxBodySize the maximum size of the body of a received message, in bytes
+	 */
+	public Http2Connection( InputStream istream, OutputStream ostream, boolean server, int maxBodySize ) {
+		this.istream = istream;
+		this.ostream = ostream;
+		this.server = server;
+		this.maxBodySize = maxBodySize;
+		this.connectionWindowSize = (int) Math.min( Integer.MAX_VALUE,
+			Math.max( DEFAULT_WINDOW_SIZE, 2L * maxBodySize ) );
+		this.recvWindow = connectionWindowSize;
+	}
+
+	/**
+	 * Starts a client connection, by sending the connection preface.
+	 */
+	public synchronized void startClient()
+		throws IOException {
+		ostream.write( PREFACE );
+		writeInitialSettings();
+	}
+
+	/**
+	 * Starts a server connection, after having received the connection preface of the client.
+	 */
+	public synchronized void startServer()
+		throws IOException {
+		writeInitialSettings();
+	}
+
+	/**
+	 * Starts a server connection upgraded from HTTP/1.1 (RFC 7540, section 3.2). The request that
+	 * asked for the upgrade becomes stream 1, which is returned, and the client is expected to send
+	 * the connection preface.
+	 *
+	 * @param settings the decoded content of the HTTP2-Settings header of the request
+	 * @param headers the header fields of the request, translated to HTTP/2
+	 * @param body the body of the request
+	 */
+	public Http2Stream startUpgradedServer( byte[] settings, List< Entry< String, String > > headers, byte[] body )
+		throws IOException {
+		if( settings.length % 6 != 0 ) {
+			throw Http2Exception.protocolError( "Invalid HTTP2-Settings header" );
+		}
+		prefaceExpected = true;
+		lastRemoteStreamId = 1;
+		synchronized( this ) {
+			applySettings( settings, settings.length );
+			writeInitialSettings();
+			final Http2Stream stream = new Http2Stream( 1, peerInitialWindowSize, maxBodySize );
+			stream.setHeaders( headers );
+			stream.setBody( body );
+			stream.remoteClosed = true;
+			streams.put( 1, stream );
+			return stream;
+		}
+	}
+
+	private void writeInitialSettings()
+		throws IOException {
+		final byte[] settings = new byte[ 18 ];
+		int n = 0;
+		if( server ) {
+			n = putSetting( settings, n, SETTINGS_MAX_CONCURRENT_STREAMS, MAX_CONCURRENT_STREAMS );
+		} else {
+			n = putSetting( settings, n, SETTINGS_ENABLE_PUSH, 0 );
+		}
+		n = putSetting( settings, n, SETTINGS_INITIAL_WINDOW_SIZE, maxBodySize );
+		n = putSetting( settings, n, SETTINGS_MAX_HEADER_LIST_SIZE, MAX_HEADER_LIST_SIZE );
+		writeFrame( SETTINGS, 0, 0, settings, 0, n );
+		// The connection window can only be enlarged by WINDOW_UPDATE
+		if( connectionWindowSize > DEFAULT_WINDOW_SIZE ) {
+			writeWindowUpdate( 0, connectionWindowSize - DEFAULT_WINDOW_SIZE );
+		}
+		ostream.flush();
+	}
+
+	private static int putSetting( byte[] b, int offset, int id, int value ) {
+		b[ offset ] = (byte) (id >>> 8);
+		b[ offset + 1 ] = (byte) id;
+		putInt( b, offset + 2, value );
+		return offset + 6;
+	}
+
+	/**
+	 * Returns <code>true</code> if either party started to shut down the connection.
+	 */
+	public synchronized boolean isGoingAway() {
+		return goAwaySent || goAwayReceived;
+	}
+
+	/**
+	 * Reads frames until the message of some stream has been received completely, that is, a request
+	 * on the server side or a response on the client side. On the client side, the returned stream
+	 * may also be one that the server reset or refused.
+	 *
+	 * @param block if <code>false</code>, stops and returns <code>null</code> when no complete frame
+	 *        can be read without waiting for more data, after the first one
+	 */
+	public Http2Stream read( boolean block )
+		throws IOException {
+		Http2Stream stream = pollFailedStream();
+		while( stream == null ) {
+			stream = readFrame();
+			if( stream == null ) {
+				stream = pollFailedStream();
+				if( stream == null && !block && headerBlock == null && istream.available() <= 0 ) {
+					return null;
+				}
+			}
+		}
+		return stream;
+	}
+
+	private synchronized Http2Stream pollFailedStream() {
+		return failedStreams.poll();
+	}
+
+	private Http2Stream readFrame()
+		throws IOException {
+		if( prefaceExpected ) {
+			final byte[] preface = new byte[ PREFACE.length ];
+			readFully( preface, preface.length );
+			if( !Arrays.equals( preface, PREFACE ) ) {
+				throw Http2Exception.protocolError( "Invalid connection preface" );
+			}
+			prefaceExpected = false;
+		}
+		final int firstByte = istream.read();
+		if( firstByte < 0 ) {
+			throw new ChannelClosingException( "[http2] Remote host closed connection." );
+		}
+		inFrameHeader[ 0 ] = (byte) firstByte;
+		readFully( inFrameHeader, 1, FRAME_HEADER_LENGTH - 1 );
+		final int length = ((inFrameHeader[ 0 ] & 0xFF) << 16) | ((inFrameHeader[ 1 ] & 0xFF) << 8)
+			| (inFrameHeader[ 2 ] & 0xFF);
+		final int type = inFrameHeader[ 3 ] & 0xFF;
+		final int flags = inFrameHeader[ 4 ] & 0xFF;
+		final int streamId = getInt( inFrameHeader, 5 ) & 0x7FFFFFFF;
+		if( length > payload.length ) {
+			throw connectionError( new Http2Exception( Http2Exception.FRAME_SIZE_ERROR,
+				"Frame exceeds the maximum frame size (" + payload.length + " bytes)" ) );
+		}
+		readFully( payload, length );
+
+		synchronized( this ) {
+			try {
+				if( headerBlock != null && type != CONTINUATION ) {
+					throw Http2Exception.protocolError( "Header block interrupted by another frame" );
+				}
+				switch( type ) {
+				case DATA:
+					return onData( streamId, flags, length );
+				case HEADERS:
+					return onHeaders( streamId, flags, length );
+				case PRIORITY:
+					onPriority( streamId, length );
+					return null;
+				case RST_STREAM:
+					return onRstStream( streamId, length );
+				case SETTINGS:
+					onSettings( streamId, flags, length );
+					return null;
+				case PUSH_PROMISE:
+					throw Http2Exception.protocolError( "Server push is not enabled" );
+				case PING:
+					onPing( streamId, flags, length );
+					return null;
+				case GOAWAY:
+					onGoAway( streamId, length );
+					return null;
+				case WINDOW_UPDATE:
+					onWindowUpdate( streamId, length );
+					return null;
+				case CONTINUATION:
+					return onContinuation( streamId, flags, length );
+				default:
+					// Unknown frame types must be ignored
+					return null;
+				}
+			} catch( Http2Exception e ) {
+				if( e.isConnectionError() ) {
+					throw connectionError( e );
+				}
+				failStream( e.streamId(), e.errorCode() );
+				return null;
+			}
+		}
+	}
+
+	private Http2Exception connectionError( Http2Exception e ) {
+		try {
+			goAway( e.errorCode() );
+		} catch( IOException ioe ) {
+			e.addSuppressed( ioe );
+		}
+		return e;
+	}
+
+	private void readFully( byte[] b, int length )
+		throws IOException {
+		readFully( b, 0, length );
+	}
+
+	private void readFully( byte[] b, int offset, int length )
+		throws IOException {
+		while( length > 0 ) {
+			final int r = istream.read( b, offset, length );
+			if( r < 0 ) {
+				throw new EOFException( "HTTP/2 connection closed in the middle of a frame" );
+			}
+			offset += r;
+			length -= r;
+		}
+	}
+
+	private static int getInt( byte[] b, int offset ) {
+		return ((b[ offset ] & 0xFF) << 24) | ((b[ offset + 1 ] & 0xFF) << 16) | ((b[ offset + 2 ] & 0xFF) << 8)
+			| (b[ offset + 3 ] & 0xFF);
+	}
+
+	private static void putInt( byte[] b, int offset, int value ) {
+		b[ offset ] = (byte) (value >>> 24);
+		b[ offset + 1 ] = (byte) (value >>> 16);
+		b[ offset + 2 ] = (byte) (value >>> 8);
+		b[ offset + 3 ] = (byte) value;
+	}
+
+	/*
+	 * Returns the number of padding octets of a padded frame, checking that they fit in it.
+	 */
+	private int padLength( int flags, int length, int offset )
+		throws Http2Exception {
+		if( (flags & FLAG_PADDED) == 0 ) {
+			return 0;
+		}
+		if( length < 1 ) {
+			throw Http2Exception.protocolError( "Padded frame without padding length" );
+		}
+		final int padLength = payload[ 0 ] & 0xFF;
+		if( padLength > length - offset ) {
+			throw Http2Exception.protocolError( "Padding exceeds the frame payload" );
+		}
+		return padLength;
+	}
+
+	private Http2Stream onData( int streamId, int flags, int length )
+		throws IOException {
+		if( streamId == 0 ) {
+			throw Http2Exception.protocolError( "DATA frame on stream 0" );
+		}
+		// Padding counts for flow control, too
+		recvWindow -= length;
+		if( recvWindow < 0 ) {
+			throw new Http2Exception( Http2Exception.FLOW_CONTROL_ERROR, "Connection flow control window exceeded" );
+		}
+		final int offset = (flags & FLAG_PADDED) == 0 ? 0 : 1;
+		final int dataLength = length - offset - padLength( flags, length, offset );
+
+		final Http2Stream stream = streams.get( streamId );
+		if( stream == null || stream.remoteClosed || stream.headers() == null ) {
+			// Discarded data is consumed right away
+			release( length );
+			if( stream == null || stream.remoteClosed ) {
+				checkNotIdle( streamId );
+				throw new Http2Exception( Http2Exception.STREAM_CLOSED, streamId, "DATA frame on a closed stream" );
+			}
+			throw new Http2Exception( Http2Exception.PROTOCOL_ERROR, streamId, "DATA frame before HEADERS" );
+		}
+		stream.recvWindow -= length;
+		if( stream.recvWindow < 0 ) {
+			release( length );
+			throw new Http2Exception( Http2Exception.FLOW_CONTROL_ERROR, streamId,
+				"Stream flow control window exceeded" );
+		}
+		stream.appendBody( payload, offset, dataLength );
+		stream.buffered += dataLength;
+		release( length - dataLength );
+		if( (flags & FLAG_END_STREAM) != 0 ) {
+			return onRemoteClosed( stream );
+		}
+		if( stream.recvWindow == 0 ) {
+			// The window of a stream is never enlarged, so the message could not be completed
+			throw new Http2Exception( Http2Exception.CANCEL, streamId,
+				"Message body exceeds the maximum size (" + maxBodySize + " bytes)" );
+		}
+		if( recvWindow == 0 ) {
+			refuseLargestStream();
+		}
+		return null;
+	}
+
+	/*
+	 * Gives back the part of the connection flow control window taken by data that has been consumed.
+	 * The other party is updated when at least half of the window has been used.
+	 */
+	private void release( int length )
+		throws IOException {
+		consumed += length;
+		if( consumed > 0 && recvWindow <= connectionWindowSize / 2 ) {
+			writeWindowUpdate( 0, consumed );
+			recvWindow += consumed;
+			consumed = 0;
+			ostream.flush();
+		}
+	}
+
+	/*
+	 * Called when the connection window has been exhausted by messages that are not complete, which
+	 * could then never be completed.
+	 */
+	private void refuseLargestStream()
+		throws IOException {
+		Http2Stream largest = null;
+		for( Http2Stream stream : streams.values() ) {
+			if( !stream.remoteClosed && (largest == null || stream.buffered > largest.buffered) ) {
+				largest = stream;
+			}
+		}
+		if( largest != null && largest.buffered > 0 ) {
+			failStream( largest.id(), Http2Exception.REFUSED_STREAM );
+		}
+	}
+
+	/*
+	 * Resets a stream because of an error. On the client side, the request sent on it fails.
+	 */
+	private void failStream( int streamId, int errorCode )
+		throws IOException {
+		final Http2Stream stream = streams.get( streamId );
+		resetStream( streamId, errorCode );
+		if( stream != null && !server ) {
+			stream.setErrorCode( errorCode );
+			failedStreams.add( stream );
+		}
+	}
+
+	private void checkBodySize( Http2Stream stream )
+		throws Http2Exception {
+		final String contentLength = stream.header( "content-length" );
+		if( contentLength == null ) {
+			return;
+		}
+		final long length;
+		try {
+			length = Long.parseLong( contentLength.trim() );
+		} catch( NumberFormatException e ) {
+			// The http protocol rejects the message
+			return;
+		}
+		if( length > maxBodySize ) {
+			throw new Http2Exception( Http2Exception.CANCEL, stream.id(),
+				"Message body exceeds the maximum size (" + maxBodySize + " bytes)" );
+		}
+	}
+
+	/*
+	 * Frames on streams that were never opened are connection errors (RFC 7540, section 5.1).
+	 */
+	private void checkNotIdle( int streamId )
+		throws Http2Exception {
+		final boolean idle = isRemoteStream( streamId ) ? streamId > lastRemoteStreamId : streamId >= nextStreamId;
+		if( idle ) {
+			throw Http2Exception.protocolError( "Frame on idle stream " + streamId );
+		}
+	}
+
+	private boolean isRemoteStream( int streamId ) {
+		// Clients initiate odd-numbered streams
+		return server == ((streamId & 1) == 1);
+	}
+
+	private Http2Stream onRemoteClosed( Http2Stream stream )
+		throws IOException {
+		stream.remoteClosed = true;
+		// The message is returned by read, so its data is consumed
+		release( stream.buffered );
+		stream.buffered = 0;
+		if( !server && !stream.localClosed ) {
+			// The server responded before reading the whole request, we stop sending it
+			resetStream( stream.id(), Http2Exception.NO_ERROR );
+		}
+		closeIfDone( stream );
+		return stream;
+	}
+
+	private void closeIfDone( Http2Stream stream ) {
+		if( stream.localClosed && stream.remoteClosed ) {
+			streams.remove( stream.id() );
+		}
+	}
+
+	private Http2Stream onHeaders( int streamId, int flags, int length )
+		throws IOException {
+		if( streamId == 0 ) {
+			throw Http2Exception.protocolError( "HEADERS frame on stream 0" );
+		}
+		int offset = (flags & FLAG_PADDED) == 0 ? 0 : 1;
+		final int end = length - padLength( flags, length, offset );
+		if( (flags & FLAG_PRIORITY) != 0 ) {
+			offset += 5;
+		}
+		if( offset > end ) {
+			throw Http2Exception.protocolError( "Invalid HEADERS frame" );
+		}
+		headerBlock = new ByteArrayOutputStream( end - offset );
+		headerBlock.write( payload, offset, end - offset );
+		headerBlockStreamId = streamId;
+		headerBlockFlags = flags;
+		return (flags & FLAG_END_HEADERS) != 0 ? onHeaderBlock() : null;
+	}
+
+	private Http2Stream onContinuation( int streamId, int flags, int length )
+		throws IOException {
+		if( headerBlock == null || streamId != headerBlockStreamId ) {
+			throw Http2Exception.protocolError( "Unexpected CONTINUATION frame" );
+		}
+		headerBlock.write( payload, 0, length );
+		if( headerBlock.size() > 2 * MAX_HEADER_LIST_SIZE ) {
+			throw Http2Exception.protocolError( "Header block too large" );
+		}
+		return (flags & FLAG_END_HEADERS) != 0 ? onHeaderBlock() : null;
+	}
+
+	private Http2Stream onHeaderBlock()
+		throws IOException {
+		final byte[] block = headerBlock.toByteArray();
+		final int streamId = headerBlockStreamId;
+		final boolean endStream = (headerBlockFlags & FLAG_END_STREAM) != 0;
+		headerBlock = null;
+		headerBlockStreamId = 0;
+
+		List< Entry< String, String > > headers;
+		Http2Exception headersError = null;
+		try {
+			headers = decoder.decode( block, 0, block.length );
+		} catch( Http2Exception e ) {
+			if( e.errorCode() == Http2Exception.COMPRESSION_ERROR ) {
+				throw e;
+			}
+			// The block has been decoded anyway, so the connection can go on
+			headers = null;
+			headersError = new Http2Exception( e.errorCode(), streamId, e.getMessage() );
+		}
+
+		Http2Stream stream = streams.get( streamId );
+		if( stream == null ) {
+			if( !server || !isRemoteStream( streamId ) ) {
+				checkNotIdle( streamId );
+				// A response to a request that we reset
+				return null;
+			}
+			if( streamId <= lastRemoteStreamId ) {
+				throw new Http2Exception( Http2Exception.STREAM_CLOSED, "HEADERS frame on closed stream" );
+			}
+			lastRemoteStreamId = streamId;
+			if( headersError != null ) {
+				throw headersError;
+			}
+			if( goAwaySent || streams.size() >= MAX_CONCURRENT_STREAMS ) {
+				throw new Http2Exception( Http2Exception.REFUSED_STREAM, streamId, "Stream refused" );
+			}
+			stream = new Http2Stream( streamId, peerInitialWindowSize, maxBodySize );
+			stream.setHeaders( headers );
+			streams.put( streamId, stream );
+			checkBodySize( stream );
+		} else {
+			if( headersError != null ) {
+				throw headersError;
+			}
+			if( stream.remoteClosed ) {
+				throw new Http2Exception( Http2Exception.STREAM_CLOSED, streamId, "HEADERS frame on closed stream" );
+			}
+			if( stream.headers() == null ) {
+				final String status = findHeader( headers, ":status" );
+				if( status != null && status.startsWith( "1" ) ) {
+					// Informational response, the final one follows
+					return null;
+				}
+				stream.setHeaders( headers );
+				checkBodySize( stream );
+			} else if( !endStream ) {
+				throw new Http2Exception( Http2Exception.PROTOCOL_ERROR, streamId, "Trailers without END_STREAM" );
+			}
+			// Otherwise these are trailers, which we ignore
+		}
+		return endStream ? onRemoteClosed( stream ) : null;
+	}
+
+	private static String findHeader( List< Entry< String, String > > headers, String name ) {
+		for( Entry< String, String > header : headers ) {
+			if( header.getKey().equals( name ) ) {
+				return header.getValue();
+			}
+		}
+		return null;
+	}
+
+	private void onPriority( int streamId, int length )
+		throws Http2Exception {
+		if( streamId == 0 ) {
+			throw Http2Exception.protocolError( "PRIORITY frame on stream 0" );
+		}
+		if( length != 5 ) {
+			throw new Http2Exception( Http2Exception.FRAME_SIZE_ERROR, streamId, "Invalid PRIORITY frame" );
+		}
+		// Prioritisation is advisory, we serve streams in order
+	}
+
+	private Http2Stream onRstStream( int streamId, int length )
+		throws IOException {
+		if( streamId == 0 ) {
+			throw Http2Exception.protocolError( "RST_STREAM frame on stream 0" );
+		}
+		if( length != 4 ) {
+			throw new Http2Exception( Http2Exception.FRAME_SIZE_ERROR, "Invalid RST_STREAM frame" );
+		}
+		final Http2Stream stream = streams.remove( streamId );
+		if( stream == null ) {
+			checkNotIdle( streamId );
+			return null;
+		}
+		stream.setErrorCode( getInt( payload, 0 ) );
+		stream.pendingData = null;
+		release( stream.buffered );
+		stream.buffered = 0;
+		// Servers just drop the response, clients have to know that the request failed
+		return server ? null : stream;
+	}
+
+	private void onSettings( int streamId, int flags, int length )
+		throws IOException {
+		if( streamId != 0 ) {
+			throw Http2Exception.protocolError( "SETTINGS frame on a stream" );
+		}
+		if( (flags & FLAG_ACK) != 0 ) {
+			if( length != 0 ) {
+				throw new Http2Exception( Http2Exception.FRAME_SIZE_ERROR, "SETTINGS acknowledgement with payload" );
+			}
+			return;
+		}
+		if( length % 6 != 0 ) {
+			throw new Http2Exception( Http2Exception.FRAME_SIZE_ERROR, "Invalid SETTINGS frame" );
+		}
+		applySettings( payload, length );
+		writeFrame( SETTINGS, FLAG_ACK, 0, payload, 0, 0 );
+		flushPendingData();
+		ostream.flush();
+	}
+
+	private void applySettings( byte[] b, int length )
+		throws Http2Exception {
+		for( int i = 0; i < length; i += 6 ) {
+			final int id = ((b[ i ] & 0xFF) << 8) | (b[ i + 1 ] & 0xFF);
+			final int value = getInt( b, i + 2 );
+			switch( id ) {
+			case SETTINGS_HEADER_TABLE_SIZE:
+				encoder.setMaxTableSize( value < 0 ? Integer.MAX_VALUE : value );
+				break;
+			case SETTINGS_ENABLE_PUSH:
+				if( value != 0 && value != 1 ) {
+					throw Http2Exception.protocolError( "Invalid SETTINGS_ENABLE_PUSH" );
+				}
+				// We never push
+				break;
+			case SETTINGS_INITIAL_WINDOW_SIZE:
+				if( value < 0 ) {
+					throw new Http2Exception( Http2Exception.FLOW_CONTROL_ERROR,
+						"Invalid SETTINGS_INITIAL_WINDOW_SIZE" );
+				}
+				final int delta = value - peerInitialWindowSize;
+				for( Http2Stream stream : streams.values() ) {
+					if( (long) stream.sendWindow + delta > Integer.MAX_VALUE ) {
+						throw new Http2Exception( Http2Exception.FLOW_CONTROL_ERROR,
+							"Stream flow control window overflow" );
+					}
+					stream.sendWindow += delta;
+				}
+				peerInitialWindowSize = value;
+				break;
+			case SETTINGS_MAX_FRAME_SIZE:
+				if( value < DEFAULT_MAX_FRAME_SIZE || value > MAX_FRAME_SIZE_LIMIT ) {
+					throw Http2Exception.protocolError( "Invalid SETTINGS_MAX_FRAME_SIZE" );
+				}
+				peerMaxFrameSize = value;
+				break;
+			default:
+				// SETTINGS_MAX_CONCURRENT_STREAMS and SETTINGS_MAX_HEADER_LIST_SIZE are advisory for us, unknown
+				// settings must be ignored
+				break;
+			}
+		}
+	}
+
+	private void onPing( int streamId, int flags, int length )
+		throws IOException {
+		if( streamId != 0 ) {
+			throw Http2Exception.protocolError( "PING frame on a stream" );
+		}
+		if( length != 8 ) {
+			throw new Http2Exception( Http2Exception.FRAME_SIZE_ERROR, "Invalid PING frame" );
+		}
+		if( (flags & FLAG_ACK) == 0 ) {
+			writeFrame( PING, FLAG_ACK, 0, payload, 0, 8 );
+			ostream.flush();
+		}
+	}
+
+	private void onGoAway( int streamId, int length )
+		throws IOException {
+		if( streamId != 0 ) {
+			throw Http2Exception.protocolError( "GOAWAY frame on a stream" );
+		}
+		if( length < 8 ) {
+			throw new Http2Exception( Http2Exception.FRAME_SIZE_ERROR, "Invalid GOAWAY frame" );
+		}
+		goAwayReceived = true;
+		if( !server ) {
+			// Requests on later streams were not processed, and can be retried
+			final int lastStreamId = getInt( payload, 0 ) & 0x7FFFFFFF;
+			final Iterator< Http2Stream > it = streams.values().iterator();
+			while( it.hasNext() ) {
+				final Http2Stream stream = it.next();
+				if( stream.id() > lastStreamId ) {
+					it.remove();
+					stream.setErrorCode( Http2Exception.REFUSED_STREAM );
+					stream.pendingData = null;
+					release( stream.buffered );
+					stream.buffered = 0;
+					failedStreams.add( stream );
+				}
+			}
+		}
+	}
+
+	private void onWindowUpdate( int streamId, int length )
+		throws IOException {
+		if( length != 4 ) {
+			throw new Http2Exception( Http2Exception.FRAME_SIZE_ERROR, "Invalid WINDOW_UPDATE frame" );
+		}
+		final int increment = getInt( payload, 0 ) & 0x7FFFFFFF;
+		if( increment == 0 ) {
+			throw new Http2Exception( Http2Exception.PROTOCOL_ERROR, streamId, "Window increment of 0" );
+		}
+		if( streamId == 0 ) {
+			if( (long) sendWindow + increment > Integer.MAX_VALUE ) {
+				throw new Http2Exception( Http2Exception.FLOW_CONTROL_ERROR,
+					"Connection flow control window overflow" );
+			}
+			sendWindow += increment;
+			flushPendingData();
+		} else {
+			final Http2Stream stream = streams.get( streamId );
+			if( stream == null ) {
+				checkNotIdle( streamId );
+				return;
+			}
+			if( (long) stream.sendWindow + increment > Integer.MAX_VALUE ) {
+				throw new Http2Exception( Http2Exception.FLOW_CONTROL_ERROR, streamId,
+					"Stream flow control window overflow" );
+			}
+			stream.sendWindow += increment;
+			flushPendingData( stream );
+		}
+		ostream.flush();
+	}
+
+	/**
+	 * Opens a new stream and sends a request on it (client side).
+	 *
+	 * @param headers the header fields of the request, pseudo-header fields first
+	 * @param body the body of the request
+	 * @param attachment an object to associate to the stream
+	 */
+	public synchronized Http2Stream sendRequest( List< Entry< String, String > > headers, byte[] body,
+		Object attachment )
+		throws IOException {
+		if( goAwayReceived || goAwaySent ) {
+			throw new IOException( "HTTP/2 connection is shutting down" );
+		}
+		final Http2Stream stream = new Http2Stream( nextStreamId, peerInitialWindowSize, maxBodySize );
+		nextStreamId += 2;
+		stream.setAttachment( attachment );
+		streams.put( stream.id(), stream );
+		sendMessage( stream, headers, body );
+		return stream;
+	}
+
+	/**
+	 * Sends a response on a stream (server side). Does nothing if the stream has been closed, e.g.,
+	 * because the client reset it.
+	 *
+	 * @param headers the header fields of the response, pseudo-header fields first
+	 * @param body the body of the response
+	 * @return <code>false</code> if the stream was closed
+	 */
+	public synchronized boolean sendResponse( int streamId, List< Entry< String, String > > headers, byte[] body )
+		throws IOException {
+		final Http2Stream stream = streams.get( streamId );
+		if( stream == null || stream.localClosed ) {
+			return false;
+		}
+		sendMessage( stream, headers, body );
+		return true;
+	}
+
+	private void sendMessage( Http2Stream stream, List< Entry< String, String > > headers, byte[] body )
+		throws IOException {
+		final ByteArrayOutputStream block = new ByteArrayOutputStream();
+		encoder.encode( headers, block );
+		writeHeaderBlock( stream.id(), block.toByteArray(), body.length == 0 );
+		if( body.length == 0 ) {
+			stream.localClosed = true;
+			closeIfDone( stream );
+		} else {
+			stream.pendingData = body;
+			stream.pendingOffset = 0;
+			stream.pendingEnd = body.length;
+			stream.pendingEndStream = true;
+			flushPendingData( stream );
+		}
+		ostream.flush();
+	}
+
+	private void writeHeaderBlock( int streamId, byte[] block, boolean endStream )
+		throws IOException {
+		int offset = 0;
+		int type = HEADERS;
+		int flags = endStream ? FLAG_END_STREAM : 0;
+		do {
+			final int length = Math.min( block.length - offset, peerMaxFrameSize );
+			if( offset + length == block.length ) {
+				flags |= FLAG_END_HEADERS;
+			}
+			writeFrame( type, flags, streamId, block, offset, length );
+			offset += length;
+			type = CONTINUATION;
+			flags = 0;
+		} while( offset < block.length );
+	}
+
+	private void flushPendingData()
+		throws IOException {
+		for( Http2Stream stream : streams.values().toArray( new Http2Stream[ 0 ] ) ) {
+			if( sendWindow <= 0 ) {
+				return;
+			}
+			if( stream.hasPendingData() ) {
+				flushPendingData( stream );
+			}
+		}
+	}
+
+	/*
+	 * Sends as much of the pending data of a stream as the flow control windows allow.
+	 */
+	private void flushPendingData( Http2Stream stream )
+		throws IOException {
+		while( stream.hasPendingData() ) {
+			final int remaining = stream.pendingEnd - stream.pendingOffset;
+			final int length = Math.min( Math.min( remaining, peerMaxFrameSize ),
+				Math.min( sendWindow, stream.sendWindow ) );
+			if( length <= 0 && remaining > 0 ) {
+				return;
+			}
+			final boolean last = length == remaining;
+			writeFrame( DATA, last && stream.pendingEndStream ? FLAG_END_STREAM : 0, stream.id(),
+				stream.pendingData, stream.pendingOffset, length );
+			sendWindow -= length;
+			stream.sendWindow -= length;
+			stream.pendingOffset += length;
+			if( last ) {
+				stream.pendingData = null;
+				if( stream.pendingEndStream ) {
+					stream.localClosed = true;
+					closeIfDone( stream );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resets a stream, telling the other party that it will not be processed further.
+	 */
+	public synchronized void resetStream( int streamId, int errorCode )
+		throws IOException {
+		final Http2Stream stream = streams.remove( streamId );
+		if( stream != null ) {
+			stream.pendingData = null;
+			release( stream.buffered );
+			stream.buffered = 0;
+		}
+		final byte[] b = new byte[ 4 ];
+		putInt( b, 0, errorCode );
+		writeFrame( RST_STREAM, 0, streamId, b, 0, 4 );
+		ostream.flush();
+	}
+
+	/**
+	 * Starts shutting down the connection: the other party is told that no new streams will be
+	 * processed, while the open ones can complete.
+	 */
+	public synchronized void goAway( int errorCode )
+		throws IOException {
+		if( !goAwaySent ) {
+			goAwaySent = true;
+			final byte[] b = new byte[ 8 ];
+			putInt( b, 0, lastRemoteStreamId );
+			putInt( b, 4, errorCode );
+			writeFrame( GOAWAY, 0, 0, b, 0, 8 );
+			ostream.flush();
+		}
+	}
+
+	private void writeWindowUpdate( int streamId, int increment )
+		throws IOException {
+		final byte[] b = new byte[ 4 ];
+		putInt( b, 0, increment );
+		writeFrame( WINDOW_UPDATE, 0, streamId, b, 0, 4 );
+	}
+
+	private void writeFrame( int type, int flags, int streamId, byte[] b, int offset, int length )
+		throws IOException {
+		outFrameHeader[ 0 ] = (byte) (length >>> 16);
+		outFrameHeader[ 1 ] = (byte) (length >>> 8);
+		outFrameHeader[ 2 ] = (byte) length;
+		outFrameHeader[ 3 ] = (byte) type;
+		outFrameHeader[ 4 ] = (byte) flags;
+		putInt( outFrameHeader, 5, streamId );
+		ostream.write( outFrameHeader );
+		ostream.write( b, offset, length );
+	}
+}
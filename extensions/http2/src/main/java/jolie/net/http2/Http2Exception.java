@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http2;
+
+import java.io.IOException;
+import jolie.lang.Constants;
+
+/**
+ * An HTTP/2 error (RFC 7540, section 5.4). Errors with stream identifier 0 are connection errors,
+ * the others only affect their stream.
+ */
+public class Http2Exception extends IOException {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
+	public static final int NO_ERROR = 0x0;
+	public static final int PROTOCOL_ERROR = 0x1;
+	public static final int INTERNAL_ERROR = 0x2;
+	public static final int FLOW_CONTROL_ERROR = 0x3;
+	public static final int STREAM_CLOSED = 0x5;
+	public static final int FRAME_SIZE_ERROR = 0x6;
+	public static final int REFUSED_STREAM = 0x7;
+	public static final int CANCEL = 0x8;
+	public static final int COMPRESSION_ERROR = 0x9;
+
+	private final int errorCode;
+	private final int streamId;
+
+	public Http2Exception( int errorCode, int streamId, String message ) {
+		super( message );
+		this.errorCode = errorCode;
+		this.streamId = streamId;
+	}
+
+	public Http2Exception( int errorCode, String message ) {
+		this( errorCode, 0, message );
+	}
+
+	static Http2Exception protocolError( String message ) {
+		return new Http2Exception( PROTOCOL_ERROR, message );
+	}
+
+	static Http2Exception compressionError( String message ) {
+		return new Http2Exception( COMPRESSION_ERROR, message );
+	}
+
+	public int errorCode() {
+		return errorCode;
+	}
+
+	public int streamId() {
+		return streamId;
+	}
+
+	public boolean isConnectionError() {
+		return streamId == 0;
+	}
+}
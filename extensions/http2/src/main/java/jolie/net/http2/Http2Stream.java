@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * An HTTP/2 stream, which carries one request and its response. Its state is guarded by the
+ * {@link Http2Connection} it belongs to.
+ */
+public final class Http2Stream {
+	private static final byte[] EMPTY = new byte[ 0 ];
+
+	private final int id;
+	private List< Entry< String, String > > headers = null;
+	private ByteArrayOutputStream body = null;
+	private int errorCode = -1;
+	private Object attachment = null;
+
+	// Flow control windows
+	int sendWindow;
+	int recvWindow;
+	// Received data that takes part of the connection window
+	int buffered = 0;
+
+	boolean localClosed = false;
+	boolean remoteClosed = false;
+
+	// Data waiting for the flow control window to be sent
+	byte[] pendingData = null;
+	int pendingOffset;
+	int pendingEnd;
+	boolean pendingEndStream;
+
+	Http2Stream( int id, int sendWindow, int recvWindow ) {
+		this.id = id;
+		this.sendWindow = sendWindow;
+		this.recvWindow = recvWindow;
+	}
+
+	public int id() {
+		return id;
+	}
+
+	/**
+	 * Returns the header fields received on this stream, pseudo-header fields included.
+	 */
+	public List< Entry< String, String > > headers() {
+		return headers;
+	}
+
+	void setHeaders( List< Entry< String, String > > headers ) {
+		this.headers = headers;
+	}
+
+	/**
+	 * Returns the header field with the given (lowercase) name, or <code>null</code> if there is
+	 * none.
+	 */
+	public String header( String name ) {
+		if( headers != null ) {
+			for( Entry< String, String > header : headers ) {
+				if( header.getKey().equals( name ) ) {
+					return header.getValue();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the data received on this stream.
+	 */
+	public byte[] body() {
+		return body == null ? EMPTY : body.toByteArray();
+	}
+
+	void appendBody( byte[] b, int offset, int length ) {
+		if( body == null ) {
+			body = new ByteArrayOutputStream( length );
+		}
+		body.write( b, offset, length );
+	}
+
+	void setBody( byte[] b ) {
+		body = null;
+		appendBody( b, 0, b.length );
+	}
+
+	/**
+	 * Returns <code>true</code> if the other party reset this stream, or went away before
+	 * processing it.
+	 */
+	public boolean isReset() {
+		return errorCode >= 0;
+	}
+
+	/**
+	 * Returns the error code with which this stream was reset, or -1 if it was not.
+	 */
+	public int errorCode() {
+		return errorCode;
+	}
+
+	void setErrorCode( int errorCode ) {
+		this.errorCode = errorCode;
+	}
+
+	public Object attachment() {
+		return attachment;
+	}
+
+	public void setAttachment( Object attachment ) {
+		this.attachment = attachment;
+	}
+
+	boolean hasPendingData() {
+		return pendingData != null;
+	}
+}
@@ -70,7 +70,8 @@ public class JolieServiceLoader extends EmbeddedServiceLoader {
 			config.programDirectory(), config.packagePaths(),
 			// difference:
 			serviceName.orElse( config.executionTarget() ),
-			Optional.empty() );
+			Optional.empty(),
+			config.virtualThreads() );
 
 		interpreter = new Interpreter(
 			commandLineParser.getInterpreterConfiguration(),
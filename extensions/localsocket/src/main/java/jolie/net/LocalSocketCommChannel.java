@@ -21,68 +21,19 @@
 
 package jolie.net;
 
-import cx.ath.matthew.unix.UnixSocket;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URI;
-import jolie.Interpreter;
+import java.nio.channels.SocketChannel;
 import jolie.net.protocols.CommProtocol;
 
-public class LocalSocketCommChannel extends StreamingCommChannel implements PollableCommChannel {
-	private final UnixSocket socket;
-	private final PreBufferedInputStream bufferedInputStream;
-	private final InputStream socketInputStream;
-	private final OutputStream socketOutputStream;
-
-	public LocalSocketCommChannel( UnixSocket socket, URI location, CommProtocol protocol )
-		throws IOException {
-		super( location, protocol );
-
-		this.socket = socket;
-		this.socketInputStream = socket.getInputStream();
-		this.socketOutputStream = socket.getOutputStream();
-		this.bufferedInputStream = new PreBufferedInputStream( socketInputStream );
-
-		setToBeClosed( false ); // LocalSocket connections are kept open by default
-	}
-
-	protected void sendImpl( CommMessage message )
-		throws IOException {
-		protocol().send( socketOutputStream, message, bufferedInputStream );
-		socketOutputStream.flush();
-	}
-
-	protected CommMessage recvImpl()
-		throws IOException {
-		return protocol().recv( bufferedInputStream, socketOutputStream );
-	}
-
-	protected void closeImpl()
-		throws IOException {
-		socket.close();
-	}
-
-	public synchronized boolean isReady()
-		throws IOException {
-		boolean ret = false;
-
-		if( bufferedInputStream.hasCachedData() ) {
-			ret = true;
-		} else {
-			byte[] r = new byte[ 1 ];
-			if( socketInputStream.read( r ) > 0 ) {
-				bufferedInputStream.append( r[ 0 ] );
-				ret = true;
-			}
-		}
-
-		return ret;
-	}
-
-	@Override
-	public void disposeForInputImpl()
+/**
+ * A channel over a Unix domain socket. Local socket channels are selectable, like TCP socket
+ * channels, so the channels of input ports wait for messages on the selector threads of
+ * {@link CommCore}.
+ */
+public class LocalSocketCommChannel extends SocketCommChannel {
+	public LocalSocketCommChannel( SocketChannel socketChannel, URI location, CommProtocol protocol )
 		throws IOException {
-		Interpreter.getInstance().commCore().registerForPolling( this );
+		super( socketChannel, location, protocol );
 	}
 }
@@ -18,19 +18,16 @@
  *                                                                         *
  *   For details about the authors of this software, see the AUTHORS file. *
  ***************************************************************************/
+
 package jolie.net;
 
-import jolie.net.ports.OutputPort;
-import cx.ath.matthew.unix.UnixSocket;
-import cx.ath.matthew.unix.UnixSocketAddress;
 import java.io.IOException;
-import java.io.FileNotFoundException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.SocketChannel;
 import jolie.net.ext.CommChannelFactory;
-import jolie.runtime.AndJarDeps;
+import jolie.net.ports.OutputPort;
 
-@AndJarDeps( { "cx.ath.matthew.jar" } )
 public class LocalSocketCommChannelFactory extends CommChannelFactory {
 	public LocalSocketCommChannelFactory( CommCore commCore ) {
 		super( commCore );
@@ -38,18 +35,16 @@ public class LocalSocketCommChannelFactory extends CommChannelFactory {
 
 	public CommChannel createChannel( URI location, OutputPort port )
 		throws IOException {
-		String path = location.getPath();
-		if( path == null || path.isEmpty() ) {
-			throw new FileNotFoundException( "Local socket path not specified!" );
-		}
-		UnixSocket socket = new UnixSocket(
-			new UnixSocketAddress( path, location.getHost() != null && location.getHost().equals( "abs" ) ) );
-		CommChannel ret = null;
+		final SocketChannel channel = UnixDomainSockets.openChannel();
 		try {
-			ret = new LocalSocketCommChannel( socket, location, port.getProtocol() );
+			channel.connect( UnixDomainSockets.address( location ) );
+			return new LocalSocketCommChannel( channel, location, port.getProtocol() );
 		} catch( URISyntaxException e ) {
+			channel.close();
 			throw new IOException( e );
+		} catch( IOException e ) {
+			channel.close();
+			throw e;
 		}
-		return ret;
 	}
 }
@@ -21,21 +21,21 @@
 
 package jolie.net;
 
-import cx.ath.matthew.unix.UnixServerSocket;
-import cx.ath.matthew.unix.UnixSocket;
-import cx.ath.matthew.unix.UnixSocketAddress;
-import java.io.File;
 import java.io.IOException;
-import java.io.FileNotFoundException;
+import java.net.SocketAddress;
+import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import jolie.Interpreter;
 import jolie.net.ext.CommProtocolFactory;
 import jolie.net.ports.InputPort;
 
 public class LocalSocketListener extends CommListener {
-	final private UnixServerSocket serverSocket;
-	final private UnixSocketAddress socketAddress;
+	private final ServerSocketChannel serverChannel;
 
 	public LocalSocketListener(
 		Interpreter interpreter,
@@ -44,45 +44,61 @@ public class LocalSocketListener extends CommListener {
 		throws IOException {
 		super( interpreter, protocolFactory, inputPort );
 
-		String path = inputPort.location().getPath();
-		if( path == null || path.isEmpty() ) {
-			throw new FileNotFoundException( "Local socket path not specified!" );
+		final SocketAddress address = UnixDomainSockets.address( inputPort.location() );
+		serverChannel = UnixDomainSockets.openServerChannel();
+		try {
+			serverChannel.bind( address );
+		} catch( IOException e ) {
+			serverChannel.close();
+			final IOException exception =
+				new IOException( e.getMessage() + " [with location: " + inputPort.location().toString() + "]" );
+			exception.setStackTrace( e.getStackTrace() );
+			throw exception;
 		}
-		socketAddress = new UnixSocketAddress( path,
-			inputPort.location().getHost() != null && inputPort.location().getHost().equals( "abs" ) );
-		serverSocket = new UnixServerSocket( socketAddress );
 	}
 
 	@Override
 	public void shutdown() {
-		if( !socketAddress.isAbstract() ) {
-			new File( socketAddress.getPath() ).delete();
+		if( serverChannel.isOpen() ) {
+			try {
+				serverChannel.close();
+			} catch( IOException e ) {
+			}
+		}
+		try {
+			Files.deleteIfExists( Paths.get( inputPort().location().getPath() ) );
+		} catch( IOException e ) {
+			interpreter().logWarning( e );
 		}
 	}
 
 	@Override
 	public void run() {
 		try {
-			UnixSocket socket;
-			CommChannel channel;
-			while( (socket = serverSocket.accept()) != null ) {
-				channel = new LocalSocketCommChannel(
-					socket,
+			SocketChannel socketChannel;
+			while( (socketChannel = serverChannel.accept()) != null ) {
+				final LocalSocketCommChannel channel = new LocalSocketCommChannel(
+					socketChannel,
 					inputPort().location(),
 					createProtocol() );
 				channel.setParentInputPort( inputPort() );
-				interpreter().commCore().scheduleReceive( channel, inputPort() );
-				channel = null; // Dispose for garbage collection
+				if( channel.decodesInput() ) {
+					// Wait for the first message on a selector thread
+					channel.disposeForInput();
+				} else {
+					interpreter().commCore().scheduleReceive( channel, inputPort() );
+				}
 			}
-			serverSocket.close();
-		} catch( ClosedByInterruptException ce ) {
+		} catch( ClosedByInterruptException e ) {
 			try {
-				serverSocket.close();
-			} catch( IOException e ) {
-				e.printStackTrace();
+				serverChannel.close();
+			} catch( IOException ioe ) {
+				interpreter().logWarning( ioe );
 			}
+		} catch( AsynchronousCloseException e ) {
+			// Closed by CommCore shutdown
 		} catch( IOException e ) {
-			e.printStackTrace();
+			interpreter().logWarning( e );
 		}
 	}
 }
@@ -25,9 +25,7 @@ import jolie.Interpreter;
 import jolie.net.ext.CommListenerFactory;
 import jolie.net.ext.CommProtocolFactory;
 import jolie.net.ports.InputPort;
-import jolie.runtime.AndJarDeps;
 
-@AndJarDeps( { "cx.ath.matthew.jar" } )
 public class LocalSocketListenerFactory extends CommListenerFactory {
 	public LocalSocketListenerFactory( CommCore commCore ) {
 		super( commCore );
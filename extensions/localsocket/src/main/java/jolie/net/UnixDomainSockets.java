@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.URI;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Access to the Unix domain socket channels of java.nio.
+ *
+ * These are available since Java 16, whereas this extension is built for Java 8, so they are looked
+ * up reflectively once. On older runtimes, opening a local socket fails with an IOException.
+ *
+ * Linux abstract sockets (localsocket://abs/name), which the previous JNI-based implementation
+ * supported, are rejected: java.nio only binds and connects to socket files.
+ */
+final class UnixDomainSockets {
+	private static final Method ADDRESS_OF;
+	private static final Method OPEN_CHANNEL;
+	private static final Method OPEN_SERVER_CHANNEL;
+	private static final ProtocolFamily UNIX;
+
+	static {
+		Method addressOf = null;
+		Method openChannel = null;
+		Method openServerChannel = null;
+		ProtocolFamily unix = null;
+		try {
+			addressOf = Class.forName( "java.net.UnixDomainSocketAddress" ).getMethod( "of", String.class );
+			openChannel = SocketChannel.class.getMethod( "open", ProtocolFamily.class );
+			openServerChannel = ServerSocketChannel.class.getMethod( "open", ProtocolFamily.class );
+			unix = StandardProtocolFamily.valueOf( "UNIX" );
+		} catch( ClassNotFoundException | NoSuchMethodException | IllegalArgumentException e ) {
+			addressOf = null;
+		}
+		ADDRESS_OF = addressOf;
+		OPEN_CHANNEL = openChannel;
+		OPEN_SERVER_CHANNEL = openServerChannel;
+		UNIX = unix;
+	}
+
+	private UnixDomainSockets() {}
+
+	/**
+	 * Returns the address of the local socket at the passed location, e.g., localsocket:///tmp/a.sock
+	 */
+	static SocketAddress address( URI location )
+		throws IOException {
+		final String path = location.getPath();
+		if( path == null || path.isEmpty() ) {
+			throw new FileNotFoundException( "Local socket path not specified!" );
+		}
+		if( "abs".equals( location.getHost() ) ) {
+			throw new IOException( "Abstract local sockets are not supported anymore, use a socket file such as"
+				+ " localsocket:///tmp" + path + " instead [with location: " + location + "]" );
+		}
+		return (SocketAddress) invoke( ADDRESS_OF, path );
+	}
+
+	static SocketChannel openChannel()
+		throws IOException {
+		return (SocketChannel) invoke( OPEN_CHANNEL, UNIX );
+	}
+
+	static ServerSocketChannel openServerChannel()
+		throws IOException {
+		return (ServerSocketChannel) invoke( OPEN_SERVER_CHANNEL, UNIX );
+	}
+
+	private static Object invoke( Method method, Object argument )
+		throws IOException {
+		if( ADDRESS_OF == null ) {
+			throw new IOException( "Local sockets require Java 16 or later" );
+		}
+		try {
+			return method.invoke( null, argument );
+		} catch( InvocationTargetException e ) {
+			if( e.getCause() instanceof IOException ) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException( e.getCause() );
+		} catch( IllegalAccessException e ) {
+			throw new IOException( e );
+		}
+	}
+}
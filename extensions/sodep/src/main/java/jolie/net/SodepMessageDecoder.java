@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import jolie.net.SodepProtocol.DataTypeHeaderId;
+import jolie.net.protocols.MessageDecoder;
+
+/**
+ * Finds the boundaries of SODEP messages by walking their structure as their bytes arrive, without
+ * decoding strings or values. The structure is kept as a stack of the parts that are still to be
+ * read, innermost last.
+ */
+final class SodepMessageDecoder implements MessageDecoder {
+	// Skip a number of bytes
+	private static final int SKIP = 0;
+	// A length followed by as many bytes, used for strings and byte arrays
+	private static final int STRING = 1;
+	// A fault flag, followed by the fault name and value if set
+	private static final int FAULT = 2;
+	// A number of values
+	private static final int VALUE = 3;
+	// The number of children of a value
+	private static final int CHILDREN = 4;
+	// A number of children, each with its name and vector
+	private static final int CHILD = 5;
+	// The size of a vector, followed by as many values
+	private static final int VECTOR = 6;
+
+	private static final int INITIAL_DEPTH = 16;
+
+	private int[] kinds = new int[ INITIAL_DEPTH ];
+	private int[] counts = new int[ INITIAL_DEPTH ];
+	private int depth = 0;
+
+	// Integer being read, possibly across buffers
+	private int partial = 0;
+	private int partialBytes = 0;
+
+	SodepMessageDecoder() {
+		startMessage();
+	}
+
+	@Override
+	public int decode( ByteBuffer buffer ) {
+		int messages = 0;
+		while( true ) {
+			while( depth > 0 && (kinds[ depth - 1 ] == VALUE || kinds[ depth - 1 ] == CHILD)
+				&& counts[ depth - 1 ] <= 0 ) {
+				depth--;
+			}
+			if( depth == 0 ) {
+				messages++;
+				startMessage();
+			}
+			if( !buffer.hasRemaining() ) {
+				return messages;
+			}
+
+			final int top = depth - 1;
+			switch( kinds[ top ] ) {
+			case SKIP:
+				final int skipped = Math.min( counts[ top ], buffer.remaining() );
+				buffer.position( buffer.position() + skipped );
+				counts[ top ] -= skipped;
+				if( counts[ top ] == 0 ) {
+					depth--;
+				}
+				break;
+			case STRING:
+				if( readInt( buffer ) ) {
+					depth--;
+					if( partial > 0 ) {
+						push( SKIP, partial );
+					}
+				}
+				break;
+			case FAULT:
+				depth--;
+				if( buffer.get() != 0 ) {
+					push( VALUE, 1 );
+					push( STRING, 0 );
+				}
+				break;
+			case VALUE:
+				counts[ top ]--;
+				push( CHILDREN, 0 );
+				pushContent( buffer.get() );
+				break;
+			case CHILDREN:
+				if( readInt( buffer ) ) {
+					kinds[ top ] = CHILD;
+					counts[ top ] = partial;
+				}
+				break;
+			case CHILD:
+				counts[ top ]--;
+				push( VECTOR, 0 );
+				push( STRING, 0 );
+				break;
+			case VECTOR:
+				if( readInt( buffer ) ) {
+					kinds[ top ] = VALUE;
+					counts[ top ] = partial;
+				}
+				break;
+			default:
+				throw new IllegalStateException();
+			}
+		}
+	}
+
+	private void startMessage() {
+		// Pushed in reverse order: id, resource path, operation name, fault, value
+		push( VALUE, 1 );
+		push( FAULT, 0 );
+		push( STRING, 0 );
+		push( STRING, 0 );
+		push( SKIP, 8 );
+	}
+
+	// The content of a value, as written by SodepProtocol for each data type
+	private void pushContent( byte type ) {
+		switch( type ) {
+		case DataTypeHeaderId.STRING:
+		case DataTypeHeaderId.BYTE_ARRAY:
+			push( STRING, 0 );
+			break;
+		case DataTypeHeaderId.INT:
+			push( SKIP, 4 );
+			break;
+		case DataTypeHeaderId.DOUBLE:
+		case DataTypeHeaderId.LONG:
+			push( SKIP, 8 );
+			break;
+		case DataTypeHeaderId.BOOL:
+			push( SKIP, 1 );
+			break;
+		case DataTypeHeaderId.NULL:
+		default:
+			break;
+		}
+	}
+
+	private boolean readInt( ByteBuffer buffer ) {
+		while( partialBytes < 4 ) {
+			if( !buffer.hasRemaining() ) {
+				return false;
+			}
+			partial = (partial << 8) | (buffer.get() & 0xFF);
+			partialBytes++;
+		}
+		partialBytes = 0;
+		return true;
+	}
+
+	private void push( int kind, int count ) {
+		if( depth == kinds.length ) {
+			kinds = Arrays.copyOf( kinds, depth * 2 );
+			counts = Arrays.copyOf( counts, depth * 2 );
+		}
+		kinds[ depth ] = kind;
+		counts[ depth ] = count;
+		depth++;
+	}
+}
@@ -21,23 +21,17 @@
 
 package jolie.net;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataInput;
-import java.io.DataInputStream;
-import java.io.DataOutput;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import jolie.net.protocols.ConcurrentCommProtocol;
+import jolie.net.protocols.MessageDecoder;
 import jolie.runtime.ByteArray;
 import jolie.runtime.FaultException;
 import jolie.runtime.Value;
@@ -45,64 +39,35 @@ import jolie.runtime.ValueVector;
 import jolie.runtime.VariablePath;
 
 public class SodepProtocol extends ConcurrentCommProtocol {
-	private static class DataTypeHeaderId {
-		private static final int NULL = 0;
-		private static final int STRING = 1;
-		private static final int INT = 2;
-		private static final int DOUBLE = 3;
-		private static final int BYTE_ARRAY = 4;
-		private static final int BOOL = 5;
-		private static final int LONG = 6;
+	static class DataTypeHeaderId {
+		static final int NULL = 0;
+		static final int STRING = 1;
+		static final int INT = 2;
+		static final int DOUBLE = 3;
+		static final int BYTE_ARRAY = 4;
+		static final int BOOL = 5;
+		static final int LONG = 6;
 	}
 
 	public String name() {
 		return "sodep";
 	}
 
-	private Charset stringCharset = StandardCharsets.UTF_8;
+	private final SodepReader reader = new SodepReader();
 
-	private String readString( DataInput in )
-		throws IOException {
-		int len = in.readInt();
-		if( len > 0 ) {
-			byte[] bb = new byte[ len ];
-			in.readFully( bb );
-			return new String( bb, stringCharset );
-		}
-		return "";
-	}
-
-	private void writeString( DataOutput out, String str )
-		throws IOException {
-		if( str.isEmpty() ) {
-			out.writeInt( 0 );
-		} else {
-			ByteArrayOutputStream bos = new ByteArrayOutputStream();
-			Writer writer = new OutputStreamWriter( bos, stringCharset );
-			writer.write( str );
-			writer.close();
-			byte[] bb = bos.toByteArray();
-			out.writeInt( bb.length );
-			out.write( bb );
-		}
-	}
-
-	private ByteArray readByteArray( DataInput in )
+	private ByteArray readByteArray( SodepReader in )
 		throws IOException {
 		int size = in.readInt();
 		ByteArray ret;
 		if( size > 0 ) {
-			byte[] bytes = new byte[ size ];
-			in.readFully( bytes, 0, size );
-			ret = new ByteArray( bytes );
+			ret = new ByteArray( in.readBytes( size ) );
 		} else {
 			ret = new ByteArray( new byte[ 0 ] );
 		}
 		return ret;
 	}
 
-	private void writeByteArray( DataOutput out, ByteArray byteArray )
-		throws IOException {
+	private void writeByteArray( SodepWriter out, ByteArray byteArray ) {
 		int size = byteArray.size();
 		out.writeInt( size );
 		if( size > 0 ) {
@@ -110,20 +75,20 @@ public class SodepProtocol extends ConcurrentCommProtocol {
 		}
 	}
 
-	private void writeFault( DataOutput out, FaultException fault )
+	private void writeFault( SodepWriter out, FaultException fault )
 		throws IOException {
-		writeString( out, fault.faultName() );
+		out.writeString( fault.faultName() );
 		writeValue( out, fault.value() );
 	}
 
-	private void writeValue( DataOutput out, Value value )
+	private void writeValue( SodepWriter out, Value value )
 		throws IOException {
 		Object valueObject = value.valueObject();
 		if( valueObject == null ) {
 			out.writeByte( DataTypeHeaderId.NULL );
 		} else if( valueObject instanceof String ) {
 			out.writeByte( DataTypeHeaderId.STRING );
-			writeString( out, (String) valueObject );
+			out.writeString( (String) valueObject );
 		} else if( valueObject instanceof Integer ) {
 			out.writeByte( DataTypeHeaderId.INT );
 			out.writeInt( (Integer) valueObject );
@@ -143,28 +108,34 @@ public class SodepProtocol extends ConcurrentCommProtocol {
 			out.writeByte( DataTypeHeaderId.NULL );
 		}
 
+		/*
+		 * The numbers of children and of values are patched in after writing them, so that they always
+		 * match what has been written even if the value is modified concurrently.
+		 */
 		Map< String, ValueVector > children = value.children();
-		List< Entry< String, ValueVector > > entries =
-			new LinkedList<>();
-		// if ( !entry.getKey().startsWith( "@" ) ) {
-		// }
-		entries.addAll( children.entrySet() );
-
-		out.writeInt( entries.size() );
-		for( Entry< String, ValueVector > entry : entries ) {
-			writeString( out, entry.getKey() );
-			out.writeInt( entry.getValue().size() );
+		final int childrenCountPosition = out.position();
+		out.writeInt( 0 );
+		int childrenCount = 0;
+		for( Entry< String, ValueVector > entry : children.entrySet() ) {
+			out.writeString( entry.getKey() );
+			final int sizePosition = out.position();
+			out.writeInt( 0 );
+			int size = 0;
 			for( Value v : entry.getValue() ) {
 				writeValue( out, v );
+				size++;
 			}
+			out.writeInt( sizePosition, size );
+			childrenCount++;
 		}
+		out.writeInt( childrenCountPosition, childrenCount );
 	}
 
-	private void writeMessage( DataOutput out, CommMessage message )
+	private void writeMessage( SodepWriter out, CommMessage message )
 		throws IOException {
 		out.writeLong( message.requestId() );
-		writeString( out, message.resourcePath() );
-		writeString( out, message.operationName() );
+		out.writeString( message.resourcePath() );
+		out.writeString( message.operationName() );
 		FaultException fault = message.fault();
 		if( fault == null ) {
 			out.writeBoolean( false );
@@ -175,14 +146,14 @@ public class SodepProtocol extends ConcurrentCommProtocol {
 		writeValue( out, message.value() );
 	}
 
-	private Value readValue( DataInput in )
+	private Value readValue( SodepReader in )
 		throws IOException {
 		Value value = Value.create();
 		Object valueObject = null;
 		byte b = in.readByte();
 		switch( b ) {
 		case DataTypeHeaderId.STRING:
-			valueObject = readString( in );
+			valueObject = in.readString();
 			break;
 		case DataTypeHeaderId.INT:
 			valueObject = in.readInt();
@@ -213,7 +184,7 @@ public class SodepProtocol extends ConcurrentCommProtocol {
 		ValueVector vec;
 
 		for( i = 0; i < n; i++ ) {
-			s = readString( in );
+			s = in.readString();
 			vec = ValueVector.create();
 			size = in.readInt();
 			for( k = 0; k < size; k++ ) {
@@ -224,18 +195,18 @@ public class SodepProtocol extends ConcurrentCommProtocol {
 		return value;
 	}
 
-	private FaultException readFault( DataInput in )
+	private FaultException readFault( SodepReader in )
 		throws IOException {
-		String faultName = readString( in );
+		String faultName = in.readString();
 		Value value = readValue( in );
 		return new FaultException( faultName, value );
 	}
 
-	private CommMessage readMessage( DataInput in )
+	private CommMessage readMessage( SodepReader in )
 		throws IOException {
 		long id = in.readLong();
-		String resourcePath = readString( in );
-		String operationName = readString( in );
+		String resourcePath = in.readString();
+		String operationName = in.readString();
 		FaultException fault = null;
 		if( in.readBoolean() == true ) {
 			fault = readFault( in );
@@ -244,6 +215,15 @@ public class SodepProtocol extends ConcurrentCommProtocol {
 		return new CommMessage( id, operationName, resourcePath, value, fault );
 	}
 
+	/*
+	 * Charset.forName caches the charsets looked up last, so repeated lookups of the same name are
+	 * cheap and need no state that could be shared between threads.
+	 */
+	private Charset stringCharset() {
+		final String charset = getStringParameter( "charset" );
+		return charset.isEmpty() ? StandardCharsets.UTF_8 : Charset.forName( charset );
+	}
+
 	public SodepProtocol( VariablePath configurationPath ) {
 		super( configurationPath );
 	}
@@ -252,25 +232,30 @@ public class SodepProtocol extends ConcurrentCommProtocol {
 		throws IOException {
 		channel().setToBeClosed( !checkBooleanParameter( "keepAlive", true ) );
 
-		String charset = getStringParameter( "charset" );
-		if( !charset.isEmpty() ) {
-			stringCharset = Charset.forName( charset );
+		final Charset charset = stringCharset();
+		final CharsetEncoder encoder = StandardCharsets.UTF_8.equals( charset ) ? null
+			: charset.newEncoder()
+				.onMalformedInput( CodingErrorAction.REPLACE )
+				.onUnmappableCharacter( CodingErrorAction.REPLACE );
+
+		final SodepWriter writer = new SodepWriter( encoder );
+		try {
+			writeMessage( writer, message );
+			writer.writeTo( ostream );
+		} finally {
+			writer.release();
 		}
+	}
 
-		final DataOutputStream oos = new DataOutputStream( ostream );
-		writeMessage( oos, message );
+	public MessageDecoder createMessageDecoder() {
+		return new SodepMessageDecoder();
 	}
 
 	public CommMessage recv( InputStream istream, OutputStream ostream )
 		throws IOException {
 		channel().setToBeClosed( !checkBooleanParameter( "keepAlive", true ) );
 
-		String charset = getStringParameter( "charset" );
-		if( !charset.isEmpty() ) {
-			stringCharset = Charset.forName( charset );
-		}
-
-		final DataInputStream ios = new DataInputStream( istream );
-		return readMessage( ios );
+		reader.reset( istream, stringCharset() );
+		return readMessage( reader );
 	}
 }
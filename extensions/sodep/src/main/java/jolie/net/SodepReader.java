@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Decodes SODEP data from an {@link InputStream}, reusing a scratch array for strings and
+ * primitive values.
+ *
+ * SODEP messages carry no length prefix, so the reader never consumes more bytes than the message
+ * it is decoding: whatever follows is left in the stream for the next message.
+ */
+final class SodepReader {
+	private static final int INITIAL_SCRATCH_SIZE = 256;
+	private static final int MAX_RETAINED_SCRATCH_SIZE = 64 * 1024;
+
+	private byte[] scratch = new byte[ INITIAL_SCRATCH_SIZE ];
+	private InputStream istream;
+	private Charset charset;
+
+	/**
+	 * Prepares this reader to decode a new message.
+	 */
+	void reset( InputStream istream, Charset charset ) {
+		this.istream = istream;
+		this.charset = charset;
+		if( scratch.length > MAX_RETAINED_SCRATCH_SIZE ) {
+			scratch = new byte[ INITIAL_SCRATCH_SIZE ];
+		}
+	}
+
+	private void readFully( byte[] b, int len )
+		throws IOException {
+		int n = 0;
+		while( n < len ) {
+			final int count = istream.read( b, n, len - n );
+			if( count < 0 ) {
+				throw new EOFException();
+			}
+			n += count;
+		}
+	}
+
+	private byte[] scratch( int len ) {
+		if( scratch.length < len ) {
+			scratch = new byte[ Math.max( len, scratch.length * 2 ) ];
+		}
+		return scratch;
+	}
+
+	byte readByte()
+		throws IOException {
+		final int b = istream.read();
+		if( b < 0 ) {
+			throw new EOFException();
+		}
+		return (byte) b;
+	}
+
+	boolean readBoolean()
+		throws IOException {
+		return readByte() != 0;
+	}
+
+	int readInt()
+		throws IOException {
+		final byte[] b = scratch;
+		readFully( b, 4 );
+		return ((b[ 0 ] & 0xFF) << 24)
+			| ((b[ 1 ] & 0xFF) << 16)
+			| ((b[ 2 ] & 0xFF) << 8)
+			| (b[ 3 ] & 0xFF);
+	}
+
+	long readLong()
+		throws IOException {
+		final byte[] b = scratch;
+		readFully( b, 8 );
+		return ((long) (b[ 0 ] & 0xFF) << 56)
+			| ((long) (b[ 1 ] & 0xFF) << 48)
+			| ((long) (b[ 2 ] & 0xFF) << 40)
+			| ((long) (b[ 3 ] & 0xFF) << 32)
+			| ((long) (b[ 4 ] & 0xFF) << 24)
+			| ((b[ 5 ] & 0xFF) << 16)
+			| ((b[ 6 ] & 0xFF) << 8)
+			| (b[ 7 ] & 0xFF);
+	}
+
+	double readDouble()
+		throws IOException {
+		return Double.longBitsToDouble( readLong() );
+	}
+
+	String readString()
+		throws IOException {
+		final int len = readInt();
+		if( len > 0 ) {
+			final byte[] b = scratch( len );
+			readFully( b, len );
+			return new String( b, 0, len, charset );
+		}
+		return "";
+	}
+
+	byte[] readBytes( int len )
+		throws IOException {
+		final byte[] b = new byte[ len ];
+		readFully( b, len );
+		return b;
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes SODEP data into a pooled {@link ByteBuffer}, so that a whole message can be written to
+ * the underlying stream with a single call.
+ *
+ * A writer must be released with {@link #release()} after use, which returns its buffer to the
+ * pool.
+ */
+final class SodepWriter {
+	private static final int INITIAL_CAPACITY = 8 * 1024;
+	private static final int MAX_POOLED_CAPACITY = 1024 * 1024;
+	private static final int MAX_POOLED_BUFFERS = 64;
+
+	private static final Queue< ByteBuffer > POOL = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+
+	private final CharsetEncoder encoder;
+	private ByteBuffer buffer;
+
+	/**
+	 * Creates a writer.
+	 *
+	 * @param encoder the encoder to use for strings, or {@code null} for UTF-8, which is encoded
+	 *        directly
+	 */
+	SodepWriter( CharsetEncoder encoder ) {
+		this.encoder = encoder;
+		this.buffer = acquire();
+	}
+
+	private static ByteBuffer acquire() {
+		ByteBuffer b = POOL.poll();
+		if( b == null ) {
+			return ByteBuffer.allocate( INITIAL_CAPACITY );
+		}
+		POOL_SIZE.decrementAndGet();
+		b.clear();
+		return b;
+	}
+
+	/**
+	 * Returns the buffer of this writer to the pool. The writer must not be used afterwards.
+	 */
+	void release() {
+		if( buffer.capacity() <= MAX_POOLED_CAPACITY ) {
+			if( POOL_SIZE.incrementAndGet() <= MAX_POOLED_BUFFERS ) {
+				POOL.offer( buffer );
+			} else {
+				POOL_SIZE.decrementAndGet();
+			}
+		}
+		buffer = null;
+	}
+
+	private void ensureRemaining( int n ) {
+		if( buffer.remaining() < n ) {
+			final int required = buffer.position() + n;
+			int capacity = buffer.capacity() * 2;
+			if( capacity < required ) {
+				capacity = required;
+			}
+			final ByteBuffer b = ByteBuffer.allocate( capacity );
+			buffer.flip();
+			b.put( buffer );
+			buffer = b;
+		}
+	}
+
+	int position() {
+		return buffer.position();
+	}
+
+	void writeByte( int b ) {
+		ensureRemaining( 1 );
+		buffer.put( (byte) b );
+	}
+
+	void writeBoolean( boolean b ) {
+		writeByte( b ? 1 : 0 );
+	}
+
+	void writeInt( int i ) {
+		ensureRemaining( 4 );
+		buffer.putInt( i );
+	}
+
+	/**
+	 * Overwrites the int at the given position, which must have been written before.
+	 */
+	void writeInt( int position, int i ) {
+		buffer.putInt( position, i );
+	}
+
+	void writeLong( long l ) {
+		ensureRemaining( 8 );
+		buffer.putLong( l );
+	}
+
+	void writeDouble( double d ) {
+		ensureRemaining( 8 );
+		buffer.putDouble( d );
+	}
+
+	void write( byte[] bytes ) {
+		ensureRemaining( bytes.length );
+		buffer.put( bytes );
+	}
+
+	/**
+	 * Writes a string as its length in bytes followed by its encoded bytes.
+	 */
+	void writeString( String str )
+		throws IOException {
+		final int lengthPosition = buffer.position();
+		writeInt( 0 );
+		if( str.isEmpty() ) {
+			return;
+		}
+		if( encoder == null ) {
+			writeUTF8( str );
+		} else {
+			writeEncoded( str );
+		}
+		writeInt( lengthPosition, buffer.position() - lengthPosition - 4 );
+	}
+
+	private void writeUTF8( String str ) {
+		final int length = str.length();
+		// Three bytes per char is the worst case (surrogate pairs take four bytes for two chars)
+		ensureRemaining( Math.min( length, MAX_POOLED_CAPACITY ) * 3 );
+		for( int i = 0; i < length; i++ ) {
+			if( buffer.remaining() < 4 ) {
+				ensureRemaining( 4 );
+			}
+			final char c = str.charAt( i );
+			if( c < 0x80 ) {
+				buffer.put( (byte) c );
+			} else if( c < 0x800 ) {
+				buffer.put( (byte) (0xC0 | (c >> 6)) );
+				buffer.put( (byte) (0x80 | (c & 0x3F)) );
+			} else if( Character.isSurrogate( c ) ) {
+				final int codePoint;
+				if( Character.isHighSurrogate( c ) && i + 1 < length
+					&& Character.isLowSurrogate( str.charAt( i + 1 ) ) ) {
+					codePoint = Character.toCodePoint( c, str.charAt( ++i ) );
+				} else {
+					// Malformed input is replaced, as String.getBytes does
+					buffer.put( (byte) '?' );
+					continue;
+				}
+				buffer.put( (byte) (0xF0 | (codePoint >> 18)) );
+				buffer.put( (byte) (0x80 | ((codePoint >> 12) & 0x3F)) );
+				buffer.put( (byte) (0x80 | ((codePoint >> 6) & 0x3F)) );
+				buffer.put( (byte) (0x80 | (codePoint & 0x3F)) );
+			} else {
+				buffer.put( (byte) (0xE0 | (c >> 12)) );
+				buffer.put( (byte) (0x80 | ((c >> 6) & 0x3F)) );
+				buffer.put( (byte) (0x80 | (c & 0x3F)) );
+			}
+		}
+	}
+
+	private void writeEncoded( String str )
+		throws CharacterCodingException {
+		final CharBuffer chars = CharBuffer.wrap( str );
+		encoder.reset();
+		ensureRemaining( (int) (str.length() * encoder.averageBytesPerChar()) + 1 );
+		CoderResult result = encoder.encode( chars, buffer, true );
+		while( !result.isUnderflow() ) {
+			if( result.isOverflow() ) {
+				ensureRemaining( buffer.capacity() );
+			} else {
+				result.throwException();
+			}
+			result = encoder.encode( chars, buffer, true );
+		}
+		result = encoder.flush( buffer );
+		while( result.isOverflow() ) {
+			ensureRemaining( buffer.capacity() );
+			result = encoder.flush( buffer );
+		}
+	}
+
+	/**
+	 * Writes the content encoded so far to the given stream, with a single call.
+	 */
+	void writeTo( OutputStream ostream )
+		throws IOException {
+		ostream.write( buffer.array(), buffer.arrayOffset(), buffer.position() );
+	}
+}
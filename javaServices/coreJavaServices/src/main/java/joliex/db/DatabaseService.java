@@ -31,18 +31,24 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jolie.runtime.ByteArray;
 import jolie.runtime.CanUseJars;
 import jolie.runtime.FaultException;
 import jolie.runtime.JavaService;
+import jolie.runtime.TimeoutHandler;
 import jolie.runtime.Value;
 import jolie.runtime.ValueVector;
 import jolie.runtime.embedding.RequestResponse;
+import joliex.db.impl.ConnectionPool;
+import joliex.db.impl.ConnectionPool.PooledConnection;
 import joliex.db.impl.NamedStatementParser;
 
 /**
@@ -62,7 +68,9 @@ import joliex.db.impl.NamedStatementParser;
 	"db2jcc.jar" // DB2
 } )
 public class DatabaseService extends JavaService {
-	private Connection connection = null;
+	private volatile ConnectionPool pool = null;
+	// True if cursors open their own connections instead of taking them from the pool
+	private boolean dedicatedCursorConnections = false;
 	private String connectionString = null;
 	private String username = null;
 	private String password = null;
@@ -70,20 +78,109 @@ public class DatabaseService extends JavaService {
 	private String driverClass = null;
 	private static boolean toLowerCase = false;
 	private static boolean toUpperCase = false;
-	private boolean mustCheckConnection = false;
-	private final Object transactionMutex = new Object();
 	private final static String TEMPLATE_FIELD = "_template";
 
+	private final static String CONNECTION_POOL = "connectionPool";
+	// Defaults for the pooled mode, enabled by the connectionPool parameter
+	private final static int DEFAULT_POOL_SIZE = 10;
+	private final static long DEFAULT_IDLE_TIMEOUT = 10 * 60 * 1000; // 10 minutes
+	private final static int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+	private final static String ACQUIRE_TIMEOUT = "acquireTimeout";
+	private final static long DEFAULT_ACQUIRE_TIMEOUT = 60 * 1000; // 1 minute
+
+	private final static String FETCH_SIZE_FIELD = "_fetchSize";
+	private final static String TIMEOUT_FIELD = "_timeout";
+	private final static int DEFAULT_FETCH_ROWS = 100;
+	private final static long DEFAULT_CURSOR_TIMEOUT = 60 * 1000; // 1 minute
+	// Number of parameter sets sent to the database at once by updateBatch
+	private final static int BATCH_SIZE = 1000;
+
+	private final Map< String, Cursor > cursors = new ConcurrentHashMap<>();
+
+	/**
+	 * An open result set, which keeps its connection until it is closed.
+	 */
+	private static class Cursor {
+		private final PooledConnection connection;
+		private final PreparedStatement statement;
+		private final ResultSet resultSet;
+		private final ResultSetMetaData metadata;
+		private final String[] names;
+		private final Value template;
+		private final Map< String, Integer > colIndexes;
+		private final long timeout;
+		private TimeoutHandler timeoutHandler = null;
+		// True if the result set has been moved to a row that was not returned yet
+		private boolean pending = false;
+		private boolean closed = false;
+
+		private Cursor( PooledConnection connection, PreparedStatement statement, ResultSet resultSet,
+			Value template, long timeout )
+			throws SQLException {
+			this.connection = connection;
+			this.statement = statement;
+			this.resultSet = resultSet;
+			this.metadata = resultSet.getMetaData();
+			this.template = template;
+			if( template == null ) {
+				this.names = columnNames( metadata );
+				this.colIndexes = null;
+			} else {
+				this.names = null;
+				this.colIndexes = columnIndexes( metadata );
+			}
+			this.timeout = timeout;
+		}
+
+		private boolean next()
+			throws SQLException {
+			if( pending ) {
+				pending = false;
+				return true;
+			}
+			return resultSet.next();
+		}
+
+		private void readRow( Value rowValue )
+			throws SQLException {
+			if( template == null ) {
+				rowToValue( rowValue, resultSet, metadata, names );
+			} else {
+				_rowToValueWithTemplate( rowValue, resultSet, metadata, colIndexes, template );
+			}
+		}
+
+		// Must be called while holding the monitor of the cursor
+		private void close() {
+			if( closed ) {
+				return;
+			}
+			closed = true;
+			if( timeoutHandler != null ) {
+				timeoutHandler.cancel();
+			}
+			boolean discard = false;
+			try {
+				resultSet.close();
+			} catch( SQLException e ) {
+			}
+			connection.closeStatement( statement );
+			try {
+				// The cursor only read, so there is nothing to commit
+				connection.connection().rollback();
+				connection.connection().setAutoCommit( true );
+			} catch( SQLException e ) {
+				discard = true;
+			}
+			connection.release( discard );
+		}
+	}
+
 	@Override
 	protected void finalize()
 		throws Throwable {
 		try {
-			if( connection != null ) {
-				try {
-					connection.close();
-				} catch( SQLException e ) {
-				}
-			}
+			close();
 		} finally {
 			super.finalize();
 		}
@@ -91,14 +188,16 @@ public class DatabaseService extends JavaService {
 
 	@RequestResponse
 	public void close() {
-		if( connection != null ) {
-			try {
-				connectionString = null;
-				username = null;
-				password = null;
-				connection.close();
-			} catch( SQLException e ) {
-			}
+		for( String id : cursors.keySet() ) {
+			closeCursor( id );
+		}
+		final ConnectionPool p = pool;
+		if( p != null ) {
+			connectionString = null;
+			username = null;
+			password = null;
+			pool = null;
+			p.close();
 		}
 	}
 
@@ -107,7 +206,7 @@ public class DatabaseService extends JavaService {
 		throws FaultException {
 		close();
 
-		mustCheckConnection = request.getFirstChild( "checkConnection" ).intValue() > 0;
+		final boolean mustCheckConnection = request.getFirstChild( "checkConnection" ).intValue() > 0;
 
 		toLowerCase =
 			request.getFirstChild( "toLowerCase" ).isDefined() && request.getFirstChild( "toLowerCase" ).boolValue();
@@ -171,20 +270,15 @@ public class DatabaseService extends JavaService {
 				Class.forName( driverClass );
 			}
 
+			final boolean useCredentials;
 			if( isEmbedded ) {
 				connectionString = "jdbc:" + driver + ":" + databaseName;
 				if( !attributes.isEmpty() ) {
 					connectionString += ";" + attributes;
 				}
-				if( "hsqldb".equals( driver ) ) {
-					connection = DriverManager.getConnection(
-						connectionString,
-						username,
-						password );
-				} else {
-					connection = DriverManager.getConnection( connectionString );
-				}
+				useCredentials = "hsqldb".equals( driver );
 			} else {
+				useCredentials = true;
 				if( driver.startsWith( "hsqldb" ) ) {
 					connectionString = "jdbc:" + driver + ":" + driver.substring( driver.indexOf( '_' ) + 1 ) + "//"
 						+ host + (port.isEmpty() ? "" : ":" + port) + separator + databaseName + "?characterEncoding="
@@ -194,101 +288,156 @@ public class DatabaseService extends JavaService {
 						"jdbc:" + driver + "://" + host + (port.isEmpty() ? "" : ":" + port) + separator + databaseName
 							+ "?characterEncoding=" + encoding;
 				}
-				connection = DriverManager.getConnection(
-					connectionString,
-					username,
-					password );
 			}
 
-			if( connection == null ) {
-				throw new FaultException( "ConnectionError" );
+			final String url = connectionString;
+			final String user = username;
+			final String pass = password;
+			final ConnectionPool.ConnectionFactory factory = () -> {
+				final Connection connection = useCredentials
+					? DriverManager.getConnection( url, user, pass )
+					: DriverManager.getConnection( url );
+				if( connection == null ) {
+					throw new SQLException( "The driver returned no connection for " + url );
+				}
+				return connection;
+			};
+
+			final long acquireTimeout =
+				request.firstChildOrDefault( ACQUIRE_TIMEOUT, Value::longValue, DEFAULT_ACQUIRE_TIMEOUT );
+			if( request.hasChildren( CONNECTION_POOL ) ) {
+				/*
+				 * Pooled mode: statements run in parallel on up to size connections, and connections are
+				 * validated before use if a validation query is given.
+				 */
+				final Value poolConfig = request.getFirstChild( CONNECTION_POOL );
+				final String validationQuery = poolConfig.hasChildren( "validationQuery" )
+					? poolConfig.getFirstChild( "validationQuery" ).strValue()
+					: null;
+				pool = new ConnectionPool(
+					factory,
+					validationQuery != null ? connection -> isValid( connection, validationQuery )
+						: mustCheckConnection ? this::isValid : null,
+					poolConfig.firstChildOrDefault( "size", Value::intValue, DEFAULT_POOL_SIZE ),
+					poolConfig.firstChildOrDefault( "idleTimeout", Value::longValue, DEFAULT_IDLE_TIMEOUT ),
+					acquireTimeout,
+					poolConfig.firstChildOrDefault( "statementCacheSize", Value::intValue,
+						DEFAULT_STATEMENT_CACHE_SIZE ) );
+				dedicatedCursorConnections = false;
+			} else {
+				/*
+				 * A single connection, used by one statement at a time. Cursors get connections of their
+				 * own, or an open cursor would block every other statement until it is closed.
+				 */
+				pool = new ConnectionPool( factory, mustCheckConnection ? this::isValid : null, 1, 0,
+					acquireTimeout, 0 );
+				dedicatedCursorConnections = true;
 			}
+
+			// Open the first connection now, so that connection errors are reported by connect
+			pool.acquire().release( false );
 		} catch( ClassNotFoundException e ) {
 			throw new FaultException( "DriverClassNotFound", e );
 		} catch( SQLException e ) {
+			close();
+			throw new FaultException( "ConnectionError", e );
+		} catch( InterruptedException e ) {
+			close();
+			Thread.currentThread().interrupt();
 			throw new FaultException( "ConnectionError", e );
 		}
 	}
 
-	private void _checkConnection()
+	private boolean isValid( Connection connection )
+		throws SQLException {
+		if( "postgresql".equals( driver ) ) {
+			/*
+			 * The JDBC4 driver for postgresql does not implemented isValid(). We fallback to isClosed().
+			 */
+			return !connection.isClosed();
+		} else {
+			return connection.isValid( 0 );
+		}
+	}
+
+	private static boolean isValid( Connection connection, String validationQuery ) {
+		try( Statement statement = connection.createStatement() ) {
+			statement.execute( validationQuery );
+			return true;
+		} catch( SQLException e ) {
+			return false;
+		}
+	}
+
+	private PooledConnection acquireConnection()
+		throws FaultException {
+		return acquireConnection( false );
+	}
+
+	private PooledConnection acquireConnection( boolean forCursor )
 		throws FaultException {
-		if( connection == null ) {
+		final ConnectionPool p = pool;
+		if( p == null ) {
 			throw new FaultException( "ConnectionError" );
 		}
-		if( mustCheckConnection ) {
-			try {
-				if( "postgresql".equals( driver ) ) {
-					/*
-					 * The JDBC4 driver for postgresql does not implemented isValid(). We fallback to isClosed().
-					 */
-
-					if( connection.isClosed() ) {
-						connection = DriverManager.getConnection(
-							connectionString,
-							username,
-							password );
-					}
-				} else {
-					if( !connection.isValid( 0 ) ) {
-						connection = DriverManager.getConnection(
-							connectionString,
-							username,
-							password );
-					}
-				}
-			} catch( SQLException e ) {
-				throw new FaultException( "ConnectionError", e );
-			}
+		try {
+			return forCursor && dedicatedCursorConnections ? p.acquireDedicated() : p.acquire();
+		} catch( SQLException e ) {
+			throw new FaultException( "ConnectionError", e );
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new FaultException( "ConnectionError", e );
 		}
 	}
 
 	@RequestResponse
 	public void checkConnection()
 		throws FaultException {
+		final PooledConnection connection = acquireConnection();
+		boolean valid = false;
 		try {
-			if( "postgresql".equals( driver ) ) {
-				/*
-				 * The JDBC4 driver for postgresql does not implemented isValid(). We fallback to isClosed().
-				 */
-
-				if( connection == null || connection.isClosed() ) {
-					throw new FaultException( "ConnectionError" );
-				}
-			} else {
-
-				if( connection == null || !connection.isValid( 0 ) ) {
-					throw new FaultException( "ConnectionError" );
-				}
-			}
+			valid = isValid( connection.connection() );
 		} catch( SQLException e ) {
 			throw new FaultException( "ConnectionError", e );
+		} finally {
+			connection.release( !valid );
+		}
+		if( !valid ) {
+			throw new FaultException( "ConnectionError" );
 		}
 	}
 
 	@RequestResponse
 	public Value update( Value request )
 		throws FaultException {
-		_checkConnection();
+		final PooledConnection connection = acquireConnection();
 		Value resultValue = Value.create();
 		PreparedStatement stm = null;
 		try {
-			synchronized( transactionMutex ) {
-				stm = new NamedStatementParser( connection, request.strValue(), request ).getPreparedStatement();
-				resultValue.setValue( stm.executeUpdate() );
-			}
+			stm = prepareStatement( connection, request );
+			resultValue.setValue( stm.executeUpdate() );
 		} catch( SQLException e ) {
 			throw createFaultException( e );
 		} finally {
-			if( stm != null ) {
-				try {
-					stm.close();
-				} catch( SQLException e ) {
-				}
-			}
+			connection.closeStatement( stm );
+			connection.release( false );
 		}
 		return resultValue;
 	}
 
+	private static PreparedStatement prepareStatement( PooledConnection connection, Value request )
+		throws SQLException {
+		final NamedStatementParser parser = new NamedStatementParser( request.strValue() );
+		final PreparedStatement stm = connection.prepareStatement( parser.jdbcSql() );
+		try {
+			parser.setParameters( stm, request );
+		} catch( SQLException e ) {
+			connection.closeStatement( stm );
+			throw e;
+		}
+		return stm;
+	}
+
 	private static void setValue( Value fieldValue, ResultSet result, int columnType, int index )
 		throws SQLException {
 		ByteArray supportByteArray;
@@ -385,39 +534,36 @@ public class DatabaseService extends JavaService {
 
 	private static void resultSetToValueVector( ResultSet result, ValueVector vector )
 		throws SQLException {
-		Value rowValue, fieldValue;
-		ResultSetMetaData metadata = result.getMetaData();
-		int cols = metadata.getColumnCount();
-		int i;
+		final ResultSetMetaData metadata = result.getMetaData();
+		final String[] names = columnNames( metadata );
 		int rowIndex = 0;
-		if( toLowerCase ) {
-			while( result.next() ) {
-				rowValue = vector.get( rowIndex );
-				for( i = 1; i <= cols; i++ ) {
-					fieldValue = rowValue.getFirstChild( metadata.getColumnLabel( i ).toLowerCase() );
-					setValue( fieldValue, result, metadata.getColumnType( i ), i );
-				}
-				rowIndex++;
-			}
-		} else if( toUpperCase ) {
-			while( result.next() ) {
-				rowValue = vector.get( rowIndex );
-				for( i = 1; i <= cols; i++ ) {
-					fieldValue = rowValue.getFirstChild( metadata.getColumnLabel( i ).toUpperCase() );
-					setValue( fieldValue, result, metadata.getColumnType( i ), i );
-				}
-				rowIndex++;
-			}
-		} else {
-			while( result.next() ) {
-				rowValue = vector.get( rowIndex );
-				for( i = 1; i <= cols; i++ ) {
-					fieldValue = rowValue.getFirstChild( metadata.getColumnLabel( i ) );
-					setValue( fieldValue, result, metadata.getColumnType( i ), i );
-				}
-				rowIndex++;
+		while( result.next() ) {
+			rowToValue( vector.get( rowIndex ), result, metadata, names );
+			rowIndex++;
+		}
+	}
+
+	private static String[] columnNames( ResultSetMetaData metadata )
+		throws SQLException {
+		final String[] names = new String[ metadata.getColumnCount() ];
+		for( int i = 0; i < names.length; i++ ) {
+			final String label = metadata.getColumnLabel( i + 1 );
+			if( toLowerCase ) {
+				names[ i ] = label.toLowerCase();
+			} else if( toUpperCase ) {
+				names[ i ] = label.toUpperCase();
+			} else {
+				names[ i ] = label;
 			}
 		}
+		return names;
+	}
+
+	private static void rowToValue( Value rowValue, ResultSet result, ResultSetMetaData metadata, String[] names )
+		throws SQLException {
+		for( int i = 1; i <= names.length; i++ ) {
+			setValue( rowValue.getFirstChild( names[ i - 1 ] ), result, metadata.getColumnType( i ), i );
+		}
 	}
 
 	private static void _rowToValueWithTemplate(
@@ -444,11 +590,7 @@ public class DatabaseService extends JavaService {
 		throws SQLException {
 		Value rowValue;
 		ResultSetMetaData metadata = result.getMetaData();
-		Map< String, Integer > colIndexes = new HashMap<>();
-		int cols = metadata.getColumnCount();
-		for( int i = 0; i < cols; i++ ) {
-			colIndexes.put( metadata.getColumnName( i ), i );
-		}
+		Map< String, Integer > colIndexes = columnIndexes( metadata );
 
 		int rowIndex = 0;
 		while( result.next() ) {
@@ -459,13 +601,25 @@ public class DatabaseService extends JavaService {
 		}
 	}
 
+	private static Map< String, Integer > columnIndexes( ResultSetMetaData metadata )
+		throws SQLException {
+		Map< String, Integer > colIndexes = new HashMap<>();
+		int cols = metadata.getColumnCount();
+		for( int i = 0; i < cols; i++ ) {
+			colIndexes.put( metadata.getColumnName( i ), i );
+		}
+		return colIndexes;
+	}
+
 	@RequestResponse
 	public Value executeTransaction( Value request )
 		throws FaultException {
-		_checkConnection();
+		final PooledConnection pooledConnection = acquireConnection();
+		final Connection connection = pooledConnection.connection();
+		boolean discard = false;
 		Value resultValue = Value.create();
 		ValueVector resultVector = resultValue.getChildren( "result" );
-		synchronized( transactionMutex ) {
+		try {
 			try {
 				connection.setAutoCommit( false );
 			} catch( SQLException e ) {
@@ -481,8 +635,7 @@ public class DatabaseService extends JavaService {
 				stm = null;
 				try {
 					updateCount = -1;
-					stm = new NamedStatementParser( connection, statementValue.strValue(), statementValue )
-						.getPreparedStatement();
+					stm = prepareStatement( pooledConnection, statementValue );
 					if( stm.execute() == true ) {
 						updateCount = stm.getUpdateCount();
 						if( updateCount == -1 ) {
@@ -502,17 +655,11 @@ public class DatabaseService extends JavaService {
 					try {
 						connection.rollback();
 					} catch( SQLException e1 ) {
-						connection = null;
+						discard = true;
 					}
 					throw createFaultException( e );
 				} finally {
-					if( stm != null ) {
-						try {
-							stm.close();
-						} catch( SQLException e ) {
-							throw createFaultException( e );
-						}
-					}
+					pooledConnection.closeStatement( stm );
 				}
 			}
 
@@ -520,13 +667,15 @@ public class DatabaseService extends JavaService {
 				connection.commit();
 			} catch( SQLException e ) {
 				throw createFaultException( e );
-			} finally {
-				try {
-					connection.setAutoCommit( true );
-				} catch( SQLException e ) {
-					throw createFaultException( e );
-				}
 			}
+		} finally {
+			try {
+				connection.setAutoCommit( true );
+			} catch( SQLException e ) {
+				// Do not hand out a connection that is still in a transaction
+				discard = true;
+			}
+			pooledConnection.release( discard );
 		}
 		return resultValue;
 	}
@@ -545,33 +694,200 @@ public class DatabaseService extends JavaService {
 	@RequestResponse
 	public Value query( Value request )
 		throws FaultException {
-		_checkConnection();
+		final PooledConnection connection = acquireConnection();
 		Value resultValue = Value.create();
 		PreparedStatement stm = null;
 
 		try {
-			synchronized( transactionMutex ) {
-				stm = new NamedStatementParser( connection, request.strValue(), request ).getPreparedStatement();
-				ResultSet result = stm.executeQuery();
+			stm = prepareStatement( connection, request );
+			// Reset for cached statements, as 0 lets the driver choose
+			stm.setFetchSize( request.firstChildOrDefault( FETCH_SIZE_FIELD, Value::intValue, 0 ) );
+			try( ResultSet result = stm.executeQuery() ) {
 				if( request.hasChildren( TEMPLATE_FIELD ) ) {
 					resultSetToValueVectorWithTemplate( result, resultValue.getChildren( "row" ),
 						request.getFirstChild( TEMPLATE_FIELD ) );
 				} else {
 					resultSetToValueVector( result, resultValue.getChildren( "row" ) );
 				}
-				result.close();
 			}
 		} catch( SQLException e ) {
 			throw createFaultException( e );
 		} finally {
-			if( stm != null ) {
+			connection.closeStatement( stm );
+			connection.release( false );
+		}
+
+		return resultValue;
+	}
+
+	@RequestResponse
+	public Value openCursor( Value request )
+		throws FaultException {
+		final PooledConnection connection = acquireConnection( true );
+		PreparedStatement stm = null;
+		ResultSet result = null;
+		try {
+			/*
+			 * Some drivers (e.g., PostgreSQL) honour the fetch size only outside of autocommit mode. The
+			 * cursor rolls back and restores autocommit when it is closed.
+			 */
+			connection.connection().setAutoCommit( false );
+			stm = prepareStatement( connection, request );
+			stm.setFetchSize( request.firstChildOrDefault( FETCH_SIZE_FIELD, Value::intValue, DEFAULT_FETCH_ROWS ) );
+			result = stm.executeQuery();
+			final Cursor cursor = new Cursor( connection, stm, result,
+				request.hasChildren( TEMPLATE_FIELD ) ? request.getFirstChild( TEMPLATE_FIELD ) : null,
+				request.firstChildOrDefault( TIMEOUT_FIELD, Value::longValue, DEFAULT_CURSOR_TIMEOUT ) );
+			final String id = UUID.randomUUID().toString();
+			synchronized( cursor ) {
+				cursors.put( id, cursor );
+				scheduleTimeout( id, cursor );
+			}
+			final Value response = Value.create();
+			response.getFirstChild( "cursor" ).setValue( id );
+			return response;
+		} catch( SQLException e ) {
+			if( result != null ) {
 				try {
-					stm.close();
-				} catch( SQLException e ) {
+					result.close();
+				} catch( SQLException e1 ) {
 				}
 			}
+			connection.closeStatement( stm );
+			boolean discard = false;
+			try {
+				connection.connection().rollback();
+				connection.connection().setAutoCommit( true );
+			} catch( SQLException e1 ) {
+				discard = true;
+			}
+			connection.release( discard );
+			throw createFaultException( e );
 		}
+	}
+
+	// Must be called while holding the monitor of the cursor
+	private void scheduleTimeout( String id, Cursor cursor ) {
+		if( cursor.timeoutHandler != null ) {
+			cursor.timeoutHandler.cancel();
+		}
+		if( cursor.timeout > 0 ) {
+			cursor.timeoutHandler = new TimeoutHandler( cursor.timeout ) {
+				@Override
+				protected void onTimeout() {
+					closeCursor( id );
+				}
+			};
+			interpreter().addTimeoutHandler( cursor.timeoutHandler );
+		}
+	}
+
+	@RequestResponse
+	public Value fetch( Value request )
+		throws FaultException {
+		final String id = request.getFirstChild( "cursor" ).strValue();
+		final Cursor cursor = cursors.get( id );
+		if( cursor == null ) {
+			throw new FaultException( "InvalidCursor", "No open cursor with identifier " + id );
+		}
+		final int rows = request.firstChildOrDefault( "rows", Value::intValue, DEFAULT_FETCH_ROWS );
+		final Value response = Value.create();
+		final ValueVector rowVector = response.getChildren( "row" );
+		synchronized( cursor ) {
+			if( cursor.closed ) {
+				throw new FaultException( "InvalidCursor", "No open cursor with identifier " + id );
+			}
+			final boolean hasMore;
+			try {
+				int rowIndex = 0;
+				while( rowIndex < rows && cursor.next() ) {
+					cursor.readRow( rowVector.get( rowIndex ) );
+					rowIndex++;
+				}
+				// Look ahead, so that the last page is reported as such
+				cursor.pending = rowIndex == rows && cursor.resultSet.next();
+				hasMore = cursor.pending;
+			} catch( SQLException e ) {
+				cursors.remove( id, cursor );
+				cursor.close();
+				throw createFaultException( e );
+			}
+			if( hasMore ) {
+				scheduleTimeout( id, cursor );
+			} else {
+				cursors.remove( id, cursor );
+				cursor.close();
+			}
+			response.getFirstChild( "hasMore" ).setValue( hasMore );
+		}
+		return response;
+	}
+
+	@RequestResponse
+	public void closeCursor( Value request ) {
+		closeCursor( request.getFirstChild( "cursor" ).strValue() );
+	}
 
+	private void closeCursor( String id ) {
+		final Cursor cursor = cursors.remove( id );
+		if( cursor != null ) {
+			synchronized( cursor ) {
+				cursor.close();
+			}
+		}
+	}
+
+	@RequestResponse
+	public Value updateBatch( Value request )
+		throws FaultException {
+		final PooledConnection pooledConnection = acquireConnection();
+		final Connection connection = pooledConnection.connection();
+		boolean discard = false;
+		final Value resultValue = Value.create();
+		final ValueVector resultVector = resultValue.getChildren( "result" );
+		PreparedStatement stm = null;
+		try {
+			connection.setAutoCommit( false );
+			final NamedStatementParser parser = new NamedStatementParser( request.strValue() );
+			stm = pooledConnection.prepareStatement( parser.jdbcSql() );
+			int batched = 0;
+			for( Value parameters : request.getChildren( "parameters" ) ) {
+				parser.setParameters( stm, parameters );
+				stm.addBatch();
+				if( ++batched == BATCH_SIZE ) {
+					addUpdateCounts( stm.executeBatch(), resultVector );
+					batched = 0;
+				}
+			}
+			if( batched > 0 ) {
+				addUpdateCounts( stm.executeBatch(), resultVector );
+			}
+			connection.commit();
+		} catch( SQLException e ) {
+			try {
+				if( stm != null ) {
+					stm.clearBatch();
+				}
+				connection.rollback();
+			} catch( SQLException e1 ) {
+				discard = true;
+			}
+			throw createFaultException( e );
+		} finally {
+			pooledConnection.closeStatement( stm );
+			try {
+				connection.setAutoCommit( true );
+			} catch( SQLException e ) {
+				discard = true;
+			}
+			pooledConnection.release( discard );
+		}
 		return resultValue;
 	}
+
+	private static void addUpdateCounts( int[] counts, ValueVector resultVector ) {
+		for( int count : counts ) {
+			resultVector.add( Value.create( count ) );
+		}
+	}
 }
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package joliex.db.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded pool of JDBC connections, each with its own cache of prepared statements.
+ *
+ * Connections are opened on demand, up to the maximum size of the pool; when all of them are in
+ * use, callers wait for one to be released, up to the configured acquire timeout. Idle connections
+ * are closed after the configured idle timeout, which is checked whenever a connection is acquired
+ * or released. Connections that are held for long, like those of cursors, can be opened outside of
+ * the bounds of the pool with {@link #acquireDedicated()}.
+ */
+public class ConnectionPool {
+	/**
+	 * Opens new connections for a pool.
+	 */
+	@FunctionalInterface
+	public interface ConnectionFactory {
+		Connection create()
+			throws SQLException;
+	}
+
+	/**
+	 * Checks whether a connection can still be used.
+	 */
+	@FunctionalInterface
+	public interface Validator {
+		boolean isValid( Connection connection )
+			throws SQLException;
+	}
+
+	/**
+	 * A connection of the pool, which must be given back with {@link #release(boolean)}.
+	 */
+	public class PooledConnection {
+		private final Connection connection;
+		private final Map< String, PreparedStatement > statements;
+		private final boolean dedicated;
+		private long lastUsed;
+
+		private PooledConnection( Connection connection, int statementCacheSize, boolean dedicated ) {
+			this.connection = connection;
+			this.dedicated = dedicated;
+			if( statementCacheSize > 0 ) {
+				this.statements = new LinkedHashMap< String, PreparedStatement >( 16, 0.75f, true ) {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected boolean removeEldestEntry( Map.Entry< String, PreparedStatement > eldest ) {
+						if( size() > statementCacheSize ) {
+							closeQuietly( eldest.getValue() );
+							return true;
+						}
+						return false;
+					}
+				};
+			} else {
+				this.statements = null;
+			}
+		}
+
+		public Connection connection() {
+			return connection;
+		}
+
+		/**
+		 * Returns a prepared statement for the given JDBC SQL text, reusing a cached one if available.
+		 * The statement must be given back with {@link #closeStatement(PreparedStatement)}.
+		 *
+		 * @param sql the SQL text of the statement, with positional parameters
+		 * @return the prepared statement, with no parameters set
+		 * @throws SQLException if the statement could not be prepared
+		 */
+		public PreparedStatement prepareStatement( String sql )
+			throws SQLException {
+			if( statements == null ) {
+				return connection.prepareStatement( sql );
+			}
+			PreparedStatement statement = statements.get( sql );
+			if( statement == null || statement.isClosed() ) {
+				statement = connection.prepareStatement( sql );
+				statements.put( sql, statement );
+			} else {
+				statement.clearParameters();
+			}
+			return statement;
+		}
+
+		/**
+		 * Gives back a statement obtained from {@link #prepareStatement(String)}. Cached statements stay
+		 * open for the next request with the same SQL text, the others are closed.
+		 *
+		 * @param statement the statement, or <code>null</code>
+		 */
+		public void closeStatement( PreparedStatement statement ) {
+			if( statement != null && (statements == null || !statements.containsValue( statement )) ) {
+				closeQuietly( statement );
+			}
+		}
+
+		/**
+		 * Gives this connection back to the pool it was taken from.
+		 *
+		 * @param discard <code>true</code> if the connection is not usable anymore and should be closed
+		 */
+		public void release( boolean discard ) {
+			ConnectionPool.this.release( this, discard );
+		}
+
+		private void close() {
+			if( statements != null ) {
+				statements.values().forEach( ConnectionPool::closeQuietly );
+				statements.clear();
+			}
+			try {
+				connection.close();
+			} catch( SQLException e ) {
+			}
+		}
+	}
+
+	private final ConnectionFactory factory;
+	private final Validator validator;
+	private final int maxSize;
+	private final long idleTimeout;
+	private final long acquireTimeout;
+	private final int statementCacheSize;
+
+	// Guarded by this
+	private final Deque< PooledConnection > idle = new ArrayDeque<>();
+	private int size = 0;
+	private boolean closed = false;
+
+	/**
+	 * Creates a pool.
+	 *
+	 * @param factory opens the connections of the pool
+	 * @param validator checks connections before they are handed out, or <code>null</code> for no
+	 *        validation
+	 * @param maxSize the maximum number of open connections
+	 * @param idleTimeout milliseconds after which an idle connection is closed, 0 for never
+	 * @param acquireTimeout milliseconds to wait for a connection to be released, 0 for no limit
+	 * @param statementCacheSize the number of prepared statements cached per connection, 0 for none
+	 */
+	public ConnectionPool( ConnectionFactory factory, Validator validator, int maxSize, long idleTimeout,
+		long acquireTimeout, int statementCacheSize ) {
+		if( maxSize < 1 ) {
+			throw new IllegalArgumentException( "The size of a connection pool must be positive" );
+		}
+		this.factory = factory;
+		this.validator = validator;
+		this.maxSize = maxSize;
+		this.idleTimeout = idleTimeout;
+		this.acquireTimeout = acquireTimeout;
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	/**
+	 * Takes a connection from the pool, opening a new one if none is idle and the pool is not full,
+	 * or waiting for one to be released otherwise.
+	 *
+	 * @return a connection, which must be given back with {@link PooledConnection#release(boolean)}
+	 * @throws SQLException if a connection could not be opened, or the pool is closed
+	 * @throws SQLTimeoutException if no connection was released within the acquire timeout
+	 * @throws InterruptedException if the calling thread was interrupted while waiting
+	 */
+	public PooledConnection acquire()
+		throws SQLException, InterruptedException {
+		PooledConnection ret;
+		final List< PooledConnection > expired = new ArrayList<>();
+		synchronized( this ) {
+			final long deadline = System.nanoTime() + acquireTimeout * 1000000L;
+			while( true ) {
+				if( closed ) {
+					throw new SQLException( "The connection pool is closed" );
+				}
+				collectExpired( expired );
+				ret = idle.pollFirst();
+				if( ret != null || size < maxSize ) {
+					break;
+				}
+				if( acquireTimeout > 0 ) {
+					final long remaining = deadline - System.nanoTime();
+					if( remaining <= 0 ) {
+						throw new SQLTimeoutException( "No connection was released within " + acquireTimeout
+							+ " ms: all " + maxSize + " connections of the pool are in use" );
+					}
+					// Round up, so that we never busy-wait with wait( 0 )
+					wait( (remaining + 999999L) / 1000000L );
+				} else {
+					wait();
+				}
+			}
+			if( ret == null ) {
+				// Reserve the slot for the connection we are going to open
+				size++;
+			}
+		}
+		expired.forEach( PooledConnection::close );
+
+		if( ret != null && validator != null ) {
+			boolean valid;
+			try {
+				valid = validator.isValid( ret.connection );
+			} catch( SQLException e ) {
+				valid = false;
+			}
+			if( !valid ) {
+				// Replace it, keeping its slot
+				ret.close();
+				ret = null;
+			}
+		}
+
+		if( ret == null ) {
+			try {
+				ret = new PooledConnection( factory.create(), statementCacheSize, false );
+			} catch( SQLException | RuntimeException e ) {
+				synchronized( this ) {
+					size--;
+					notify();
+				}
+				throw e;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Opens a connection that does not count towards the size of the pool, and that is closed when it
+	 * is released. Meant for connections that are held across requests, which would otherwise make
+	 * the other users of a small pool wait.
+	 *
+	 * @return a new connection, which must be given back with {@link PooledConnection#release(boolean)}
+	 * @throws SQLException if the connection could not be opened, or the pool is closed
+	 */
+	public PooledConnection acquireDedicated()
+		throws SQLException {
+		synchronized( this ) {
+			if( closed ) {
+				throw new SQLException( "The connection pool is closed" );
+			}
+		}
+		return new PooledConnection( factory.create(), 0, true );
+	}
+
+	private void release( PooledConnection connection, boolean discard ) {
+		if( connection.dedicated ) {
+			connection.close();
+			return;
+		}
+		boolean close = discard;
+		if( !close ) {
+			try {
+				close = connection.connection.isClosed();
+			} catch( SQLException e ) {
+				close = true;
+			}
+		}
+		final List< PooledConnection > expired = new ArrayList<>();
+		synchronized( this ) {
+			if( close || closed ) {
+				close = true;
+				size--;
+			} else {
+				connection.lastUsed = System.currentTimeMillis();
+				// Most recently used first, so that the others can expire
+				idle.offerFirst( connection );
+			}
+			collectExpired( expired );
+			notify();
+		}
+		if( close ) {
+			connection.close();
+		}
+		expired.forEach( PooledConnection::close );
+	}
+
+	/**
+	 * Closes all idle connections, and the others when they are released. Waiting and later calls to
+	 * {@link #acquire()} fail.
+	 */
+	public void close() {
+		final List< PooledConnection > toClose;
+		synchronized( this ) {
+			closed = true;
+			toClose = new ArrayList<>( idle );
+			size -= idle.size();
+			idle.clear();
+			notifyAll();
+		}
+		toClose.forEach( PooledConnection::close );
+	}
+
+	// Must be called while holding the monitor
+	private void collectExpired( List< PooledConnection > expired ) {
+		if( idleTimeout <= 0 ) {
+			return;
+		}
+		final long threshold = System.currentTimeMillis() - idleTimeout;
+		final Iterator< PooledConnection > it = idle.descendingIterator();
+		while( it.hasNext() ) {
+			final PooledConnection c = it.next();
+			if( c.lastUsed > threshold ) {
+				break;
+			}
+			it.remove();
+			size--;
+			expired.add( c );
+		}
+	}
+
+	private static void closeQuietly( Statement statement ) {
+		try {
+			statement.close();
+		} catch( SQLException e ) {
+		}
+	}
+}
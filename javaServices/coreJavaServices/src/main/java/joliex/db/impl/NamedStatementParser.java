@@ -50,14 +50,46 @@ public class NamedStatementParser {
 	}
 
 	private final Map< String, List< Integer > > parameterPositions = new HashMap<>();
-	private final PreparedStatement statement;
+	private final String jdbcSql;
+	private PreparedStatement statement = null;
 	// private final GregorianCalendar cal = new GregorianCalendar();
 
 	public NamedStatementParser( Connection connection, String sql, Value parameters )
 		throws SQLException {
-		String jdbcSql = parse( sql );
-
+		this( sql );
 		statement = connection.prepareStatement( jdbcSql );
+		setParameters( statement, parameters );
+	}
+
+	/**
+	 * Parses a parametrized query without preparing it, so that the caller can reuse a statement
+	 * prepared for {@link #jdbcSql()} and set its parameters with
+	 * {@link #setParameters(PreparedStatement, Value)}.
+	 *
+	 * @param sql the parametrized query
+	 */
+	public NamedStatementParser( String sql ) {
+		jdbcSql = parse( sql );
+	}
+
+	/**
+	 * Returns the query in JDBC syntax, with positional parameters.
+	 *
+	 * @return the query in JDBC syntax
+	 */
+	public String jdbcSql() {
+		return jdbcSql;
+	}
+
+	/**
+	 * Sets the parameters of a statement prepared for {@link #jdbcSql()}.
+	 *
+	 * @param statement the statement
+	 * @param parameters the value holding the parameters as its children
+	 * @throws SQLException if a parameter could not be set
+	 */
+	public void setParameters( PreparedStatement statement, Value parameters )
+		throws SQLException {
 		Value v;
 		for( Entry< String, List< Integer > > entry : parameterPositions.entrySet() ) {
 			v = parameters.getFirstChild( entry.getKey() );
@@ -39,14 +39,22 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Comparator;
 import java.util.Enumeration;
@@ -421,6 +429,130 @@ public class FileService extends JavaService {
 		return retValue;
 	}
 
+	private static byte[] readRange( FileChannel channel, long offset, int length )
+		throws IOException {
+		final byte[] bytes = new byte[ length ];
+		final ByteBuffer buffer = ByteBuffer.wrap( bytes );
+		while( buffer.hasRemaining() ) {
+			if( channel.read( buffer, offset + buffer.position() ) < 0 ) {
+				// The file has been truncated in the meantime
+				return Arrays.copyOf( bytes, buffer.position() );
+			}
+		}
+		return bytes;
+	}
+
+	private static Charset charsetForName( String name )
+		throws IOException {
+		try {
+			return Charset.forName( name );
+		} catch( IllegalArgumentException e ) {
+			throw new IOException( "Unsupported charset " + name, e );
+		}
+	}
+
+	/*
+	 * Decodes as many complete characters as possible, leaving a trailing incomplete character for the
+	 * next range. Returns the number of bytes decoded.
+	 */
+	private static int decodeRange( byte[] bytes, Charset charset, boolean eof, Value value ) {
+		final CharsetDecoder decoder = charset.newDecoder()
+			.onMalformedInput( CodingErrorAction.REPLACE )
+			.onUnmappableCharacter( CodingErrorAction.REPLACE );
+		final ByteBuffer in = ByteBuffer.wrap( bytes );
+		final CharBuffer out = CharBuffer.allocate( (int) (bytes.length * (double) decoder.maxCharsPerByte()) + 1 );
+		decoder.decode( in, out, eof );
+		if( eof ) {
+			decoder.flush( out );
+		} else if( in.position() == 0 && bytes.length > 0 ) {
+			// The range is shorter than a single character: do not get stuck on it
+			decoder.reset();
+			decoder.decode( in, out, true );
+			decoder.flush( out );
+		}
+		out.flip();
+		value.setValue( out.toString() );
+		return in.position();
+	}
+
+	@RequestResponse
+	public Value readFileRange( Value request )
+		throws FaultException {
+		final String filename = request.getFirstChild( "filename" ).strValue();
+		final long offset = request.firstChildOrDefault( "offset", Value::longValue, 0L );
+		final int length = request.getFirstChild( "length" ).intValue();
+		final String format = request.firstChildOrDefault( "format", Value::strValue, "binary" );
+		if( offset < 0 || length < 0 ) {
+			throw new FaultException( "IOException", new IOException( "Invalid range for file " + filename
+				+ ": offset " + offset + ", length " + length ) );
+		}
+
+		final Value response = Value.create();
+		try( FileChannel channel = FileChannel.open( Paths.get( filename ), StandardOpenOption.READ ) ) {
+			final long size = channel.size();
+			final byte[] bytes = readRange( channel, offset, (int) Math.max( 0L, Math.min( length, size - offset ) ) );
+			long next = offset + bytes.length;
+			final Value content = response.getFirstChild( "content" );
+			switch( format ) {
+			case "base64":
+				content.setValue( Base64.getEncoder().encodeToString( bytes ) );
+				break;
+			case "text":
+				final Value formatValue = request.getFirstChild( "format" );
+				Charset charset = Charset.defaultCharset();
+				if( formatValue.hasChildren( "charset" ) ) {
+					charset = charsetForName( formatValue.getFirstChild( "charset" ).strValue() );
+				}
+				next = offset + decodeRange( bytes, charset, next >= size, content );
+				break;
+			default:
+				content.setValue( new ByteArray( bytes ) );
+				break;
+			}
+			response.setFirstChild( "next", next );
+			response.setFirstChild( "eof", next >= size );
+			response.setFirstChild( "size", size );
+		} catch( NoSuchFileException e ) {
+			throw new FaultException( "FileNotFound", e );
+		} catch( IOException | InvalidPathException e ) {
+			throw new FaultException( "IOException", e );
+		}
+		return response;
+	}
+
+	@RequestResponse
+	public void writeFileRange( Value request )
+		throws FaultException {
+		final String filename = request.getFirstChild( "filename" ).strValue();
+		final Value content = request.getFirstChild( "content" );
+		final byte[] bytes;
+		try {
+			if( content.isByteArray() ) {
+				bytes = content.byteArrayValue().getBytes();
+			} else if( request.hasChildren( "encoding" ) ) {
+				bytes = content.strValue().getBytes( charsetForName( request.getFirstChild( "encoding" ).strValue() ) );
+			} else {
+				bytes = content.strValue().getBytes();
+			}
+		} catch( IOException e ) {
+			throw new FaultException( "IOException", e );
+		}
+
+		try( FileChannel channel = FileChannel.open( Paths.get( filename ),
+			StandardOpenOption.WRITE, StandardOpenOption.CREATE ) ) {
+			long position = request.firstChildOrDefault( "offset", Value::longValue, channel.size() );
+			if( position < 0 ) {
+				throw new IOException( "Invalid offset for file " + filename + ": " + position );
+			}
+			final ByteBuffer buffer = ByteBuffer.wrap( bytes );
+			while( buffer.hasRemaining() ) {
+				position += channel.write( buffer, position );
+			}
+		} catch( IOException | InvalidPathException e ) {
+			throw new FaultException( "IOException", e );
+		}
+	}
+
 	@RequestResponse
 	public Boolean exists( String filename ) {
 		return new File( filename ).exists();
@@ -33,6 +33,9 @@ import com.sun.management.UnixOperatingSystemMXBean;
 
 import jolie.ExecutionThread;
 import jolie.lang.Constants;
+import jolie.monitoring.MonitoringEventBuffer;
+import jolie.monitoring.MonitoringPublisher;
+import jolie.net.ChannelCache;
 import jolie.net.CommListener;
 import jolie.net.LocalCommChannel;
 import jolie.net.ports.OutputPort;
@@ -41,6 +44,7 @@ import jolie.runtime.InvalidIdException;
 import jolie.runtime.JavaService;
 import jolie.runtime.Value;
 import jolie.runtime.ValuePrettyPrinter;
+import jolie.runtime.ValueVector;
 import jolie.runtime.VariablePath;
 import jolie.runtime.VariablePathBuilder;
 import jolie.runtime.embedding.EmbeddedServiceLoader;
@@ -76,7 +80,16 @@ public class RuntimeService extends JavaService {
 			true );
 		port.optimizeLocation();
 
-		interpreter().setMonitor( port );
+		final MonitoringEventBuffer.DropPolicy dropPolicy = request.hasChildren( "dropPolicy" )
+			? MonitoringEventBuffer.DropPolicy.fromString( request.getFirstChild( "dropPolicy" ).strValue() )
+			: MonitoringEventBuffer.DropPolicy.DROP_NEWEST;
+		final int queueSize = request.hasChildren( "queueSize" )
+			? request.getFirstChild( "queueSize" ).intValue()
+			: MonitoringPublisher.DEFAULT_QUEUE_SIZE;
+		final int batchSize = request.hasChildren( "batchSize" )
+			? request.getFirstChild( "batchSize" ).intValue()
+			: MonitoringPublisher.DEFAULT_BATCH_SIZE;
+		interpreter().setMonitor( port, queueSize, dropPolicy, batchSize );
 	}
 
 	@RequestResponse
@@ -88,26 +101,35 @@ public class RuntimeService extends JavaService {
 			new OutputPort(
 				interpreter(),
 				name );
-		Value l;
-		Value r = interpreter().initThread().state().root();
-		l = r.getFirstChild( name ).getFirstChild( Constants.LOCATION_NODE_NAME );
-		if( locationValue.isChannel() ) {
-			l.setValue( locationValue.channelValue() );
-		} else {
-			l.setValue( locationValue.strValue() );
+		/*
+		 * Running sessions share the values of the init state (see State#freeze), so the binding for
+		 * the sessions started from now on replaces the one in the init state instead of changing it.
+		 */
+		final Value initRoot = interpreter().initThread().state().root();
+		final Value binding = Value.create();
+		if( initRoot.hasChildren( name ) ) {
+			binding.deepCopy( initRoot.getFirstChild( name ) );
 		}
-		r.getFirstChild( name ).getFirstChild( Constants.PROTOCOL_NODE_NAME ).refCopy( protocolValue );
+		setLocation( binding, locationValue );
+		binding.getFirstChild( Constants.PROTOCOL_NODE_NAME ).refCopy( protocolValue );
+		final ValueVector bindings = ValueVector.create();
+		bindings.add( binding );
+		initRoot.children().put( name, bindings );
+
+		final Value current = ExecutionThread.currentThread().state().root().getFirstChild( name );
+		setLocation( current, locationValue );
+		current.getFirstChild( Constants.PROTOCOL_NODE_NAME ).deepCopy( protocolValue );
 
-		r = ExecutionThread.currentThread().state().root();
-		l = r.getFirstChild( name ).getFirstChild( Constants.LOCATION_NODE_NAME );
+		interpreter().register( name, port );
+	}
+
+	private static void setLocation( Value port, Value locationValue ) {
+		final Value l = port.getFirstChild( Constants.LOCATION_NODE_NAME );
 		if( locationValue.isChannel() ) {
 			l.setValue( locationValue.channelValue() );
 		} else {
 			l.setValue( locationValue.strValue() );
 		}
-		r.getFirstChild( name ).getFirstChild( Constants.PROTOCOL_NODE_NAME ).deepCopy( protocolValue );
-
-		interpreter().register( name, port );
 	}
 
 	@RequestResponse
@@ -129,6 +151,18 @@ public class RuntimeService extends JavaService {
 				ret.getFirstChild( "protocol" ).setValue( "" );
 			}
 			ret.getFirstChild( "location" ).setValue( foundOp.locationVariablePath().getValue().strValue() );
+			for( ChannelCache.Statistics stats : foundOp.connectionPoolStatistics() ) {
+				Value pool = ret.getNewChild( "connectionPool" );
+				pool.setFirstChild( "location", stats.location().toString() );
+				pool.setFirstChild( "protocol", stats.protocol() );
+				pool.setFirstChild( "hits", stats.hits() );
+				pool.setFirstChild( "misses", stats.misses() );
+				pool.setFirstChild( "waits", stats.waits() );
+				pool.setFirstChild( "opens", stats.opens() );
+				pool.setFirstChild( "evictions", stats.evictions() );
+				pool.setFirstChild( "open", stats.openChannels() );
+				pool.setFirstChild( "idle", stats.idleChannels() );
+			}
 		}
 		return ret;
 	}
@@ -301,6 +335,34 @@ public class RuntimeService extends JavaService {
 			request.firstChildOrDefault( "status", Value::intValue, 0 ) );
 	}
 
+	public Value getLocks() {
+		final Value response = Value.create();
+		final ValueVector locks = response.getChildren( "lock" );
+		interpreter().locks().forEach( ( id, lock ) -> {
+			final Value v = Value.create();
+			v.setFirstChild( "id", id );
+			v.setFirstChild( "timeout", lock.timeout() );
+			lock.writeStats( v );
+			locks.add( v );
+		} );
+		return response;
+	}
+
+	@RequestResponse
+	public void setLockTimeout( Value request ) {
+		interpreter().getLock( request.getFirstChild( "lock" ).strValue() )
+			.setTimeout( request.getFirstChild( "timeout" ).longValue() );
+	}
+
+	public Value getMonitorStats() {
+		final Value response = Value.create();
+		final MonitoringPublisher publisher = interpreter().monitoringPublisher();
+		if( publisher != null ) {
+			publisher.writeStats( response.getFirstChild( "monitor" ) );
+		}
+		return response;
+	}
+
 	public Value stats() {
 		final Value stats = Value.create();
 		stats_files( stats.getFirstChild( "files" ) );
@@ -23,7 +23,10 @@
 
 package joliex.util;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import jolie.js.JsUtils;
 import jolie.runtime.AndJarDeps;
@@ -62,14 +65,14 @@ public class JsonUtilsService extends JavaService {
 		}
 
 		try {
-			String str;
+			Reader reader;
 			if( request.isByteArray() && charset != null ) {
-				str = new String( request.byteArrayValue().getBytes(), charset );
+				reader =
+					new InputStreamReader( new ByteArrayInputStream( request.byteArrayValue().getBytes() ), charset );
 			} else {
-				str = request.strValue();
+				reader = new StringReader( request.strValue() );
 			}
-			JsUtils.parseJsonIntoValue( new StringReader( str ), ret,
-				request.getFirstChild( "strictEncoding" ).boolValue() );
+			JsUtils.parseJsonIntoValue( reader, ret, request.getFirstChild( "strictEncoding" ).boolValue() );
 		} catch( IOException e ) {
 			throw new FaultException( "JSONCreationError" );
 		}
@@ -21,12 +21,15 @@
 
 package joliex.monitoring;
 
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import jolie.monitoring.MonitoringEvent;
+import jolie.monitoring.MonitoringEventBuffer;
 import jolie.net.CommMessage;
 import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+import jolie.runtime.embedding.RequestResponse;
 
 /**
  *
@@ -35,56 +38,60 @@ import jolie.runtime.Value;
  *
  */
 public class StandardMonitor extends AbstractMonitorJavaService {
-	private final Deque< MonitoringEvent > q = new LinkedList<>(); // event list
-	private boolean triggerEnabled;
-	private int queueMax;
-	private int triggerThreshold;
-	private boolean alert;
+	// event list, the oldest events are discarded when it is full
+	private volatile MonitoringEventBuffer q;
+	private volatile boolean triggerEnabled;
+	private volatile int triggerThreshold;
+	private final AtomicBoolean alert = new AtomicBoolean( false );
 
 	public StandardMonitor() {
 		triggerEnabled = false;
 		triggerThreshold = 75;
-		queueMax = 100;
-		alert = false;
+		q = new MonitoringEventBuffer( 100, MonitoringEventBuffer.DropPolicy.DROP_OLDEST );
 	}
 
-
-
 	@Override
 	public void pushEvent( MonitoringEvent e ) {
+		q.offer( e );
+		checkTrigger();
+	}
 
-		synchronized( this ) {
-			if( q.size() >= queueMax ) {
-				q.removeFirst();
-			}
-			q.addLast( e );
-			if( triggerEnabled && !alert ) {
-				if( q.size() >= triggerThreshold ) {
-					sendMessage( CommMessage.createRequest( "monitorAlert", "/", Value.create() ) );
-					alert = true;
-				}
-			}
+	/*
+	 * request: .events*: MonitorEvent
+	 *
+	 * Handled as a request-response, so that the acknowledgement is sent only after the events have
+	 * been queued: this keeps batches in order and slows down the publisher if the monitor is busy.
+	 */
+	@RequestResponse
+	public void pushEvents( Value request ) {
+		final MonitoringEventBuffer buffer = q;
+		for( Value event : request.getChildren( "events" ) ) {
+			buffer.offer( MonitoringEvent.fromValue( event ) );
 		}
+		checkTrigger();
 	}
 
+	private void checkTrigger() {
+		if( triggerEnabled && !alert.get() && q.size() >= triggerThreshold && alert.compareAndSet( false, true ) ) {
+			sendMessage( CommMessage.createRequest( "monitorAlert", "/", Value.create() ) );
+		}
+	}
 
 	public Value flush() {
-		synchronized( this ) {
-			Iterator< MonitoringEvent > it = q.iterator();
-			int index = 0;
-			Value response = Value.create();
-			while( it.hasNext() ) {
-				MonitoringEvent e = it.next();
-				response.getChildren( "events" ).get( index ).getFirstChild( "data" ).deepCopy( e.data() );
-				response.getChildren( "events" ).get( index ).getFirstChild( "memory" ).setValue( e.memory() );
-				response.getChildren( "events" ).get( index ).getFirstChild( "timestamp" ).setValue( e.timestamp() );
-				response.getChildren( "events" ).get( index ).getFirstChild( "type" ).setValue( e.type() );
-				index++;
-			}
-			q.clear();
-			alert = false;
-			return response;
+		final List< MonitoringEvent > events = new ArrayList<>();
+		q.drainTo( events, Integer.MAX_VALUE );
+		alert.set( false );
+		Value response = Value.create();
+		ValueVector responseEvents = response.getChildren( "events" );
+		int index = 0;
+		for( MonitoringEvent e : events ) {
+			responseEvents.get( index ).getFirstChild( "data" ).deepCopy( e.data() );
+			responseEvents.get( index ).getFirstChild( "memory" ).setValue( e.memory() );
+			responseEvents.get( index ).getFirstChild( "timestamp" ).setValue( e.timestamp() );
+			responseEvents.get( index ).getFirstChild( "type" ).setValue( e.type() );
+			index++;
 		}
+		return response;
 	}
 
 
@@ -101,7 +108,15 @@ public class StandardMonitor extends AbstractMonitorJavaService {
 			triggerThreshold = request.getFirstChild( "triggerThreshold" ).intValue();
 		}
 		if( request.getFirstChild( "queueMax" ).isDefined() ) {
-			queueMax = request.getFirstChild( "queueMax" ).intValue();
+			final MonitoringEventBuffer previous = q;
+			final MonitoringEventBuffer buffer = new MonitoringEventBuffer(
+				request.getFirstChild( "queueMax" ).intValue(), MonitoringEventBuffer.DropPolicy.DROP_OLDEST );
+			q = buffer;
+			// Move the events pushed so far to the new buffer
+			MonitoringEvent e;
+			while( (e = previous.poll()) != null ) {
+				buffer.offer( e );
+			}
 		}
 	}
 
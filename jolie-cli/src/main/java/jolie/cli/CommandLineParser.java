@@ -88,6 +88,7 @@ public class CommandLineParser implements Closeable {
 	private final boolean check;
 	private final long responseTimeout;
 	private final boolean printStackTraces;
+	private final boolean virtualThreads;
 	private final Level logLevel;
 	private final String executionTarget;
 	private final Optional< Path > parametersFilepath;
@@ -153,6 +154,9 @@ public class CommandLineParser implements Closeable {
 				getOptionString( "--log [severe|warning|info|fine]", "Set the logging level (default: info)" ) )
 			.append(
 				getOptionString( "--stackTraces", "Activate the printing of Java stack traces (default: false)" ) )
+			.append(
+				getOptionString( "--virtualThreads",
+					"Run sessions and communication handlers on virtual threads (requires Java 21 or later, default: false)" ) )
 			.append(
 				getOptionString( "--typecheck [true|false]",
 					"Check for correlation and other data related typing errors (default: false)" ) )
@@ -274,6 +278,7 @@ public class CommandLineParser implements Closeable {
 		Deque< String > optionsList = new LinkedList<>();
 		boolean bTracer = false;
 		boolean bStackTraces = false;
+		boolean bVirtualThreads = false;
 		boolean bCheck = false;
 		boolean bTypeCheck = false; // Default for typecheck
 		Level lLogLevel = Level.INFO;
@@ -365,6 +370,9 @@ public class CommandLineParser implements Closeable {
 			} else if( "--stackTraces".equals( argsList.get( i ) ) ) {
 				optionsList.add( argsList.get( i ) );
 				bStackTraces = true;
+			} else if( "--virtualThreads".equals( argsList.get( i ) ) ) {
+				optionsList.add( argsList.get( i ) );
+				bVirtualThreads = true;
 			} else if( "--check".equals( argsList.get( i ) ) ) {
 				optionsList.add( argsList.get( i ) );
 				bCheck = true;
@@ -508,6 +516,7 @@ public class CommandLineParser implements Closeable {
 		tracerMode = tMode;
 		tracerLevel = tLevel;
 		printStackTraces = bStackTraces;
+		virtualThreads = bVirtualThreads;
 		executionTarget = tService;
 		parametersFilepath = Optional.ofNullable( tParams );
 
@@ -811,7 +820,8 @@ public class CommandLineParser implements Closeable {
 			programDirectory,
 			packagePaths,
 			executionTarget,
-			parametersFilepath );
+			parametersFilepath,
+			virtualThreads );
 
 	}
 
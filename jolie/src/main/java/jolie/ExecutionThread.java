@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import jolie.Interpreter.StarterThread;
 import jolie.lang.Constants;
@@ -160,6 +161,12 @@ public abstract class ExecutionThread extends JolieThread {
 		}
 	}
 
+	/*
+	 * The ExecutionThread of threads that are neither JolieExecutorThreads nor CommChannelHandlers,
+	 * e.g., virtual threads.
+	 */
+	private static final ThreadLocal< ExecutionThread > CURRENT = new ThreadLocal<>();
+
 	protected final Process process;
 	protected final Deque< Scope > scopeStack = new ArrayDeque<>();
 	protected final ExecutionThread parent;
@@ -421,7 +428,27 @@ public abstract class ExecutionThread extends JolieThread {
 			return ((CommChannelHandler) currThread).executionThread();
 		}
 
-		return null;
+		return CURRENT.get();
+	}
+
+	/**
+	 * Sets the ExecutionThread the current thread should refer to. Jolie threads store it in a field,
+	 * whereas other threads (e.g., virtual threads) store it in a thread-local variable.
+	 *
+	 * @param ethread the ExecutionThread the current thread should refer to, or {@code null} to clear
+	 *        it
+	 */
+	public static void setCurrentThread( ExecutionThread ethread ) {
+		Thread currThread = Thread.currentThread();
+		if( currThread instanceof JolieExecutorThread ) {
+			((JolieExecutorThread) currThread).setExecutionThread( ethread );
+		} else if( currThread instanceof CommChannelHandler ) {
+			((CommChannelHandler) currThread).setExecutionThread( ethread );
+		} else if( ethread == null ) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set( ethread );
+		}
 	}
 
 	public static State getState() {
@@ -434,7 +461,8 @@ public abstract class ExecutionThread extends JolieThread {
 			return ((CommChannelHandler) t).executionThread().state();
 		}
 
-		return null;
+		ExecutionThread ethread = CURRENT.get();
+		return ethread == null ? null : ethread.state();
 	}
 
 	/**
@@ -473,16 +501,41 @@ public abstract class ExecutionThread extends JolieThread {
 
 	@Override
 	public final void run() {
-		JolieExecutorThread t = JolieExecutorThread.currentThread();
-		t.setExecutionThread( this );
-		t.setContextClassLoader( interpreter().getClassLoader() );
-		runProcess();
+		setCurrentThread( this );
+		Thread.currentThread().setContextClassLoader( interpreter().getClassLoader() );
+		try {
+			runProcess();
+		} finally {
+			if( !(Thread.currentThread() instanceof JolieExecutorThread) ) {
+				CURRENT.remove();
+			}
+		}
 	}
 
 	public void start() {
 		setTaskFuture( interpreter().runJolieThread( this ) );
 	}
 
+	/**
+	 * Runs this thread synchronously in the calling Java thread, instead of submitting it to the
+	 * interpreter executor. The calling thread refers to its previous ExecutionThread again once this
+	 * method returns.
+	 */
+	public void runInline() {
+		final ExecutionThread caller = currentThread();
+		final FutureTask< ? > task = new FutureTask<>( this, null );
+		setTaskFuture( task );
+		try {
+			task.run();
+		} finally {
+			setCurrentThread( caller );
+			if( task.isCancelled() ) {
+				// Clear the interrupt raised by kill, it was meant for this thread only
+				Thread.interrupted();
+			}
+		}
+	}
+
 	public void join()
 		throws InterruptedException {
 		try {
@@ -27,20 +27,18 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.PrintStream;
 import java.io.StringWriter;
-import java.lang.ref.WeakReference;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -62,6 +60,8 @@ import jolie.lang.parse.module.ModuleParsingConfiguration;
 import jolie.lang.parse.module.Modules;
 import jolie.lang.parse.module.SymbolTable;
 import jolie.monitoring.MonitoringEvent;
+import jolie.monitoring.MonitoringEventBuffer;
+import jolie.monitoring.MonitoringPublisher;
 import jolie.monitoring.events.MonitorAttachedEvent;
 import jolie.monitoring.events.OperationStartedEvent;
 import jolie.monitoring.events.SessionEndedEvent;
@@ -110,6 +110,9 @@ public class Interpreter {
 		}
 
 		private void onSuccessfulInitExecution() {
+			// Sessions start from the state built by init, which is not changed anymore
+			state().freeze();
+
 			if( executionMode == Constants.ExecutionMode.SINGLE ) {
 				synchronized( correlationEngine ) {
 					try {
@@ -245,7 +248,7 @@ public class Interpreter {
 	private final Map< String, OutputPort > outputPorts = new HashMap<>();
 	private final Map< String, InputOperation > inputOperations = new HashMap<>();
 
-	private final HashMap< String, Object > locksMap = new HashMap<>();
+	private final Map< String, GlobalLock > locksMap = new ConcurrentHashMap<>();
 
 	private final String[] includePaths;
 
@@ -265,19 +268,45 @@ public class Interpreter {
 	// private long persistentConnectionTimeout = 2 * 60 * 1000; // 4 minutes
 	// private long persistentConnectionTimeout = 1;
 
-	// 11 is the default initial capacity for PriorityQueue
-	private final Queue< WeakReference< TimeoutHandler > > timeoutHandlerQueue =
-		new PriorityQueue<>( 11, new TimeoutHandler.Comparator() );
-
 	private final ExecutorService timeoutHandlerExecutor =
 		Executors.newSingleThreadExecutor( new NativeJolieThreadFactory( this ) );
 
+	private final TimeoutWheel timeoutWheel =
+		new TimeoutWheel( timeoutHandlerExecutor, new NativeJolieThreadFactory( this ) );
+
 
 	private final File programDirectory;
-	private OutputPort monitor = null;
+	private volatile MonitoringPublisher monitor = null;
 
 	public void setMonitor( OutputPort monitor ) {
-		this.monitor = monitor;
+		setMonitor( monitor, MonitoringPublisher.DEFAULT_QUEUE_SIZE, MonitoringEventBuffer.DropPolicy.DROP_NEWEST,
+			MonitoringPublisher.DEFAULT_BATCH_SIZE );
+	}
+
+	/**
+	 * Sets the monitor of this interpreter. Monitoring events are queued and published to the monitor
+	 * in the background, replacing the previous monitor, if any, after it has published its queued
+	 * events.
+	 *
+	 * @param monitor the output port of the monitor
+	 * @param queueSize the maximum number of events waiting to be published
+	 * @param dropPolicy what to do with new events when the queue is full
+	 * @param batchSize the maximum number of events published in a single message
+	 * @see MonitoringPublisher
+	 */
+	public void setMonitor( OutputPort monitor, int queueSize, MonitoringEventBuffer.DropPolicy dropPolicy,
+		int batchSize ) {
+		final MonitoringPublisher publisher =
+			new MonitoringPublisher( this, monitor, queueSize, dropPolicy, batchSize );
+		publisher.start();
+		final MonitoringPublisher previous;
+		synchronized( this ) {
+			previous = this.monitor;
+			this.monitor = publisher;
+		}
+		if( previous != null ) {
+			previous.close();
+		}
 		fireMonitorEvent( new MonitorAttachedEvent() );
 	}
 
@@ -285,6 +314,16 @@ public class Interpreter {
 		return monitor != null;
 	}
 
+	/**
+	 * Returns the publisher of monitoring events of this interpreter, or <code>null</code> if there is
+	 * no monitor.
+	 *
+	 * @return the publisher of monitoring events of this interpreter
+	 */
+	public MonitoringPublisher monitoringPublisher() {
+		return monitor;
+	}
+
 	/*
 	 * public long inputMessageTimeout() { return inputMessageTimeout; }
 	 */
@@ -297,28 +336,16 @@ public class Interpreter {
 		return tracer;
 	}
 
+	/**
+	 * Queues a monitoring event for publication to the monitor, if there is one. This method does not
+	 * block.
+	 *
+	 * @param event the event to publish
+	 */
 	public void fireMonitorEvent( MonitoringEvent event ) {
-		if( monitor != null ) {
-			CommMessage m = CommMessage.createRequest( "pushEvent", "/", MonitoringEvent.toValue( event ) );
-			CommChannel channel = null;
-			try {
-				channel = monitor.getCommChannel();
-				channel.send( m );
-				CommMessage response;
-				do {
-					response = channel.recvResponseFor( m ).get();
-				} while( response == null );
-			} catch( URISyntaxException | InterruptedException | ExecutionException | IOException e ) {
-				logWarning( e );
-			} finally {
-				if( channel != null ) {
-					try {
-						channel.release();
-					} catch( IOException e ) {
-						logWarning( e );
-					}
-				}
-			}
+		final MonitoringPublisher publisher = monitor;
+		if( publisher != null ) {
+			publisher.publish( event );
 		}
 	}
 
@@ -347,48 +374,15 @@ public class Interpreter {
 		}
 	}
 
-	public void addTimeoutHandler( TimeoutHandler handler ) {
-		synchronized( timeoutHandlerQueue ) {
-			timeoutHandlerQueue.add( new WeakReference<>( handler ) );
-			if( timeoutHandlerQueue.size() == 1 ) {
-				schedule( new TimerTask() {
-					@Override
-					public void run() {
-						synchronized( timeoutHandlerQueue ) {
-							checkForExpiredTimeoutHandlers();
-						}
-					}
-				}, handler.time() - System.currentTimeMillis() + 1 );
-			} else {
-				checkForExpiredTimeoutHandlers();
-			}
-		}
-	}
-
-	/*
-	 * public void removeTimeoutHandler( TimeoutHandler handler ) { synchronized( timeoutHandlerQueue )
-	 * { timeoutHandlerQueue.remove( handler ); checkForExpiredTimeoutHandlers(); } }
+	/**
+	 * Schedules the given handler to be run when its timeout expires. Handlers that are not needed
+	 * anymore should be cancelled with {@link TimeoutHandler#cancel()}, which removes them from the
+	 * schedule.
+	 *
+	 * @param handler the handler to schedule
 	 */
-
-	private void checkForExpiredTimeoutHandlers() {
-		long currentTime = System.currentTimeMillis();
-		WeakReference< TimeoutHandler > whandler = timeoutHandlerQueue.peek();
-		boolean keepRun = true;
-		TimeoutHandler handler;
-		while( whandler != null && keepRun ) {
-			handler = whandler.get();
-			if( handler == null ) {
-				timeoutHandlerQueue.remove();
-				whandler = timeoutHandlerQueue.peek();
-			} else if( handler.time() < currentTime || exiting ) {
-				// final TimeoutHandler h = handler;
-				timeoutHandlerExecutor.execute( handler );
-				timeoutHandlerQueue.poll();
-				whandler = timeoutHandlerQueue.peek();
-			} else {
-				keepRun = false;
-			}
-		}
+	public void addTimeoutHandler( TimeoutHandler handler ) {
+		timeoutWheel.add( handler );
 	}
 
 	/**
@@ -616,10 +610,14 @@ public class Interpreter {
 		if( timer != null ) {
 			timer.cancel();
 		}
-		checkForExpiredTimeoutHandlers();
+		timeoutWheel.stop( terminationTimeout );
 		processExecutorService.shutdown();
 		nativeExecutorService.shutdown();
 		timeoutHandlerExecutor.shutdown();
+		final MonitoringPublisher publisher = monitor;
+		if( publisher != null ) {
+			publisher.shutdown( terminationTimeout );
+		}
 		commCore.shutdown( terminationTimeout );
 		try {
 			nativeExecutorService.awaitTermination( terminationTimeout, TimeUnit.MILLISECONDS );
@@ -806,7 +804,8 @@ public class Interpreter {
 			return ((InterpreterThread) t).interpreter();
 		}
 
-		return null;
+		ExecutionThread ethread = ExecutionThread.currentThread();
+		return ethread == null ? null : ethread.interpreter();
 	}
 
 	/**
@@ -872,6 +871,17 @@ public class Interpreter {
 
 		LOGGER.setLevel( configuration.logLevel() );
 
+		if( configuration.virtualThreads() ) {
+			if( !VirtualThreadExecutors.isSupported() && VIRTUAL_THREADS_WARNING.compareAndSet( false, true ) ) {
+				logWarning(
+					"Virtual threads are not supported by this Java runtime (Java 21 or later is required), using platform threads" );
+			}
+			processExecutorService = VirtualThreadExecutors.create( programFilename() + "-" )
+				.orElseGet( () -> new JolieThreadPoolExecutor( new JolieExecutionThreadFactory( this ) ) );
+		} else {
+			processExecutorService = new JolieThreadPoolExecutor( new JolieExecutionThreadFactory( this ) );
+		}
+
 		exitingLock = new ReentrantLock();
 		exitingCondition = exitingLock.newCondition();
 
@@ -977,8 +987,18 @@ public class Interpreter {
 	 * @param id the global lock identifier
 	 * @return the global lock registered on this interpreter with the specified identifier
 	 */
-	public synchronized Object getLock( String id ) {
-		return locksMap.computeIfAbsent( id, k -> new Object() );
+	public GlobalLock getLock( String id ) {
+		final GlobalLock lock = locksMap.get( id );
+		return lock != null ? lock : locksMap.computeIfAbsent( id, k -> new GlobalLock() );
+	}
+
+	/**
+	 * Returns an unmodifiable view of the global locks registered on this interpreter, by identifier.
+	 *
+	 * @return the global locks registered on this interpreter
+	 */
+	public Map< String, GlobalLock > locks() {
+		return Collections.unmodifiableMap( locksMap );
 	}
 
 	public SessionStarter getSessionStarter( String operationName ) {
@@ -1116,8 +1136,8 @@ public class Interpreter {
 
 	private final ExecutorService nativeExecutorService =
 		new JolieThreadPoolExecutor( new NativeJolieThreadFactory( this ) );
-	private final ExecutorService processExecutorService =
-		new JolieThreadPoolExecutor( new JolieExecutionThreadFactory( this ) );
+	private final ExecutorService processExecutorService;
+	private static final AtomicBoolean VIRTUAL_THREADS_WARNING = new AtomicBoolean();
 
 	/**
 	 * Runs an asynchronous task in this Interpreter internal thread pool.
@@ -1434,6 +1454,7 @@ public class Interpreter {
 		private final String[] packagePaths;
 		private final String executionTarget;
 		private final Optional< Path > parametersFilePath;
+		private final boolean virtualThreads;
 
 		private Configuration( int connectionsLimit,
 			int cellId,
@@ -1459,7 +1480,8 @@ public class Interpreter {
 			File programDirectory,
 			String[] packagePaths,
 			String executionTarget,
-			Optional< Path > parametersFilePath ) {
+			Optional< Path > parametersFilePath,
+			boolean virtualThreads ) {
 			this.connectionsLimit = connectionsLimit;
 			this.cellId = cellId;
 			this.correlationAlgorithm = correlationAlgorithm;
@@ -1485,6 +1507,7 @@ public class Interpreter {
 			this.packagePaths = packagePaths;
 			this.executionTarget = executionTarget;
 			this.parametersFilePath = parametersFilePath;
+			this.virtualThreads = virtualThreads;
 		}
 
 		public static Configuration create( int connectionsLimit,
@@ -1511,11 +1534,12 @@ public class Interpreter {
 			File programDirectory,
 			String[] packagePaths,
 			String executionTarget,
-			Optional< Path > parametersFilePath ) {
+			Optional< Path > parametersFilePath,
+			boolean virtualThreads ) {
 			return new Configuration( connectionsLimit, cellId, correlationAlgorithm, includeList, optionArgs, libUrls,
 				inputStream, charset, programFilepath, arguments, constants, jolieClassLoader, programCompiled,
 				typeCheck, tracer, tracerLevel, tracerMode, check, printStackTraces, responseTimeout, logLevel,
-				programDirectory, packagePaths, executionTarget, parametersFilePath );
+				programDirectory, packagePaths, executionTarget, parametersFilePath, virtualThreads );
 		}
 
 		public static Configuration create( Configuration config,
@@ -1526,7 +1550,8 @@ public class Interpreter {
 				config.libURLs, inputStream, config.charset, programFilepath, config.arguments, config.constants,
 				config.jolieClassLoader, config.isProgramCompiled, config.typeCheck, config.tracer, config.tracerLevel,
 				config.tracerMode, config.check, config.printStackTraces, config.responseTimeout, config.logLevel,
-				config.programDirectory, config.packagePaths, config.executionTarget, config.parametersFilePath );
+				config.programDirectory, config.packagePaths, config.executionTarget, config.parametersFilePath,
+				config.virtualThreads );
 		}
 
 		public static Configuration create( Configuration config,
@@ -1538,7 +1563,8 @@ public class Interpreter {
 				config.libURLs, inputStream, config.charset, programFilepath, config.arguments, config.constants,
 				config.jolieClassLoader, config.isProgramCompiled, config.typeCheck, config.tracer, config.tracerLevel,
 				config.tracerMode, config.check, config.printStackTraces, config.responseTimeout, config.logLevel,
-				config.programDirectory, config.packagePaths, executionTarget, config.parametersFilePath );
+				config.programDirectory, config.packagePaths, executionTarget, config.parametersFilePath,
+				config.virtualThreads );
 		}
 
 		/**
@@ -1718,6 +1744,16 @@ public class Interpreter {
 			return printStackTraces;
 		}
 
+		/**
+		 * Returns {@code true} if sessions and communication handlers should run on virtual threads, as
+		 * requested by command line with the --virtualThreads option.
+		 *
+		 * @return {@code true} if virtual threads were requested
+		 */
+		public boolean virtualThreads() {
+			return virtualThreads;
+		}
+
 		/**
 		 * Returns the execution service target of this interpreter.
 		 *
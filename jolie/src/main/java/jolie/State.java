@@ -42,6 +42,7 @@ public final class State implements Cloneable {
 	private final ConcurrentHashMap< String, InternalLink > linksMap = new ConcurrentHashMap<>();
 	private final LoopDetectionMap< Value > valueLoopDetectionMap = new LoopDetectionMap<>();
 	private final LoopDetectionMap< ValueVector > valueVectorLoopDetectionMap = new LoopDetectionMap<>();
+	private volatile boolean frozen = false;
 
 	private State( Value root ) {
 		this.root = root;
@@ -64,9 +65,18 @@ public final class State implements Cloneable {
 		this.root = Value.createRootValue();
 	}
 
+	/**
+	 * Makes the clones of this State share its values, instead of copying them: each clone copies a
+	 * value only when it accesses its children or writes it (see
+	 * {@link Value#createSharedClone(Value)}). The values of this State must not change afterwards.
+	 */
+	public void freeze() {
+		frozen = true;
+	}
+
 	@Override
 	public State clone() {
-		return new State( Value.createClone( root ) );
+		return new State( frozen ? Value.createSharedClone( root ) : Value.createClone( root ) );
 	}
 
 	/**
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates executors that start a new virtual thread for each task. Virtual threads are available
+ * from Java 21, whereas the interpreter targets older releases, so the API is accessed reflectively
+ * and {@link #create(String)} returns an empty result on runtimes that do not provide it.
+ *
+ * Code running on these threads is not running on a {@link JolieExecutorThread} or a
+ * {@link jolie.net.CommChannelHandler}, so it must use {@link ExecutionThread#setCurrentThread}
+ * to make its {@link ExecutionThread} visible to {@link ExecutionThread#currentThread()}.
+ */
+public final class VirtualThreadExecutors {
+	private static final Method OF_VIRTUAL;
+	private static final Method BUILDER_NAME;
+	private static final Method BUILDER_FACTORY;
+	private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+	static {
+		Method ofVirtual = null;
+		Method builderName = null;
+		Method builderFactory = null;
+		Method newThreadPerTaskExecutor = null;
+		try {
+			final Class< ? > builderClass = Class.forName( "java.lang.Thread$Builder" );
+			ofVirtual = Thread.class.getMethod( "ofVirtual" );
+			builderName = builderClass.getMethod( "name", String.class, long.class );
+			builderFactory = builderClass.getMethod( "factory" );
+			newThreadPerTaskExecutor = Executors.class.getMethod( "newThreadPerTaskExecutor", ThreadFactory.class );
+		} catch( ClassNotFoundException | NoSuchMethodException e ) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		BUILDER_NAME = builderName;
+		BUILDER_FACTORY = builderFactory;
+		NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+	}
+
+	private VirtualThreadExecutors() {}
+
+	/**
+	 * Returns {@code true} if the running Java virtual machine supports virtual threads.
+	 *
+	 * @return {@code true} if virtual threads are supported
+	 */
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Creates an executor that runs each submitted task on a new virtual thread.
+	 *
+	 * @param namePrefix the prefix for the names of the created threads, which is followed by a
+	 *        counter
+	 * @return the executor, or an empty result if virtual threads are not supported or could not be
+	 *         created
+	 */
+	public static Optional< ExecutorService > create( String namePrefix ) {
+		if( !isSupported() ) {
+			return Optional.empty();
+		}
+
+		try {
+			Object builder = OF_VIRTUAL.invoke( null );
+			builder = BUILDER_NAME.invoke( builder, namePrefix, 0L );
+			final ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke( builder );
+			return Optional.of( (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke( null, factory ) );
+		} catch( IllegalAccessException | InvocationTargetException e ) {
+			return Optional.empty();
+		}
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.monitoring;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, lock-free buffer of monitoring events, which can be used concurrently by any number of
+ * producers and consumers.
+ *
+ * The buffer is a ring of slots, each with a sequence number that tells whether the slot is ready
+ * to be written or read at a given position. Producers and consumers claim positions with a CAS on
+ * the tail and the head, respectively, and never wait for each other.
+ *
+ * When the buffer is full, events are dropped according to its {@link DropPolicy}. Dropped events
+ * are counted.
+ */
+public class MonitoringEventBuffer {
+	/**
+	 * What to do with a new event when the buffer is full.
+	 */
+	public enum DropPolicy {
+		/** Discard the new event. */
+		DROP_NEWEST,
+		/** Discard the oldest event in the buffer to make room for the new one. */
+		DROP_OLDEST;
+
+		/**
+		 * Returns the policy with the passed name, which is either "dropNewest" or "dropOldest".
+		 *
+		 * @param name the name of the policy
+		 * @return the policy with the passed name
+		 * @throws IllegalArgumentException if there is no policy with the passed name
+		 */
+		public static DropPolicy fromString( String name ) {
+			switch( name ) {
+			case "dropNewest":
+				return DROP_NEWEST;
+			case "dropOldest":
+				return DROP_OLDEST;
+			default:
+				throw new IllegalArgumentException( "Unknown drop policy: " + name );
+			}
+		}
+
+		@Override
+		public String toString() {
+			return this == DROP_NEWEST ? "dropNewest" : "dropOldest";
+		}
+	}
+
+	private final int capacity;
+	private final DropPolicy dropPolicy;
+	private final AtomicReferenceArray< MonitoringEvent > events;
+	private final AtomicLongArray sequences;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+	private final LongAdder dropped = new LongAdder();
+
+	public MonitoringEventBuffer( int capacity, DropPolicy dropPolicy ) {
+		if( capacity < 1 ) {
+			throw new IllegalArgumentException( "The capacity of a monitoring event buffer must be positive" );
+		}
+		this.capacity = capacity;
+		this.dropPolicy = dropPolicy;
+		this.events = new AtomicReferenceArray<>( capacity );
+		this.sequences = new AtomicLongArray( capacity );
+		for( int i = 0; i < capacity; i++ ) {
+			sequences.set( i, i );
+		}
+	}
+
+	/**
+	 * Adds an event to this buffer, applying the drop policy if the buffer is full.
+	 *
+	 * @param event the event to add
+	 * @return true if the event has been added, false if it has been dropped
+	 */
+	public boolean offer( MonitoringEvent event ) {
+		while( !tryOffer( event ) ) {
+			if( dropPolicy == DropPolicy.DROP_NEWEST ) {
+				dropped.increment();
+				return false;
+			}
+			if( poll() != null ) {
+				dropped.increment();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes and returns the oldest event in this buffer.
+	 *
+	 * @return the oldest event in this buffer, or null if the buffer is empty
+	 */
+	public MonitoringEvent poll() {
+		long position = head.get();
+		while( true ) {
+			final int index = (int) (position % capacity);
+			final long difference = sequences.get( index ) - (position + 1);
+			if( difference == 0 ) {
+				if( head.compareAndSet( position, position + 1 ) ) {
+					final MonitoringEvent event = events.get( index );
+					events.set( index, null );
+					// Ready to be written again one lap later
+					sequences.set( index, position + capacity );
+					return event;
+				}
+				position = head.get();
+			} else if( difference < 0 ) {
+				return null;
+			} else {
+				position = head.get();
+			}
+		}
+	}
+
+	/**
+	 * Removes up to max events from this buffer, oldest first, and adds them to the passed collection.
+	 *
+	 * @param collection the collection to add the events to
+	 * @param max the maximum number of events to remove
+	 * @return the number of events that have been removed
+	 */
+	public int drainTo( Collection< ? super MonitoringEvent > collection, int max ) {
+		int n = 0;
+		MonitoringEvent event;
+		while( n < max && (event = poll()) != null ) {
+			collection.add( event );
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Returns the number of events in this buffer. The result is only an estimate if the buffer is
+	 * being used concurrently.
+	 *
+	 * @return the number of events in this buffer
+	 */
+	public int size() {
+		final long size = tail.get() - head.get();
+		return (int) Math.max( 0L, Math.min( size, capacity ) );
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public DropPolicy dropPolicy() {
+		return dropPolicy;
+	}
+
+	/**
+	 * Returns the number of events dropped because this buffer was full.
+	 *
+	 * @return the number of dropped events
+	 */
+	public long dropped() {
+		return dropped.sum();
+	}
+
+	private boolean tryOffer( MonitoringEvent event ) {
+		long position = tail.get();
+		while( true ) {
+			final int index = (int) (position % capacity);
+			final long difference = sequences.get( index ) - position;
+			if( difference == 0 ) {
+				if( tail.compareAndSet( position, position + 1 ) ) {
+					events.set( index, event );
+					// Ready to be read
+					sequences.set( index, position + 1 );
+					return true;
+				}
+				position = tail.get();
+			} else if( difference < 0 ) {
+				// The slot still holds the event from the previous lap: full
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+}
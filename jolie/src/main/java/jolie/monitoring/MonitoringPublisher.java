@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.monitoring;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import jolie.ExecutionThread;
+import jolie.Interpreter;
+import jolie.NativeJolieThread;
+import jolie.net.CommChannel;
+import jolie.net.CommMessage;
+import jolie.net.ports.OutputPort;
+import jolie.runtime.Value;
+
+/**
+ * Publishes the monitoring events of an interpreter to its monitor, in the background.
+ *
+ * Firing an event only adds it to a {@link MonitoringEventBuffer}, so monitoring does not add
+ * communications to the execution of sessions. A dedicated thread takes the events from the buffer
+ * in batches and sends them to the monitor output port: with a batch size of 1, each event is sent
+ * as a pushEvent message; otherwise, the events of a batch are sent together as a single pushEvents
+ * message, under node "events".
+ *
+ * Events fired while the publisher itself is communicating with the monitor are ignored.
+ */
+public class MonitoringPublisher {
+	public static final int DEFAULT_QUEUE_SIZE = 1024;
+	public static final int DEFAULT_BATCH_SIZE = 1;
+
+	private final Interpreter interpreter;
+	private final OutputPort monitor;
+	private final MonitoringEventBuffer buffer;
+	private final int batchSize;
+	private final Thread thread;
+	private final LongAdder published = new LongAdder();
+	private volatile boolean active = true;
+	private volatile boolean waiting = false;
+
+	public MonitoringPublisher(
+		Interpreter interpreter,
+		OutputPort monitor,
+		int queueSize,
+		MonitoringEventBuffer.DropPolicy dropPolicy,
+		int batchSize ) {
+		this.interpreter = interpreter;
+		this.monitor = monitor;
+		this.buffer = new MonitoringEventBuffer( queueSize, dropPolicy );
+		this.batchSize = Math.max( 1, batchSize );
+		this.thread = new NativeJolieThread( interpreter, this::run );
+		thread.setName( interpreter.programFilename() + "-MonitoringPublisher" );
+		thread.setDaemon( true );
+	}
+
+	public void start() {
+		thread.start();
+	}
+
+	/**
+	 * Queues an event for publication. This method never blocks: if the queue is full, events are
+	 * dropped according to its drop policy.
+	 *
+	 * @param event the event to publish
+	 */
+	public void publish( MonitoringEvent event ) {
+		if( Thread.currentThread() == thread ) {
+			return;
+		}
+		buffer.offer( event );
+		if( waiting ) {
+			LockSupport.unpark( thread );
+		}
+	}
+
+	/**
+	 * Makes the publisher terminate after publishing the events still in the queue, waiting for that
+	 * at most for the passed timeout.
+	 *
+	 * @param timeout the maximum time to wait, in milliseconds
+	 */
+	public void shutdown( long timeout ) {
+		close();
+		try {
+			thread.join( timeout );
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Makes the publisher terminate after publishing the events still in the queue, without waiting.
+	 */
+	public void close() {
+		active = false;
+		LockSupport.unpark( thread );
+	}
+
+	/**
+	 * Writes the statistics of this publisher in the passed value.
+	 *
+	 * @param stats the value to write the statistics to
+	 */
+	public void writeStats( Value stats ) {
+		stats.setFirstChild( "published", published.sum() );
+		stats.setFirstChild( "dropped", buffer.dropped() );
+		stats.setFirstChild( "queued", buffer.size() );
+		stats.setFirstChild( "queueSize", buffer.capacity() );
+		stats.setFirstChild( "dropPolicy", buffer.dropPolicy().toString() );
+		stats.setFirstChild( "batchSize", batchSize );
+	}
+
+	private void run() {
+		if( interpreter.initThread() != null ) {
+			// Protocols may need a session to refer to, e.g., for logging
+			ExecutionThread.setCurrentThread( interpreter.initThread().getNewSessionThread() );
+		}
+		final List< MonitoringEvent > batch = new ArrayList<>( batchSize );
+		while( true ) {
+			if( buffer.drainTo( batch, batchSize ) > 0 ) {
+				send( batch );
+				batch.clear();
+			} else if( !active ) {
+				break;
+			} else {
+				waiting = true;
+				if( buffer.isEmpty() && active ) {
+					LockSupport.park( this );
+				}
+				waiting = false;
+			}
+		}
+		ExecutionThread.setCurrentThread( null );
+	}
+
+	private void send( List< MonitoringEvent > batch ) {
+		final CommMessage m;
+		if( batchSize == 1 ) {
+			m = CommMessage.createRequest( "pushEvent", "/", MonitoringEvent.toValue( batch.get( 0 ) ) );
+		} else {
+			final Value request = Value.create();
+			for( MonitoringEvent event : batch ) {
+				request.getChildren( "events" ).add( MonitoringEvent.toValue( event ) );
+			}
+			m = CommMessage.createRequest( "pushEvents", "/", request );
+		}
+		if( send( m ) ) {
+			published.add( batch.size() );
+		}
+	}
+
+	private boolean send( CommMessage m ) {
+		CommChannel channel = null;
+		try {
+			channel = monitor.getCommChannel();
+			channel.send( m );
+			CommMessage response = null;
+			do {
+				final Future< CommMessage > responseFuture = channel.recvResponseFor( m );
+				try {
+					response = responseFuture.get( interpreter.responseTimeout(), TimeUnit.MILLISECONDS );
+				} catch( TimeoutException | InterruptedException e ) {
+					// Let the channel forget about this request, as we stop waiting for it
+					responseFuture.cancel( false );
+					throw e;
+				}
+			} while( response == null );
+			return true;
+		} catch( TimeoutException e ) {
+			interpreter.logWarning( "The monitor did not acknowledge " + m.operationName() + " within "
+				+ interpreter.responseTimeout() + " ms, the events have been discarded" );
+			return false;
+		} catch( URISyntaxException | InterruptedException | ExecutionException | IOException e ) {
+			interpreter.logWarning( e );
+			return false;
+		} finally {
+			if( channel != null ) {
+				try {
+					channel.release();
+				} catch( IOException e ) {
+					interpreter.logWarning( e );
+				}
+			}
+		}
+	}
+}
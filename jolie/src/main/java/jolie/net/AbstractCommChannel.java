@@ -210,7 +210,7 @@ public abstract class AbstractCommChannel extends CommChannel {
 			 * Warning: the following line implies that this whole thing is safe iff the CommChannel is used
 			 * only for outputs, otherwise we are messing with correlation set checking.
 			 */
-			CommChannelHandler.currentThread().setExecutionThread( ethread ); // TODO: this is hacky..
+			ExecutionThread.setCurrentThread( ethread ); // TODO: this is hacky..
 
 			CommMessage response;
 			while( keepRun ) {
@@ -21,110 +21,511 @@ package jolie.net;
 
 import jolie.Interpreter;
 import jolie.runtime.TimeoutHandler;
+import jolie.runtime.Value;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * A pool of persistent channels, kept separately for each endpoint (location and protocol) reached
+ * by an output port.
+ * 
+ * Borrowing and returning channels does not take any lock. The size of each pool can be configured
+ * through the {@link Parameters#CONNECTION_POOL} parameter of the protocol configuration of the
+ * output port; if a maximum size is set, borrowers wait for a channel to become available when the
+ * pool is exhausted.
+ */
 public class ChannelCache {
-	// Location URI -> Protocol name -> Persistent CommChannel object
-	private final Map< URI, Map< String, CommChannel > > persistentChannels = new HashMap<>();
+	public static class Parameters {
+		public static final String CONNECTION_POOL = "connectionPool";
+		// Maximum number of open channels towards an endpoint, 0 for unbounded (default)
+		public static final String MAX_SIZE = "maxSize";
+		// Number of idle channels that are never evicted because of the idle timeout (default 0)
+		public static final String MIN_IDLE = "minIdle";
+		// Maximum number of idle channels kept for reuse, 0 for unbounded (default)
+		public static final String MAX_IDLE = "maxIdle";
+		// Milliseconds after which an idle channel gets closed
+		public static final String IDLE_TIMEOUT = "idleTimeout";
+		// Milliseconds to wait for a channel when the pool is exhausted, 0 for no limit (default)
+		public static final String WAIT_TIMEOUT = "waitTimeout";
+		// If true, concurrent requests share a single channel (default false)
+		public static final String MULTIPLEX = "multiplex";
+	}
 
-	private void removePersistentChannel( URI location, String protocol, Map< String, CommChannel > protocolChannels ) {
-		protocolChannels.remove( protocol );
-		if( protocolChannels.isEmpty() ) {
-			persistentChannels.remove( location );
+	/**
+	 * The configuration of the pool of an endpoint.
+	 *
+	 * A pool is created with the configuration of the first request for its endpoint. Explicit
+	 * configurations passed afterwards replace the one of the pool, while default ones (for requests
+	 * that do not configure the pool) leave it unchanged.
+	 */
+	public static class Configuration {
+		private final int maxSize;
+		private final int minIdle;
+		private final int maxIdle;
+		private final long idleTimeout;
+		private final long waitTimeout;
+		private final boolean explicit;
+
+		private Configuration( int maxSize, int minIdle, int maxIdle, long idleTimeout, long waitTimeout,
+			boolean explicit ) {
+			this.maxSize = maxSize;
+			this.minIdle = minIdle;
+			this.maxIdle = maxIdle;
+			this.idleTimeout = idleTimeout;
+			this.waitTimeout = waitTimeout;
+			this.explicit = explicit;
 		}
-	}
 
-	private void removePersistentChannel( URI location, String protocol, CommChannel channel ) {
-		if( persistentChannels.containsKey( location ) ) {
-			if( persistentChannels.get( location ).get( protocol ) == channel ) {
-				removePersistentChannel( location, protocol, persistentChannels.get( location ) );
+		public Configuration( int maxSize, int minIdle, int maxIdle, long idleTimeout, long waitTimeout ) {
+			this( maxSize, minIdle, maxIdle, idleTimeout, waitTimeout, true );
+		}
+
+		/**
+		 * Returns the configuration of an unbounded pool, which does not replace the configuration of
+		 * an existing pool.
+		 *
+		 * @param idleTimeout the milliseconds after which an idle channel gets closed
+		 * @return the default configuration
+		 */
+		public static Configuration defaults( long idleTimeout ) {
+			return new Configuration( 0, 0, 0, idleTimeout, 0, false );
+		}
+
+		private boolean sameAs( Configuration other ) {
+			return maxSize == other.maxSize && minIdle == other.minIdle && maxIdle == other.maxIdle
+				&& idleTimeout == other.idleTimeout && waitTimeout == other.waitTimeout;
+		}
+
+		/**
+		 * Reads a pool configuration from a protocol configuration value, using defaults for the
+		 * parameters that are not set.
+		 * 
+		 * @param protocolConfiguration the protocol configuration of an output port
+		 * @param defaultIdleTimeout the idle timeout to use if none is specified
+		 * @return the pool configuration
+		 */
+		public static Configuration fromProtocolConfiguration( Value protocolConfiguration,
+			long defaultIdleTimeout ) {
+			if( !protocolConfiguration.hasChildren( Parameters.CONNECTION_POOL ) ) {
+				return defaults( defaultIdleTimeout );
 			}
+			final Value pool = protocolConfiguration.getFirstChild( Parameters.CONNECTION_POOL );
+			return new Configuration(
+				pool.firstChildOrDefault( Parameters.MAX_SIZE, Value::intValue, 0 ),
+				pool.firstChildOrDefault( Parameters.MIN_IDLE, Value::intValue, 0 ),
+				pool.firstChildOrDefault( Parameters.MAX_IDLE, Value::intValue, 0 ),
+				pool.firstChildOrDefault( Parameters.IDLE_TIMEOUT, Value::longValue, defaultIdleTimeout ),
+				pool.firstChildOrDefault( Parameters.WAIT_TIMEOUT, Value::longValue, 0L ) );
 		}
 	}
 
-	public CommChannel getPersistentChannel( URI location, String protocol ) {
-		CommChannel ret = null;
-		synchronized( persistentChannels ) {
-			Map< String, CommChannel > protocolChannels = persistentChannels.get( location );
-			if( protocolChannels != null ) {
-				ret = protocolChannels.get( protocol );
-				if( ret != null ) {
-					if( ret.lock.tryLock() ) {
-						if( ret.isOpen() ) {
-							/*
-							 * We are going to return this channel, but first check if it supports concurrent use. If
-							 * not, then others should not access this until the caller is finished using it.
-							 */
-							// if ( ret.isThreadSafe() == false ) {
-							removePersistentChannel( location, protocol, protocolChannels );
-							// } else {
-							// If we return a channel, make sure it will not timeout!
-							ret.setTimeoutHandler( null );
-							// if ( ret.timeoutHandler() != null ) {
-							// interpreter.removeTimeoutHandler( ret.timeoutHandler() );
-							// ret.setTimeoutHandler( null );
-							// }
-							// }
-							ret.lock.unlock();
-						} else { // Channel is closed
-							removePersistentChannel( location, protocol, protocolChannels );
-							ret.lock.unlock();
-							ret = null;
+	/**
+	 * Creates the channels that are missing from a pool.
+	 */
+	@FunctionalInterface
+	public interface ChannelFactory {
+		CommChannel createChannel()
+			throws IOException, URISyntaxException;
+	}
+
+	/**
+	 * A snapshot of the metrics of the pool of an endpoint.
+	 */
+	public static class Statistics {
+		private final URI location;
+		private final String protocol;
+		private final long hits;
+		private final long misses;
+		private final long waits;
+		private final long opens;
+		private final long evictions;
+		private final int openChannels;
+		private final int idleChannels;
+
+		private Statistics( Endpoint endpoint ) {
+			this.location = endpoint.location;
+			this.protocol = endpoint.protocol;
+			this.hits = endpoint.hits.get();
+			this.misses = endpoint.misses.get();
+			this.waits = endpoint.waits.get();
+			this.opens = endpoint.opens.get();
+			this.evictions = endpoint.evictions.get();
+			this.openChannels = endpoint.openChannels.get();
+			this.idleChannels = endpoint.idleChannels.get();
+		}
+
+		public URI location() {
+			return location;
+		}
+
+		public String protocol() {
+			return protocol;
+		}
+
+		/**
+		 * Returns the number of requests served with an idle channel.
+		 */
+		public long hits() {
+			return hits;
+		}
+
+		/**
+		 * Returns the number of requests that found no idle channel.
+		 */
+		public long misses() {
+			return misses;
+		}
+
+		/**
+		 * Returns the number of requests that had to wait because the pool was exhausted.
+		 */
+		public long waits() {
+			return waits;
+		}
+
+		/**
+		 * Returns the number of channels opened by the pool.
+		 */
+		public long opens() {
+			return opens;
+		}
+
+		/**
+		 * Returns the number of idle channels closed by the pool.
+		 */
+		public long evictions() {
+			return evictions;
+		}
+
+		/**
+		 * Returns the number of channels currently open, either in use or idle.
+		 */
+		public int openChannels() {
+			return openChannels;
+		}
+
+		/**
+		 * Returns the number of channels currently idle in the pool.
+		 */
+		public int idleChannels() {
+			return idleChannels;
+		}
+	}
+
+	private class Endpoint {
+		private final URI location;
+		private final String protocol;
+		private volatile Configuration configuration;
+		// Most recently returned channels first, so that the older ones can time out
+		private final Deque< CommChannel > idle = new ConcurrentLinkedDeque<>();
+		private final AtomicInteger idleChannels = new AtomicInteger();
+		private final AtomicInteger openChannels = new AtomicInteger();
+		private final AtomicInteger waiters = new AtomicInteger();
+		private final ReentrantLock waitLock = new ReentrantLock();
+		private final Condition available = waitLock.newCondition();
+
+		private final AtomicLong hits = new AtomicLong();
+		private final AtomicLong misses = new AtomicLong();
+		private final AtomicLong waits = new AtomicLong();
+		private final AtomicLong opens = new AtomicLong();
+		private final AtomicLong evictions = new AtomicLong();
+
+		// The shared channel used when multiplexing, guarded by this endpoint
+		private MultiplexedCommChannel multiplexed = null;
+		private boolean multiplexingUnsupported = false;
+
+		private Endpoint( URI location, String protocol, Configuration configuration ) {
+			this.location = location;
+			this.protocol = protocol;
+			this.configuration = configuration;
+		}
+
+		private CommChannel pollIdle() {
+			int attempts = idleChannels.get();
+			CommChannel channel;
+			while( attempts-- > 0 && (channel = idle.pollFirst()) != null ) {
+				idleChannels.decrementAndGet();
+				if( !channel.isOpen() ) {
+					evictions.incrementAndGet();
+					closeQuietly( channel );
+				} else if( channel.lock.tryLock() ) {
+					// If we return a channel, make sure it will not timeout!
+					channel.setTimeoutHandler( null );
+					channel.lock.unlock();
+					return channel;
+				} else {
+					// The previous user is still releasing it, try the others first
+					idle.offerLast( channel );
+					idleChannels.incrementAndGet();
+				}
+			}
+			return null;
+		}
+
+		private boolean tryReserve() {
+			final int maxSize = configuration.maxSize;
+			if( maxSize <= 0 ) {
+				openChannels.incrementAndGet();
+				return true;
+			}
+			int current;
+			do {
+				current = openChannels.get();
+				if( current >= maxSize ) {
+					return false;
+				}
+			} while( !openChannels.compareAndSet( current, current + 1 ) );
+			return true;
+		}
+
+		private CommChannel open( ChannelFactory factory )
+			throws IOException, URISyntaxException {
+			final CommChannel channel;
+			try {
+				channel = factory.createChannel();
+			} catch( IOException | URISyntaxException | RuntimeException e ) {
+				onChannelClosed();
+				throw e;
+			}
+			opens.incrementAndGet();
+			channel.setCloseListener( this::onChannelClosed );
+			return channel;
+		}
+
+		private CommChannel await( ChannelFactory factory )
+			throws IOException, URISyntaxException {
+			waits.incrementAndGet();
+			final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( configuration.waitTimeout );
+			waiters.incrementAndGet();
+			waitLock.lock();
+			try {
+				while( true ) {
+					final CommChannel channel = pollIdle();
+					if( channel != null ) {
+						return channel;
+					}
+					if( tryReserve() ) {
+						break;
+					}
+					if( configuration.waitTimeout > 0 ) {
+						final long remaining = deadline - System.nanoTime();
+						if( remaining <= 0L ) {
+							throw new IOException( "Timed out waiting for a channel to " + location
+								+ " (protocol " + protocol + "): the connection pool is exhausted" );
 						}
-					} else { // Channel is busy
-						removePersistentChannel( location, protocol, protocolChannels );
-						ret = null;
+						available.awaitNanos( remaining );
+					} else {
+						available.await();
 					}
 				}
+			} catch( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				throw new IOException( e );
+			} finally {
+				waitLock.unlock();
+				waiters.decrementAndGet();
 			}
+			return open( factory );
 		}
 
-		return ret;
+		private void configure( Configuration c ) {
+			if( c.explicit && !c.sameAs( configuration ) ) {
+				configuration = c;
+				// The pool may have grown
+				if( waiters.get() > 0 ) {
+					waitLock.lock();
+					try {
+						available.signalAll();
+					} finally {
+						waitLock.unlock();
+					}
+				}
+			}
+		}
+
+		private void onChannelClosed() {
+			openChannels.decrementAndGet();
+			signalWaiters();
+		}
+
+		private void signalWaiters() {
+			if( waiters.get() > 0 ) {
+				waitLock.lock();
+				try {
+					available.signal();
+				} finally {
+					waitLock.unlock();
+				}
+			}
+		}
+	}
+
+	// Location URI -> Protocol name -> Pool of persistent CommChannel objects
+	private final Map< URI, Map< String, Endpoint > > endpoints = new ConcurrentHashMap<>();
+	private final Interpreter interpreter;
+
+	public ChannelCache( Interpreter interpreter ) {
+		this.interpreter = interpreter;
 	}
 
-	public void putPersistentChannel( URI location, String protocol, final CommChannel channel,
-		Interpreter interpreter ) {
-		synchronized( persistentChannels ) {
-			Map< String, CommChannel > protocolChannels =
-				persistentChannels.computeIfAbsent( location, k -> new HashMap<>() );
-			// Set the timeout
-			setTimeoutHandler( channel, location, protocol, interpreter );
-			// Put the protocol in the cache (may overwrite another one)
-			protocolChannels.put( protocol, channel );
-			/*
-			 * if ( protocolChannels.size() <= connectionCacheSize && protocolChannels.containsKey( protocol )
-			 * == false ) { // Set the timeout setTimeoutHandler( channel ); // Put the protocol in the cache
-			 * protocolChannels.put( protocol, channel ); } else { try { if ( protocolChannels.get( protocol )
-			 * != channel ) { channel.close(); } else { setTimeoutHandler( channel ); } } catch( IOException e )
-			 * { interpreter.logWarning( e ); } }
-			 */
+	private Endpoint getEndpoint( URI location, String protocol, Configuration configuration ) {
+		final Endpoint endpoint = endpoints.computeIfAbsent( location, k -> new ConcurrentHashMap<>() )
+			.computeIfAbsent( protocol, k -> new Endpoint( location, protocol, configuration ) );
+		endpoint.configure( configuration );
+		return endpoint;
+	}
+
+	/**
+	 * Returns a channel for the given endpoint, reusing an idle one if possible and creating one with
+	 * the given factory otherwise. If the pool of the endpoint is exhausted, this method waits for a
+	 * channel to be returned or closed.
+	 * 
+	 * @param location the location of the endpoint
+	 * @param protocol the protocol name of the endpoint
+	 * @param configuration the pool configuration, which replaces the one of an existing pool if it is
+	 *        explicit
+	 * @param factory the factory for creating new channels
+	 * @return a channel for the given endpoint
+	 * @throws IOException if a channel could not be created, or waiting for one timed out
+	 * @throws URISyntaxException if the factory could not parse the location
+	 */
+	public CommChannel getChannel( URI location, String protocol, Configuration configuration,
+		ChannelFactory factory )
+		throws IOException, URISyntaxException {
+		final Endpoint endpoint = getEndpoint( location, protocol, configuration );
+		final CommChannel channel = endpoint.pollIdle();
+		if( channel != null ) {
+			endpoint.hits.incrementAndGet();
+			return channel;
 		}
+		endpoint.misses.incrementAndGet();
+		if( endpoint.tryReserve() ) {
+			return endpoint.open( factory );
+		}
+		return endpoint.await( factory );
 	}
 
-	private void setTimeoutHandler( final CommChannel channel, final URI location, final String protocol,
-		Interpreter interpreter ) {
-		/*
-		 * if ( channel.timeoutHandler() != null ) { interpreter.removeTimeoutHandler(
-		 * channel.timeoutHandler() ); }
-		 */
+	/**
+	 * Returns a channel for the given endpoint that is shared by all concurrent requests, creating it
+	 * with the given factory if there is none or the previous one got closed. If the protocol of the
+	 * endpoint does not support concurrent sending and receiving, this method behaves as
+	 * {@link #getChannel(URI, String, Configuration, ChannelFactory)}.
+	 *
+	 * @param location the location of the endpoint
+	 * @param protocol the protocol name of the endpoint
+	 * @param configuration the pool configuration, which replaces the one of an existing pool if it is
+	 *        explicit
+	 * @param factory the factory for creating new channels
+	 * @return a channel for the given endpoint
+	 * @throws IOException if a channel could not be created, or waiting for one timed out
+	 * @throws URISyntaxException if the factory could not parse the location
+	 */
+	public CommChannel getMultiplexedChannel( URI location, String protocol, Configuration configuration,
+		ChannelFactory factory )
+		throws IOException, URISyntaxException {
+		final Endpoint endpoint = getEndpoint( location, protocol, configuration );
+		synchronized( endpoint ) {
+			if( !endpoint.multiplexingUnsupported ) {
+				if( endpoint.multiplexed != null && endpoint.multiplexed.isOpen() ) {
+					endpoint.hits.incrementAndGet();
+					return endpoint.multiplexed;
+				}
+				if( endpoint.multiplexed != null ) {
+					closeQuietly( endpoint.multiplexed );
+					endpoint.multiplexed = null;
+				}
+				endpoint.misses.incrementAndGet();
+				if( endpoint.tryReserve() ) {
+					final CommChannel channel = endpoint.open( factory );
+					if( MultiplexedCommChannel.canMultiplex( channel ) ) {
+						endpoint.multiplexed = new MultiplexedCommChannel( interpreter, channel );
+						return endpoint.multiplexed;
+					}
+					interpreter.logWarning( "Protocol " + protocol
+						+ " does not support multiplexing, using a connection pool for " + location );
+					endpoint.multiplexingUnsupported = true;
+					return channel;
+				}
+			}
+		}
+		return getChannel( location, protocol, configuration, factory );
+	}
 
-		final TimeoutHandler handler = new TimeoutHandler( interpreter.persistentConnectionTimeout() ) {
+	public void putPersistentChannel( URI location, String protocol, final CommChannel channel ) {
+		final Endpoint endpoint = getEndpoint( location, protocol,
+			Configuration.defaults( interpreter.persistentConnectionTimeout() ) );
+		if( !channel.hasCloseListener() ) {
+			// The channel was not created by this pool (e.g., it was requested as a new channel)
+			if( !endpoint.tryReserve() ) {
+				closeQuietly( channel );
+				return;
+			}
+			channel.setCloseListener( endpoint::onChannelClosed );
+		}
+
+		if( endpoint.configuration.maxIdle > 0 && endpoint.idleChannels.get() >= endpoint.configuration.maxIdle ) {
+			endpoint.evictions.incrementAndGet();
+			closeQuietly( channel );
+			return;
+		}
+
+		// Set the timeout
+		setTimeoutHandler( channel, endpoint );
+		endpoint.idle.offerFirst( channel );
+		endpoint.idleChannels.incrementAndGet();
+		endpoint.signalWaiters();
+	}
+
+	/**
+	 * Returns the metrics of the pools of this cache.
+	 * 
+	 * @return the metrics of the pools of this cache, one per endpoint
+	 */
+	public List< Statistics > statistics() {
+		final List< Statistics > ret = new ArrayList<>();
+		endpoints.values()
+			.forEach( protocolEndpoints -> protocolEndpoints.values()
+				.forEach( endpoint -> ret.add( new Statistics( endpoint ) ) ) );
+		return ret;
+	}
+
+	private void closeQuietly( CommChannel channel ) {
+		try {
+			channel.close();
+		} catch( IOException e ) {
+			interpreter.logWarning( e );
+		}
+	}
+
+	private void setTimeoutHandler( final CommChannel channel, final Endpoint endpoint ) {
+		final TimeoutHandler handler = new TimeoutHandler( endpoint.configuration.idleTimeout ) {
 			@Override
 			public void onTimeout() {
-				try {
-					synchronized( persistentChannels ) {
-						if( channel.timeoutHandler() == this ) {
-							removePersistentChannel( location, protocol, channel );
-							channel.close();
+				if( channel.timeoutHandler() == this ) {
+					if( endpoint.idleChannels.get() > endpoint.configuration.minIdle ) {
+						if( endpoint.idle.remove( channel ) ) {
+							endpoint.idleChannels.decrementAndGet();
+							endpoint.evictions.incrementAndGet();
 							channel.setTimeoutHandler( null );
+							closeQuietly( channel );
 						}
+					} else {
+						// Keep the minimum number of idle channels alive
+						setTimeoutHandler( channel, endpoint );
 					}
-				} catch( IOException e ) {
-					interpreter.logSevere( e );
 				}
 			}
 		};
@@ -24,6 +24,7 @@ package jolie.net;
 
 import java.io.IOException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
 import jolie.net.ports.InputPort;
@@ -59,9 +60,17 @@ public abstract class CommChannel {
 	private long redirectionMessageId = 0L;
 
 	private TimeoutHandler timeoutHandler = null;
+	private final AtomicReference< Runnable > closeListener = new AtomicReference<>();
 
+	/**
+	 * Sets the timeout handler of this channel, cancelling the previous one.
+	 */
 	protected void setTimeoutHandler( TimeoutHandler timeoutHandler ) {
+		final TimeoutHandler previous = this.timeoutHandler;
 		this.timeoutHandler = timeoutHandler;
+		if( previous != null && previous != timeoutHandler ) {
+			previous.cancel();
+		}
 	}
 
 	protected TimeoutHandler timeoutHandler() {
@@ -219,13 +228,26 @@ public abstract class CommChannel {
 		throws IOException {
 		Helpers.lockAndThen( lock, () -> {
 			if( toBeClosed() ) {
-				close();
+				if( !hasPendingRequests() ) {
+					close();
+				}
 			} else {
 				releaseImpl();
 			}
 		} );
 	}
 
+	/**
+	 * Returns <code>true</code> if this channel received requests that have not been answered yet.
+	 * A channel that is to be closed stays open until it has no pending requests, since clients may
+	 * send further requests before receiving the responses to the previous ones.
+	 * 
+	 * @return <code>true</code> if some received request still waits for its response
+	 */
+	protected boolean hasPendingRequests() {
+		return false;
+	}
+
 	protected void releaseImpl()
 		throws IOException {
 		close();
@@ -245,7 +267,7 @@ public abstract class CommChannel {
 	public final void disposeForInput()
 		throws IOException {
 		Helpers.lockAndThen( lock, () -> {
-			if( toBeClosed() == false ) {
+			if( toBeClosed() == false || hasPendingRequests() ) {
 				disposeForInputImpl();
 			} /*
 				 * else { close(); }
@@ -269,7 +291,26 @@ public abstract class CommChannel {
 	protected final void close()
 		throws IOException {
 		isOpen = false;
-		closeImpl();
+		try {
+			closeImpl();
+		} finally {
+			final Runnable listener = closeListener.getAndSet( null );
+			if( listener != null ) {
+				listener.run();
+			}
+		}
+	}
+
+	/**
+	 * Sets a listener to be run (once) when this channel gets closed. Used by {@link ChannelCache} for
+	 * keeping track of the channels it opened.
+	 */
+	void setCloseListener( Runnable listener ) {
+		closeListener.set( listener );
+	}
+
+	boolean hasCloseListener() {
+		return closeListener.get() != null;
 	}
 
 	/**
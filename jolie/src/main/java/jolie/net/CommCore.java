@@ -22,9 +22,11 @@
 
 package jolie.net;
 
+import jolie.ExecutionThread;
 import jolie.Interpreter;
 import jolie.JolieThreadPoolExecutor;
 import jolie.NativeJolieThread;
+import jolie.VirtualThreadExecutors;
 import jolie.lang.Constants;
 import jolie.net.ext.CommChannelFactory;
 import jolie.net.ext.CommListenerFactory;
@@ -40,6 +42,7 @@ import jolie.runtime.typing.TypeCheckingException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
@@ -67,6 +70,8 @@ import java.util.regex.Pattern;
 public class CommCore {
 	private final Map< String, CommListener > listenersMap = new HashMap<>();
 	private final static int CHANNEL_HANDLER_TIMEOUT = 5;
+	// Size of the buffer used by each selector thread to read incoming messages
+	private final static int READ_BUFFER_SIZE = 64 * 1024;
 	private final ThreadGroup threadGroup;
 
 	private static final Logger LOGGER = Logger.getLogger( "JOLIE" );
@@ -104,7 +109,12 @@ public class CommCore {
 		 * new CommThreadFactory() ); } else { executorService = Executors.newCachedThreadPool( new
 		 * CommThreadFactory() ); }
 		 */
-		executorService = new JolieThreadPoolExecutor( new CommThreadFactory() );
+		if( interpreter.configuration().virtualThreads() ) {
+			executorService = VirtualThreadExecutors.create( interpreter.programFilename() + "-CommChannelHandler-" )
+				.orElseGet( () -> new JolieThreadPoolExecutor( new CommThreadFactory() ) );
+		} else {
+			executorService = new JolieThreadPoolExecutor( new CommThreadFactory() );
+		}
 
 		// TODO make socket an extension, too?
 		CommListenerFactory listenerFactory = new SocketListenerFactory( this );
@@ -463,8 +473,7 @@ public class CommCore {
 
 		@Override
 		public void run() {
-			final CommChannelHandler thread = CommChannelHandler.currentThread();
-			thread.setExecutionThread( interpreter().initThread().getNewSessionThread() );
+			ExecutionThread.setCurrentThread( interpreter().initThread().getNewSessionThread() );
 			channel.lock.lock();
 			channelHandlersLock.readLock().lock();
 			try {
@@ -507,7 +516,7 @@ public class CommCore {
 				if( channel.lock.isHeldByCurrentThread() ) {
 					channel.lock.unlock();
 				}
-				thread.setExecutionThread( null );
+				ExecutionThread.setCurrentThread( null );
 			}
 		}
 	}
@@ -559,8 +568,17 @@ public class CommCore {
 		return pollingThread;
 	}
 
+	/*
+	 * Polls the channels that cannot notify their readiness (see PollableCommChannel#whenReady). The
+	 * polling interval starts small whenever a channel is registered and grows up to
+	 * MAX_POLLING_INTERVAL while no channel becomes ready.
+	 */
 	private class PollingThread extends Thread {
+		private static final long MIN_POLLING_INTERVAL = 1L; // msecs
+		private static final long MAX_POLLING_INTERVAL = 50L; // msecs
+
 		private final Set< CommChannel > channels = new HashSet<>();
+		private long pollingInterval = MIN_POLLING_INTERVAL;
 
 		private PollingThread() {
 			super( threadGroup, interpreter.programFilename() + "-PollingThread" );
@@ -570,6 +588,7 @@ public class CommCore {
 		public void run() {
 			Iterator< CommChannel > it;
 			CommChannel channel;
+			boolean scheduled;
 			while( active ) {
 				synchronized( this ) {
 					if( channels.isEmpty() ) {
@@ -579,6 +598,7 @@ public class CommCore {
 						} catch( InterruptedException e ) {
 						}
 					}
+					scheduled = false;
 					it = channels.iterator();
 					while( it.hasNext() ) {
 						channel = it.next();
@@ -586,15 +606,22 @@ public class CommCore {
 							if( ((PollableCommChannel) channel).isReady() ) {
 								it.remove();
 								scheduleReceive( channel, channel.parentInputPort() );
+								scheduled = true;
 							}
 						} catch( IOException e ) {
 							e.printStackTrace();
 						}
 					}
-				}
-				try {
-					Thread.sleep( 50 ); // msecs
-				} catch( InterruptedException e ) {
+					pollingInterval = scheduled
+						? MIN_POLLING_INTERVAL
+						: Math.min( pollingInterval * 2, MAX_POLLING_INTERVAL );
+					if( !channels.isEmpty() ) {
+						try {
+							// Woken up early by register
+							this.wait( pollingInterval );
+						} catch( InterruptedException e ) {
+						}
+					}
 				}
 			}
 
@@ -607,25 +634,20 @@ public class CommCore {
 			} );
 		}
 
-		public void register( CommChannel channel )
-			throws IOException {
-			if( !(channel instanceof PollableCommChannel) ) {
-				throw new IOException(
-					"Channels registering for polling must implement PollableCommChannel interface" );
-			}
-
+		public void register( CommChannel channel ) {
 			synchronized( this ) {
 				channels.add( channel );
-				if( channels.size() == 1 ) { // set was empty
-					this.notify();
-				}
+				pollingInterval = MIN_POLLING_INTERVAL;
+				this.notify();
 			}
 		}
 	}
 
 	/**
 	 * Registers a <code>CommChannel</code> for input polling. The registered channel must implement the
-	 * {@link PollableCommChannel <code>PollableCommChannel</code>} interface.
+	 * {@link PollableCommChannel <code>PollableCommChannel</code>} interface. The channel is scheduled
+	 * for receiving as soon as it notifies that it is ready, or, if it does not support notifications,
+	 * when polling finds it ready.
 	 * 
 	 * @param channel the channel to register for polling
 	 * @throws java.io.IOException in case the channel could not be registered for polling
@@ -634,7 +656,16 @@ public class CommCore {
 	 */
 	public void registerForPolling( CommChannel channel )
 		throws IOException {
-		pollingThread().register( channel );
+		if( !(channel instanceof PollableCommChannel) ) {
+			throw new IOException(
+				"Channels registering for polling must implement PollableCommChannel interface" );
+		}
+
+		final boolean notifies = ((PollableCommChannel) channel)
+			.whenReady( () -> scheduleReceive( channel, channel.parentInputPort() ) );
+		if( !notifies ) {
+			pollingThread().register( channel );
+		}
 	}
 
 	private class SelectorThread extends NativeJolieThread {
@@ -645,6 +676,7 @@ public class CommCore {
 		private final Selector selector;
 		private final SelectorMutex selectingMutex = new SelectorMutex();
 		private final Deque< Runnable > selectorTasks = new ArrayDeque<>();
+		private final ByteBuffer readBuffer = ByteBuffer.allocateDirect( READ_BUFFER_SIZE );
 
 		public SelectorThread( Interpreter interpreter )
 			throws IOException {
@@ -662,6 +694,11 @@ public class CommCore {
 							final SelectableStreamingCommChannel channel =
 								(SelectableStreamingCommChannel) key.attachment();
 							if( channel.lock.tryLock() ) {
+								if( !channel.readForRecv( readBuffer ) ) {
+									// The message is not complete yet, keep selecting
+									channel.lock.unlock();
+									continue;
+								}
 								key.cancel();
 								selectorTasks.add( () -> {
 									try {
@@ -747,7 +784,7 @@ public class CommCore {
 
 		public void register( SelectableStreamingCommChannel channel, int index ) {
 			try {
-				if( channel.inputStream().available() > 0 ) {
+				if( channel.hasBufferedMessage() ) {
 					scheduleReceive( channel, channel.parentInputPort() );
 					return;
 				}
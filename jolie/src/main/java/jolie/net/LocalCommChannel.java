@@ -120,6 +120,17 @@ public class LocalCommChannel extends CommChannel implements PollableCommChannel
 		return responseWaiters.isEmpty() == false;
 	}
 
+	@Override
+	public boolean whenReady( Runnable action ) {
+		final CompletableFuture< ? >[] pending = responseWaiters.values().toArray( new CompletableFuture< ? >[ 0 ] );
+		if( pending.length == 0 ) {
+			return false;
+		}
+		// Ready as soon as a response is available, so that receiving it does not block
+		CompletableFuture.anyOf( pending ).whenComplete( ( r, t ) -> action.run() );
+		return true;
+	}
+
 	@Override
 	protected void disposeForInputImpl()
 		throws IOException {
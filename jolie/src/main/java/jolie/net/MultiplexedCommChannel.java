@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import jolie.ExecutionThread;
+import jolie.Interpreter;
+import jolie.net.ports.OutputPort;
+import jolie.runtime.TimeoutHandler;
+import jolie.util.Helpers;
+
+/**
+ * A channel that lets many concurrent requests share one underlying connection.
+ *
+ * Requests are written one at a time, without waiting for the previous responses. A single reader
+ * task, started on demand and stopped when no request is waiting, receives the responses and
+ * completes the matching requests by their request id. The underlying channel must use a
+ * thread-safe protocol, so that sending and receiving can happen at the same time.
+ *
+ * Releasing this channel does not close it, since it is shared: it is closed when the underlying
+ * connection fails or is closed by the other party.
+ */
+final class MultiplexedCommChannel extends CommChannel {
+	private final Interpreter interpreter;
+	private final CommChannel channel;
+	private final Map< Long, PendingResponse > pendingResponses = new ConcurrentHashMap<>();
+	private final AtomicInteger waitingResponses = new AtomicInteger();
+	private final AtomicBoolean readerRunning = new AtomicBoolean( false );
+	private volatile boolean closed = false;
+
+	MultiplexedCommChannel( Interpreter interpreter, CommChannel channel ) {
+		this.interpreter = interpreter;
+		this.channel = channel;
+		setToBeClosed( false );
+	}
+
+	/**
+	 * Returns {@code true} if the given channel can be shared by concurrent requests.
+	 */
+	static boolean canMultiplex( CommChannel channel ) {
+		return channel.isThreadSafe();
+	}
+
+	@Override
+	public void setParentOutputPort( OutputPort outputPort ) {
+		super.setParentOutputPort( outputPort );
+		// Protocols look up the types of operations through the port of the channel they use
+		channel.setParentOutputPort( outputPort );
+	}
+
+	@Override
+	protected boolean isThreadSafe() {
+		return true;
+	}
+
+	@Override
+	protected boolean isOpenImpl() {
+		if( closed ) {
+			return false;
+		}
+		/*
+		 * Probing the connection reads from it, so we do it only when no reader is running. Senders
+		 * start the reader while holding the lock, so it cannot be started in the meantime.
+		 */
+		return Helpers.lockAndThen( lock, () -> readerRunning.get() || channel.isOpen() );
+	}
+
+	/*
+	 * A request waiting for its response to be claimed. Unclaimed requests expire after the response
+	 * timeout, in case the requester failed between sending and claiming. Once claimed, the requester
+	 * is in charge of the timeout, and cancels the future when it stops waiting.
+	 */
+	private final class PendingResponse extends TimeoutHandler {
+		private final long requestId;
+		private final CompletableFuture< CommMessage > future = new CompletableFuture<>();
+
+		private PendingResponse( long requestId ) {
+			super( interpreter.responseTimeout() );
+			this.requestId = requestId;
+		}
+
+		@Override
+		protected void onTimeout() {
+			if( pendingResponses.remove( requestId, this ) ) {
+				future.completeExceptionally(
+					new IOException( "The response to request " + requestId + " was never claimed" ) );
+			}
+		}
+	}
+
+	/*
+	 * Responses stay in pendingResponses until they are claimed by recvResponseFor, since they may
+	 * arrive before it is called. waitingResponses counts the ones that did not arrive yet.
+	 */
+	private PendingResponse registerRequest( long requestId ) {
+		final PendingResponse p = new PendingResponse( requestId );
+		waitingResponses.incrementAndGet();
+		p.future.whenComplete( ( response, t ) -> waitingResponses.decrementAndGet() );
+		pendingResponses.put( requestId, p );
+		interpreter.addTimeoutHandler( p );
+		return p;
+	}
+
+	@Override
+	public Future< CommMessage > recvResponseFor( CommMessage request )
+		throws IOException {
+		final long requestId = request.requestId();
+		final PendingResponse p = pendingResponses.get( requestId );
+		if( p == null ) {
+			throw new IOException( "No request with id " + requestId + " was sent on this channel" );
+		}
+		p.cancel();
+		// Also run when the requester cancels the future because it timed out or was interrupted
+		p.future.whenComplete( ( response, t ) -> pendingResponses.remove( requestId, p ) );
+		return p.future;
+	}
+
+	@Override
+	protected void sendImpl( CommMessage message )
+		throws IOException {
+		if( closed ) {
+			throw new IOException( "Channel closed" );
+		}
+		// Register before sending, as the response may arrive before recvResponseFor is called
+		final PendingResponse p = registerRequest( message.requestId() );
+		try {
+			channel.sendImpl( message );
+		} catch( IOException e ) {
+			p.cancel();
+			pendingResponses.remove( message.requestId(), p );
+			p.future.completeExceptionally( e );
+			throw e;
+		}
+		if( readerRunning.compareAndSet( false, true ) ) {
+			final ExecutionThread ethread = ExecutionThread.currentThread();
+			interpreter.commCore().startCommChannelHandler( () -> readResponses( ethread ) );
+		}
+	}
+
+	private void readResponses( ExecutionThread ethread ) {
+		/*
+		 * As in AbstractCommChannel, protocol parameters are resolved in the state of the process that
+		 * started the reader.
+		 */
+		ExecutionThread.setCurrentThread( ethread );
+		try {
+			while( true ) {
+				if( waitingResponses.get() == 0 ) {
+					readerRunning.set( false );
+					// A sender may have registered a request after our check but before we stopped
+					if( waitingResponses.get() == 0 || !readerRunning.compareAndSet( false, true ) ) {
+						return;
+					}
+				}
+				final CommMessage response = channel.recvImpl();
+				if( response != null ) {
+					dispatch( response );
+				}
+			}
+		} catch( IOException e ) {
+			interpreter.logFine( e );
+			fail( e );
+		} finally {
+			ExecutionThread.setCurrentThread( null );
+		}
+	}
+
+	private void dispatch( CommMessage response ) {
+		final PendingResponse p;
+		if( response.hasGenericRequestId() ) {
+			for( Map.Entry< Long, PendingResponse > entry : pendingResponses.entrySet() ) {
+				if( !entry.getValue().future.isDone() ) {
+					entry.getValue().future.complete( new CommMessage(
+						entry.getKey(),
+						response.operationName(),
+						response.resourcePath(),
+						response.value(),
+						response.fault() ) );
+					return;
+				}
+			}
+		} else if( (p = pendingResponses.get( response.requestId() )) != null ) {
+			p.future.complete( response );
+		}
+		// Otherwise the requester gave up waiting (e.g., it timed out), so the response is dropped
+	}
+
+	private void fail( IOException cause ) {
+		for( PendingResponse p : pendingResponses.values() ) {
+			p.future.completeExceptionally( cause );
+		}
+		try {
+			Helpers.lockAndThen( lock, () -> {
+				if( !closed ) {
+					close();
+				}
+			} );
+		} catch( IOException e ) {
+			interpreter.logFine( e );
+		}
+	}
+
+	@Override
+	protected CommMessage recvImpl()
+		throws IOException {
+		throw new IOException( "Multiplexed channels can only be used for solicit-responses and notifications" );
+	}
+
+	@Override
+	protected void releaseImpl() {
+		// Shared channel: it stays open for the other requests
+	}
+
+	@Override
+	protected void closeImpl()
+		throws IOException {
+		closed = true;
+		try {
+			channel.close();
+		} finally {
+			final IOException cause = new IOException( "Channel closed" );
+			for( PendingResponse p : pendingResponses.values() ) {
+				p.future.completeExceptionally( cause );
+			}
+		}
+	}
+}
@@ -26,6 +26,9 @@ import java.io.IOException;
 /**
  * This interface is to be implemented by communication channels that are to be polled by
  * <code>CommCore</code>.
+ *
+ * Channels that know when they become ready should override {@link #whenReady(Runnable)}, so that
+ * <code>CommCore</code> can schedule them as soon as that happens instead of polling them.
  * 
  * @author Fabrizio Montesi
  * @see CommCore
@@ -42,4 +45,27 @@ public interface PollableCommChannel {
 	 */
 	boolean isReady()
 		throws IOException;
+
+	/**
+	 * Requests this channel to run the passed action once, as soon as it is ready for receiving an
+	 * input message. The action may be run by the calling thread, if the channel is already ready.
+	 * Channels that cannot notify their readiness return <code>false</code>, and are then polled with
+	 * {@link #isReady()}.
+	 *
+	 * The default implementation runs the action immediately if this channel is ready, and returns
+	 * <code>false</code> otherwise.
+	 *
+	 * @param action the action to run when this channel is ready
+	 * @return <code>true</code> if the action has been run or will be run when this channel is ready,
+	 *         <code>false</code> if this channel must be polled
+	 * @throws java.io.IOException
+	 */
+	default boolean whenReady( Runnable action )
+		throws IOException {
+		if( isReady() ) {
+			action.run();
+			return true;
+		}
+		return false;
+	}
 }
@@ -38,6 +38,13 @@ public class PreBufferedInputStream extends BufferedInputStream {
 		return pos < count;
 	}
 
+	/**
+	 * Returns the number of bytes that can be read without reading from the underlying stream.
+	 */
+	public int cachedDataSize() {
+		return count - pos;
+	}
+
 	public void append( ByteBuffer b ) {
 		final int bufferSize = b.remaining();
 		enlargeIfNecessary( bufferSize );
@@ -57,10 +64,15 @@ public class PreBufferedInputStream extends BufferedInputStream {
 			}
 
 			final byte[] nbuf = new byte[ tentative ];
-			final int remaining = count - pos;
-			System.arraycopy( buf, pos, nbuf, 0, remaining );
+			// Keep the marked bytes, if any, so that reset() still works
+			final int start = markpos >= 0 ? markpos : pos;
+			final int remaining = count - start;
+			System.arraycopy( buf, start, nbuf, 0, remaining );
 			buf = nbuf;
-			pos = 0;
+			pos -= start;
+			if( markpos >= 0 ) {
+				markpos = 0;
+			}
 			count = remaining;
 		}
 	}
@@ -24,7 +24,9 @@ package jolie.net;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.SelectableChannel;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jolie.Interpreter;
 import jolie.net.protocols.CommProtocol;
@@ -42,6 +44,8 @@ public abstract class SelectableStreamingCommChannel extends StreamingCommChanne
 
 	private final long creationTime = System.currentTimeMillis();
 	private int selectorIndex;
+	// Requests received by an input port that have not been answered yet
+	private final AtomicInteger pendingRequests = new AtomicInteger();
 
 	public int selectorIndex() {
 		return selectorIndex;
@@ -69,10 +73,56 @@ public abstract class SelectableStreamingCommChannel extends StreamingCommChanne
 	 */
 	abstract public SelectableChannel selectableChannel();
 
+	/**
+	 * Called by the selector thread, holding the lock of this channel, when the selectable channel
+	 * becomes readable. Channels that can find the boundaries of incoming messages override this
+	 * method to read the available bytes without blocking, so that a message is received only when
+	 * it is complete.
+	 *
+	 * @param buffer a buffer that can be used for reading, shared by all the channels of the same
+	 *        selector thread
+	 * @return <code>true</code> if a message should be received from this channel, or
+	 *         <code>false</code> if the channel should keep waiting for more data
+	 */
+	protected boolean readForRecv( ByteBuffer buffer ) {
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if a message can be received from this channel without waiting for
+	 * more data.
+	 */
+	protected boolean hasBufferedMessage()
+		throws IOException {
+		return inputStream().available() > 0;
+	}
+
+	@Override
+	public CommMessage recv()
+		throws IOException {
+		final CommMessage message = super.recv();
+		if( message != null && parentInputPort() != null ) {
+			pendingRequests.incrementAndGet();
+		}
+		return message;
+	}
+
 	@Override
 	public final void send( CommMessage message )
 		throws IOException {
-		Helpers.lockAndThen( lock, () -> _send( message ) );
+		try {
+			Helpers.lockAndThen( lock, () -> _send( message ) );
+		} finally {
+			if( parentInputPort() != null ) {
+				// Input ports only send responses
+				pendingRequests.getAndUpdate( n -> n > 0 ? n - 1 : 0 );
+			}
+		}
+	}
+
+	@Override
+	protected boolean hasPendingRequests() {
+		return pendingRequests.get() > 0;
 	}
 
 	private void _send( CommMessage message )
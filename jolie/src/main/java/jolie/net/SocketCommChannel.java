@@ -26,15 +26,16 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.StandardSocketOptions;
 import java.net.URI;
 import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
 import java.nio.channels.IllegalBlockingModeException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SocketChannel;
 
 import jolie.Interpreter;
 import jolie.net.protocols.CommProtocol;
+import jolie.net.protocols.MessageDecoder;
 import jolie.util.Helpers;
 
 
@@ -49,6 +50,14 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 	private final OutputStream ostream;
 
 	private static final int SO_LINGER = 10000;
+	// Messages larger than this are not buffered by the selector thread, but read by a worker
+	private static final int MAX_DECODED_MESSAGE_SIZE = 1 << 20;
+
+	// The following fields are guarded by lock
+	private MessageDecoder decoder = null;
+	private boolean decoderCreated = false;
+	// Complete messages in istream that have not been received yet, if decoder is used
+	private int bufferedMessages = 0;
 
 	/**
 	 * Constructor.
@@ -64,11 +73,14 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 		throws IOException {
 		super( location, protocol );
 		this.socketChannel = socketChannel;
-		socketChannel.socket().setSoLinger( true, SO_LINGER );
+		// Not supported by Unix domain sockets
+		if( socketChannel.supportedOptions().contains( StandardSocketOptions.SO_LINGER ) ) {
+			socketChannel.setOption( StandardSocketOptions.SO_LINGER, SO_LINGER );
+		}
 		// this.istream = new PreBufferedInputStream( new BufferedInputStream( Channels.newInputStream(
 		// socketChannel ) ) );
-		this.istream = new PreBufferedInputStream( Channels.newInputStream( socketChannel ) );
-		this.ostream = new BufferedOutputStream( Channels.newOutputStream( socketChannel ) );
+		this.istream = new PreBufferedInputStream( new SocketInputStream() );
+		this.ostream = new BufferedOutputStream( new SocketOutputStream( socketChannel ) );
 		setToBeClosed( false ); // Socket connections are kept open by default
 	}
 
@@ -98,12 +110,82 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 	protected CommMessage recvImpl()
 		throws IOException {
 		try {
-			return protocol().recv( istream, ostream );
+			final CommMessage message = protocol().recv( istream, ostream );
+			if( bufferedMessages > 0 ) {
+				bufferedMessages--;
+			}
+			return message;
 		} catch( IllegalBlockingModeException e ) {
 			throw new IOException( e );
 		}
 	}
 
+	/*
+	 * The decoder is created for channels of input ports before any byte is read, so that it sees
+	 * all the bytes received. It is dropped if it fails, in which case recv reports the error.
+	 */
+	private MessageDecoder decoder() {
+		if( !decoderCreated && parentInputPort() != null ) {
+			decoderCreated = true;
+			if( !istream.hasCachedData() ) {
+				decoder = protocol().createMessageDecoder();
+			}
+		}
+		return decoder;
+	}
+
+	/**
+	 * Returns <code>true</code> if the messages received by this channel are read by its selector
+	 * thread until they are complete, instead of by a blocking call to
+	 * {@link CommProtocol#recv(InputStream, OutputStream)}.
+	 */
+	public boolean decodesInput() {
+		return Helpers.lockAndThen( lock, () -> decoder() != null );
+	}
+
+	// Feeds the bytes just read from the socket to the decoder, if any
+	private void decode( ByteBuffer data ) {
+		final MessageDecoder d = decoder();
+		if( d != null ) {
+			try {
+				bufferedMessages += d.decode( data );
+			} catch( IOException e ) {
+				decoder = null;
+				bufferedMessages = 0;
+			}
+		}
+	}
+
+	@Override
+	protected boolean readForRecv( ByteBuffer buffer ) {
+		if( decoder() == null ) {
+			return true;
+		}
+		buffer.clear();
+		try {
+			if( socketChannel.read( buffer ) < 0 ) {
+				// Let the receiving task find out that the channel has been closed
+				return true;
+			}
+		} catch( IOException e ) {
+			return true;
+		}
+		buffer.flip();
+		decode( buffer.duplicate() );
+		istream.append( buffer );
+		if( bufferedMessages == 0 && istream.cachedDataSize() > MAX_DECODED_MESSAGE_SIZE ) {
+			// Fall back to the blocking path: a worker reads the rest of the message from the socket
+			decoder = null;
+		}
+		return decoder == null || bufferedMessages > 0;
+	}
+
+	@Override
+	protected boolean hasBufferedMessage()
+		throws IOException {
+		return Helpers.lockAndThen( lock, () -> decoder() == null ? super.hasBufferedMessage() : bufferedMessages > 0 );
+	}
+
 	/**
 	 * Sends a message through the channel.
 	 * 
@@ -162,6 +244,7 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 		} else if( read > 0 ) {
 			buffer.limit( read );
 			buffer.rewind();
+			decode( buffer.duplicate() );
 			istream.append( buffer );
 		}
 		return true;
@@ -182,4 +265,75 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 		}
 		return ret;
 	}
+
+	/*
+	 * The streams returned by java.nio.channels.Channels synchronise reading and writing on the same
+	 * lock, so a thread waiting for data would block all writers. Socket channels can be read and
+	 * written concurrently, which multiplexed channels rely upon, so we access them directly.
+	 */
+	private final class SocketInputStream extends InputStream {
+		private final SocketChannel channel = socketChannel;
+
+		@Override
+		public int read()
+			throws IOException {
+			final byte[] b = new byte[ 1 ];
+			final int n = read( b, 0, 1 );
+			return n > 0 ? b[ 0 ] & 0xFF : -1;
+		}
+
+		@Override
+		public int read( byte[] b, int off, int len )
+			throws IOException {
+			if( len == 0 ) {
+				return 0;
+			}
+			if( !channel.isBlocking() ) {
+				throw new IllegalBlockingModeException();
+			}
+			final int n = channel.read( ByteBuffer.wrap( b, off, len ) );
+			if( n > 0 ) {
+				decode( ByteBuffer.wrap( b, off, n ) );
+			}
+			return n;
+		}
+
+		@Override
+		public void close()
+			throws IOException {
+			channel.close();
+		}
+	}
+
+	private static final class SocketOutputStream extends OutputStream {
+		private final SocketChannel channel;
+
+		private SocketOutputStream( SocketChannel channel ) {
+			this.channel = channel;
+		}
+
+		@Override
+		public void write( int b )
+			throws IOException {
+			write( new byte[] { (byte) b }, 0, 1 );
+		}
+
+		@Override
+		public void write( byte[] b, int off, int len )
+			throws IOException {
+			if( !channel.isBlocking() ) {
+				throw new IllegalBlockingModeException();
+			}
+			final ByteBuffer buffer = ByteBuffer.wrap( b, off, len );
+			while( buffer.hasRemaining() ) {
+				channel.write( buffer );
+			}
+		}
+
+		@Override
+		public void close()
+			throws IOException {
+			channel.close();
+		}
+	}
 }
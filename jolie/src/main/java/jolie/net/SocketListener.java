@@ -78,12 +78,17 @@ public class SocketListener extends CommListener {
 		try {
 			SocketChannel socketChannel;
 			while( (socketChannel = serverChannel.accept()) != null ) {
-				final CommChannel channel = new SocketCommChannel(
+				final SocketCommChannel channel = new SocketCommChannel(
 					socketChannel,
 					inputPort().location(),
 					createProtocol() );
 				channel.setParentInputPort( inputPort() );
-				interpreter().commCore().scheduleReceive( channel, inputPort() );
+				if( channel.decodesInput() ) {
+					// Wait for the first message on a selector thread
+					channel.disposeForInput();
+				} else {
+					interpreter().commCore().scheduleReceive( channel, inputPort() );
+				}
 			}
 		} catch( ClosedByInterruptException e ) {
 			try {
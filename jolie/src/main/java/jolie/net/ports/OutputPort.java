@@ -60,7 +60,7 @@ public class OutputPort extends AbstractIdentifiableObject implements Port {
 	private final VariablePath locationVariablePath, protocolVariablePath;
 	private final boolean isConstant;
 	private final Interface iface;
-	private final ChannelCache channelCache = new ChannelCache();
+	private final ChannelCache channelCache;
 
 	/*
 	 * To be called at runtime, after main is run. Requires the caller to set the variables by itself.
@@ -68,6 +68,7 @@ public class OutputPort extends AbstractIdentifiableObject implements Port {
 	public OutputPort( Interpreter interpreter, String id ) {
 		super( id );
 		this.interpreter = interpreter;
+		this.channelCache = new ChannelCache( interpreter );
 
 		this.protocolVariablePath =
 			new VariablePathBuilder( false )
@@ -99,6 +100,7 @@ public class OutputPort extends AbstractIdentifiableObject implements Port {
 		super( id );
 		this.isConstant = isConstant;
 		this.interpreter = interpreter;
+		this.channelCache = new ChannelCache( interpreter );
 		this.locationVariablePath = locationVariablePath;
 		this.protocolVariablePath = protocolVariablePath;
 		this.iface = iface;
@@ -125,6 +127,7 @@ public class OutputPort extends AbstractIdentifiableObject implements Port {
 		boolean isConstant ) {
 		super( id );
 		this.interpreter = interpreter;
+		this.channelCache = new ChannelCache( interpreter );
 
 		this.protocolVariablePath = new VariablePathBuilder( false ).add( id(), 0 )
 			.add( Constants.PROTOCOL_NODE_NAME, 0 ).toVariablePath();
@@ -226,10 +229,17 @@ public class OutputPort extends AbstractIdentifiableObject implements Port {
 				ret = interpreter.commCore().createCommChannel( uri, this );
 			} else {
 				// Try reusing an existing channel first
-				String protocol = protocolVariablePath.getValue().strValue();
-				ret = channelCache.getPersistentChannel( uri, protocol );
-				if( ret == null ) {
-					ret = interpreter.commCore().createCommChannel( uri, this );
+				final Value protocolConfiguration = protocolVariablePath.getValue();
+				final ChannelCache.Configuration configuration =
+					ChannelCache.Configuration.fromProtocolConfiguration( protocolConfiguration,
+						interpreter.persistentConnectionTimeout() );
+				final ChannelCache.ChannelFactory factory = () -> interpreter.commCore().createCommChannel( uri, this );
+				if( protocolConfiguration.hasChildren( ChannelCache.Parameters.MULTIPLEX )
+					&& protocolConfiguration.getFirstChild( ChannelCache.Parameters.MULTIPLEX ).boolValue() ) {
+					ret = channelCache.getMultiplexedChannel( uri, protocolConfiguration.strValue(), configuration,
+						factory );
+				} else {
+					ret = channelCache.getChannel( uri, protocolConfiguration.strValue(), configuration, factory );
 				}
 			}
 		}
@@ -239,7 +249,16 @@ public class OutputPort extends AbstractIdentifiableObject implements Port {
 	}
 
 	public void putPersistentChannel( URI location, String protocol, CommChannel channel ) {
-		channelCache.putPersistentChannel( location, protocol, channel, interpreter );
+		channelCache.putPersistentChannel( location, protocol, channel );
+	}
+
+	/**
+	 * Returns the metrics of the connection pools of this output port.
+	 * 
+	 * @return the metrics of the connection pools of this output port, one per endpoint
+	 */
+	public List< ChannelCache.Statistics > connectionPoolStatistics() {
+		return channelCache.statistics();
 	}
 
 	private static class LazyLocalUriHolder {
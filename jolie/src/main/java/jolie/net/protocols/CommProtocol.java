@@ -220,6 +220,18 @@ public abstract class CommProtocol {
 		return (hasParameter( id ) ? getParameterFirstValue( id ).intValue() : 0);
 	}
 
+	/**
+	 * Returns a new decoder for the messages received by an input port using this protocol, which
+	 * allows channels to receive them without blocking. The default implementation returns
+	 * <code>null</code>, meaning that messages can only be received by blocking in
+	 * {@link #recv(InputStream, OutputStream)}.
+	 *
+	 * @return a new decoder for the incoming messages, or <code>null</code> if not supported
+	 */
+	public MessageDecoder createMessageDecoder() {
+		return null;
+	}
+
 	abstract public CommMessage recv( InputStream istream, OutputStream ostream )
 		throws IOException;
 
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.protocols;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Finds the boundaries of the messages received by an input port as their bytes arrive, without
+ * blocking. Channels use it to buffer incoming bytes on their selector thread, and to call
+ * {@link CommProtocol#recv(java.io.InputStream, java.io.OutputStream)} only once a whole message
+ * has been received, so that receiving never blocks a worker thread.
+ *
+ * A decoder only tracks the structure of messages: the bytes it is given are still parsed by
+ * <code>recv</code>, which must read exactly the same messages.
+ *
+ * @see CommProtocol#createMessageDecoder()
+ */
+public interface MessageDecoder {
+	/**
+	 * Consumes the next bytes received from the channel, which may contain any part of any number of
+	 * messages.
+	 *
+	 * @param buffer the received bytes, from its position to its limit, which are all consumed
+	 * @return the number of messages completed by the received bytes
+	 * @throws IOException if the received bytes do not form a valid message, in which case the
+	 *         decoder must not be used anymore
+	 */
+	int decode( ByteBuffer buffer )
+		throws IOException;
+}
@@ -24,6 +24,7 @@ package jolie.process;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -145,10 +146,16 @@ public class SolicitResponseProcess implements Process {
 
 			CommMessage response = null;
 			do {
+				final Future< CommMessage > responseFuture = channel.recvResponseFor( message );
 				try {
-					response = channel.recvResponseFor( message ).get( Interpreter.getInstance().responseTimeout(),
+					response = responseFuture.get( Interpreter.getInstance().responseTimeout(),
 						TimeUnit.MILLISECONDS );
+				} catch( TimeoutException e ) {
+					// Let the channel forget about this request, as we stop waiting for it
+					responseFuture.cancel( false );
+					throw e;
 				} catch( InterruptedException e ) {
+					responseFuture.cancel( false );
 					throw new IOException( e );
 				} catch( ExecutionException e ) {
 					if( e.getCause() instanceof IOException ) {
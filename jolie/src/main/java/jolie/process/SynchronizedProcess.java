@@ -23,6 +23,7 @@ package jolie.process;
 
 import jolie.Interpreter;
 import jolie.runtime.ExitingException;
+import jolie.runtime.GlobalLock;
 import jolie.runtime.FaultException;
 
 public class SynchronizedProcess implements Process {
@@ -40,8 +41,15 @@ public class SynchronizedProcess implements Process {
 
 	public void run()
 		throws FaultException, ExitingException {
-		synchronized( Interpreter.getInstance().getLock( id ) ) {
+		final GlobalLock lock = Interpreter.getInstance().getLock( id );
+		if( !lock.acquire() ) {
+			throw new FaultException( "LockTimeout",
+				"Could not acquire lock " + id + " within " + lock.timeout() + " milliseconds" );
+		}
+		try {
 			process.run();
+		} finally {
+			lock.release();
 		}
 	}
 
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.runtime;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A global lock, as used by the {@code synchronized} statement.
+ *
+ * Global locks are fair and reentrant. Acquiring a lock can optionally time out, and each lock
+ * keeps contention metrics: how many times it has been acquired, how many of those acquisitions
+ * had to wait, timed out or were interrupted, and how long threads have waited for and held it.
+ */
+public class GlobalLock extends ReentrantLock {
+	private static final long serialVersionUID = 1L;
+
+	private final Condition condition = newCondition();
+	private volatile long timeout = 0L;
+
+	private final LongAdder acquisitions = new LongAdder();
+	private final LongAdder contentions = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder interruptions = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	private final LongAccumulator maxWaitNanos = new LongAccumulator( Math::max, 0L );
+	private final LongAdder holdNanos = new LongAdder();
+	private final LongAccumulator maxHoldNanos = new LongAccumulator( Math::max, 0L );
+	// Only accessed by the owner of the lock
+	private long holdStart;
+
+	public GlobalLock() {
+		super( true );
+	}
+
+	/**
+	 * Returns the condition associated to this lock.
+	 *
+	 * @return the condition associated to this lock
+	 */
+	public Condition condition() {
+		return condition;
+	}
+
+	/**
+	 * Sets the maximum time to wait for this lock in {@link #acquire()}.
+	 *
+	 * @param timeout the timeout in milliseconds, or 0 to wait indefinitely
+	 */
+	public void setTimeout( long timeout ) {
+		this.timeout = Math.max( 0L, timeout );
+	}
+
+	/**
+	 * Returns the maximum time to wait for this lock in {@link #acquire()}, in milliseconds. 0 means
+	 * that there is no timeout.
+	 *
+	 * @return the maximum time to wait for this lock
+	 */
+	public long timeout() {
+		return timeout;
+	}
+
+	/**
+	 * Acquires this lock, waiting at most for the configured timeout.
+	 *
+	 * Waiting is not interruptible, like waiting for a monitor: a thread that is interrupted while
+	 * waiting, e.g., because its session is being killed, keeps waiting and has its interrupt status
+	 * restored afterwards.
+	 *
+	 * @return true if the lock has been acquired, false if the timeout expired
+	 */
+	public boolean acquire() {
+		final long start = System.nanoTime();
+		final boolean contended = hasQueuedThreads() || (isLocked() && !isHeldByCurrentThread());
+		final long t = timeout;
+		final boolean acquired;
+		if( t > 0 ) {
+			acquired = tryAcquireUninterruptibly( start, TimeUnit.MILLISECONDS.toNanos( t ) );
+		} else {
+			lock();
+			acquired = true;
+		}
+
+		final long now = System.nanoTime();
+		if( contended ) {
+			contentions.increment();
+			waitNanos.add( now - start );
+			maxWaitNanos.accumulate( now - start );
+		}
+		if( acquired ) {
+			acquisitions.increment();
+			if( getHoldCount() == 1 ) {
+				holdStart = now;
+			}
+		} else {
+			timeouts.increment();
+		}
+		return acquired;
+	}
+
+	private boolean tryAcquireUninterruptibly( long start, long timeoutNanos ) {
+		boolean interrupted = false;
+		try {
+			while( true ) {
+				try {
+					// Unlike tryLock(), a timed tryLock respects fairness
+					return tryLock( timeoutNanos - (System.nanoTime() - start), TimeUnit.NANOSECONDS );
+				} catch( InterruptedException e ) {
+					interrupted = true;
+					interruptions.increment();
+				}
+			}
+		} finally {
+			if( interrupted ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Releases this lock, which must have been acquired with {@link #acquire()}.
+	 */
+	public void release() {
+		if( getHoldCount() == 1 ) {
+			final long held = System.nanoTime() - holdStart;
+			holdNanos.add( held );
+			maxHoldNanos.accumulate( held );
+		}
+		unlock();
+	}
+
+	/**
+	 * Writes the contention metrics of this lock in the passed value. Times are in microseconds.
+	 *
+	 * @param stats the value to write the metrics to
+	 */
+	public void writeStats( Value stats ) {
+		stats.setFirstChild( "acquisitions", acquisitions.sum() );
+		stats.setFirstChild( "contentions", contentions.sum() );
+		stats.setFirstChild( "timeouts", timeouts.sum() );
+		stats.setFirstChild( "interruptions", interruptions.sum() );
+		stats.setFirstChild( "queueLength", getQueueLength() );
+		stats.setFirstChild( "waitTime", TimeUnit.NANOSECONDS.toMicros( waitNanos.sum() ) );
+		stats.setFirstChild( "maxWaitTime", TimeUnit.NANOSECONDS.toMicros( maxWaitNanos.get() ) );
+		stats.setFirstChild( "holdTime", TimeUnit.NANOSECONDS.toMicros( holdNanos.sum() ) );
+		stats.setFirstChild( "maxHoldTime", TimeUnit.NANOSECONDS.toMicros( maxHoldNanos.get() ) );
+	}
+}
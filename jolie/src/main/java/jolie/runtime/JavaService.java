@@ -23,8 +23,10 @@
 package jolie.runtime;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.URI;
@@ -32,6 +34,7 @@ import java.net.URISyntaxException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ExecutionException;
 import jolie.Interpreter;
 import jolie.lang.parse.ast.OLSyntaxNode;
@@ -61,24 +64,39 @@ public abstract class JavaService {
 	public interface ValueConverter {
 	}
 
+	/*
+	 * Operations are resolved once per service class into method handles adapted to fixed types, so
+	 * that each call is a single invokeExact. For request-response operations, invoker has type
+	 * (JavaService,Value)Value and includes the conversions of the parameter and of the returned value.
+	 * For one-way operations, invoker has type (JavaService,Object)void and parameterConstructor, of
+	 * type (Value)Object, converts the parameter before the operation is scheduled for execution.
+	 */
 	private static class JavaOperation {
-		private final Method method;
-		private final Method parameterConstructor;
-		private final Method returnValueConstructor;
+		private final MethodHandle parameterConstructor;
+		private final MethodHandle invoker;
 		private final JavaOperationCallable callable;
 
 		private JavaOperation(
-			Method method,
-			Method parameterConstructor,
-			Method returnValueConstructor,
+			MethodHandle parameterConstructor,
+			MethodHandle invoker,
 			JavaOperationCallable callable ) {
-			this.method = method;
 			this.parameterConstructor = parameterConstructor;
-			this.returnValueConstructor = returnValueConstructor;
+			this.invoker = invoker;
 			this.callable = callable;
 		}
 	}
 
+	/*
+	 * Thrown by the invoker of a request-response operation when its parameter cannot be converted.
+	 */
+	private static class ParameterConversionException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		private ParameterConversionException( Throwable cause ) {
+			super( cause );
+		}
+	}
+
 	protected static class Embedder {
 		private final Interpreter interpreter;
 
@@ -128,21 +146,46 @@ public abstract class JavaService {
 	private Value receivedValue;
 
 	public JavaService() {
+		this.operations = OPERATIONS.get( this.getClass() );
+	}
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodType PARAMETER_CONSTRUCTOR_TYPE = MethodType.methodType( Object.class, Value.class );
+	private static final MethodType RETURN_VALUE_CONSTRUCTOR_TYPE =
+		MethodType.methodType( Value.class, Object.class );
+	private static final MethodType REQUEST_RESPONSE_TYPE =
+		MethodType.methodType( Value.class, JavaService.class, Value.class );
+	private static final MethodType ONE_WAY_TYPE =
+		MethodType.methodType( void.class, JavaService.class, Object.class );
+	private static final MethodHandle IS_NULL;
+	private static final MethodHandle PARAMETER_CONVERSION_ERROR;
+
+	private static final ClassValue< Map< String, JavaOperation > > OPERATIONS =
+		new ClassValue< Map< String, JavaOperation > >() {
+			@Override
+			protected Map< String, JavaOperation > computeValue( Class< ? > serviceClass ) {
+				return createOperations( serviceClass );
+			}
+		};
+
+	private static Map< String, JavaOperation > createOperations( Class< ? > serviceClass ) {
 		Map< String, JavaOperation > ops = new HashMap<>();
 
 		Class< ? >[] params;
-		for( Method method : this.getClass().getDeclaredMethods() ) {
+		for( Method method : serviceClass.getDeclaredMethods() ) {
 			if( Modifier.isPublic( method.getModifiers() ) ) {
 				params = method.getParameterTypes();
 				if( params.length == 1 ) {
-					checkMethod( ops, method, getFromValueConverter( params[ 0 ] ) );
-
+					final MethodHandle parameterConstructor = getFromValueConverter( params[ 0 ] );
+					if( parameterConstructor != null ) {
+						checkMethod( ops, method, parameterConstructor );
+					}
 				} else if( params.length == 0 ) {
 					checkMethod( ops, method, null );
 				}
 			}
 		}
-		this.operations = Collections.unmodifiableMap( ops );
+		return Collections.unmodifiableMap( ops );
 	}
 
 	private static String getMethodName( Method method ) {
@@ -163,43 +206,55 @@ public abstract class JavaService {
 		Value.class, String.class, Integer.class, Double.class, Boolean.class,
 		Long.class, ByteArray.class
 	};
-	private static final Method[] TO_VALUE_CONVERTERS;
-	private static final Method[] FROM_VALUE_CONVERTERS;
+	private static final MethodHandle[] TO_VALUE_CONVERTERS;
+	private static final MethodHandle[] FROM_VALUE_CONVERTERS;
 
 	static {
-		TO_VALUE_CONVERTERS = new Method[ SUPPORTED_TYPES.length ];
+		MethodHandle isNull = null;
+		MethodHandle parameterConversionError = null;
 		try {
-			TO_VALUE_CONVERTERS[ 0 ] = JavaServiceHelpers.class.getMethod( "createValue", Value.class );
-			for( int i = 1; i < SUPPORTED_TYPES.length; i++ ) {
-				TO_VALUE_CONVERTERS[ i ] = Value.class.getMethod( "create", SUPPORTED_TYPES[ i ] );
-			}
-		} catch( NoSuchMethodException e ) {
+			isNull = LOOKUP.findStatic( Objects.class, "isNull",
+				MethodType.methodType( boolean.class, Object.class ) );
+			parameterConversionError = LOOKUP.findStatic( JavaService.class, "parameterConversionError",
+				MethodType.methodType( Object.class, Throwable.class, Value.class ) );
+		} catch( NoSuchMethodException | IllegalAccessException e ) {
 			e.printStackTrace();
 			assert false;
 		}
+		IS_NULL = isNull;
+		PARAMETER_CONVERSION_ERROR = parameterConversionError;
 
-		FROM_VALUE_CONVERTERS = new Method[ SUPPORTED_TYPES.length ];
+		TO_VALUE_CONVERTERS = new MethodHandle[ SUPPORTED_TYPES.length ];
+		FROM_VALUE_CONVERTERS = new MethodHandle[ SUPPORTED_TYPES.length ];
 		try {
-			FROM_VALUE_CONVERTERS[ 0 ] = JavaServiceHelpers.class.getMethod( "createValue", Value.class );
+			final MethodHandle createValue = LOOKUP.findStatic( JavaServiceHelpers.class, "createValue",
+				MethodType.methodType( Value.class, Value.class ) );
+			TO_VALUE_CONVERTERS[ 0 ] = createValue.asType( RETURN_VALUE_CONSTRUCTOR_TYPE );
+			FROM_VALUE_CONVERTERS[ 0 ] = createValue.asType( PARAMETER_CONSTRUCTOR_TYPE );
 			for( int i = 1; i < SUPPORTED_TYPES.length; i++ ) {
-				FROM_VALUE_CONVERTERS[ i ] =
-					JavaServiceHelpers.class.getMethod( "valueTo" + SUPPORTED_TYPES[ i ].getSimpleName(), Value.class );
+				TO_VALUE_CONVERTERS[ i ] = LOOKUP.findStatic( Value.class, "create",
+					MethodType.methodType( Value.class, SUPPORTED_TYPES[ i ] ) )
+					.asType( RETURN_VALUE_CONSTRUCTOR_TYPE );
+				FROM_VALUE_CONVERTERS[ i ] = LOOKUP.findStatic( JavaServiceHelpers.class,
+					"valueTo" + SUPPORTED_TYPES[ i ].getSimpleName(),
+					MethodType.methodType( SUPPORTED_TYPES[ i ], Value.class ) )
+					.asType( PARAMETER_CONSTRUCTOR_TYPE );
 			}
-		} catch( NoSuchMethodException e ) {
+		} catch( NoSuchMethodException | IllegalAccessException e ) {
 			e.printStackTrace();
 			assert false;
 		}
 	}
 
-	private static Method getToValueConverter( Class< ? > param ) {
+	private static MethodHandle getToValueConverter( Class< ? > param ) {
 		if( param == null ) {
 			return null;
 		}
 
 		if( ValueConverter.class.isAssignableFrom( param ) ) {
 			try {
-				return param.getMethod( "toValue", param );
-			} catch( NoSuchMethodException e ) {
+				return LOOKUP.unreflect( param.getMethod( "toValue", param ) ).asType( RETURN_VALUE_CONSTRUCTOR_TYPE );
+			} catch( NoSuchMethodException | IllegalAccessException e ) {
 				return null;
 			}
 		}
@@ -214,15 +269,16 @@ public abstract class JavaService {
 		return null;
 	}
 
-	private static Method getFromValueConverter( Class< ? > param ) {
+	private static MethodHandle getFromValueConverter( Class< ? > param ) {
 		if( param == null ) {
 			return null;
 		}
 
 		if( ValueConverter.class.isAssignableFrom( param ) ) {
 			try {
-				return param.getMethod( "fromValue", Value.class );
-			} catch( NoSuchMethodException e ) {
+				return LOOKUP.unreflect( param.getMethod( "fromValue", Value.class ) )
+					.asType( PARAMETER_CONSTRUCTOR_TYPE );
+			} catch( NoSuchMethodException | IllegalAccessException e ) {
 				return null;
 			}
 		}
@@ -237,15 +293,18 @@ public abstract class JavaService {
 		return null;
 	}
 
+	private static Object parameterConversionError( Throwable t, Value value ) {
+		throw new ParameterConversionException( t );
+	}
+
 	private static CommMessage oneWayCallable( JavaService javaService, JavaOperation javaOperation,
 		CommMessage message )
 		throws IllegalAccessException {
-		final Object[] args = getArguments( javaOperation, message );
+		final Object arg = getArgument( javaOperation, message );
 		javaService.interpreter.execute( () -> {
 			try {
-				javaOperation.method.invoke( javaService, args );
-			} catch( InvocationTargetException | IllegalAccessException e ) {
-				// This should never happen, as we filtered this out in the constructor.
+				javaOperation.invoker.invokeExact( javaService, arg );
+			} catch( Throwable e ) {
 				javaService.interpreter.logSevere( e );
 			}
 		} );
@@ -255,30 +314,31 @@ public abstract class JavaService {
 	private static CommMessage requestResponseCallable( JavaService javaService, JavaOperation javaOperation,
 		CommMessage message )
 		throws IllegalAccessException {
-		final Object[] args = getArguments( javaOperation, message );
 		try {
-			final Object retObject = javaOperation.method.invoke( javaService, args );
-			if( retObject == null ) {
+			final Value retValue = (Value) javaOperation.invoker.invokeExact( javaService, message.value() );
+			if( retValue == null ) {
 				return CommMessage.createEmptyResponse( message );
 			} else {
-				return CommMessage.createResponse( message,
-					(Value) javaOperation.returnValueConstructor.invoke( null, retObject ) );
+				return CommMessage.createResponse( message, retValue );
 			}
-		} catch( InvocationTargetException e ) {
+		} catch( ParameterConversionException e ) {
+			throw new IllegalAccessException( e.getCause().getMessage() );
+		} catch( Throwable e ) {
 			final FaultException fault =
-				(e.getCause() instanceof FaultException)
-					? (FaultException) e.getCause()
-					: new FaultException( e.getCause() );
+				(e instanceof FaultException)
+					? (FaultException) e
+					: new FaultException( e );
 			return CommMessage.createFaultResponse(
 				message,
 				fault );
 		}
 	}
 
-	private void checkMethod( Map< String, JavaOperation > ops, Method method, Method parameterConstructor ) {
+	private static void checkMethod( Map< String, JavaOperation > ops, Method method,
+		MethodHandle parameterConstructor ) {
 		final Class< ? > returnType;
 		final Class< ? >[] exceptions;
-		final Method returnValueConstructor;
+		final MethodHandle returnValueConstructor;
 
 		returnType = method.getReturnType();
 		if( void.class.isAssignableFrom( returnType ) ) {
@@ -286,21 +346,9 @@ public abstract class JavaService {
 			exceptions = method.getExceptionTypes();
 			if( isRequestResponse ) { // && ( exceptions.length == 0 || (exceptions.length == 1 &&
 										// FaultException.class.isAssignableFrom( exceptions[0]) ) ) ) {
-				ops.put(
-					method.getName(),
-					new JavaOperation(
-						method,
-						parameterConstructor,
-						null,
-						JavaService::requestResponseCallable ) );
+				putOperation( ops, method.getName(), method, parameterConstructor, null, false );
 			} else if( exceptions.length == 0 ) {
-				ops.put(
-					method.getName(),
-					new JavaOperation(
-						method,
-						parameterConstructor,
-						null,
-						JavaService::oneWayCallable ) );
+				putOperation( ops, method.getName(), method, parameterConstructor, null, true );
 			}
 		} else {
 			returnValueConstructor = getToValueConverter( returnType );
@@ -308,26 +356,67 @@ public abstract class JavaService {
 				exceptions = method.getExceptionTypes();
 				if( exceptions.length == 0 ||
 					(exceptions.length == 1 && FaultException.class.isAssignableFrom( exceptions[ 0 ] )) ) {
-					ops.put(
-						getMethodName( method ),
-						new JavaOperation(
-							method,
-							parameterConstructor,
-							returnValueConstructor,
-							JavaService::requestResponseCallable ) );
+					putOperation( ops, getMethodName( method ), method, parameterConstructor, returnValueConstructor,
+						false );
 				}
 			}
 		}
 	}
 
-	private static Object[] getArguments( final JavaOperation javaOperation, final CommMessage message )
+	private static void putOperation( Map< String, JavaOperation > ops, String name, Method method,
+		MethodHandle parameterConstructor, MethodHandle returnValueConstructor, boolean isOneWay ) {
+		MethodHandle invoker;
+		try {
+			invoker = LOOKUP.unreflect( method );
+		} catch( IllegalAccessException e ) {
+			// Report the problem when the operation is called, as reflective invocation would
+			final String message = e.getMessage();
+			ops.put( name, new JavaOperation( null, null,
+				( service, operation, request ) -> {
+					throw new IllegalAccessException( message );
+				} ) );
+			return;
+		}
+
+		if( isOneWay ) {
+			if( parameterConstructor == null ) {
+				invoker = MethodHandles.dropArguments( invoker, 1, Object.class );
+			}
+			ops.put( name, new JavaOperation( parameterConstructor, invoker.asType( ONE_WAY_TYPE ),
+				JavaService::oneWayCallable ) );
+			return;
+		}
+
+		if( parameterConstructor == null ) {
+			invoker = MethodHandles.dropArguments( invoker, 1, Value.class );
+		} else {
+			final Class< ? > parameterType = invoker.type().parameterType( 1 );
+			invoker = MethodHandles.filterArguments( invoker, 1, MethodHandles.catchException(
+				parameterConstructor.asType( MethodType.methodType( parameterType, Value.class ) ),
+				Throwable.class,
+				PARAMETER_CONVERSION_ERROR.asType(
+					MethodType.methodType( parameterType, Throwable.class, Value.class ) ) ) );
+		}
+		if( returnValueConstructor != null ) {
+			// A null return value is an empty response
+			final Class< ? > returnType = invoker.type().returnType();
+			invoker = MethodHandles.filterReturnValue( invoker, MethodHandles.guardWithTest(
+				IS_NULL.asType( MethodType.methodType( boolean.class, returnType ) ),
+				MethodHandles.empty( MethodType.methodType( Value.class, returnType ) ),
+				returnValueConstructor.asType( MethodType.methodType( Value.class, returnType ) ) ) );
+		}
+		ops.put( name, new JavaOperation( null, invoker.asType( REQUEST_RESPONSE_TYPE ),
+			JavaService::requestResponseCallable ) );
+	}
+
+	private static Object getArgument( final JavaOperation javaOperation, final CommMessage message )
 		throws IllegalAccessException {
 		if( javaOperation.parameterConstructor == null ) {
-			return new Object[ 0 ];
+			return null;
 		} else {
 			try {
-				return new Object[] { javaOperation.parameterConstructor.invoke( null, message.value() ) };
-			} catch( InvocationTargetException e ) {
+				return (Object) javaOperation.parameterConstructor.invokeExact( message.value() );
+			} catch( Throwable e ) {
 				throw new IllegalAccessException( e.getMessage() );
 			}
 		}
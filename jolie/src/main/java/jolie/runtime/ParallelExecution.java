@@ -21,18 +21,30 @@
 
 package jolie.runtime;
 
-
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import jolie.ExecutionThread;
 import jolie.TransparentExecutionThread;
 import jolie.process.Process;
 
+/**
+ * Executes a set of processes in parallel and waits for all of them to terminate.
+ * <p>
+ * The last branch is executed inline by the calling thread, while the others are started on the
+ * interpreter executor. Termination is tracked by a lock-free counter. The first fault raised by a
+ * branch kills all the other branches and is then rethrown to the caller; killing the calling
+ * thread kills all the branches.
+ */
 public class ParallelExecution {
 	private class ParallelThread extends TransparentExecutionThread {
-		public ParallelThread( Process process ) {
-			super( process, ExecutionThread.currentThread() );
+		private final boolean inline;
+
+		public ParallelThread( Process process, ExecutionThread parent, boolean inline ) {
+			super( process, parent );
+			this.inline = inline;
 		}
 
 		@Override
@@ -40,100 +52,85 @@ public class ParallelExecution {
 			try {
 				try {
 					process().run();
-					terminationNotify( this );
 				} catch( FaultException.RuntimeFaultException rf ) {
 					throw rf.faultException();
 				}
 			} catch( FaultException f ) {
 				signalFault( this, f );
 			} catch( ExitingException f ) {
-				terminationNotify( this );
+				// The branch has been terminated, nothing to signal
+			} finally {
+				if( !inline && running.decrementAndGet() == 0 ) {
+					LockSupport.unpark( waiter );
+				}
 			}
 		}
 	}
 
-	final private Collection< ParallelThread > threads = new HashSet<>();
-	private FaultException fault = null;
-	private boolean isKilled = false;
+	private final ParallelThread[] threads;
+	private final AtomicInteger running;
+	private final AtomicReference< FaultException > fault = new AtomicReference<>();
+	private volatile boolean isKilled = false;
+	private Thread waiter;
 
 	public ParallelExecution( Process[] procs ) {
-		for( Process proc : procs ) {
-			threads.add( new ParallelThread( proc ) );
+		final ExecutionThread parent = ExecutionThread.currentThread();
+		threads = new ParallelThread[ procs.length ];
+		for( int i = 0; i < procs.length; i++ ) {
+			threads[ i ] = new ParallelThread( procs[ i ], parent, i == procs.length - 1 );
 		}
+		running = new AtomicInteger( Math.max( 0, procs.length - 1 ) );
 	}
 
 	public void run()
 		throws FaultException {
-		synchronized( this ) {
-			for( ParallelThread t : threads ) {
-				t.start();
-			}
-
-			ExecutionThread ethread;
-			while( fault == null && !threads.isEmpty() ) {
-				ethread = ExecutionThread.currentThread();
-				try {
-					ethread.setCanBeInterrupted( true );
-					wait();
-					ethread.setCanBeInterrupted( false );
-				} catch( InterruptedException e ) {
-					synchronized( this ) {
-						if( ethread.isKilled() && !threads.isEmpty() ) {
-							isKilled = true;
-							for( ParallelThread t : threads ) {
-								t.kill( ethread.killerFault() );
-							}
-							try {
-								wait();
-							} catch( InterruptedException ie ) {
-							}
-						}
-					}
-				}
+		final ExecutionThread ethread = ExecutionThread.currentThread();
+		waiter = Thread.currentThread();
+
+		// Completed by ethread.kill, which only keeps a weak reference to it
+		final CompletableFuture< Void > killSignal = new CompletableFuture<>();
+		killSignal.whenComplete( ( v, t ) -> {
+			if( t != null ) {
+				isKilled = true;
+				killAll( ethread.killerFault() );
 			}
+		} );
+		ethread.cancelIfKilled( killSignal );
 
-			if( fault != null ) {
-				for( ParallelThread t : threads ) {
-					t.kill( fault );
-				}
-				while( !threads.isEmpty() ) {
-					try {
-						wait();
-					} catch( InterruptedException e ) {
-					}
-				}
-				throw fault;
-			}
+		for( int i = 0; i < threads.length - 1; i++ ) {
+			threads[ i ].start();
+		}
+		if( threads.length > 0 ) {
+			threads[ threads.length - 1 ].runInline();
 		}
-	}
 
-	private void terminationNotify( ParallelThread thread ) {
-		synchronized( this ) {
-			threads.remove( thread );
+		while( running.get() > 0 ) {
+			LockSupport.park( this );
+			// The calling thread is never interrupted on purpose while waiting: kills are handled above
+			Thread.interrupted();
+		}
 
-			if( threads.isEmpty() ) {
-				notify();
-			}
+		// Also keeps killSignal reachable until all branches are done
+		killSignal.complete( null );
+		final FaultException f = fault.get();
+		if( f != null && !isKilled ) {
+			throw f;
 		}
 	}
 
+	private void killAll( FaultException f ) {
+		for( ParallelThread t : threads ) {
+			t.kill( f );
+		}
+	}
 
 	private void signalFault( ParallelThread thread, FaultException f ) {
-		synchronized( this ) {
-			threads.remove( thread );
-			if( isKilled ) {
-				if( threads.isEmpty() ) {
-					notify();
-				}
-			} else {
-				if( fault == null ) {
-					fault = f;
-					notify();
-				} else if( threads.isEmpty() ) {
-					notify();
+		if( fault.compareAndSet( null, f ) && !isKilled ) {
+			for( ParallelThread t : threads ) {
+				if( t != thread ) {
+					t.kill( f );
 				}
 			}
 		}
 	}
-
 }
@@ -21,14 +21,24 @@
 
 package jolie.runtime;
 
-import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * A task to be run when a timeout expires, unless it is cancelled before.
+ *
+ * @see TimeoutWheel
  * @author Fabrizio Montesi
  */
 public abstract class TimeoutHandler implements Runnable {
 	private final long time;
 	private volatile boolean cancelled = false;
+	private final AtomicReference< TimeoutWheel > wheel = new AtomicReference<>();
+
+	// Position in the wheel, only accessed by its worker thread
+	TimeoutWheel.Slot wheelSlot = null;
+	TimeoutHandler wheelPrev = null;
+	TimeoutHandler wheelNext = null;
+	long wheelRounds = 0;
 
 	public TimeoutHandler( long timeout ) {
 		this.time = System.currentTimeMillis() + timeout;
@@ -38,41 +48,36 @@ public abstract class TimeoutHandler implements Runnable {
 		return time;
 	}
 
+	/**
+	 * Cancels this handler, which will not be run. If the handler is scheduled in a
+	 * {@link TimeoutWheel}, it is removed from it.
+	 */
 	public void cancel() {
-		cancelled = true;
-	}
-
-	public void run() {
 		if( !cancelled ) {
-			onTimeout();
+			cancelled = true;
+			final TimeoutWheel w = wheel.get();
+			if( w != null ) {
+				w.cancel( this );
+			}
 		}
 	}
 
-	protected abstract void onTimeout();
+	public boolean isCancelled() {
+		return cancelled;
+	}
 
 	/**
-	 * Note: this comparator imposes orderings that are inconsistent with equals.
+	 * Binds this handler to the given wheel. Returns false if it was bound to a wheel already.
 	 */
-	public static class Comparator implements java.util.Comparator< WeakReference< TimeoutHandler > > {
-		@Override
-		public int compare( WeakReference< TimeoutHandler > wt1, WeakReference< TimeoutHandler > wt2 ) {
-			TimeoutHandler t1 = (wt1 != null) ? wt1.get() : null;
-			TimeoutHandler t2 = (wt2 != null) ? wt2.get() : null;
-			if( t1 == null ) {
-				return -1;
-			} else if( t2 == null ) {
-				return 1;
-			}
-
-			// Both are not null after this
+	boolean attach( TimeoutWheel w ) {
+		return wheel.compareAndSet( null, w );
+	}
 
-			if( t1.time < t2.time ) {
-				return -1;
-			} else if( t1.time == t2.time ) {
-				return 0;
-			} else {
-				return 1;
-			}
+	public void run() {
+		if( !cancelled ) {
+			onTimeout();
 		}
 	}
+
+	protected abstract void onTimeout();
 }
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.runtime;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel for {@link TimeoutHandler}s.
+ *
+ * Time is divided in ticks, and each handler is put in the slot of the tick of its expiration time,
+ * together with the number of wheel rounds to wait before it expires. Adding and cancelling a
+ * handler are lock-free and take constant time: both are queued and applied by a single worker
+ * thread, which owns the slots. Expired handlers are run by the given executor.
+ *
+ * The worker thread is started when the first handler is added, and it sleeps without ticking
+ * whenever the wheel is empty.
+ */
+public final class TimeoutWheel {
+	private static final long DEFAULT_TICK_DURATION = 10; // msecs
+	private static final int DEFAULT_WHEEL_SIZE = 512;
+
+	private final long tickDuration;
+	private final Slot[] wheel;
+	private final int mask;
+	private final Executor executor;
+	private final ThreadFactory threadFactory;
+
+	private final Queue< TimeoutHandler > additions = new ConcurrentLinkedQueue<>();
+	private final Queue< TimeoutHandler > cancellations = new ConcurrentLinkedQueue<>();
+
+	private final Object workerLock = new Object();
+	private Thread worker = null; // guarded by workerLock
+	private volatile boolean running = true;
+	private volatile boolean idle = false;
+
+	// Only accessed by the worker thread
+	private final long startTime = System.currentTimeMillis();
+	private long currentTick = 0;
+	private int size = 0;
+
+	static final class Slot {
+		private TimeoutHandler head = null;
+		private TimeoutHandler tail = null;
+
+		private void add( TimeoutHandler handler ) {
+			handler.wheelSlot = this;
+			handler.wheelPrev = tail;
+			handler.wheelNext = null;
+			if( tail == null ) {
+				head = handler;
+			} else {
+				tail.wheelNext = handler;
+			}
+			tail = handler;
+		}
+
+		private void remove( TimeoutHandler handler ) {
+			if( handler.wheelPrev == null ) {
+				head = handler.wheelNext;
+			} else {
+				handler.wheelPrev.wheelNext = handler.wheelNext;
+			}
+			if( handler.wheelNext == null ) {
+				tail = handler.wheelPrev;
+			} else {
+				handler.wheelNext.wheelPrev = handler.wheelPrev;
+			}
+			handler.wheelSlot = null;
+			handler.wheelPrev = null;
+			handler.wheelNext = null;
+		}
+	}
+
+	/**
+	 * Creates a timing wheel with a tick of 10 milliseconds and 512 slots.
+	 *
+	 * @param executor the executor that runs the expired handlers
+	 * @param threadFactory the factory for the worker thread of this wheel
+	 */
+	public TimeoutWheel( Executor executor, ThreadFactory threadFactory ) {
+		this( executor, threadFactory, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE );
+	}
+
+	/**
+	 * Creates a timing wheel.
+	 *
+	 * @param executor the executor that runs the expired handlers
+	 * @param threadFactory the factory for the worker thread of this wheel
+	 * @param tickDuration the duration of a tick in milliseconds
+	 * @param wheelSize the number of slots of the wheel, rounded up to a power of two
+	 */
+	public TimeoutWheel( Executor executor, ThreadFactory threadFactory, long tickDuration, int wheelSize ) {
+		if( tickDuration <= 0 ) {
+			throw new IllegalArgumentException( "tickDuration must be positive" );
+		}
+		if( wheelSize <= 0 ) {
+			throw new IllegalArgumentException( "wheelSize must be positive" );
+		}
+		final int n = Integer.highestOneBit( wheelSize ) == wheelSize ? wheelSize : Integer.highestOneBit( wheelSize ) << 1;
+		this.executor = executor;
+		this.threadFactory = threadFactory;
+		this.tickDuration = tickDuration;
+		this.wheel = new Slot[ n ];
+		for( int i = 0; i < n; i++ ) {
+			wheel[ i ] = new Slot();
+		}
+		this.mask = n - 1;
+	}
+
+	/**
+	 * Schedules the given handler to be run at its expiration time, unless it is cancelled before. A
+	 * handler can be added only once. Handlers added after {@link #stop(long)} are never run.
+	 *
+	 * @param handler the handler to schedule
+	 */
+	public void add( TimeoutHandler handler ) {
+		if( !running || !handler.attach( this ) ) {
+			return;
+		}
+		additions.offer( handler );
+		startOrWakeUpWorker();
+	}
+
+	/**
+	 * Called by {@link TimeoutHandler#cancel()} for handlers of this wheel.
+	 */
+	void cancel( TimeoutHandler handler ) {
+		cancellations.offer( handler );
+		// No need to wake up the worker, which processes cancellations at the next tick
+	}
+
+	private void startOrWakeUpWorker() {
+		final Thread t;
+		synchronized( workerLock ) {
+			if( worker == null ) {
+				worker = threadFactory.newThread( this::run );
+				worker.setDaemon( true );
+				worker.start();
+				return;
+			}
+			t = worker;
+		}
+		if( idle ) {
+			LockSupport.unpark( t );
+		}
+	}
+
+	/**
+	 * Stops this wheel, running all the handlers that were not cancelled. Waits up to the given time
+	 * for the worker thread to hand them to the executor.
+	 *
+	 * @param timeout the maximum time to wait in milliseconds
+	 */
+	public void stop( long timeout ) {
+		running = false;
+		final Thread t;
+		synchronized( workerLock ) {
+			t = worker;
+		}
+		if( t == null ) {
+			TimeoutHandler handler;
+			while( (handler = additions.poll()) != null ) {
+				expire( handler );
+			}
+			return;
+		}
+		LockSupport.unpark( t );
+		try {
+			t.join( timeout );
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private long tickOf( long time ) {
+		return Math.max( currentTick, (time - startTime) / tickDuration );
+	}
+
+	private void run() {
+		while( running ) {
+			processCancellations();
+			processAdditions();
+			if( size == 0 ) {
+				idle = true;
+				if( additions.isEmpty() && running ) {
+					LockSupport.park( this );
+				}
+				idle = false;
+				// Nothing to expire while idle: skip the elapsed ticks
+				currentTick = Math.max( currentTick, (System.currentTimeMillis() - startTime) / tickDuration );
+				continue;
+			}
+
+			final long deadline = startTime + (currentTick + 1) * tickDuration;
+			final long sleepTime = deadline - System.currentTimeMillis();
+			if( sleepTime > 0 ) {
+				LockSupport.parkNanos( this, TimeUnit.MILLISECONDS.toNanos( sleepTime ) );
+				continue;
+			}
+			processCancellations();
+			expireSlot( wheel[ (int) (currentTick & mask) ] );
+			currentTick++;
+		}
+
+		processCancellations();
+		processAdditions();
+		for( Slot slot : wheel ) {
+			while( slot.head != null ) {
+				final TimeoutHandler handler = slot.head;
+				slot.remove( handler );
+				expire( handler );
+			}
+		}
+		size = 0;
+	}
+
+	private void processAdditions() {
+		TimeoutHandler handler;
+		while( (handler = additions.poll()) != null ) {
+			if( handler.isCancelled() ) {
+				continue;
+			}
+			final long tick = tickOf( handler.time() );
+			handler.wheelRounds = (tick - currentTick) / wheel.length;
+			wheel[ (int) (tick & mask) ].add( handler );
+			size++;
+		}
+	}
+
+	private void processCancellations() {
+		TimeoutHandler handler;
+		while( (handler = cancellations.poll()) != null ) {
+			if( handler.wheelSlot != null ) {
+				handler.wheelSlot.remove( handler );
+				size--;
+			}
+			// Otherwise it is still in additions, or it has expired already
+		}
+	}
+
+	private void expireSlot( Slot slot ) {
+		TimeoutHandler handler = slot.head;
+		while( handler != null ) {
+			final TimeoutHandler next = handler.wheelNext;
+			if( handler.wheelRounds <= 0 ) {
+				slot.remove( handler );
+				size--;
+				expire( handler );
+			} else {
+				handler.wheelRounds--;
+			}
+			handler = next;
+		}
+	}
+
+	private void expire( TimeoutHandler handler ) {
+		if( handler.isCancelled() ) {
+			return;
+		}
+		try {
+			executor.execute( handler );
+		} catch( RejectedExecutionException e ) {
+			// The executor has been shut down, nothing to do
+		}
+	}
+}
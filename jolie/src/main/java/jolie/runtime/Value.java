@@ -26,15 +26,18 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Function;
 
+import jolie.ExecutionThread;
 import jolie.lang.Constants;
+import jolie.lang.Keywords;
 import jolie.net.CommChannel;
 import jolie.process.TransformationReason;
 import jolie.runtime.expression.Expression;
@@ -122,17 +125,71 @@ class ValueLink extends Value implements Cloneable {
 class ValueImpl extends Value implements Cloneable, Serializable {
 	private static final long serialVersionUID = 1L;
 
+	@SuppressWarnings( "rawtypes" )
+	private static final AtomicReferenceFieldUpdater< ValueImpl, Map > CHILDREN =
+		AtomicReferenceFieldUpdater.newUpdater( ValueImpl.class, Map.class, "children" );
+
 	private volatile Object valueObject = null;
-	private final AtomicReference< Map< String, ValueVector > > children = new AtomicReference<>();
+	// Created on first access, as most values are leaves
+	private volatile Map< String, ValueVector > children = null;
+	/*
+	 * Copy-on-write: a value returned by sharedClone() shares the content of source, which does not
+	 * change, until its children are accessed or it is written. It then copies the value of source and
+	 * shares each of its children in turn, so that only the accessed part of the tree is copied.
+	 */
+	private transient volatile Value source = null;
+	// True once this value is the source of a shared clone, after which it must not change
+	private transient boolean frozen = false;
+
+	private void checkNotFrozen() {
+		assert !frozen : "a value shared by copy-on-write clones was changed";
+	}
+
+	private void materialize() {
+		if( source != null ) {
+			synchronized( this ) {
+				final Value s = source;
+				if( s != null ) {
+					valueObject = s.valueObject();
+					if( s.hasChildren() ) {
+						final Map< String, ValueVector > c = new ValueChildren();
+						for( Entry< String, ValueVector > entry : s.children().entrySet() ) {
+							c.put( entry.getKey(), ValueVector.createSharedClone( entry.getValue() ) );
+						}
+						children = c;
+					}
+					source = null;
+				}
+			}
+		}
+	}
+
+	@Override
+	Value sharedClone() {
+		final ValueImpl ret = isUsedInCorrelation() ? new CSetValue() : new ValueImpl();
+		final Value s = source;
+		if( s == null ) {
+			frozen = true;
+			ret.source = this;
+		} else {
+			ret.source = s;
+		}
+		return ret;
+	}
 
 	@Override
 	public void setValueObject( Object object ) {
+		checkNotFrozen();
+		materialize();
 		valueObject = object;
 	}
 
 	@Override
 	public ValueVector getChildren( String childId ) {
-		return children().computeIfAbsent( childId, k -> ValueVector.create() );
+		return children().computeIfAbsent( childId, k -> {
+			checkNotFrozen();
+			return createChildVector();
+		} );
 	}
 
 	@Override
@@ -144,8 +201,10 @@ class ValueImpl extends Value implements Cloneable, Serializable {
 
 	@Override
 	protected void _refCopy( Value value ) {
+		checkNotFrozen();
+		source = null;
 		setValueObject( value.valueObject() );
-		this.children.set( value.children() );
+		this.children = value.children();
 	}
 
 	@Override
@@ -155,8 +214,10 @@ class ValueImpl extends Value implements Cloneable, Serializable {
 
 	@Override
 	public void erase() {
+		checkNotFrozen();
+		source = null;
 		valueObject = null;
-		children.set( null );
+		children = null;
 	}
 
 	protected ValueImpl() {}
@@ -168,13 +229,21 @@ class ValueImpl extends Value implements Cloneable, Serializable {
 
 	@Override
 	public boolean hasChildren() {
-		Map< String, ValueVector > c = children.get();
+		final Value s = source;
+		if( s != null ) {
+			return s.hasChildren();
+		}
+		Map< String, ValueVector > c = children;
 		return (c != null && !c.isEmpty());
 	}
 
 	@Override
 	public boolean hasChildren( String childId ) {
-		Map< String, ValueVector > c = children.get();
+		final Value s = source;
+		if( s != null ) {
+			return s.hasChildren( childId );
+		}
+		Map< String, ValueVector > c = children;
 		return (c != null && c.containsKey( childId ));
 	}
 
@@ -194,13 +263,14 @@ class ValueImpl extends Value implements Cloneable, Serializable {
 					myChildren.put( entry.getKey(), ValueVector.createClone( entry.getValue() ) );
 				} else {
 					List< Value > otherVector = entry.getValue().valuesCopy();
-					ValueVector vec = getChildren( entry.getKey(), myChildren );
+					ValueVector vec = myChildren.computeIfAbsent( entry.getKey(), k -> createChildVector() );
 					i = 0;
 					for( Value v : otherVector ) {
 						if( copyLinks && v.isLink() ) {
 							vec.set( i, ((ValueLink) v).clone() );
 						} else {
-							newValue = (v.isUsedInCorrelation() ? new CSetValue() : new ValueImpl());
+							newValue = (v.isUsedInCorrelation() || isUsedInCorrelation() ? new CSetValue()
+								: new ValueImpl());
 							newValue._deepCopy( v, copyLinks );
 							vec.set( i, newValue );
 						}
@@ -211,23 +281,30 @@ class ValueImpl extends Value implements Cloneable, Serializable {
 		}
 	}
 
-	private static ValueVector getChildren( String childId, Map< String, ValueVector > children ) {
-		return children.computeIfAbsent( childId, k -> ValueVector.create() );
+	/**
+	 * Creates the vectors holding the children of this value.
+	 */
+	protected ValueVector createChildVector() {
+		return ValueVector.create();
 	}
 
-	private final static int INITIAL_CAPACITY = 8;
-	private final static float LOAD_FACTOR = 0.75f;
-
 	@Override
+	@SuppressWarnings( "unchecked" )
 	public Map< String, ValueVector > children() {
+		materialize();
+		final Map< String, ValueVector > c = children;
+		if( c != null ) {
+			return c;
+		}
 		// Create the map if not present
-		children.getAndUpdate( v -> v == null ? new ConcurrentHashMap<>( INITIAL_CAPACITY, LOAD_FACTOR ) : v );
-		return children.get();
+		CHILDREN.compareAndSet( this, null, new ValueChildren() );
+		return children;
 	}
 
 	@Override
 	public Object valueObject() {
-		return valueObject;
+		final Value s = source;
+		return s == null ? valueObject : s.valueObject();
 	}
 
 	protected ValueImpl( Object object ) {
@@ -237,6 +314,12 @@ class ValueImpl extends Value implements Cloneable, Serializable {
 	public ValueImpl( Value val ) {
 		valueObject = val.valueObject();
 	}
+
+	private void writeObject( ObjectOutputStream out )
+		throws IOException {
+		materialize();
+		out.defaultWriteObject();
+	}
 }
 
 
@@ -255,6 +338,15 @@ class RootValueImpl extends Value implements Cloneable {
 		return ret;
 	}
 
+	@Override
+	RootValueImpl sharedClone() {
+		RootValueImpl ret = new RootValueImpl();
+		for( Entry< String, ValueVector > entry : children.entrySet() ) {
+			ret.children.put( entry.getKey(), ValueVector.createSharedClone( entry.getValue() ) );
+		}
+		return ret;
+	}
+
 	@Override
 	public void setValueObject( Object object ) {}
 
@@ -263,7 +355,7 @@ class RootValueImpl extends Value implements Cloneable {
 
 	@Override
 	public ValueVector getChildren( String childId ) {
-		return children.computeIfAbsent( childId, k -> ValueVector.create() );
+		return getChildren( childId, children );
 	}
 
 	@Override
@@ -307,12 +399,13 @@ class RootValueImpl extends Value implements Cloneable {
 				} else {
 					List< Value > otherVector = entry.getValue().valuesCopy();
 					ValueVector vec = getChildren( entry.getKey(), children );
+					final boolean isCSet = Keywords.CSETS.equals( entry.getKey() );
 					i = 0;
 					for( Value v : otherVector ) {
 						if( copyLinks && v.isLink() ) {
 							vec.set( i, ((ValueLink) v).clone() );
 						} else {
-							newValue = (v.isUsedInCorrelation() ? new CSetValue() : new ValueImpl());
+							newValue = (v.isUsedInCorrelation() || isCSet ? new CSetValue() : new ValueImpl());
 							newValue._deepCopy( v, copyLinks );
 							vec.set( i, newValue );
 						}
@@ -324,7 +417,9 @@ class RootValueImpl extends Value implements Cloneable {
 	}
 
 	private static ValueVector getChildren( String childId, Map< String, ValueVector > children ) {
-		return children.computeIfAbsent( childId, k -> ValueVector.create() );
+		// Correlation variables live under csets: track them, so that correlation engines can index them
+		return children.computeIfAbsent( childId,
+			k -> Keywords.CSETS.equals( k ) ? ValueVector.createCSetVector() : ValueVector.create() );
 	}
 
 	@Override
@@ -337,15 +432,36 @@ class RootValueImpl extends Value implements Cloneable {
 class CSetValue extends ValueImpl {
 	private static final long serialVersionUID = Constants.serialVersionUID();
 
-	// @Override
-	// public void setValueObject( Object object ) {
-	// // CommCore commCore = Interpreter.getInstance().commCore();
-	// // synchronized( commCore.correlationLock() )
-	// // removeFromRadixTree();
-	// super.setValueObject( object );
-	// // addToRadixTree();
-	// // }
-	// }
+	@Override
+	public void setValueObject( Object object ) {
+		super.setValueObject( object );
+		notifyCorrelationEngine();
+	}
+
+	@Override
+	public void erase() {
+		super.erase();
+		notifyCorrelationEngine();
+	}
+
+	@Override
+	protected ValueVector createChildVector() {
+		return ValueVector.createCSetVector();
+	}
+
+	@Override
+	protected void _deepCopy( Value value, boolean copyLinks ) {
+		super._deepCopy( value, copyLinks );
+		// The children have been copied without notifications
+		notifyCorrelationEngine();
+	}
+
+	static void notifyCorrelationEngine() {
+		final ExecutionThread ethread = ExecutionThread.currentThread();
+		if( ethread != null ) {
+			ethread.interpreter().correlationEngine().onCorrelationValueChange( ethread.state() );
+		}
+	}
 
 	@Override
 	public CSetValue clone() {
@@ -392,6 +508,14 @@ public abstract class Value implements Expression, Cloneable {
 		return new CSetValue();
 	}
 
+	/**
+	 * Tells the correlation engine of the current session that a correlation variable has changed
+	 * without going through one of its values, e.g., because it has been removed from its parent.
+	 */
+	static void notifyCorrelationValueChange() {
+		CSetValue.notifyCorrelationEngine();
+	}
+
 	public static Value create( Boolean bool ) {
 		return new ValueImpl( bool );
 	}
@@ -424,6 +548,18 @@ public abstract class Value implements Expression, Cloneable {
 		return value.clone();
 	}
 
+	/**
+	 * Returns a copy of the given value that shares its content, copying each of its sub-values only
+	 * when the copy first accesses its children or writes it. Since the shared content is not copied
+	 * again, the given value and its sub-tree must not change afterwards.
+	 *
+	 * @param value the value to copy, which must not change afterwards
+	 * @return a copy-on-write clone of the value
+	 */
+	public static Value createSharedClone( Value value ) {
+		return value.sharedClone();
+	}
+
 	public static Value createDeepCopy( Value value ) {
 		Value ret = Value.create();
 		ret.deepCopy( value );
@@ -489,6 +625,11 @@ public abstract class Value implements Expression, Cloneable {
 	@Override
 	public abstract Value clone();
 
+	// See createSharedClone
+	Value sharedClone() {
+		return clone();
+	}
+
 	public final Value getNewChild( String childId ) {
 		final ValueVector vec = getChildren( childId );
 		Value retVal = new ValueImpl();
@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.runtime;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import jolie.lang.Constants;
+
+/**
+ * The children of a {@link Value}, optimised for the common case of nodes with few children.
+ *
+ * Up to {@link #MAX_INLINE} children are kept in a flat array of alternating names and vectors,
+ * which is replaced (never modified) on every update, so that it can be read without locking. Nodes
+ * with more children switch to a {@link ConcurrentHashMap}, and keep using it from then on. Inline
+ * lookups compare names by identity first: the names in the paths of a program are the same
+ * strings every time a statement runs.
+ *
+ * Like {@link ConcurrentHashMap}, this map does not accept <code>null</code> keys or values, and its
+ * iterators do not throw {@link java.util.ConcurrentModificationException}.
+ */
+final class ValueChildren extends AbstractMap< String, ValueVector > implements Serializable {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
+	private static final int MAX_INLINE = 8;
+	private static final int INITIAL_CAPACITY = 8;
+	private static final float LOAD_FACTOR = 0.75f;
+	private static final Object[] EMPTY = new Object[ 0 ];
+
+	/*
+	 * Readers must read inline before map: the inline array is emptied only after map is published,
+	 * so a reader that finds map == null has read a complete inline array.
+	 */
+	private volatile Object[] inline = EMPTY;
+	private volatile ConcurrentHashMap< String, ValueVector > map = null;
+
+	private static int indexOf( Object[] a, Object key ) {
+		for( int i = 0; i < a.length; i += 2 ) {
+			if( a[ i ] == key ) {
+				return i;
+			}
+		}
+		for( int i = 0; i < a.length; i += 2 ) {
+			if( a[ i ].equals( key ) ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public ValueVector get( Object key ) {
+		final Object[] a = inline;
+		final ConcurrentHashMap< String, ValueVector > m = map;
+		if( m != null ) {
+			return m.get( key );
+		}
+		final int i = indexOf( a, key );
+		return i < 0 ? null : (ValueVector) a[ i + 1 ];
+	}
+
+	@Override
+	public boolean containsKey( Object key ) {
+		return get( key ) != null;
+	}
+
+	@Override
+	public int size() {
+		final Object[] a = inline;
+		final ConcurrentHashMap< String, ValueVector > m = map;
+		return m != null ? m.size() : a.length / 2;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public ValueVector put( String key, ValueVector value ) {
+		Objects.requireNonNull( key );
+		Objects.requireNonNull( value );
+		final ConcurrentHashMap< String, ValueVector > m = map;
+		if( m != null ) {
+			return m.put( key, value );
+		}
+		synchronized( this ) {
+			if( map != null ) {
+				return map.put( key, value );
+			}
+			final Object[] a = inline;
+			final int i = indexOf( a, key );
+			if( i >= 0 ) {
+				final Object[] b = a.clone();
+				b[ i + 1 ] = value;
+				inline = b;
+				return (ValueVector) a[ i + 1 ];
+			}
+			insert( a, key, value );
+			return null;
+		}
+	}
+
+	@Override
+	public ValueVector computeIfAbsent( String key, Function< ? super String, ? extends ValueVector > mappingFunction ) {
+		final ValueVector v = get( key );
+		if( v != null ) {
+			return v;
+		}
+		Objects.requireNonNull( key );
+		final ConcurrentHashMap< String, ValueVector > m = map;
+		if( m != null ) {
+			return m.computeIfAbsent( key, mappingFunction );
+		}
+		synchronized( this ) {
+			if( map != null ) {
+				return map.computeIfAbsent( key, mappingFunction );
+			}
+			final Object[] a = inline;
+			final int i = indexOf( a, key );
+			if( i >= 0 ) {
+				return (ValueVector) a[ i + 1 ];
+			}
+			final ValueVector value = mappingFunction.apply( key );
+			if( value != null ) {
+				insert( a, key, value );
+			}
+			return value;
+		}
+	}
+
+	@Override
+	public ValueVector putIfAbsent( String key, ValueVector value ) {
+		Objects.requireNonNull( value );
+		final ValueVector current = computeIfAbsent( key, k -> value );
+		return current == value ? null : current;
+	}
+
+	// Must be called while holding the monitor, in inline mode
+	private void insert( Object[] a, String key, ValueVector value ) {
+		if( a.length / 2 < MAX_INLINE ) {
+			final Object[] b = new Object[ a.length + 2 ];
+			System.arraycopy( a, 0, b, 0, a.length );
+			b[ a.length ] = key;
+			b[ a.length + 1 ] = value;
+			inline = b;
+		} else {
+			final ConcurrentHashMap< String, ValueVector > m =
+				new ConcurrentHashMap<>( INITIAL_CAPACITY, LOAD_FACTOR );
+			for( int k = 0; k < a.length; k += 2 ) {
+				m.put( (String) a[ k ], (ValueVector) a[ k + 1 ] );
+			}
+			m.put( key, value );
+			map = m;
+			inline = EMPTY;
+		}
+	}
+
+	@Override
+	public ValueVector remove( Object key ) {
+		final ConcurrentHashMap< String, ValueVector > m = map;
+		if( m != null ) {
+			return m.remove( key );
+		}
+		synchronized( this ) {
+			if( map != null ) {
+				return map.remove( key );
+			}
+			final Object[] a = inline;
+			final int i = indexOf( a, key );
+			if( i < 0 ) {
+				return null;
+			}
+			final Object[] b = new Object[ a.length - 2 ];
+			System.arraycopy( a, 0, b, 0, i );
+			System.arraycopy( a, i + 2, b, i, a.length - i - 2 );
+			inline = b;
+			return (ValueVector) a[ i + 1 ];
+		}
+	}
+
+	@Override
+	public void clear() {
+		final ConcurrentHashMap< String, ValueVector > m = map;
+		if( m != null ) {
+			m.clear();
+			return;
+		}
+		synchronized( this ) {
+			if( map != null ) {
+				map.clear();
+			} else {
+				inline = EMPTY;
+			}
+		}
+	}
+
+	@Override
+	public Set< Map.Entry< String, ValueVector > > entrySet() {
+		final Object[] a = inline;
+		final ConcurrentHashMap< String, ValueVector > m = map;
+		if( m != null ) {
+			return m.entrySet();
+		}
+		return new InlineEntrySet( a );
+	}
+
+	/*
+	 * A view of a snapshot of the inline children. Removals through its iterator are applied to the
+	 * map.
+	 */
+	private final class InlineEntrySet extends AbstractSet< Map.Entry< String, ValueVector > > {
+		private final Object[] a;
+
+		private InlineEntrySet( Object[] a ) {
+			this.a = a;
+		}
+
+		@Override
+		public int size() {
+			return a.length / 2;
+		}
+
+		@Override
+		public Iterator< Map.Entry< String, ValueVector > > iterator() {
+			return new Iterator< Map.Entry< String, ValueVector > >() {
+				private int next = 0;
+				private String last = null;
+
+				@Override
+				public boolean hasNext() {
+					return next < a.length;
+				}
+
+				@Override
+				public Map.Entry< String, ValueVector > next() {
+					if( next >= a.length ) {
+						throw new NoSuchElementException();
+					}
+					last = (String) a[ next ];
+					final Map.Entry< String, ValueVector > e =
+						new AbstractMap.SimpleImmutableEntry<>( last, (ValueVector) a[ next + 1 ] );
+					next += 2;
+					return e;
+				}
+
+				@Override
+				public void remove() {
+					if( last == null ) {
+						throw new IllegalStateException();
+					}
+					ValueChildren.this.remove( last );
+					last = null;
+				}
+			};
+		}
+	}
+}
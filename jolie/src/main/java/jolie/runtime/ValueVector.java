@@ -23,8 +23,10 @@ package jolie.runtime;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -62,8 +64,23 @@ class ValueVectorLink extends ValueVector implements Cloneable {
 	}
 
 	@Override
-	protected List< Value > values() {
-		return getLinkedValueVector().values();
+	public void add( Value value ) {
+		getLinkedValueVector().add( value );
+	}
+
+	@Override
+	public Value remove( int i ) {
+		return getLinkedValueVector().remove( i );
+	}
+
+	@Override
+	public Iterator< Value > iterator() {
+		return getLinkedValueVector().iterator();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return getLinkedValueVector().isEmpty();
 	}
 
 	@Override
@@ -79,46 +96,107 @@ class ValueVectorLink extends ValueVector implements Cloneable {
 }
 
 
+/**
+ * The standard vector implementation, which can be read without locking.
+ *
+ * The content of the vector is an immutable pair of an array and a size, published through a
+ * volatile field. Readers take a snapshot of it and never see partial updates. Writers are
+ * serialised by the monitor of the vector: appending an element stores it in the spare capacity of
+ * the array before publishing the new size, which old snapshots never read, whereas removing an
+ * element copies the array.
+ */
 class ValueVectorImpl extends ValueVector implements Serializable {
 	private static final long serialVersionUID = Constants.serialVersionUID();
-	private final ArrayList< Value > values;
+	private static final Value[] EMPTY = new Value[ 0 ];
 
-	@Override
-	protected List< Value > values() {
-		return values;
+	private static final class Content implements Serializable {
+		private static final long serialVersionUID = Constants.serialVersionUID();
+		private final Value[] array;
+		private final int size;
+
+		private Content( Value[] array, int size ) {
+			this.array = array;
+			this.size = size;
+		}
 	}
 
+	private volatile Content content = new Content( EMPTY, 0 );
+
 	@Override
-	public synchronized int size() {
-		return values().size();
+	public int size() {
+		return content.size;
 	}
 
 	@Override
 	public Value get( int i ) {
-		if( i >= values.size() ) {
-			synchronized( this ) {
-				if( i >= values.size() ) {
-					values.ensureCapacity( i + 1 );
-					for( int k = values.size(); k <= i; k++ ) {
-						values.add( Value.create() );
-					}
-				}
+		final Content c = content;
+		if( i < c.size ) {
+			return c.array[ i ];
+		}
+		synchronized( this ) {
+			final Content current = content;
+			if( i < current.size ) {
+				return current.array[ i ];
 			}
+			final Value[] array = ensureCapacity( current, i + 1 );
+			for( int k = current.size; k <= i; k++ ) {
+				array[ k ] = createValue();
+			}
+			content = new Content( array, i + 1 );
+			return array[ i ];
 		}
-		return values.get( i );
 	}
 
 	@Override
 	public synchronized void set( int i, Value value ) {
-		if( i >= values.size() ) {
-			values.ensureCapacity( i + 1 );
-			for( int k = values.size(); k < i; k++ ) {
-				values.add( Value.create() );
-			}
-			values.add( value );
+		final Content current = content;
+		if( i < current.size ) {
+			current.array[ i ] = value;
+			// Republish, so that readers see the new element
+			content = current;
 		} else {
-			values.set( i, value );
+			final Value[] array = ensureCapacity( current, i + 1 );
+			for( int k = current.size; k < i; k++ ) {
+				array[ k ] = createValue();
+			}
+			array[ i ] = value;
+			content = new Content( array, i + 1 );
+		}
+	}
+
+	@Override
+	public synchronized void add( Value value ) {
+		final Content current = content;
+		final Value[] array = ensureCapacity( current, current.size + 1 );
+		array[ current.size ] = value;
+		content = new Content( array, current.size + 1 );
+	}
+
+	@Override
+	public synchronized Value remove( int i ) {
+		final Content current = content;
+		if( i < 0 || i >= current.size ) {
+			throw new IndexOutOfBoundsException( "Index: " + i + ", Size: " + current.size );
+		}
+		final Value removed = current.array[ i ];
+		final Value[] array = new Value[ Math.max( current.size - 1, 1 ) ];
+		System.arraycopy( current.array, 0, array, 0, i );
+		System.arraycopy( current.array, i + 1, array, i, current.size - i - 1 );
+		content = new Content( array, current.size - 1 );
+		return removed;
+	}
+
+	/*
+	 * Returns an array that can hold the given number of elements and shares the elements of the given
+	 * content, growing it if necessary. The slots beyond the size of the content are not visible to
+	 * its readers.
+	 */
+	private static Value[] ensureCapacity( Content current, int capacity ) {
+		if( capacity <= current.array.length ) {
+			return current.array;
 		}
+		final int newCapacity = Math.max( capacity, current.array.length + (current.array.length >> 1) );
+		return Arrays.copyOf( current.array, newCapacity );
 	}
 
 	@Override
@@ -127,12 +205,60 @@ class ValueVectorImpl extends ValueVector implements Serializable {
 	}
 
 	@Override
-	public synchronized List< Value > valuesCopy() {
-		return new ArrayList<>( values );
+	public List< Value > valuesCopy() {
+		final Content c = content;
+		final List< Value > ret = new ArrayList<>( c.size );
+		for( int i = 0; i < c.size; i++ ) {
+			ret.add( c.array[ i ] );
+		}
+		return ret;
 	}
 
-	public ValueVectorImpl() {
-		values = new ArrayList<>( 1 );
+	/**
+	 * Iterates over the elements that the vector had when this method was called.
+	 */
+	@Override
+	public Iterator< Value > iterator() {
+		final Content c = content;
+		return new Iterator< Value >() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < c.size;
+			}
+
+			@Override
+			public Value next() {
+				if( next >= c.size ) {
+					throw new NoSuchElementException();
+				}
+				return c.array[ next++ ];
+			}
+		};
+	}
+
+	/**
+	 * Creates the values used to fill this vector when an index beyond its size is accessed.
+	 */
+	protected Value createValue() {
+		return Value.create();
+	}
+
+	public ValueVectorImpl() {}
+}
+
+
+/**
+ * A vector of correlation values: the values it creates are themselves used in correlation, so that
+ * assignments to them can be tracked by the correlation engine.
+ */
+class CSetValueVector extends ValueVectorImpl {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
+	@Override
+	protected Value createValue() {
+		return Value.createCSetValue();
 	}
 }
 
@@ -142,10 +268,12 @@ public abstract class ValueVector implements Iterable< Value > {
 		return new ValueVectorImpl();
 	}
 
-	public synchronized Value remove( int i ) {
-		return values().remove( i );
+	public static ValueVector createCSetVector() {
+		return new CSetValueVector();
 	}
 
+	public abstract Value remove( int i );
+
 	public static ValueVector createLink( VariablePath path ) {
 		return new ValueVectorLink( path );
 	}
@@ -165,17 +293,24 @@ public abstract class ValueVector implements Iterable< Value > {
 		return retVec;
 	}
 
-	public synchronized Value first() {
-		return get( 0 );
+	// See Value.createSharedClone
+	static ValueVector createSharedClone( ValueVector vec ) {
+		if( vec.isLink() ) {
+			return ((ValueVectorLink) vec).clone();
+		}
+		final ValueVector retVec = vec instanceof CSetValueVector ? createCSetVector() : create();
+		for( Value v : vec ) {
+			retVec.add( Value.createSharedClone( v ) );
+		}
+		return retVec;
 	}
 
-	public synchronized boolean isEmpty() {
-		return values().isEmpty();
+	public Value first() {
+		return get( 0 );
 	}
 
-	@Override
-	public synchronized Iterator< Value > iterator() {
-		return values().iterator();
+	public boolean isEmpty() {
+		return size() == 0;
 	}
 
 	public abstract Value get( int i );
@@ -187,9 +322,7 @@ public abstract class ValueVector implements Iterable< Value > {
 	public abstract List< Value > valuesCopy();
 
 
-	public synchronized void add( Value value ) {
-		values().add( value );
-	}
+	public abstract void add( Value value );
 
 	// TODO: improve performance
 	public synchronized void deepCopy( ValueVector vec ) {
@@ -204,9 +337,6 @@ public abstract class ValueVector implements Iterable< Value > {
 		}
 	}
 
-
-	protected abstract List< Value > values();
-
 	public abstract boolean isLink();
 
 	public final Stream< Value > stream() {
@@ -23,6 +23,7 @@ package jolie.runtime;
 
 import jolie.ExecutionThread;
 import jolie.State;
+import jolie.lang.Keywords;
 import jolie.process.TransformationReason;
 import jolie.runtime.expression.Expression;
 import jolie.util.Pair;
@@ -150,6 +151,7 @@ public class VariablePath implements Expression {
 					currValue = currVector.get( 0 );
 				} else { // We're finished
 					currValue.children().remove( keyStr );
+					onUndef( currValue, keyStr );
 				}
 			} else {
 				index = pair.value().evaluate().intValue();
@@ -161,12 +163,20 @@ public class VariablePath implements Expression {
 				} else {
 					if( currVector.size() > index ) {
 						currVector.remove( index );
+						onUndef( currValue, keyStr );
 					}
 				}
 			}
 		}
 	}
 
+	// Correlation engines must know when a correlation variable is removed
+	private static void onUndef( Value parent, String childId ) {
+		if( parent.isUsedInCorrelation() || Keywords.CSETS.equals( childId ) ) {
+			Value.notifyCorrelationValueChange();
+		}
+	}
+
 	public final Value getValue() {
 		return getValue( getRootValue() );
 	}
@@ -24,10 +24,12 @@ package jolie.runtime.correlation;
 import jolie.Interpreter;
 import jolie.SessionListener;
 import jolie.SessionThread;
+import jolie.State;
 import jolie.net.CommChannel;
 import jolie.net.CommMessage;
 import jolie.runtime.Value;
 import jolie.runtime.correlation.CorrelationSet.CorrelationPair;
+import jolie.runtime.correlation.impl.HashCorrelationEngine;
 import jolie.runtime.correlation.impl.SimpleCorrelationEngine;
 
 /**
@@ -46,8 +48,7 @@ public abstract class CorrelationEngine implements SessionListener {
 		HASH {
 			@Override
 			public CorrelationEngine createInstance( Interpreter interpreter ) {
-				// return new HashCorrelationEngine( interpreter );
-				return null;
+				return new HashCorrelationEngine( interpreter );
 			}
 		};
 
@@ -72,6 +73,13 @@ public abstract class CorrelationEngine implements SessionListener {
 
 	protected abstract boolean routeMessage( CommMessage message, CommChannel channel );
 
+	/**
+	 * Received when a correlation variable is assigned or erased in a state.
+	 * 
+	 * @param state the state owning the changed correlation variable
+	 */
+	public void onCorrelationValueChange( State state ) {}
+
 	private final Interpreter interpreter;
 
 	public CorrelationEngine( Interpreter interpreter ) {
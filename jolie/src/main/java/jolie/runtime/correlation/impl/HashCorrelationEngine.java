@@ -21,15 +21,327 @@
 
 package jolie.runtime.correlation.impl;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import jolie.Interpreter;
+import jolie.SessionThread;
+import jolie.State;
+import jolie.net.CommChannel;
+import jolie.net.CommMessage;
+import jolie.net.SessionMessage;
+import jolie.runtime.FaultException;
+import jolie.runtime.Value;
+import jolie.runtime.VariablePath;
+import jolie.runtime.correlation.CorrelationSet;
+import jolie.runtime.correlation.CorrelationSet.CorrelationPair;
+import jolie.runtime.expression.Expression;
+import jolie.util.Pair;
 
 /**
- * A hash table based correlation algorithm (stub).
+ * A hash table based correlation algorithm. Running sessions are indexed by the values of their
+ * correlation variables, so that routing a message costs a lookup instead of a check of every
+ * running session. The index is updated when sessions start or end and when one of their
+ * correlation variables is assigned.
+ * 
+ * Value.equals, which is used to correlate, coerces the message value to the type of the session
+ * value. So sessions are grouped by the types of their correlation values, and the key of a message
+ * is computed once for each group, coercing its values in the same way. Candidates found in the
+ * index are still checked as in {@link SimpleCorrelationEngine}, so the index only narrows down the
+ * sessions to look at. Messages for operations that are not correlated
+ * (or that are received while the init procedure is running) are routed as in
+ * {@link SimpleCorrelationEngine}.
  * 
  * @author Fabrizio Montesi
  */
 public class HashCorrelationEngine extends SimpleCorrelationEngine {
+	// The types distinguished by Value.equals, in the order in which it checks them
+	private enum Kind {
+		BYTE_ARRAY, STRING, INT, DOUBLE, BOOL, LONG, OBJECT
+	}
+
+	private static class Key {
+		private final List< Kind > kinds;
+		private final List< Object > values;
+
+		private Key( List< Kind > kinds, List< Object > values ) {
+			this.kinds = kinds;
+			this.values = values;
+		}
+
+		@Override
+		public boolean equals( Object other ) {
+			return other instanceof Key && kinds.equals( ((Key) other).kinds )
+				&& values.equals( ((Key) other).values );
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * kinds.hashCode() + values.hashCode();
+		}
+	}
+
+	private static class IndexedSession {
+		private final SessionThread session;
+		private final Map< CorrelationSet, Key > keys = new HashMap<>();
+		private boolean removed = false;
+
+		private IndexedSession( SessionThread session ) {
+			this.session = session;
+		}
+	}
+
+	// Maps each correlation set to the types of the correlation values of its sessions, and then to
+	// the sessions indexed by their correlation values. Groups of types are never removed, since
+	// there are only a few of them.
+	private final Map< CorrelationSet, Map< List< Kind >, Map< List< Object >, Set< SessionThread > > > > index =
+		new ConcurrentHashMap<>();
+	private final Map< State, IndexedSession > indexedSessions = new ConcurrentHashMap<>();
+	private final Set< SessionThread > initialisingSessions = Collections.newSetFromMap( new ConcurrentHashMap<>() );
+	// Maps operation names to the message paths of their correlation pairs, ordered as the
+	// correlation variables of their correlation set. Contains null entries for variables not
+	// covered by the operation.
+	private final Map< String, VariablePath[] > messagePaths = new ConcurrentHashMap<>();
+
 	public HashCorrelationEngine( Interpreter interpreter ) {
 		super( interpreter );
 	}
+
+	@Override
+	public boolean routeMessage( CommMessage message, CommChannel channel ) {
+		final CorrelationSet cset = interpreter().getCorrelationSetForOperation( message.operationName() );
+		if( cset == null || !initialisingSessions.isEmpty() ) {
+			return super.routeMessage( message, channel );
+		}
+
+		final VariablePath[] paths =
+			messagePaths.computeIfAbsent( message.operationName(), operationName -> messagePaths( cset,
+				operationName ) );
+		final Value[] messageValues = new Value[ paths.length ];
+		for( int i = 0; i < paths.length; i++ ) {
+			if( paths[ i ] == null ) {
+				// The operation does not provide values for all the correlation variables
+				return super.routeMessage( message, channel );
+			}
+			final Value messageValue = paths[ i ].getValueOrNull( message.value() );
+			if( messageValue == null || !messageValue.isDefined() ) {
+				return false;
+			}
+			messageValues[ i ] = messageValue;
+		}
+
+		final Map< List< Kind >, Map< List< Object >, Set< SessionThread > > > csetIndex = index.get( cset );
+		if( csetIndex == null ) {
+			return false;
+		}
+		for( Map.Entry< List< Kind >, Map< List< Object >, Set< SessionThread > > > group : csetIndex
+			.entrySet() ) {
+			final List< Kind > kinds = group.getKey();
+			final List< Object > key = new ArrayList<>( messageValues.length );
+			for( int i = 0; i < messageValues.length; i++ ) {
+				key.add( coerce( messageValues[ i ], kinds.get( i ) ) );
+			}
+			final Set< SessionThread > candidates = group.getValue().get( key );
+			if( candidates != null ) {
+				for( SessionThread session : candidates ) {
+					if( correlate( session, message ) ) {
+						session.pushMessage( new SessionMessage( message, channel ) );
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void onSessionStart( SessionThread session, Interpreter.SessionStarter starter, CommMessage message ) {
+		super.onSessionStart( session, starter, message );
+		indexSession( session );
+	}
+
+	@Override
+	public void onSingleExecutionSessionStart( SessionThread session ) {
+		super.onSingleExecutionSessionStart( session );
+		if( session.isInitialisingThread() ) {
+			initialisingSessions.add( session );
+		} else {
+			indexSession( session );
+		}
+	}
+
+	@Override
+	public void onSessionExecuted( SessionThread session ) {
+		super.onSessionExecuted( session );
+		initialisingSessions.remove( session );
+		final IndexedSession indexedSession = indexedSessions.remove( session.state() );
+		if( indexedSession != null ) {
+			synchronized( indexedSession ) {
+				indexedSession.removed = true;
+				indexedSession.keys.forEach( ( cset, key ) -> unindex( cset, key, session ) );
+				indexedSession.keys.clear();
+			}
+		}
+	}
+
+	@Override
+	public void onSessionError( SessionThread session, FaultException fault ) {
+		onSessionExecuted( session );
+	}
+
+	@Override
+	public void onCorrelationValueChange( State state ) {
+		final IndexedSession indexedSession = indexedSessions.get( state );
+		if( indexedSession != null ) {
+			reindex( indexedSession );
+		}
+	}
+
+	private void indexSession( SessionThread session ) {
+		final IndexedSession indexedSession = new IndexedSession( session );
+		indexedSessions.put( session.state(), indexedSession );
+		reindex( indexedSession );
+	}
+
+	private void reindex( IndexedSession indexedSession ) {
+		synchronized( indexedSession ) {
+			if( indexedSession.removed ) {
+				return;
+			}
+			for( CorrelationSet cset : interpreter().correlationSets() ) {
+				final Key newKey = sessionKey( cset, indexedSession.session.state() );
+				final Key oldKey = newKey == null
+					? indexedSession.keys.remove( cset )
+					: indexedSession.keys.put( cset, newKey );
+				if( !Objects.equals( oldKey, newKey ) ) {
+					if( oldKey != null ) {
+						unindex( cset, oldKey, indexedSession.session );
+					}
+					if( newKey != null ) {
+						index.computeIfAbsent( cset, k -> new ConcurrentHashMap<>() )
+							.computeIfAbsent( newKey.kinds, k -> new ConcurrentHashMap<>() )
+							.compute( newKey.values, ( k, sessions ) -> {
+								final Set< SessionThread > ret =
+									sessions == null ? ConcurrentHashMap.newKeySet() : sessions;
+								ret.add( indexedSession.session );
+								return ret;
+							} );
+					}
+				}
+			}
+		}
+	}
+
+	private void unindex( CorrelationSet cset, Key key, SessionThread session ) {
+		final Map< List< Kind >, Map< List< Object >, Set< SessionThread > > > csetIndex = index.get( cset );
+		final Map< List< Object >, Set< SessionThread > > group = csetIndex == null ? null : csetIndex.get( key.kinds );
+		if( group != null ) {
+			group.computeIfPresent( key.values, ( k, sessions ) -> {
+				sessions.remove( session );
+				return sessions.isEmpty() ? null : sessions;
+			} );
+		}
+	}
+
+	/**
+	 * Returns the key of the session for the given correlation set, or {@code null} if not all of its
+	 * correlation variables are defined.
+	 */
+	private static Key sessionKey( CorrelationSet cset, State state ) {
+		final List< Kind > kinds = new ArrayList<>( cset.correlationVariablePaths().size() );
+		final List< Object > values = new ArrayList<>( cset.correlationVariablePaths().size() );
+		for( VariablePath path : cset.correlationVariablePaths() ) {
+			final Value sessionValue = path.getValueOrNull( state.root() );
+			if( sessionValue == null || !sessionValue.isDefined() ) {
+				return null;
+			}
+			final Kind kind = kindOf( sessionValue );
+			kinds.add( kind );
+			values.add( coerce( sessionValue, kind ) );
+		}
+		return new Key( kinds, values );
+	}
+
+	private static VariablePath[] messagePaths( CorrelationSet cset, String operationName ) {
+		final List< VariablePath > variablePaths = cset.correlationVariablePaths();
+		final VariablePath[] ret = new VariablePath[ variablePaths.size() ];
+		for( CorrelationPair pair : cset.getOperationCorrelationPairs( operationName ) ) {
+			for( int i = 0; i < ret.length; i++ ) {
+				if( samePath( pair.sessionPath(), variablePaths.get( i ) ) ) {
+					ret[ i ] = pair.messagePath();
+				}
+			}
+		}
+		return ret;
+	}
+
+	private static boolean samePath( VariablePath left, VariablePath right ) {
+		final Pair< Expression, Expression >[] leftPath = left.path();
+		final Pair< Expression, Expression >[] rightPath = right.path();
+		if( leftPath.length != rightPath.length ) {
+			return false;
+		}
+		for( int i = 0; i < leftPath.length; i++ ) {
+			if( !leftPath[ i ].key().evaluate().strValue().equals( rightPath[ i ].key().evaluate().strValue() ) ) {
+				return false;
+			}
+			final int leftIndex = leftPath[ i ].value() == null ? 0 : leftPath[ i ].value().evaluate().intValue();
+			final int rightIndex =
+				rightPath[ i ].value() == null ? 0 : rightPath[ i ].value().evaluate().intValue();
+			if( leftIndex != rightIndex ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Kind kindOf( Value value ) {
+		if( value.isByteArray() ) {
+			return Kind.BYTE_ARRAY;
+		} else if( value.isString() ) {
+			return Kind.STRING;
+		} else if( value.isInt() ) {
+			return Kind.INT;
+		} else if( value.isDouble() ) {
+			return Kind.DOUBLE;
+		} else if( value.isBool() ) {
+			return Kind.BOOL;
+		} else if( value.isLong() ) {
+			return Kind.LONG;
+		} else {
+			return Kind.OBJECT;
+		}
+	}
+
+	/*
+	 * Converts value as Value.equals does when comparing it to a session value of the given kind, so
+	 * that values equal for Value.equals are equal here too.
+	 */
+	private static Object coerce( Value value, Kind kind ) {
+		switch( kind ) {
+		case BYTE_ARRAY:
+			return ByteBuffer.wrap( value.byteArrayValue().getBytes() );
+		case STRING:
+			return value.strValue();
+		case INT:
+			return value.intValue();
+		case DOUBLE:
+			final double d = value.doubleValue();
+			// -0.0 == 0.0, but they are not equal as Double objects
+			return d == 0.0 ? 0.0 : d;
+		case BOOL:
+			return value.boolValue();
+		case LONG:
+			return value.longValue();
+		default:
+			return value.valueObject();
+		}
+	}
 }
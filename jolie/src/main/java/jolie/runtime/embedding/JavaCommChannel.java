@@ -30,21 +30,17 @@ import java.util.concurrent.Future;
 import jolie.ExecutionThread;
 import jolie.Interpreter;
 import jolie.net.CommChannel;
-import jolie.net.CommChannelHandler;
 import jolie.net.CommMessage;
 import jolie.net.PollableCommChannel;
 import jolie.runtime.InvalidIdException;
 import jolie.runtime.JavaService;
 
-
-// TODO: this should not be polled
-
 /**
  * @author Fabrizio Montesi
  */
 public class JavaCommChannel extends CommChannel implements PollableCommChannel {
 	private final JavaService javaService;
-	private final Map< Long, Future< CommMessage > > messages = new ConcurrentHashMap<>();
+	private final Map< Long, CompletableFuture< CommMessage > > messages = new ConcurrentHashMap<>();
 
 	public JavaCommChannel( JavaService javaService ) {
 		this.javaService = javaService;
@@ -55,6 +51,17 @@ public class JavaCommChannel extends CommChannel implements PollableCommChannel
 		return messages.isEmpty() == false;
 	}
 
+	@Override
+	public boolean whenReady( Runnable action ) {
+		final CompletableFuture< ? >[] pending = messages.values().toArray( new CompletableFuture< ? >[ 0 ] );
+		if( pending.length == 0 ) {
+			return false;
+		}
+		// Ready as soon as the service has answered
+		CompletableFuture.anyOf( pending ).whenComplete( ( r, t ) -> action.run() );
+		return true;
+	}
+
 	@Override
 	protected void disposeForInputImpl()
 		throws IOException {
@@ -80,7 +87,7 @@ public class JavaCommChannel extends CommChannel implements PollableCommChannel
 
 		final ExecutionThread ethread = ExecutionThread.currentThread();
 		Interpreter.getInstance().commCore().executor().submit( () -> {
-			CommChannelHandler.currentThread().setExecutionThread( ethread );
+			ExecutionThread.setCurrentThread( ethread );
 			Thread.currentThread().setContextClassLoader( ethread.interpreter().getClassLoader() );
 			try {
 				final CommMessage response = javaService.callOperation( message );
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import jolie.runtime.Value;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MonitoringEventBufferTest {
+	private static final int PRODUCERS = 4;
+	private static final int CONSUMERS = 4;
+	private static final int EVENTS_PER_PRODUCER = 20000;
+
+	private static MonitoringEvent event( int id ) {
+		return new MonitoringEvent( Integer.toString( id ), Value.create() );
+	}
+
+	private static int id( MonitoringEvent event ) {
+		return Integer.parseInt( event.type() );
+	}
+
+	@Test
+	public void wrapsAround() {
+		final MonitoringEventBuffer buffer =
+			new MonitoringEventBuffer( 3, MonitoringEventBuffer.DropPolicy.DROP_NEWEST );
+		int next = 0;
+		// Several laps of the ring, with the buffer partially filled
+		for( int lap = 0; lap < 10; lap++ ) {
+			assertTrue( buffer.offer( event( next ) ) );
+			assertTrue( buffer.offer( event( next + 1 ) ) );
+			assertEquals( 2, buffer.size() );
+			assertEquals( next, id( buffer.poll() ) );
+			assertEquals( next + 1, id( buffer.poll() ) );
+			assertTrue( buffer.isEmpty() );
+			assertNull( buffer.poll() );
+			next += 2;
+		}
+		assertEquals( 0L, buffer.dropped() );
+	}
+
+	@Test
+	public void dropsNewestWhenFull() {
+		final MonitoringEventBuffer buffer =
+			new MonitoringEventBuffer( 3, MonitoringEventBuffer.DropPolicy.DROP_NEWEST );
+		for( int i = 0; i < 5; i++ ) {
+			assertEquals( i < 3, buffer.offer( event( i ) ) );
+		}
+		assertEquals( 3, buffer.size() );
+		assertEquals( 2L, buffer.dropped() );
+		final List< MonitoringEvent > events = new ArrayList<>();
+		assertEquals( 3, buffer.drainTo( events, Integer.MAX_VALUE ) );
+		for( int i = 0; i < 3; i++ ) {
+			assertEquals( i, id( events.get( i ) ) );
+		}
+	}
+
+	@Test
+	public void dropsOldestWhenFull() {
+		final MonitoringEventBuffer buffer =
+			new MonitoringEventBuffer( 3, MonitoringEventBuffer.DropPolicy.DROP_OLDEST );
+		for( int i = 0; i < 5; i++ ) {
+			assertTrue( buffer.offer( event( i ) ) );
+		}
+		assertEquals( 3, buffer.size() );
+		assertEquals( 2L, buffer.dropped() );
+		final List< MonitoringEvent > events = new ArrayList<>();
+		assertEquals( 2, buffer.drainTo( events, 2 ) );
+		assertEquals( 2, id( events.get( 0 ) ) );
+		assertEquals( 3, id( events.get( 1 ) ) );
+		assertEquals( 4, id( buffer.poll() ) );
+		assertTrue( buffer.isEmpty() );
+	}
+
+	@Test
+	public void concurrentProducersAndConsumersNeitherLoseNorDuplicateEvents()
+		throws InterruptedException {
+		final MonitoringEventBuffer buffer =
+			new MonitoringEventBuffer( 64, MonitoringEventBuffer.DropPolicy.DROP_NEWEST );
+		final int total = PRODUCERS * EVENTS_PER_PRODUCER;
+		final boolean[] received = new boolean[ total ];
+		final AtomicBoolean duplicate = new AtomicBoolean( false );
+		final CountDownLatch producersDone = new CountDownLatch( PRODUCERS );
+		final List< Thread > threads = new ArrayList<>();
+
+		for( int p = 0; p < PRODUCERS; p++ ) {
+			final int first = p * EVENTS_PER_PRODUCER;
+			threads.add( new Thread( () -> {
+				for( int i = first; i < first + EVENTS_PER_PRODUCER; i++ ) {
+					// Retry the events dropped because the buffer is full
+					while( !buffer.offer( event( i ) ) ) {
+						Thread.yield();
+					}
+				}
+				producersDone.countDown();
+			} ) );
+		}
+		for( int c = 0; c < CONSUMERS; c++ ) {
+			threads.add( new Thread( () -> {
+				MonitoringEvent e;
+				while( (e = buffer.poll()) != null || producersDone.getCount() > 0 || !buffer.isEmpty() ) {
+					if( e != null ) {
+						synchronized( received ) {
+							if( received[ id( e ) ] ) {
+								duplicate.set( true );
+							}
+							received[ id( e ) ] = true;
+						}
+					}
+				}
+			} ) );
+		}
+		for( Thread t : threads ) {
+			t.start();
+		}
+		for( Thread t : threads ) {
+			t.join();
+		}
+
+		assertFalse( duplicate.get() );
+		for( int i = 0; i < total; i++ ) {
+			assertTrue( "Event " + i + " was lost", received[ i ] );
+		}
+		assertTrue( buffer.isEmpty() );
+	}
+}
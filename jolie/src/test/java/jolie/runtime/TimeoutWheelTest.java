@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.runtime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeoutWheelTest {
+	// A revolution of the wheel takes 20 milliseconds
+	private static final long TICK_DURATION = 5;
+	private static final int WHEEL_SIZE = 4;
+
+	private final List< Long > fired = Collections.synchronizedList( new ArrayList<>() );
+	private final TimeoutWheel wheel = new TimeoutWheel( Runnable::run, Thread::new, TICK_DURATION, WHEEL_SIZE );
+
+	private class RecordingHandler extends TimeoutHandler {
+		private final long timeout;
+		private final CountDownLatch latch;
+		private volatile boolean early = false;
+
+		private RecordingHandler( long timeout, CountDownLatch latch ) {
+			super( timeout );
+			this.timeout = timeout;
+			this.latch = latch;
+		}
+
+		@Override
+		protected void onTimeout() {
+			early = System.currentTimeMillis() < time();
+			fired.add( timeout );
+			latch.countDown();
+		}
+	}
+
+	@After
+	public void tearDown() {
+		wheel.stop( 1000 );
+	}
+
+	@Test
+	public void firesInOrderAcrossRounds()
+		throws InterruptedException {
+		final List< Long > timeouts = Arrays.asList( 130L, 10L, 75L, 30L, 200L, 55L );
+		final CountDownLatch latch = new CountDownLatch( timeouts.size() );
+		final List< RecordingHandler > handlers = new ArrayList<>();
+		for( long timeout : timeouts ) {
+			final RecordingHandler handler = new RecordingHandler( timeout, latch );
+			handlers.add( handler );
+			wheel.add( handler );
+		}
+
+		assertTrue( latch.await( 5, TimeUnit.SECONDS ) );
+		final List< Long > expected = new ArrayList<>( timeouts );
+		Collections.sort( expected );
+		assertEquals( expected, fired );
+		for( RecordingHandler handler : handlers ) {
+			assertFalse( "Handler for " + handler.timeout + " ms fired early", handler.early );
+		}
+	}
+
+	@Test
+	public void cancelledHandlersNeverFire()
+		throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch( 1 );
+		final RecordingHandler cancelled = new RecordingHandler( 20, latch );
+		final RecordingHandler cancelledAfterRounds = new RecordingHandler( 90, latch );
+		final RecordingHandler last = new RecordingHandler( 150, latch );
+		wheel.add( cancelled );
+		wheel.add( cancelledAfterRounds );
+		wheel.add( last );
+		cancelled.cancel();
+		// Let the wheel turn before cancelling a handler that is already in a slot
+		Thread.sleep( 40 );
+		cancelledAfterRounds.cancel();
+
+		assertTrue( latch.await( 5, TimeUnit.SECONDS ) );
+		assertEquals( Collections.singletonList( 150L ), fired );
+	}
+
+	@Test
+	public void stopRunsPendingHandlers()
+		throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch( 2 );
+		final RecordingHandler cancelled = new RecordingHandler( 10000, latch );
+		wheel.add( new RecordingHandler( 10000, latch ) );
+		wheel.add( new RecordingHandler( 20000, latch ) );
+		wheel.add( cancelled );
+		cancelled.cancel();
+
+		wheel.stop( 1000 );
+		assertTrue( latch.await( 1, TimeUnit.SECONDS ) );
+		final List< Long > stopped = new ArrayList<>( fired );
+		Collections.sort( stopped );
+		assertEquals( Arrays.asList( 10000L, 20000L ), stopped );
+
+		// Handlers added after stopping are never run
+		wheel.add( new RecordingHandler( 0, latch ) );
+		Thread.sleep( 50 );
+		assertEquals( 2, fired.size() );
+	}
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.js;
+
+import java.io.IOException;
+import java.io.Reader;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+
+/**
+ * A streaming JSON parser that builds Jolie values directly, without an intermediate object model.
+ *
+ * The mapping from JSON to Jolie values is the one documented in {@link JsUtils}. As with the
+ * parser previously used by {@link JsUtils}, superfluous commas in arrays and objects are
+ * tolerated.
+ */
+final class JsonParser {
+	private static final int BUFFER_SIZE = 8192;
+	private static final int MAX_DEPTH = 1000;
+
+	private final Reader reader;
+	private final boolean strictEncoding;
+	private final char[] buffer = new char[ BUFFER_SIZE ];
+	private final StringBuilder stringBuilder = new StringBuilder();
+	private int position = 0;
+	private int limit = 0;
+	// Number of characters consumed before the current content of buffer, for error messages
+	private long offset = 0;
+	private int depth = 0;
+
+	JsonParser( Reader reader, boolean strictEncoding ) {
+		this.reader = reader;
+		this.strictEncoding = strictEncoding;
+	}
+
+	/**
+	 * Parses a JSON document into value. The document must be followed only by whitespace.
+	 */
+	void parse( Value value )
+		throws IOException {
+		parseRoot( value, skipWhitespace() );
+		if( skipWhitespace() >= 0 ) {
+			throw error( "unexpected content after the JSON value" );
+		}
+	}
+
+	private void parseRoot( Value value, int c )
+		throws IOException {
+		if( c == '[' ) {
+			position++;
+			value.children().put( JsUtils.JSONARRAY_KEY, parseArray() );
+		} else if( c == '{' ) {
+			position++;
+			parseObject( value );
+		} else {
+			parsePrimitive( value, c );
+		}
+	}
+
+	private void parseObject( Value value )
+		throws IOException {
+		enter();
+		while( true ) {
+			int c = skipWhitespace();
+			if( c == '}' ) {
+				position++;
+				depth--;
+				return;
+			} else if( c == ',' ) {
+				position++;
+				continue;
+			} else if( c != '"' ) {
+				throw error( c < 0 ? "unterminated object" : "expected a string as object key" );
+			}
+			position++;
+			final String key = parseString();
+			if( skipWhitespace() != ':' ) {
+				throw error( "expected : after object key" );
+			}
+			position++;
+			c = skipWhitespace();
+			if( JsUtils.ROOT_SIGN.equals( key ) ) {
+				parseRootSign( value, c );
+			} else {
+				value.children().put( key, parseMember( c ) );
+			}
+		}
+	}
+
+	private void parseRootSign( Value value, int c )
+		throws IOException {
+		if( c == '[' || c == '{' ) {
+			// Not representable as a root value: keep it as JSON text
+			final Value compound = Value.create();
+			parseRoot( compound, c );
+			final StringBuilder builder = new StringBuilder();
+			JsUtils.valueToJsonString( compound, false, null, builder );
+			value.setValue( builder.toString() );
+		} else {
+			parsePrimitive( value, c );
+		}
+	}
+
+	private ValueVector parseMember( int c )
+		throws IOException {
+		if( c == '[' ) {
+			position++;
+			if( strictEncoding ) {
+				final ValueVector vec = ValueVector.create();
+				final Value arrayValue = Value.create();
+				arrayValue.children().put( JsUtils.JSONARRAY_KEY, parseArray() );
+				vec.add( arrayValue );
+				return vec;
+			}
+			return parseArray();
+		}
+
+		final ValueVector vec = ValueVector.create();
+		final Value value = Value.create();
+		if( c == '{' ) {
+			position++;
+			parseObject( value );
+		} else {
+			parsePrimitive( value, c );
+		}
+		vec.add( value );
+		return vec;
+	}
+
+	private ValueVector parseArray()
+		throws IOException {
+		enter();
+		final ValueVector vec = ValueVector.create();
+		while( true ) {
+			final int c = skipWhitespace();
+			if( c == ']' ) {
+				position++;
+				depth--;
+				return vec;
+			} else if( c == ',' ) {
+				position++;
+				continue;
+			} else if( c < 0 ) {
+				throw error( "unterminated array" );
+			}
+			final Value value = Value.create();
+			if( c == '[' ) {
+				position++;
+				value.children().put( JsUtils.JSONARRAY_KEY, parseArray() );
+			} else if( c == '{' ) {
+				position++;
+				parseObject( value );
+			} else {
+				parsePrimitive( value, c );
+			}
+			vec.add( value );
+		}
+	}
+
+	private void parsePrimitive( Value value, int c )
+		throws IOException {
+		switch( c ) {
+		case '"':
+			position++;
+			value.setValue( parseString() );
+			break;
+		case 't':
+			parseLiteral( "true" );
+			value.setValue( true );
+			break;
+		case 'f':
+			parseLiteral( "false" );
+			value.setValue( false );
+			break;
+		case 'n':
+			parseLiteral( "null" );
+			break;
+		case -1:
+			throw error( "unexpected end of input" );
+		default:
+			if( c == '-' || (c >= '0' && c <= '9') ) {
+				parseNumber( value );
+			} else {
+				throw error( "unexpected character '" + (char) c + "'" );
+			}
+		}
+	}
+
+	private void parseLiteral( String literal )
+		throws IOException {
+		for( int i = 0; i < literal.length(); i++ ) {
+			if( peek() != literal.charAt( i ) ) {
+				throw error( "invalid literal, expected " + literal );
+			}
+			position++;
+		}
+	}
+
+	private void parseNumber( Value value )
+		throws IOException {
+		stringBuilder.setLength( 0 );
+		boolean isDouble = false;
+		int c = peek();
+		while( (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' ) {
+			isDouble |= c == '.' || c == 'e' || c == 'E';
+			stringBuilder.append( (char) c );
+			position++;
+			c = peek();
+		}
+
+		final String number = stringBuilder.toString();
+		try {
+			if( !isDouble ) {
+				try {
+					final long l = Long.parseLong( number );
+					if( l > Integer.MAX_VALUE || l < Integer.MIN_VALUE ) {
+						value.setValue( l );
+					} else {
+						value.setValue( (int) l );
+					}
+					return;
+				} catch( NumberFormatException e ) {
+					// Too large for a long, fall back to double
+				}
+			}
+			value.setValue( Double.parseDouble( number ) );
+		} catch( NumberFormatException e ) {
+			throw error( "invalid number " + number );
+		}
+	}
+
+	/*
+	 * Parses a string whose opening quote has already been consumed.
+	 */
+	private String parseString()
+		throws IOException {
+		// Fast path: the whole string is in the buffer and has no escape sequences
+		for( int i = position; i < limit; i++ ) {
+			final char ch = buffer[ i ];
+			if( ch == '"' ) {
+				final String s = new String( buffer, position, i - position );
+				position = i + 1;
+				return s;
+			} else if( ch == '\\' ) {
+				break;
+			}
+		}
+
+		stringBuilder.setLength( 0 );
+		while( true ) {
+			final int start = position;
+			while( position < limit && buffer[ position ] != '"' && buffer[ position ] != '\\' ) {
+				position++;
+			}
+			stringBuilder.append( buffer, start, position - start );
+			if( position == limit ) {
+				if( !fill() ) {
+					throw error( "unterminated string" );
+				}
+			} else if( buffer[ position++ ] == '"' ) {
+				return stringBuilder.toString();
+			} else {
+				parseEscape();
+			}
+		}
+	}
+
+	private void parseEscape()
+		throws IOException {
+		final int c = read();
+		switch( c ) {
+		case '"':
+		case '\\':
+		case '/':
+			stringBuilder.append( (char) c );
+			break;
+		case 'b':
+			stringBuilder.append( '\b' );
+			break;
+		case 'f':
+			stringBuilder.append( '\f' );
+			break;
+		case 'n':
+			stringBuilder.append( '\n' );
+			break;
+		case 'r':
+			stringBuilder.append( '\r' );
+			break;
+		case 't':
+			stringBuilder.append( '\t' );
+			break;
+		case 'u':
+			int code = 0;
+			for( int i = 0; i < 4; i++ ) {
+				final int digit = Character.digit( read(), 16 );
+				if( digit < 0 ) {
+					throw error( "invalid unicode escape sequence" );
+				}
+				code = code * 16 + digit;
+			}
+			stringBuilder.append( (char) code );
+			break;
+		default:
+			throw error( "invalid escape sequence" );
+		}
+	}
+
+	private void enter()
+		throws IOException {
+		if( ++depth > MAX_DEPTH ) {
+			throw error( "maximum nesting depth of " + MAX_DEPTH + " exceeded" );
+		}
+	}
+
+	/*
+	 * Returns the next non-whitespace character without consuming it, or -1 at the end of the input.
+	 */
+	private int skipWhitespace()
+		throws IOException {
+		while( true ) {
+			while( position < limit ) {
+				final char ch = buffer[ position ];
+				if( ch != ' ' && ch != '\n' && ch != '\r' && ch != '\t' && ch != '\f' ) {
+					return ch;
+				}
+				position++;
+			}
+			if( !fill() ) {
+				return -1;
+			}
+		}
+	}
+
+	private int peek()
+		throws IOException {
+		if( position == limit && !fill() ) {
+			return -1;
+		}
+		return buffer[ position ];
+	}
+
+	private int read()
+		throws IOException {
+		if( position == limit && !fill() ) {
+			throw error( "unexpected end of input" );
+		}
+		return buffer[ position++ ];
+	}
+
+	private boolean fill()
+		throws IOException {
+		offset += limit;
+		position = 0;
+		limit = 0;
+		int r;
+		do {
+			r = reader.read( buffer, 0, buffer.length );
+		} while( r == 0 );
+		if( r < 0 ) {
+			return false;
+		}
+		limit = r;
+		return true;
+	}
+
+	private IOException error( String message ) {
+		return new IOException( "Invalid JSON at character " + (offset + position) + ": " + message );
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.js;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+import jolie.runtime.typing.Type;
+
+/**
+ * A streaming JSON generator that writes Jolie values to a {@link Writer} through a fixed-size
+ * buffer, without building the document in memory. It can also append to a {@link StringBuilder},
+ * for callers that need the document as a string.
+ *
+ * The mapping from Jolie values to JSON is the one documented in {@link JsUtils}.
+ */
+final class JsonWriter {
+	private static final int BUFFER_SIZE = 8192;
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	private final Writer writer;
+	private final StringBuilder builder;
+	private final char[] buffer = new char[ BUFFER_SIZE ];
+	private int count = 0;
+
+	JsonWriter( Writer writer ) {
+		this.writer = writer;
+		this.builder = null;
+	}
+
+	JsonWriter( StringBuilder builder ) {
+		this.writer = null;
+		this.builder = builder;
+	}
+
+	void writeValue( Value value, boolean extendedRoot, Type type )
+		throws IOException {
+		if( value.hasChildren( JsUtils.JSONARRAY_KEY ) ) {
+			final Type subType = (type != null ? type.findSubType( JsUtils.JSONARRAY_KEY ) : null);
+			writeValueVector( value.children().get( JsUtils.JSONARRAY_KEY ), true, subType );
+			return;
+		}
+		final Map< String, ValueVector > children = value.children();
+		if( children.isEmpty() ) {
+			if( extendedRoot ) {
+				write( '{' );
+				if( value.isDefined() ) {
+					writeKey( JsUtils.ROOT_SIGN );
+					writeNativeValue( value );
+				}
+				write( '}' );
+			} else {
+				writeNativeValue( value );
+			}
+		} else {
+			write( '{' );
+			if( value.isDefined() ) {
+				writeKey( JsUtils.ROOT_SIGN );
+				writeNativeValue( value );
+				write( ',' );
+			}
+			boolean first = true;
+			for( Map.Entry< String, ValueVector > child : children.entrySet() ) {
+				if( !first ) {
+					write( ',' );
+				}
+				first = false;
+				final Type subType = (type != null ? type.findSubType( child.getKey() ) : null);
+				writeKey( child.getKey() );
+				writeValueVector( child.getValue(), false, subType );
+			}
+			write( '}' );
+		}
+	}
+
+	void writeNdJson( Value value, boolean extendedRoot, Type type )
+		throws IOException {
+		for( Value item : value.getChildren( "item" ) ) {
+			writeValue( item, extendedRoot, type );
+			write( '\n' );
+		}
+	}
+
+	void writeFault( Value value, Type type )
+		throws IOException {
+		final Value error = value.getFirstChild( "error" );
+		write( "{\"error\":{\"message\":" );
+		writeString( error.getFirstChild( "message" ).strValue() );
+		write( ",\"code\":" );
+		write( Integer.toString( error.getFirstChild( "code" ).intValue() ) );
+		write( ",\"data\":" );
+		writeValue( error.getFirstChild( "data" ), false, type );
+		write( "}}" );
+	}
+
+	/**
+	 * Writes the buffered output to the underlying writer or builder, flushing the writer.
+	 */
+	void flush()
+		throws IOException {
+		drain();
+		if( writer != null ) {
+			writer.flush();
+		}
+	}
+
+	private void writeValueVector( ValueVector vector, boolean isArray, Type type )
+		throws IOException {
+		if( vector.size() > 1 || isArray || (type != null && type.cardinality().max() > 1) ) {
+			write( '[' );
+			for( int i = 0; i < vector.size(); i++ ) {
+				if( i > 0 ) {
+					write( ',' );
+				}
+				writeValue( vector.get( i ), false, type );
+			}
+			write( ']' );
+		} else {
+			writeValue( vector.first(), false, type );
+		}
+	}
+
+	private void writeKey( String key )
+		throws IOException {
+		writeString( key );
+		write( ':' );
+	}
+
+	private void writeNativeValue( Value value )
+		throws IOException {
+		if( !value.isDefined() ) {
+			write( "null" );
+		} else if( value.isInt() || value.isLong() || value.isBool() || value.isDouble() ) {
+			write( value.strValue() );
+		} else {
+			writeString( value.strValue() );
+		}
+	}
+
+	/*
+	 * Writes a quoted string, escaping the same characters as the encoder previously used by JsUtils.
+	 */
+	private void writeString( String s )
+		throws IOException {
+		write( '"' );
+		int start = 0;
+		final int length = s.length();
+		for( int i = 0; i < length; i++ ) {
+			final char ch = s.charAt( i );
+			final String escape;
+			switch( ch ) {
+			case '"':
+				escape = "\\\"";
+				break;
+			case '\\':
+				escape = "\\\\";
+				break;
+			case '/':
+				escape = "\\/";
+				break;
+			case '\b':
+				escape = "\\b";
+				break;
+			case '\f':
+				escape = "\\f";
+				break;
+			case '\n':
+				escape = "\\n";
+				break;
+			case '\r':
+				escape = "\\r";
+				break;
+			case '\t':
+				escape = "\\t";
+				break;
+			default:
+				if( ch <= '\u001F' || (ch >= '\u007F' && ch <= '\u009F') || (ch >= '\u2000' && ch <= '\u20FF') ) {
+					escape = new String( new char[] { '\\', 'u', HEX_DIGITS[ ch >> 12 ],
+						HEX_DIGITS[ (ch >> 8) & 0xF ], HEX_DIGITS[ (ch >> 4) & 0xF ], HEX_DIGITS[ ch & 0xF ] } );
+				} else {
+					continue;
+				}
+			}
+			write( s, start, i );
+			write( escape );
+			start = i + 1;
+		}
+		write( s, start, length );
+		write( '"' );
+	}
+
+	private void write( char ch )
+		throws IOException {
+		if( count == buffer.length ) {
+			drain();
+		}
+		buffer[ count++ ] = ch;
+	}
+
+	private void write( String s )
+		throws IOException {
+		write( s, 0, s.length() );
+	}
+
+	private void write( String s, int start, int end )
+		throws IOException {
+		while( start < end ) {
+			if( count == buffer.length ) {
+				drain();
+			}
+			final int n = Math.min( end - start, buffer.length - count );
+			s.getChars( start, start + n, buffer, count );
+			count += n;
+			start += n;
+		}
+	}
+
+	private void drain()
+		throws IOException {
+		if( writer != null ) {
+			writer.write( buffer, 0, count );
+		} else {
+			builder.append( buffer, 0, count );
+		}
+		count = 0;
+	}
+}
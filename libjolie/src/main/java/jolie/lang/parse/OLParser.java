@@ -251,6 +251,16 @@ public class OLParser extends AbstractParser {
 		return programBuilder.toProgram();
 	}
 
+	/**
+	 * Returns true if the parsed program contained include directives, in which case its parse tree
+	 * depends on the content of other files.
+	 *
+	 * @return true if the parsed program contained include directives
+	 */
+	public boolean hasIncludeDirective() {
+		return hasIncludeDirective;
+	}
+
 	private void parseLoop( ParsingRunnable... parseRunnables )
 		throws IOException, ParserException {
 		nextToken();
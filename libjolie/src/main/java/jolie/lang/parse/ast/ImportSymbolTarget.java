@@ -19,10 +19,15 @@
 
 package jolie.lang.parse.ast;
 
+import java.io.Serializable;
+import jolie.lang.Constants;
+
 /**
  * A class for holding information of symbol tar
  */
-public class ImportSymbolTarget {
+public class ImportSymbolTarget implements Serializable {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
 	private final String originalSymbolName;
 	private final String localSymbolName;
 
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.lang.parse.module;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import jolie.lang.Constants;
+import jolie.lang.parse.Scanner;
+import jolie.lang.parse.ast.Program;
+
+/**
+ * An on-disk cache of the syntax trees of parsed modules, which spares parsing modules that have
+ * not changed since they were last parsed.
+ *
+ * Entries are keyed by a hash of the source code of a module and of everything else that its
+ * syntax tree depends on: the URI of the module, the parsing configuration, and the version of the
+ * parser. Changing any of these simply leads to a different key. Imports are resolved after
+ * parsing, so the syntax tree of a module does not depend on the modules it imports; the symbol
+ * table of a module is computed again from its syntax tree. Modules that use include directives
+ * depend on the content of other files, so their syntax trees are not cached.
+ *
+ * The default cache is disabled unless the system property {@value #DIRECTORY_PROPERTY} gives the
+ * directory to store it in, since filling the cache makes the first start of a program slower.
+ * Entries are written atomically, so the same cache can be used by concurrent processes, and an
+ * entry that cannot be read is treated as missing.
+ */
+public final class ModuleCache {
+	public static final String DIRECTORY_PROPERTY = "jolie.moduleCache";
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static class LazyHolder {
+		private static final Optional< ModuleCache > INSTANCE = createDefault();
+		private static final String PARSER_FINGERPRINT = parserFingerprint();
+	}
+
+	private final Path directory;
+
+	public ModuleCache( Path directory ) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the cache configured by the system property {@value #DIRECTORY_PROPERTY}.
+	 *
+	 * @return the default cache, or an empty optional if the property is not set
+	 */
+	public static Optional< ModuleCache > getDefault() {
+		return LazyHolder.INSTANCE;
+	}
+
+	public Path directory() {
+		return directory;
+	}
+
+	/**
+	 * Computes the key of a module.
+	 *
+	 * @param configuration the configuration used for parsing the module
+	 * @param uri the URI of the module
+	 * @param content the source code of the module
+	 * @return the key of the module
+	 */
+	public String key( ModuleParsingConfiguration configuration, URI uri, byte[] content ) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance( "SHA-256" );
+		} catch( NoSuchAlgorithmException e ) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException( e );
+		}
+		update( digest, Integer.toString( ProgramCodec.FORMAT_VERSION ) );
+		update( digest, Constants.VERSION );
+		update( digest, LazyHolder.PARSER_FINGERPRINT );
+		update( digest, uri.toString() );
+		update( digest, String.valueOf( configuration.charset() ) );
+		update( digest, Boolean.toString( configuration.includeDocumentation() ) );
+		final Map< String, Scanner.Token > constants = new TreeMap<>( configuration.constantsMap() );
+		for( Map.Entry< String, Scanner.Token > constant : constants.entrySet() ) {
+			update( digest, constant.getKey() );
+			update( digest, constant.getValue().type().name() );
+			update( digest, String.valueOf( constant.getValue().content() ) );
+		}
+		digest.update( content );
+
+		final byte[] hash = digest.digest();
+		final char[] chars = new char[ hash.length * 2 ];
+		for( int i = 0; i < hash.length; i++ ) {
+			chars[ i * 2 ] = HEX_DIGITS[ (hash[ i ] >> 4) & 0xF ];
+			chars[ i * 2 + 1 ] = HEX_DIGITS[ hash[ i ] & 0xF ];
+		}
+		return new String( chars );
+	}
+
+	/**
+	 * Returns the syntax tree stored under the passed key.
+	 *
+	 * @param key the key of the module
+	 * @return the syntax tree of the module, or an empty optional if it is not in the cache
+	 */
+	public Optional< Program > load( String key ) {
+		final Path file = directory.resolve( key );
+		try {
+			return Optional.of( ProgramCodec.decode( Files.readAllBytes( file ) ) );
+		} catch( NoSuchFileException e ) {
+			return Optional.empty();
+		} catch( IOException | SecurityException e ) {
+			// Unreadable, corrupted, or written by an incompatible parser: it will be replaced
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Stores the syntax tree of a module under the passed key. Failures are ignored, since the cache
+	 * is only an optimisation.
+	 *
+	 * @param key the key of the module
+	 * @param program the syntax tree of the module
+	 */
+	public void store( String key, Program program ) {
+		final byte[] data;
+		try {
+			data = ProgramCodec.encode( program );
+		} catch( NotSerializableException e ) {
+			return;
+		}
+
+		Path tmpFile = null;
+		try {
+			Files.createDirectories( directory );
+			tmpFile = Files.createTempFile( directory, key, ".tmp" );
+			Files.write( tmpFile, data );
+			try {
+				Files.move( tmpFile, directory.resolve( key ), StandardCopyOption.ATOMIC_MOVE );
+			} catch( AtomicMoveNotSupportedException e ) {
+				Files.move( tmpFile, directory.resolve( key ), StandardCopyOption.REPLACE_EXISTING );
+			}
+		} catch( IOException | SecurityException e ) {
+			if( tmpFile != null ) {
+				try {
+					Files.deleteIfExists( tmpFile );
+				} catch( IOException | SecurityException ex ) {
+					// The file will be left behind
+				}
+			}
+		}
+	}
+
+	private static void update( MessageDigest digest, String s ) {
+		final byte[] bytes = s.getBytes( StandardCharsets.UTF_8 );
+		final int length = bytes.length;
+		digest.update( new byte[] {
+			(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length } );
+		digest.update( bytes );
+	}
+
+	private static Optional< ModuleCache > createDefault() {
+		try {
+			final String property = System.getProperty( DIRECTORY_PROPERTY );
+			return property == null || property.isEmpty()
+				? Optional.empty()
+				: Optional.of( new ModuleCache( Paths.get( property ) ) );
+		} catch( SecurityException | IllegalArgumentException e ) {
+			return Optional.empty();
+		}
+	}
+
+	/*
+	 * Identifies the build of the parser, so that entries written by a different build (e.g., during
+	 * the development of Jolie itself, when the version does not change) are not used.
+	 */
+	private static String parserFingerprint() {
+		try {
+			final CodeSource codeSource = ModuleCache.class.getProtectionDomain().getCodeSource();
+			final URL location = codeSource == null ? null : codeSource.getLocation();
+			if( location == null ) {
+				return "";
+			}
+			String fingerprint = location.toString();
+			if( "file".equals( location.getProtocol() ) ) {
+				final Path path = Paths.get( location.toURI() );
+				fingerprint += ":" + Files.size( path ) + ":" + Files.getLastModifiedTime( path ).toMillis();
+			}
+			return fingerprint;
+		} catch( IOException | URISyntaxException | SecurityException | IllegalArgumentException e ) {
+			return "";
+		}
+	}
+}
@@ -26,6 +26,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -34,6 +35,8 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -46,6 +49,15 @@ import jolie.lang.parse.context.ParsingContext;
 import jolie.lang.parse.context.URIParsingContext;
 import jolie.lang.parse.module.exceptions.ModuleNotFoundException;
 
+/**
+ * Crawls the modules imported by a program, directly or indirectly.
+ *
+ * Modules are found and parsed in parallel, by tasks in the common fork-join pool: the task that
+ * parses a module forks the tasks for the modules that it imports, at most one per module. The
+ * result is then collected breadth-first from the main module, so it is the same as that of a
+ * sequential crawl. In particular, if some modules cannot be found or parsed, the error reported is
+ * the one of the first such module in breadth-first order.
+ */
 class ModuleCrawler {
 
 	protected static class CrawlerResult {
@@ -88,8 +100,46 @@ class ModuleCrawler {
 		return ModuleCrawler.CACHE.get( source );
 	}
 
+	/**
+	 * The outcome of crawling a module: its record and the modules it imports, or the error that
+	 * prevented finding or parsing them.
+	 */
+	private static class CrawledModule {
+		private final ModuleRecord record;
+		private final List< ModuleSource > dependencies;
+		private final Exception failure;
+
+		private CrawledModule( ModuleRecord record, List< ModuleSource > dependencies ) {
+			this.record = record;
+			this.dependencies = dependencies;
+			this.failure = null;
+		}
+
+		private CrawledModule( Exception failure ) {
+			this.record = null;
+			this.dependencies = null;
+			this.failure = failure;
+		}
+
+		/*
+		 * Failures are rethrown by the crawling thread, as they were thrown by the parser, instead
+		 * of being propagated by ForkJoinTask, which may wrap them.
+		 */
+		private void rethrowFailure()
+			throws ParserException, IOException, ModuleException {
+			if( failure instanceof ParserException ) {
+				throw (ParserException) failure;
+			} else if( failure instanceof IOException ) {
+				throw (IOException) failure;
+			} else if( failure instanceof ModuleException ) {
+				throw (ModuleException) failure;
+			}
+		}
+	}
+
 	private final ModuleFinder finder;
 	private final ModuleParsingConfiguration parserConfiguration;
+	private final Map< URI, ForkJoinTask< CrawledModule > > tasks = new ConcurrentHashMap<>();
 
 	private ModuleCrawler( ModuleParsingConfiguration parserConfiguration, ModuleFinder finder ) {
 		this.finder = finder;
@@ -128,15 +178,41 @@ class ModuleCrawler {
 		return modulesToCrawl;
 	}
 
+	/*
+	 * Starts crawling the passed modules in the background, unless they are already being crawled.
+	 */
+	private void fork( List< ModuleSource > modules ) {
+		for( ModuleSource module : modules ) {
+			tasks.computeIfAbsent( module.uri(),
+				uri -> ForkJoinPool.commonPool().submit( () -> crawlDependency( module ) ) );
+		}
+	}
+
+	private CrawledModule crawlDependency( ModuleSource module ) {
+		if( ModuleCrawler.inCache( module.uri() ) ) {
+			return new CrawledModule( ModuleCrawler.getRecordFromCache( module.uri() ), Collections.emptyList() );
+		}
+		try {
+			ModuleRecord record = new ModuleParser( parserConfiguration ).parse( module );
+			List< ModuleSource > dependencies = crawlModule( record );
+			fork( dependencies );
+			return new CrawledModule( record, dependencies );
+		} catch( ParserException | IOException | ModuleException e ) {
+			return new CrawledModule( e );
+		}
+	}
+
 	private CrawlerResult crawl( ModuleRecord mainRecord )
 		throws ParserException, IOException, ModuleException {
 		CrawlerResult result = new CrawlerResult();
 		// start with main module record
 		Queue< ModuleSource > dependencies = new LinkedList<>();
 		result.addModuleRecord( mainRecord );
-		dependencies.addAll( this.crawlModule( mainRecord ) );
+		List< ModuleSource > mainDependencies = this.crawlModule( mainRecord );
+		fork( mainDependencies );
+		dependencies.addAll( mainDependencies );
 
-		// walk through dependencies
+		// walk through dependencies, in the same order as a sequential crawl
 		while( dependencies.peek() != null ) {
 			ModuleSource module = dependencies.poll();
 
@@ -144,13 +220,10 @@ class ModuleCrawler {
 				continue;
 			}
 
-			if( ModuleCrawler.inCache( module.uri() ) ) {
-				result.addModuleRecord( ModuleCrawler.getRecordFromCache( module.uri() ) );
-			} else {
-				ModuleRecord record = new ModuleParser( parserConfiguration ).parse( module );
-				result.addModuleRecord( record );
-				dependencies.addAll( crawlModule( record ) );
-			}
+			CrawledModule crawled = tasks.get( module.uri() ).join();
+			crawled.rethrowFailure();
+			result.addModuleRecord( crawled.record );
+			dependencies.addAll( crawled.dependencies );
 		}
 
 		return result;
@@ -19,8 +19,13 @@
 
 package jolie.lang.parse.module;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.Arrays;
+import java.util.Optional;
 import java.util.stream.Stream;
 import jolie.lang.parse.OLParseTreeOptimizer;
 import jolie.lang.parse.OLParser;
@@ -30,13 +35,22 @@ import jolie.lang.parse.ast.Program;
 
 /**
  * A class represent parser for the parser of Jolie module.
+ *
+ * Modules parsed from a {@link ModuleSource} or a stream are looked up in a {@link ModuleCache}
+ * first, which is the default cache unless another one is passed to the constructor.
  */
 public class ModuleParser {
 
 	private final ModuleParsingConfiguration parserConfiguration;
+	private final Optional< ModuleCache > cache;
 
 	public ModuleParser( ModuleParsingConfiguration parserConfiguration ) {
+		this( parserConfiguration, ModuleCache.getDefault() );
+	}
+
+	public ModuleParser( ModuleParsingConfiguration parserConfiguration, Optional< ModuleCache > cache ) {
 		this.parserConfiguration = parserConfiguration;
+		this.cache = cache;
 	}
 
 	public ModuleRecord parse( Scanner scanner )
@@ -51,21 +65,62 @@ public class ModuleParser {
 		} else {
 			additionalPath = new String[ 0 ];
 		}
-		return this.parse( new Scanner( module.openStream().get(), module.uri(),
-			parserConfiguration.charset(), parserConfiguration.includeDocumentation() ), additionalPath );
+		final Optional< InputStream > stream = module.openStream();
+		if( stream.isEmpty() ) {
+			throw new FileNotFoundException( module.uri().toString() );
+		}
+		return parse( stream.get(), module.uri(), additionalPath );
+	}
 
+	public ModuleRecord parse( InputStream stream, URI uri )
+		throws ParserException, IOException, ModuleException {
+		return parse( stream, uri, new String[ 0 ] );
+	}
+
+	private ModuleRecord parse( InputStream stream, URI uri, String[] additionalIncludePaths )
+		throws ParserException, IOException, ModuleException {
+		if( cache.isEmpty() ) {
+			return parse( new Scanner( stream, uri, parserConfiguration.charset(),
+				parserConfiguration.includeDocumentation() ), additionalIncludePaths );
+		}
+
+		final byte[] content;
+		try( stream ) {
+			content = stream.readAllBytes();
+		}
+		final String key = cache.get().key( parserConfiguration, uri, content );
+		final Optional< Program > cachedProgram = cache.get().load( key );
+		if( cachedProgram.isPresent() ) {
+			final Program program = cachedProgram.get();
+			return new ModuleRecord( uri, program, SymbolTableGenerator.generate( program ) );
+		}
+
+		final Scanner scanner = new Scanner( new ByteArrayInputStream( content ), uri,
+			parserConfiguration.charset(), parserConfiguration.includeDocumentation() );
+		final OLParser olParser = createParser( scanner, additionalIncludePaths );
+		final Program program = OLParseTreeOptimizer.optimize( olParser.parse() );
+		if( !olParser.hasIncludeDirective() ) {
+			// Resolving symbols later modifies the tree, so it must be stored as parsed
+			cache.get().store( key, program );
+		}
+		return new ModuleRecord( uri, program, SymbolTableGenerator.generate( program ) );
 	}
 
 	public ModuleRecord parse( Scanner scanner, String[] additionalIncludePaths )
 		throws ParserException, IOException, ModuleException {
+		OLParser olParser = createParser( scanner, additionalIncludePaths );
+		Program program = olParser.parse();
+		program = OLParseTreeOptimizer.optimize( program );
+		SymbolTable st = SymbolTableGenerator.generate( program );
+		return new ModuleRecord( scanner.source(), program, st );
+	}
+
+	private OLParser createParser( Scanner scanner, String[] additionalIncludePaths ) {
 		String[] includePaths = Stream.concat( Arrays.stream( parserConfiguration.includePaths() ),
 			Arrays.stream( additionalIncludePaths ) )
 			.distinct().toArray( String[]::new );
 		OLParser olParser = new OLParser( scanner, includePaths, parserConfiguration.classLoader() );
 		olParser.putConstants( parserConfiguration.constantsMap() );
-		Program program = olParser.parse();
-		program = OLParseTreeOptimizer.optimize( program );
-		SymbolTable st = SymbolTableGenerator.generate( program );
-		return new ModuleRecord( scanner.source(), program, st );
+		return olParser;
 	}
 }
@@ -5,7 +5,6 @@ import java.io.InputStream;
 import java.net.URI;
 import java.util.Map;
 import jolie.lang.parse.ParserException;
-import jolie.lang.parse.Scanner;
 import jolie.lang.parse.ast.Program;
 
 public class Modules {
@@ -41,8 +40,7 @@ public class Modules {
 		ModuleParser parser = new ModuleParser( configuration );
 		ModuleFinder finder = new ModuleFinderImpl( configuration.packagePaths() );
 
-		ModuleRecord mainRecord = parser.parse(
-			new Scanner( stream, programDirectory, configuration.charset(), configuration.includeDocumentation() ) );
+		ModuleRecord mainRecord = parser.parse( stream, programDirectory );
 
 		ModuleCrawler.CrawlerResult crawlResult = ModuleCrawler.crawl( mainRecord, configuration, finder );
 
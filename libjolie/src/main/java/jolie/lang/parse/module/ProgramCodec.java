@@ -0,0 +1,868 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.lang.parse.module;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import jolie.lang.parse.ast.Program;
+import jolie.lang.parse.ast.types.TypeDefinitionUndefined;
+
+/**
+ * A compact binary encoding of the syntax trees of Jolie programs, used by {@link ModuleCache}.
+ *
+ * The non-static, non-transient fields of the serializable classes of the syntax tree are written,
+ * as in Java serialization. Decoding reads the fields of an object first, then creates the object
+ * with one of its constructors and sets its fields. Unlike Java serialization, classes are described
+ * only by their name and a hash of their fields, only the classes of the syntax tree can be named,
+ * strings are written once per encoding, and the collections used by the syntax tree are written as
+ * their elements, which makes the encoding several times smaller and faster to decode.
+ *
+ * Encoding fails with a {@link NotSerializableException} if the tree contains values that the
+ * encoding does not support, including objects that refer back to themselves through their fields.
+ * Decoding fails with an IOException if the data is malformed, names a class outside the syntax
+ * tree, or the fields of an encoded class have changed.
+ */
+final class ProgramCodec {
+	private static final int MAGIC = 0x4A4F4C50; // "JOLP"
+	static final int FORMAT_VERSION = 1;
+
+	private static final int NULL = 0;
+	private static final int REFERENCE = 1;
+	private static final int STRING = 2;
+	private static final int STRING_REFERENCE = 3;
+	private static final int OBJECT = 4;
+	private static final int ENUM = 5;
+	private static final int ARRAY = 6;
+	private static final int INTEGER = 7;
+	private static final int LONG = 8;
+	private static final int DOUBLE = 9;
+	private static final int BOOLEAN = 10;
+	private static final int URI_VALUE = 11;
+	private static final int UNDEFINED_TYPE = 12;
+	private static final int ARRAY_LIST = 13;
+	private static final int LINKED_LIST = 14;
+	private static final int IMMUTABLE_LIST = 15;
+	private static final int UNMODIFIABLE_LIST = 16;
+	private static final int HASH_MAP = 17;
+	private static final int LINKED_HASH_MAP = 18;
+	private static final int TREE_MAP = 19;
+	private static final int IMMUTABLE_MAP = 20;
+	private static final int UNMODIFIABLE_MAP = 21;
+	private static final int HASH_SET = 22;
+	private static final int LINKED_HASH_SET = 23;
+	private static final int TREE_SET = 24;
+	private static final int IMMUTABLE_SET = 25;
+	private static final int UNMODIFIABLE_SET = 26;
+
+	private static final Class< ? > IMMUTABLE_LIST_CLASS = List.of().getClass();
+	private static final Class< ? > IMMUTABLE_LIST12_CLASS = List.of( 0 ).getClass();
+	private static final Class< ? > IMMUTABLE_MAP_CLASS = Map.of().getClass();
+	private static final Class< ? > IMMUTABLE_MAP1_CLASS = Map.of( 0, 0 ).getClass();
+	private static final Class< ? > IMMUTABLE_SET_CLASS = Set.of().getClass();
+	private static final Class< ? > IMMUTABLE_SET12_CLASS = Set.of( 0 ).getClass();
+	private static final Class< ? > UNMODIFIABLE_LIST_CLASS =
+		Collections.unmodifiableList( new LinkedList<>() ).getClass();
+	private static final Class< ? > UNMODIFIABLE_RANDOM_ACCESS_LIST_CLASS =
+		Collections.unmodifiableList( new ArrayList<>() ).getClass();
+	private static final Class< ? > UNMODIFIABLE_MAP_CLASS = Collections.unmodifiableMap( new HashMap<>() ).getClass();
+	private static final Class< ? > UNMODIFIABLE_SET_CLASS = Collections.unmodifiableSet( new HashSet<>() ).getClass();
+	private static final Class< ? > EMPTY_LIST_CLASS = Collections.emptyList().getClass();
+	private static final Class< ? > EMPTY_MAP_CLASS = Collections.emptyMap().getClass();
+	private static final Class< ? > EMPTY_SET_CLASS = Collections.emptySet().getClass();
+
+	/**
+	 * How the objects of a serializable class are encoded: the fields to write, in order, and the
+	 * constructors that can create an object for the decoded fields.
+	 */
+	private static class ClassLayout {
+		private final Class< ? > type;
+		private final Field[] fields;
+		private final int hash;
+		private final Creator[] creators;
+		private volatile int creator = 0;
+
+		private ClassLayout( Class< ? > type )
+			throws NotSerializableException {
+			if( !Serializable.class.isAssignableFrom( type ) || Modifier.isAbstract( type.getModifiers() ) ) {
+				throw new NotSerializableException( type.getName() );
+			}
+			this.type = type;
+
+			final List< Field > fieldList = new ArrayList<>();
+			Class< ? > c = type;
+			while( Serializable.class.isAssignableFrom( c ) ) {
+				if( c.getName().startsWith( "java." ) || hasCustomSerialization( c ) ) {
+					// Their serialized form is not given by their fields
+					throw new NotSerializableException( type.getName() );
+				}
+				final Field[] declaredFields = c.getDeclaredFields();
+				Arrays.sort( declaredFields, Comparator.comparing( Field::getName ) );
+				for( Field field : declaredFields ) {
+					if( (field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) == 0 ) {
+						field.setAccessible( true );
+						fieldList.add( field );
+					}
+				}
+				c = c.getSuperclass();
+			}
+			this.fields = fieldList.toArray( new Field[ 0 ] );
+
+			int h = type.getName().hashCode();
+			for( Field field : fields ) {
+				h = 31 * h + field.getName().hashCode();
+				h = 31 * h + field.getType().getName().hashCode();
+			}
+			this.hash = h;
+
+			final Constructor< ? >[] constructors = type.getDeclaredConstructors();
+			if( constructors.length == 0 ) {
+				throw new NotSerializableException( type.getName() );
+			}
+			// Constructors that take more of the fields are more likely to accept them
+			Arrays.sort( constructors, Comparator.comparingInt( Constructor< ? >::getParameterCount ).reversed() );
+			if( constructors[ 0 ].getParameterCount() > 0 && !constructors[ 0 ].getParameters()[ 0 ].isNamePresent() ) {
+				// Compiled without parameter names: arguments could not be matched reliably
+				throw new NotSerializableException( type.getName() );
+			}
+			this.creators = new Creator[ constructors.length ];
+			for( int i = 0; i < constructors.length; i++ ) {
+				constructors[ i ].setAccessible( true );
+				creators[ i ] = new Creator( constructors[ i ], fields );
+			}
+		}
+
+		/*
+		 * Creates an object by calling one of the constructors of its class. The caller then sets all
+		 * the fields to their decoded values, so the constructor only needs to accept its arguments.
+		 * The last constructor that worked is tried first.
+		 */
+		private Object newInstance( Object[] values )
+			throws IOException {
+			final int first = creator;
+			Exception failure = null;
+			for( int i = 0; i < creators.length; i++ ) {
+				final int index = (first + i) % creators.length;
+				try {
+					final Object object = creators[ index ].newInstance( values );
+					creator = index;
+					return object;
+				} catch( InstantiationException | IllegalAccessException | IllegalArgumentException
+					| InvocationTargetException e ) {
+					failure = e;
+				}
+			}
+			throw new IOException( "Could not instantiate " + type.getName(), failure );
+		}
+	}
+
+	/**
+	 * A constructor and, for each of its parameters, the field whose decoded value is passed to it.
+	 * Parameters are matched to the field with the same name and type or else to the only field of
+	 * the same type, so the classes of the syntax tree must be compiled with parameter names (javac
+	 * -parameters). Parameters without a matching field get a default value.
+	 */
+	private static class Creator {
+		private final Constructor< ? > constructor;
+		private final int[] arguments;
+
+		private Creator( Constructor< ? > constructor, Field[] fields ) {
+			this.constructor = constructor;
+			final Parameter[] parameters = constructor.getParameters();
+			this.arguments = new int[ parameters.length ];
+			for( int i = 0; i < parameters.length; i++ ) {
+				arguments[ i ] = matchingField( parameters[ i ], fields );
+			}
+		}
+
+		private static int matchingField( Parameter parameter, Field[] fields ) {
+			int match = -1;
+			for( int i = 0; i < fields.length; i++ ) {
+				if( fields[ i ].getType() == parameter.getType() ) {
+					if( parameter.getName().equals( fields[ i ].getName() ) ) {
+						return i;
+					}
+					// Only a unique match by type counts
+					match = match == -1 ? i : -2;
+				}
+			}
+			return Math.max( match, -1 );
+		}
+
+		private Object newInstance( Object[] values )
+			throws InstantiationException, IllegalAccessException, InvocationTargetException {
+			final Class< ? >[] types = constructor.getParameterTypes();
+			final Object[] args = new Object[ types.length ];
+			for( int i = 0; i < types.length; i++ ) {
+				args[ i ] = arguments[ i ] >= 0 ? values[ arguments[ i ] ] : defaultValue( types[ i ] );
+			}
+			return constructor.newInstance( args );
+		}
+
+		private static Object defaultValue( Class< ? > type ) {
+			if( type == Optional.class ) {
+				return Optional.empty();
+			} else if( type.isPrimitive() ) {
+				return Array.get( Array.newInstance( type, 1 ), 0 );
+			}
+			return null;
+		}
+	}
+
+	/*
+	 * Only the classes of the syntax tree can be named in an encoding, so that decoding cannot
+	 * instantiate anything else. Collections are encoded by tags, and java.lang.String and
+	 * java.lang.Object can only appear as the component type of an array.
+	 */
+	private static final String[] ALLOWED_PACKAGES = { "jolie.lang.parse.ast.", "jolie.lang.parse.context." };
+
+	private static final Set< String > ALLOWED_CLASSES = Set.of(
+		"java.lang.Object",
+		"java.lang.String",
+		"jolie.lang.Constants$EmbeddedServiceType",
+		"jolie.lang.Constants$ExecutionMode",
+		"jolie.lang.Constants$OperandType",
+		"jolie.lang.Constants$OperationType",
+		"jolie.lang.NativeType",
+		"jolie.lang.parse.Scanner$TokenType",
+		"jolie.util.Pair",
+		"jolie.util.Range" );
+
+	private static boolean isAllowed( String className ) {
+		if( ALLOWED_CLASSES.contains( className ) ) {
+			return true;
+		}
+		for( String prefix : ALLOWED_PACKAGES ) {
+			if( className.startsWith( prefix ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final Set< String > SERIALIZATION_METHODS =
+		Set.of( "writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve" );
+
+	private static boolean hasCustomSerialization( Class< ? > c ) {
+		if( Externalizable.class.isAssignableFrom( c ) ) {
+			return true;
+		}
+		for( Method method : c.getDeclaredMethods() ) {
+			if( SERIALIZATION_METHODS.contains( method.getName() ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final ClassValue< Object > LAYOUTS = new ClassValue< Object >() {
+		@Override
+		protected Object computeValue( Class< ? > type ) {
+			try {
+				return new ClassLayout( type );
+			} catch( NotSerializableException e ) {
+				return e;
+			}
+		}
+	};
+
+	private static ClassLayout layout( Class< ? > type )
+		throws NotSerializableException {
+		final Object layout = LAYOUTS.get( type );
+		if( layout instanceof NotSerializableException ) {
+			throw new NotSerializableException( type.getName() );
+		}
+		return (ClassLayout) layout;
+	}
+
+	// Classes that cannot be encoded, e.g., enums and array component types, have hash 0
+	private static int layoutHash( Class< ? > type ) {
+		final Object layout = LAYOUTS.get( type );
+		return layout instanceof ClassLayout ? ((ClassLayout) layout).hash : 0;
+	}
+
+	private ProgramCodec() {}
+
+	/**
+	 * Encodes a program.
+	 *
+	 * @param program the program to encode
+	 * @return the encoded program
+	 * @throws NotSerializableException if the program contains values that cannot be encoded
+	 */
+	static byte[] encode( Program program )
+		throws NotSerializableException {
+		final Encoder encoder = new Encoder();
+		encoder.writeInt( MAGIC );
+		encoder.writeVarInt( FORMAT_VERSION );
+		encoder.writeValue( program );
+		return encoder.toByteArray();
+	}
+
+	/**
+	 * Decodes a program encoded by {@link #encode(Program)}.
+	 *
+	 * @param data the encoded program
+	 * @return the decoded program
+	 * @throws IOException if data is not a valid encoding for the classes currently loaded
+	 */
+	static Program decode( byte[] data )
+		throws IOException {
+		final Decoder decoder = new Decoder( data );
+		try {
+			if( decoder.readInt() != MAGIC || decoder.readVarInt() != FORMAT_VERSION ) {
+				throw new IOException( "Not an encoded program" );
+			}
+			final Object program = decoder.readValue();
+			if( !(program instanceof Program) ) {
+				throw new IOException( "Not an encoded program" );
+			}
+			return (Program) program;
+		} catch( ArrayIndexOutOfBoundsException | ClassCastException | IllegalArgumentException e ) {
+			throw new IOException( "Malformed encoded program", e );
+		}
+	}
+
+	private static class Encoder {
+		private byte[] buffer = new byte[ 8192 ];
+		private int count = 0;
+		private final Map< Object, Integer > references = new IdentityHashMap<>();
+		private final Set< Object > inProgress = Collections.newSetFromMap( new IdentityHashMap<>() );
+		private final Map< String, Integer > strings = new HashMap<>();
+		private final Map< Class< ? >, Integer > classes = new HashMap<>();
+
+		private byte[] toByteArray() {
+			return Arrays.copyOf( buffer, count );
+		}
+
+		private void writeValue( Object value )
+			throws NotSerializableException {
+			if( value == null ) {
+				writeVarInt( NULL );
+			} else if( value instanceof String ) {
+				writeString( (String) value );
+			} else if( value instanceof Integer ) {
+				writeVarInt( INTEGER );
+				writeVarLong( (Integer) value );
+			} else if( value instanceof Long ) {
+				writeVarInt( LONG );
+				writeVarLong( (Long) value );
+			} else if( value instanceof Double ) {
+				writeVarInt( DOUBLE );
+				writeLong( Double.doubleToRawLongBits( (Double) value ) );
+			} else if( value instanceof Boolean ) {
+				writeVarInt( BOOLEAN );
+				writeVarInt( (Boolean) value ? 1 : 0 );
+			} else if( value instanceof Enum ) {
+				writeVarInt( ENUM );
+				writeClass( ((Enum< ? >) value).getDeclaringClass() );
+				writeString( ((Enum< ? >) value).name() );
+			} else if( value == TypeDefinitionUndefined.getInstance() ) {
+				writeVarInt( UNDEFINED_TYPE );
+			} else {
+				final Integer reference = references.get( value );
+				if( reference != null ) {
+					if( inProgress.contains( value ) ) {
+						// The decoder creates objects after their content, so it could not resolve this
+						throw new NotSerializableException( value.getClass().getName() + " refers to itself" );
+					}
+					writeVarInt( REFERENCE );
+					writeVarInt( reference );
+				} else {
+					references.put( value, references.size() );
+					inProgress.add( value );
+					writeObject( value );
+					inProgress.remove( value );
+				}
+			}
+		}
+
+		private void writeObject( Object value )
+			throws NotSerializableException {
+			final Class< ? > type = value.getClass();
+			if( value instanceof URI ) {
+				writeVarInt( URI_VALUE );
+				writeString( value.toString() );
+			} else if( type.isArray() ) {
+				if( type.getComponentType().isPrimitive() ) {
+					throw new NotSerializableException( type.getName() );
+				}
+				writeVarInt( ARRAY );
+				writeClass( type.getComponentType() );
+				final int length = Array.getLength( value );
+				writeVarInt( length );
+				for( int i = 0; i < length; i++ ) {
+					writeValue( Array.get( value, i ) );
+				}
+			} else if( type == ArrayList.class ) {
+				writeElements( ARRAY_LIST, (Collection< ? >) value );
+			} else if( type == LinkedList.class ) {
+				writeElements( LINKED_LIST, (Collection< ? >) value );
+			} else if( type == IMMUTABLE_LIST_CLASS || type == IMMUTABLE_LIST12_CLASS || type == EMPTY_LIST_CLASS ) {
+				writeElements( IMMUTABLE_LIST, (Collection< ? >) value );
+			} else if( type == UNMODIFIABLE_LIST_CLASS || type == UNMODIFIABLE_RANDOM_ACCESS_LIST_CLASS ) {
+				writeElements( UNMODIFIABLE_LIST, (Collection< ? >) value );
+			} else if( type == HashMap.class ) {
+				writeEntries( HASH_MAP, (Map< ?, ? >) value );
+			} else if( type == LinkedHashMap.class ) {
+				writeEntries( LINKED_HASH_MAP, (Map< ?, ? >) value );
+			} else if( type == TreeMap.class && ((TreeMap< ?, ? >) value).comparator() == null ) {
+				writeEntries( TREE_MAP, (Map< ?, ? >) value );
+			} else if( type == IMMUTABLE_MAP_CLASS || type == IMMUTABLE_MAP1_CLASS || type == EMPTY_MAP_CLASS ) {
+				writeEntries( IMMUTABLE_MAP, (Map< ?, ? >) value );
+			} else if( type == UNMODIFIABLE_MAP_CLASS ) {
+				writeEntries( UNMODIFIABLE_MAP, (Map< ?, ? >) value );
+			} else if( type == HashSet.class ) {
+				writeElements( HASH_SET, (Collection< ? >) value );
+			} else if( type == LinkedHashSet.class ) {
+				writeElements( LINKED_HASH_SET, (Collection< ? >) value );
+			} else if( type == TreeSet.class && ((TreeSet< ? >) value).comparator() == null ) {
+				writeElements( TREE_SET, (Collection< ? >) value );
+			} else if( type == IMMUTABLE_SET_CLASS || type == IMMUTABLE_SET12_CLASS || type == EMPTY_SET_CLASS ) {
+				writeElements( IMMUTABLE_SET, (Collection< ? >) value );
+			} else if( type == UNMODIFIABLE_SET_CLASS ) {
+				writeElements( UNMODIFIABLE_SET, (Collection< ? >) value );
+			} else {
+				final ClassLayout layout = layout( type );
+				writeVarInt( OBJECT );
+				writeClass( type );
+				try {
+					for( Field field : layout.fields ) {
+						writeField( field, value );
+					}
+				} catch( IllegalAccessException e ) {
+					throw new NotSerializableException( type.getName() );
+				}
+			}
+		}
+
+		private void writeField( Field field, Object object )
+			throws IllegalAccessException, NotSerializableException {
+			final Class< ? > type = field.getType();
+			if( !type.isPrimitive() ) {
+				writeValue( field.get( object ) );
+			} else if( type == int.class ) {
+				writeVarLong( field.getInt( object ) );
+			} else if( type == boolean.class ) {
+				writeVarInt( field.getBoolean( object ) ? 1 : 0 );
+			} else if( type == long.class ) {
+				writeVarLong( field.getLong( object ) );
+			} else if( type == double.class ) {
+				writeLong( Double.doubleToRawLongBits( field.getDouble( object ) ) );
+			} else if( type == char.class ) {
+				writeVarInt( field.getChar( object ) );
+			} else if( type == byte.class ) {
+				writeVarLong( field.getByte( object ) );
+			} else if( type == short.class ) {
+				writeVarLong( field.getShort( object ) );
+			} else {
+				writeLong( Double.doubleToRawLongBits( field.getFloat( object ) ) );
+			}
+		}
+
+		private void writeElements( int tag, Collection< ? > collection )
+			throws NotSerializableException {
+			writeVarInt( tag );
+			writeVarInt( collection.size() );
+			for( Object element : collection ) {
+				writeValue( element );
+			}
+		}
+
+		private void writeEntries( int tag, Map< ?, ? > map )
+			throws NotSerializableException {
+			writeVarInt( tag );
+			writeVarInt( map.size() );
+			for( Map.Entry< ?, ? > entry : map.entrySet() ) {
+				writeValue( entry.getKey() );
+				writeValue( entry.getValue() );
+			}
+		}
+
+		/*
+		 * A class is written as its index in the classes written so far, plus one, or as 0 followed by
+		 * its name and the hash of its fields the first time.
+		 */
+		private void writeClass( Class< ? > type )
+			throws NotSerializableException {
+			final Integer index = classes.get( type );
+			if( index != null ) {
+				writeVarInt( index + 1 );
+			} else {
+				if( !isAllowed( type.getName() ) ) {
+					throw new NotSerializableException( type.getName() );
+				}
+				classes.put( type, classes.size() );
+				writeVarInt( 0 );
+				writeUTF8( type.getName() );
+				writeInt( layoutHash( type ) );
+			}
+		}
+
+		private void writeString( String s ) {
+			final Integer index = strings.get( s );
+			if( index != null ) {
+				writeVarInt( STRING_REFERENCE );
+				writeVarInt( index );
+			} else {
+				strings.put( s, strings.size() );
+				writeVarInt( STRING );
+				writeUTF8( s );
+			}
+		}
+
+		private void writeUTF8( String s ) {
+			final byte[] bytes = s.getBytes( StandardCharsets.UTF_8 );
+			writeVarInt( bytes.length );
+			ensureCapacity( bytes.length );
+			System.arraycopy( bytes, 0, buffer, count, bytes.length );
+			count += bytes.length;
+		}
+
+		private void writeVarInt( int i ) {
+			ensureCapacity( 5 );
+			while( (i & ~0x7F) != 0 ) {
+				buffer[ count++ ] = (byte) ((i & 0x7F) | 0x80);
+				i >>>= 7;
+			}
+			buffer[ count++ ] = (byte) i;
+		}
+
+		// Zig-zag encoding, so that small negative numbers are short too
+		private void writeVarLong( long l ) {
+			l = (l << 1) ^ (l >> 63);
+			ensureCapacity( 10 );
+			while( (l & ~0x7FL) != 0 ) {
+				buffer[ count++ ] = (byte) ((l & 0x7F) | 0x80);
+				l >>>= 7;
+			}
+			buffer[ count++ ] = (byte) l;
+		}
+
+		private void writeInt( int i ) {
+			ensureCapacity( 4 );
+			buffer[ count++ ] = (byte) (i >>> 24);
+			buffer[ count++ ] = (byte) (i >>> 16);
+			buffer[ count++ ] = (byte) (i >>> 8);
+			buffer[ count++ ] = (byte) i;
+		}
+
+		private void writeLong( long l ) {
+			writeInt( (int) (l >>> 32) );
+			writeInt( (int) l );
+		}
+
+		private void ensureCapacity( int n ) {
+			if( count + n > buffer.length ) {
+				buffer = Arrays.copyOf( buffer, Math.max( buffer.length * 2, count + n ) );
+			}
+		}
+	}
+
+	private static class Decoder {
+		private final byte[] data;
+		private int position = 0;
+		private final List< Object > references = new ArrayList<>();
+		private final List< String > strings = new ArrayList<>();
+		private final List< Class< ? > > classes = new ArrayList<>();
+
+		private Decoder( byte[] data ) {
+			this.data = data;
+		}
+
+		private Object readValue()
+			throws IOException {
+			final int tag = readVarInt();
+			switch( tag ) {
+			case NULL:
+				return null;
+			case REFERENCE:
+				return references.get( readVarInt() );
+			case STRING:
+				return readNewString();
+			case STRING_REFERENCE:
+				return strings.get( readVarInt() );
+			case INTEGER:
+				return (int) readVarLong();
+			case LONG:
+				return readVarLong();
+			case DOUBLE:
+				return Double.longBitsToDouble( readLong() );
+			case BOOLEAN:
+				return readVarInt() != 0;
+			case ENUM:
+				return readEnum();
+			case UNDEFINED_TYPE:
+				return TypeDefinitionUndefined.getInstance();
+			default:
+				return readObject( tag );
+			}
+		}
+
+		/*
+		 * Reads a value that the encoder has given a reference to. Mutable collections and arrays are
+		 * registered before their content is read, objects and immutable collections only after. The
+		 * encoder rejects values whose content refers back to them, so no reference can be resolved
+		 * before its value is registered.
+		 */
+		private Object readObject( int tag )
+			throws IOException {
+			final int reference = references.size();
+			references.add( null );
+			switch( tag ) {
+			case URI_VALUE:
+				return register( reference, URI.create( readString() ) );
+			case ARRAY:
+				return readArray( reference );
+			case ARRAY_LIST:
+				return readElements( reference, new ArrayList<>() );
+			case LINKED_LIST:
+				return readElements( reference, new LinkedList<>() );
+			case IMMUTABLE_LIST:
+				return register( reference, List.copyOf( readElements( -1, new ArrayList<>() ) ) );
+			case UNMODIFIABLE_LIST:
+				return register( reference, Collections.unmodifiableList( readElements( -1, new ArrayList<>() ) ) );
+			case HASH_MAP:
+				return readEntries( reference, new HashMap<>() );
+			case LINKED_HASH_MAP:
+				return readEntries( reference, new LinkedHashMap<>() );
+			case TREE_MAP:
+				return readEntries( reference, new TreeMap<>() );
+			case IMMUTABLE_MAP:
+				return register( reference, Map.copyOf( readEntries( -1, new HashMap<>() ) ) );
+			case UNMODIFIABLE_MAP:
+				return register( reference, Collections.unmodifiableMap( readEntries( -1, new HashMap<>() ) ) );
+			case HASH_SET:
+				return readElements( reference, new HashSet<>() );
+			case LINKED_HASH_SET:
+				return readElements( reference, new LinkedHashSet<>() );
+			case TREE_SET:
+				return readElements( reference, new TreeSet<>() );
+			case IMMUTABLE_SET:
+				return register( reference, Set.copyOf( readElements( -1, new HashSet<>() ) ) );
+			case UNMODIFIABLE_SET:
+				return register( reference, Collections.unmodifiableSet( readElements( -1, new HashSet<>() ) ) );
+			case OBJECT:
+				return readFields( reference );
+			default:
+				throw new IOException( "Unknown tag " + tag );
+			}
+		}
+
+		private < T > T register( int reference, T value ) {
+			if( reference >= 0 ) {
+				references.set( reference, value );
+			}
+			return value;
+		}
+
+		private < C extends Collection< Object > > C readElements( int reference, C collection )
+			throws IOException {
+			register( reference, collection );
+			final int size = readVarInt();
+			for( int i = 0; i < size; i++ ) {
+				collection.add( readValue() );
+			}
+			return collection;
+		}
+
+		private < M extends Map< Object, Object > > M readEntries( int reference, M map )
+			throws IOException {
+			register( reference, map );
+			final int size = readVarInt();
+			for( int i = 0; i < size; i++ ) {
+				final Object key = readValue();
+				map.put( key, readValue() );
+			}
+			return map;
+		}
+
+		private Object readArray( int reference )
+			throws IOException {
+			final Class< ? > componentType = readClass();
+			final int length = readVarInt();
+			final Object array = register( reference, Array.newInstance( componentType, length ) );
+			for( int i = 0; i < length; i++ ) {
+				Array.set( array, i, readValue() );
+			}
+			return array;
+		}
+
+		@SuppressWarnings( { "unchecked", "rawtypes" } )
+		private Object readEnum()
+			throws IOException {
+			final Class< ? > type = readClass();
+			if( !type.isEnum() ) {
+				throw new IOException( type.getName() + " is not an enum" );
+			}
+			return Enum.valueOf( (Class< Enum >) type, readString() );
+		}
+
+		private Object readFields( int reference )
+			throws IOException {
+			final Class< ? > type = readClass();
+			final ClassLayout layout = layout( type );
+			final Object[] values = new Object[ layout.fields.length ];
+			for( int i = 0; i < values.length; i++ ) {
+				values[ i ] = readField( layout.fields[ i ].getType() );
+			}
+			final Object object = register( reference, layout.newInstance( values ) );
+			try {
+				for( int i = 0; i < values.length; i++ ) {
+					layout.fields[ i ].set( object, values[ i ] );
+				}
+			} catch( IllegalAccessException e ) {
+				throw new IOException( "Could not set a field of " + type.getName(), e );
+			}
+			return object;
+		}
+
+		private Object readField( Class< ? > type )
+			throws IOException {
+			if( !type.isPrimitive() ) {
+				return readValue();
+			} else if( type == int.class ) {
+				return (int) readVarLong();
+			} else if( type == boolean.class ) {
+				return readVarInt() != 0;
+			} else if( type == long.class ) {
+				return readVarLong();
+			} else if( type == double.class ) {
+				return Double.longBitsToDouble( readLong() );
+			} else if( type == char.class ) {
+				return (char) readVarInt();
+			} else if( type == byte.class ) {
+				return (byte) readVarLong();
+			} else if( type == short.class ) {
+				return (short) readVarLong();
+			} else {
+				return (float) Double.longBitsToDouble( readLong() );
+			}
+		}
+
+		private Class< ? > readClass()
+			throws IOException {
+			final int index = readVarInt();
+			if( index > 0 ) {
+				return classes.get( index - 1 );
+			}
+			final String name = readUTF8();
+			final int hash = readInt();
+			if( !isAllowed( name ) ) {
+				throw new IOException( "Class " + name + " is not part of the syntax tree" );
+			}
+			final Class< ? > type;
+			try {
+				type = Class.forName( name, false, ProgramCodec.class.getClassLoader() );
+			} catch( ClassNotFoundException e ) {
+				throw new IOException( "Unknown class " + name, e );
+			}
+			if( hash != layoutHash( type ) ) {
+				throw new IOException( "The fields of class " + name + " have changed" );
+			}
+			classes.add( type );
+			return type;
+		}
+
+		private String readString()
+			throws IOException {
+			final int tag = readVarInt();
+			if( tag == STRING ) {
+				return readNewString();
+			} else if( tag == STRING_REFERENCE ) {
+				return strings.get( readVarInt() );
+			}
+			throw new IOException( "Expected a string" );
+		}
+
+		private String readNewString() {
+			final String s = readUTF8();
+			strings.add( s );
+			return s;
+		}
+
+		private String readUTF8() {
+			final int length = readVarInt();
+			final String s = new String( data, position, length, StandardCharsets.UTF_8 );
+			position += length;
+			return s;
+		}
+
+		private int readVarInt() {
+			int result = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = data[ position++ ];
+				result |= (b & 0x7F) << shift;
+				shift += 7;
+			} while( (b & 0x80) != 0 );
+			return result;
+		}
+
+		private long readVarLong() {
+			long result = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = data[ position++ ];
+				result |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while( (b & 0x80) != 0 );
+			return (result >>> 1) ^ -(result & 1);
+		}
+
+		private int readInt() {
+			return ((data[ position++ ] & 0xFF) << 24) | ((data[ position++ ] & 0xFF) << 16)
+				| ((data[ position++ ] & 0xFF) << 8) | (data[ position++ ] & 0xFF);
+		}
+
+		private long readLong() {
+			return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+		}
+	}
+}
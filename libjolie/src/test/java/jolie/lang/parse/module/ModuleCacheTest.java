@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2026 Jolie contributors <https://www.jolie-lang.org>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.lang.parse.module;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.stream.Stream;
+import jolie.lang.parse.ParserException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ModuleCacheTest {
+	private static final URI MODULE_URI = URI.create( "file:///modules/main.ol" );
+	private static final String MODULE = "type A: void { a: string }\n"
+		+ "service Main { main { nullProcess } }\n";
+	private static final String CHANGED_MODULE = "type A: void { a: string }\n"
+		+ "type B: int\n"
+		+ "service Main { main { nullProcess } }\n";
+
+	private final ModuleParsingConfiguration configuration = new ModuleParsingConfiguration( "UTF-8",
+		new String[ 0 ], new String[ 0 ], ModuleCacheTest.class.getClassLoader(), new HashMap<>(), false );
+	private Path directory;
+	private ModuleCache cache;
+
+	@Before
+	public void setUp()
+		throws IOException {
+		directory = Files.createTempDirectory( "jolie-module-cache-test" );
+		cache = new ModuleCache( directory );
+	}
+
+	@After
+	public void tearDown()
+		throws IOException {
+		try( Stream< Path > paths = Files.walk( directory ) ) {
+			paths.sorted( Comparator.reverseOrder() ).forEach( path -> path.toFile().delete() );
+		}
+	}
+
+	private ModuleRecord parse( String source )
+		throws ParserException, IOException, ModuleException {
+		return new ModuleParser( configuration, Optional.of( cache ) )
+			.parse( new ByteArrayInputStream( source.getBytes( StandardCharsets.UTF_8 ) ), MODULE_URI );
+	}
+
+	private String key( String source ) {
+		return cache.key( configuration, MODULE_URI, source.getBytes( StandardCharsets.UTF_8 ) );
+	}
+
+	@Test
+	public void missStoresTheParsedModule()
+		throws ParserException, IOException, ModuleException {
+		assertFalse( cache.load( key( MODULE ) ).isPresent() );
+		final ModuleRecord record = parse( MODULE );
+		assertTrue( record.symbolTable().getSymbol( "A" ).isPresent() );
+		assertTrue( Files.isRegularFile( directory.resolve( key( MODULE ) ) ) );
+		assertTrue( cache.load( key( MODULE ) ).isPresent() );
+	}
+
+	@Test
+	public void hitReturnsTheStoredModule()
+		throws ParserException, IOException, ModuleException {
+		// Store the tree of another module under the key of MODULE, so that only a hit can return it
+		cache.store( key( MODULE ), parse( CHANGED_MODULE ).program() );
+		final ModuleRecord record = parse( MODULE );
+		assertTrue( record.symbolTable().getSymbol( "B" ).isPresent() );
+		assertTrue( record.symbolTable().getSymbol( "Main" ).isPresent() );
+	}
+
+	@Test
+	public void decodedModuleEncodesLikeTheParsedOne()
+		throws ParserException, IOException, ModuleException {
+		final byte[] data = ProgramCodec.encode( parse( MODULE ).program() );
+		assertArrayEquals( data, ProgramCodec.encode( ProgramCodec.decode( data ) ) );
+	}
+
+	@Test
+	public void changedSourceIsParsedAgain()
+		throws ParserException, IOException, ModuleException {
+		parse( MODULE );
+		final ModuleRecord record = parse( CHANGED_MODULE );
+		assertTrue( record.symbolTable().getSymbol( "B" ).isPresent() );
+		assertTrue( Files.isRegularFile( directory.resolve( key( CHANGED_MODULE ) ) ) );
+		assertFalse( parse( MODULE ).symbolTable().getSymbol( "B" ).isPresent() );
+	}
+
+	@Test
+	public void unreadableEntryIsAMiss()
+		throws ParserException, IOException, ModuleException {
+		Files.write( directory.resolve( key( MODULE ) ), new byte[] { 1, 2, 3 } );
+		assertFalse( cache.load( key( MODULE ) ).isPresent() );
+		assertTrue( parse( MODULE ).symbolTable().getSymbol( "A" ).isPresent() );
+		assertTrue( cache.load( key( MODULE ) ).isPresent() );
+	}
+
+	@Test
+	public void classesOutsideTheSyntaxTreeAreRejected()
+		throws IOException {
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		data.write( new byte[] { 0x4A, 0x4F, 0x4C, 0x50 } ); // magic
+		data.write( ProgramCodec.FORMAT_VERSION );
+		data.write( 4 ); // an object
+		data.write( 0 ); // of a class named here
+		final byte[] name = "java.util.Date".getBytes( StandardCharsets.UTF_8 );
+		data.write( name.length );
+		data.write( name );
+		data.write( new byte[ 4 ] ); // hash of the fields
+		try {
+			ProgramCodec.decode( data.toByteArray() );
+			fail( "java.util.Date was decoded" );
+		} catch( IOException e ) {
+			assertTrue( e.getMessage().contains( "java.util.Date" ) );
+		}
+
+		Files.write( directory.resolve( key( MODULE ) ), data.toByteArray() );
+		assertFalse( cache.load( key( MODULE ) ).isPresent() );
+	}
+}